@@ -15,6 +15,10 @@
  */
 package org.hippoecm.addon.workflow;
 
+import java.io.Serializable;
+import java.rmi.RemoteException;
+import java.util.Map;
+
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
@@ -26,6 +30,7 @@ import org.hippoecm.repository.api.HippoNodeType;
 import org.hippoecm.repository.api.HippoWorkspace;
 import org.hippoecm.repository.api.Workflow;
 import org.hippoecm.repository.api.WorkflowDescriptor;
+import org.hippoecm.repository.api.WorkflowException;
 import org.hippoecm.repository.api.WorkflowManager;
 import org.onehippo.repository.util.JcrConstants;
 
@@ -34,6 +39,7 @@ public class WorkflowDescriptorModel extends LoadableDetachableModel<WorkflowDes
     private String id;
     private String category;
     private transient Workflow workflow;
+    private transient Map<String, Serializable> hints;
 
     /**
      * deprecated: use the alternative constructor instead
@@ -76,6 +82,10 @@ public class WorkflowDescriptorModel extends LoadableDetachableModel<WorkflowDes
         }
     }
 
+    public String getCategory() {
+        return category;
+    }
+
     public Node getNode() throws RepositoryException {
         Session session = UserSession.get().getJcrSession();
         return getNode(session);
@@ -105,9 +115,26 @@ public class WorkflowDescriptorModel extends LoadableDetachableModel<WorkflowDes
         }
     }
 
+    /**
+     * Retrieves the hints of the workflow.  They are kept until the model is detached, so the workflow is asked
+     * for them only once per request.
+     *
+     * @return the hints of the workflow, or null when there is no workflow
+     */
+    public Map<String, Serializable> getHints() throws WorkflowException, RemoteException, RepositoryException {
+        if (hints == null) {
+            final Workflow workflow = getWorkflow();
+            if (workflow != null) {
+                hints = workflow.hints();
+            }
+        }
+        return hints;
+    }
+
     @Override
     protected void onDetach() {
         super.onDetach();
         workflow = null;
+        hints = null;
     }
 }
@@ -16,15 +16,19 @@
 package org.hippoecm.frontend.editor;
 
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Map;
 
+import org.apache.wicket.Component;
 import org.apache.wicket.markup.head.HeaderItem;
 import org.apache.wicket.markup.head.IHeaderResponse;
 import org.apache.wicket.markup.head.OnLoadHeaderItem;
 import org.apache.wicket.markup.html.form.Form;
 import org.apache.wicket.model.IDetachable;
 import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.Model;
 import org.apache.wicket.request.Response;
+import org.apache.wicket.request.resource.ResourceReference;
 import org.apache.wicket.util.io.IClusterable;
 import org.hippoecm.frontend.PluginRequestTarget;
 import org.hippoecm.frontend.model.ModelReference;
@@ -35,11 +39,14 @@ import org.hippoecm.frontend.plugin.config.IClusterConfig;
 import org.hippoecm.frontend.plugin.config.IPluginConfig;
 import org.hippoecm.frontend.plugin.config.IPluginConfigService;
 import org.hippoecm.frontend.plugin.config.impl.JavaPluginConfig;
+import org.hippoecm.frontend.plugins.standards.icon.HippoIcon;
 import org.hippoecm.frontend.service.EditorException;
 import org.hippoecm.frontend.service.IEditor;
 import org.hippoecm.frontend.service.IEditorFilter;
 import org.hippoecm.frontend.service.IFocusListener;
 import org.hippoecm.frontend.service.IRenderService;
+import org.hippoecm.frontend.service.ITitleDecorator;
+import org.hippoecm.frontend.service.IconSize;
 import org.hippoecm.frontend.service.ServiceContext;
 import org.hippoecm.frontend.service.ServiceTracker;
 import org.hippoecm.frontend.service.render.RenderService;
@@ -165,6 +172,7 @@ public abstract class AbstractCmsEditor<T> implements IEditor<T>, IDetachable, I
     private final String wicketId;
     private Mode mode;
     private boolean isActivated;
+    private Hibernation hibernation;
 
     public AbstractCmsEditor(final IEditorContext editorContext, final IPluginContext context, final IPluginConfig parameters,
                              final IModel<T> model, final Mode mode) throws EditorException {
@@ -394,6 +402,13 @@ public abstract class AbstractCmsEditor<T> implements IEditor<T>, IDetachable, I
 
     public void stop() {
         final String renderId = getRendererServiceId();
+        if (hibernation != null) {
+            context.unregisterService(hibernation, renderId);
+            context.unregisterService(this, renderId);
+            hibernation = null;
+            return;
+        }
+
         context.unregisterService(focusListener, renderId);
         context.unregisterService(this, renderId);
 
@@ -417,6 +432,52 @@ public abstract class AbstractCmsEditor<T> implements IEditor<T>, IDetachable, I
         focusListener = null;
     }
 
+    /**
+     * Stops the cluster of the editor, keeping only its model, its mode and the title of its tab.  The editor remains
+     * registered with its renderer, so it can still be found and closed through its tab.  When the renderer is
+     * focused, the editor is started again.
+     *
+     * @return true when the editor hibernates, false when it is not started or it has changes
+     */
+    public boolean hibernate() {
+        if (hibernation != null) {
+            return true;
+        }
+        if (cluster == null) {
+            return false;
+        }
+        try {
+            if (isModified()) {
+                return false;
+            }
+        } catch (final EditorException e) {
+            log.warn("Could not determine whether editor has changes, not hibernating it", e);
+            return false;
+        }
+
+        final String renderId = getRendererServiceId();
+        final Hibernation hibernation = new Hibernation(context.getService(renderId, ITitleDecorator.class));
+        stop();
+        context.registerService(this, renderId);
+        context.registerService(hibernation, renderId);
+        this.hibernation = hibernation;
+        return true;
+    }
+
+    public boolean isHibernated() {
+        return hibernation != null;
+    }
+
+    /**
+     * Starts a hibernating editor again.
+     */
+    public void wake() throws EditorException {
+        if (hibernation != null) {
+            stop();
+            start();
+        }
+    }
+
     protected String getRendererServiceId() {
         return context.getReference(renderer).getServiceId();
     }
@@ -455,6 +516,61 @@ public abstract class AbstractCmsEditor<T> implements IEditor<T>, IDetachable, I
         }
     }
 
+    /**
+     * Stands in for the title decorator of the stopped cluster and starts the editor again when its renderer is
+     * focused.  The title is kept, as are copies of the icons of the decorator; a tab gets a new copy of an icon
+     * each time it renders it.
+     */
+    private class Hibernation implements ITitleDecorator, IFocusListener {
+
+        // the id of the icons that are asked from the decorator, the copies get the id that the tab asks for
+        private static final String ICON_ID = "icon";
+
+        private final IModel<String> title;
+        private final Map<IconSize, HippoIcon> icons = new EnumMap<>(IconSize.class);
+
+        private Hibernation(final ITitleDecorator decorator) {
+            if (decorator != null) {
+                final IModel<String> decoratorTitle = decorator.getTitle();
+                title = Model.of(decoratorTitle != null ? decoratorTitle.getObject() : null);
+                for (final IconSize size : IconSize.values()) {
+                    final Component icon = decorator.getIcon(ICON_ID, size);
+                    if (icon instanceof HippoIcon) {
+                        icons.put(size, HippoIcon.copy((HippoIcon) icon, ICON_ID));
+                    }
+                }
+            } else {
+                title = null;
+            }
+        }
+
+        @Override
+        public IModel<String> getTitle() {
+            return title;
+        }
+
+        @Override
+        public ResourceReference getIcon(final IconSize type) {
+            return null;
+        }
+
+        @Override
+        public Component getIcon(final String id, final IconSize size) {
+            final HippoIcon icon = icons.get(size);
+            return icon != null ? HippoIcon.copy(icon, id) : null;
+        }
+
+        @Override
+        public void onFocus(final IRenderService renderService) {
+            try {
+                wake();
+            } catch (final EditorException e) {
+                log.error("Could not start hibernating editor", e);
+            }
+            editorContext.onFocus();
+        }
+    }
+
     private class EditorActivatedHeaderItem extends HeaderItem {
 
         @Override
@@ -15,16 +15,23 @@
  */
 package org.hippoecm.frontend.editor.compare;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
 import javax.jcr.Property;
+import javax.jcr.PropertyType;
 import javax.jcr.RepositoryException;
 import javax.jcr.Value;
 
 import org.apache.commons.lang.StringUtils;
-import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.request.cycle.RequestCycle;
 import org.hippoecm.frontend.editor.ITemplateEngine;
 import org.hippoecm.frontend.editor.TemplateEngineException;
 import org.hippoecm.frontend.types.IFieldDescriptor;
@@ -33,9 +40,20 @@ import org.onehippo.repository.util.JcrConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
 public class NodeComparer extends TypedComparer<Node> {
     static final Logger log = LoggerFactory.getLogger(NodeComparer.class);
 
+    private static final HashFunction DIGEST_FUNCTION = Hashing.murmur3_128();
+
+    private static final MetaDataKey<HashMap<String, HashCode>> DIGESTS = new MetaDataKey<HashMap<String, HashCode>>() {
+        private static final long serialVersionUID = 1L;
+    };
+
     private final ITemplateEngine templateEngine;
 
     /**
@@ -60,7 +78,19 @@ public class NodeComparer extends TypedComparer<Node> {
         } else if (baseNode == null || targetNode == null) {
             return false;
         }
+        final HashCode baseDigest = getDigest(baseNode);
+        final HashCode targetDigest = getDigest(targetNode);
         try {
+            if (baseDigest != null && targetDigest != null) {
+                if (baseDigest.equals(targetDigest)) {
+                    return true;
+                }
+                if (getNodeTypeName(baseNode).equals(getNodeTypeName(targetNode))) {
+                    // the digests hash the same fields, so a field differs
+                    return false;
+                }
+            }
+            // no digest, or digests of different types: compare the fields of the configured type
             for (Map.Entry<String, IFieldDescriptor> entry : getType().getFields().entrySet()) {
                 IFieldDescriptor field = entry.getValue();
                 String path = field.getPath();
@@ -141,57 +171,132 @@ public class NodeComparer extends TypedComparer<Node> {
         if (node == null) {
             return 0;
         }
-        final HashCodeBuilder hcb = new HashCodeBuilder();
+        final HashCode digest = getDigest(node);
+        return digest != null ? digest.asInt() : 0;
+    }
+
+    /**
+     * Returns the Merkle hash of a node: the hash of its fields, in which the compound fields are represented by the
+     * hashes of the child nodes.  Hashes are memoized for the duration of the request, so the children of nested
+     * compounds are hashed once, even though every level of compound fields compares its own items.
+     *
+     * @return the hash of the node, or null when it cannot be read
+     */
+    HashCode getDigest(Node node) {
         try {
-            ITypeDescriptor nodeTypeDescriptor = getNodeTypeDescriptor(node);
-            for (Map.Entry<String, IFieldDescriptor> entry : nodeTypeDescriptor.getFields().entrySet()) {
-                IFieldDescriptor field = entry.getValue();
-                String path = field.getPath();
-                if ("*".equals(path)) {
-                    log.debug("Path * not supported");
-                    continue;
+            final ITypeDescriptor nodeTypeDescriptor = getNodeTypeDescriptor(node);
+            final Map<String, HashCode> digests = getDigests();
+            if (digests == null) {
+                return computeDigest(node, nodeTypeDescriptor);
+            }
+            final String key = node.getIdentifier() + '|' + nodeTypeDescriptor.getName();
+            HashCode digest = digests.get(key);
+            if (digest == null) {
+                digest = computeDigest(node, nodeTypeDescriptor);
+                digests.put(key, digest);
+            }
+            return digest;
+        } catch (RepositoryException ex) {
+            log.error(ex.getMessage(), ex);
+            return null;
+        }
+    }
+
+    private HashCode computeDigest(final Node node, final ITypeDescriptor nodeTypeDescriptor) throws RepositoryException {
+        final Hasher hasher = DIGEST_FUNCTION.newHasher();
+        hasher.putString(nodeTypeDescriptor.getName(), StandardCharsets.UTF_8);
+        // fields are hashed in a fixed order, independent of the order of the field map
+        for (Map.Entry<String, IFieldDescriptor> entry : new TreeMap<>(nodeTypeDescriptor.getFields()).entrySet()) {
+            IFieldDescriptor field = entry.getValue();
+            String path = field.getPath();
+            if ("*".equals(path)) {
+                log.debug("Path * not supported");
+                continue;
+            }
+            hasher.putString(entry.getKey(), StandardCharsets.UTF_8);
+            if (field.getTypeDescriptor().isNode()) {
+                NodeComparer comparer = new NodeComparer(field.getTypeDescriptor(), templateEngine);
+                NodeIterator childIter = node.getNodes(path);
+                hasher.putLong(childIter.getSize());
+                while (childIter.hasNext()) {
+                    Node child = childIter.nextNode();
+                    hasher.putString(child.getName(), StandardCharsets.UTF_8);
+                    final HashCode childDigest = comparer.getDigest(child);
+                    if (childDigest != null) {
+                        hasher.putBytes(childDigest.asBytes());
+                    }
+                    if (!field.isMultiple()) {
+                        break;
+                    }
                 }
-                if (field.getTypeDescriptor().isNode()) {
-                    if (field.isMultiple()) {
-                        NodeIterator childIter = node.getNodes(path);
-                        while (childIter.hasNext()) {
-                            Node child = childIter.nextNode();
-                            hcb.append(child.getName());
-                            hcb.append(getHashCode(child));
-                        }
-                    } else {
-                        if (node.hasNode(path)) {
-                            Node child = node.getNode(path);
-                            hcb.append(child.getName());
-                            hcb.append(getHashCode(child));
-                        }
+            } else if (node.hasProperty(path)) {
+                Property prop = node.getProperty(path);
+                hasher.putString(prop.getName(), StandardCharsets.UTF_8);
+                if (prop.isMultiple()) {
+                    Value[] values = prop.getValues();
+                    hasher.putInt(values.length);
+                    for (Value value : values) {
+                        putValue(hasher, value);
                     }
                 } else {
-                    if (node.hasProperty(path)) {
-                        Property prop = node.getProperty(path);
-                        ValueComparer comparer = new ValueComparer(field.getTypeDescriptor());
-                        hcb.append(prop.getName());
-                        if (field.isMultiple()) {
-                            for (Value value : prop.getValues()) {
-                                hcb.append(comparer.getHashCode(value));
-                            }
-                        } else {
-                            hcb.append(comparer.getHashCode(prop.getValue()));
-                        }
-                    }
+                    putValue(hasher, prop.getValue());
                 }
             }
-        } catch (RepositoryException ex) {
-            log.error(ex.getMessage(), ex);
         }
-        return hcb.toHashCode();
+        return hasher.hash();
     }
-    private ITypeDescriptor getNodeTypeDescriptor(final Node node) throws RepositoryException {
-        final ITypeDescriptor configuredType = getType();
-        String nodeTypeName = node.getPrimaryNodeType().getName();
+
+    private static void putValue(final Hasher hasher, final Value value) throws RepositoryException {
+        hasher.putInt(value.getType());
+        switch (value.getType()) {
+            case PropertyType.BOOLEAN:
+                hasher.putBoolean(value.getBoolean());
+                break;
+            case PropertyType.LONG:
+                hasher.putLong(value.getLong());
+                break;
+            case PropertyType.BINARY:
+                try (InputStream stream = value.getBinary().getStream()) {
+                    final byte[] buffer = new byte[32 * 1024];
+                    int read;
+                    while ((read = stream.read(buffer)) != -1) {
+                        hasher.putBytes(buffer, 0, read);
+                    }
+                } catch (IOException ex) {
+                    throw new RepositoryException("Cannot read binary value", ex);
+                }
+                break;
+            default:
+                final String string = value.getString();
+                hasher.putInt(string.length());
+                hasher.putString(string, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, HashCode> getDigests() {
+        final RequestCycle requestCycle = RequestCycle.get();
+        if (requestCycle == null) {
+            return null;
+        }
+        HashMap<String, HashCode> digests = requestCycle.getMetaData(DIGESTS);
+        if (digests == null) {
+            digests = new HashMap<>();
+            requestCycle.setMetaData(DIGESTS, digests);
+        }
+        return digests;
+    }
+
+    private static String getNodeTypeName(final Node node) throws RepositoryException {
+        final String nodeTypeName = node.getPrimaryNodeType().getName();
         if (nodeTypeName.equals(JcrConstants.NT_FROZEN_NODE)) {
-            nodeTypeName = node.getProperty(JcrConstants.JCR_FROZEN_PRIMARY_TYPE).getString();
+            return node.getProperty(JcrConstants.JCR_FROZEN_PRIMARY_TYPE).getString();
         }
+        return nodeTypeName;
+    }
+
+    private ITypeDescriptor getNodeTypeDescriptor(final Node node) throws RepositoryException {
+        final ITypeDescriptor configuredType = getType();
+        final String nodeTypeName = getNodeTypeName(node);
         if (StringUtils.equals(configuredType.getName(), nodeTypeName)) {
             return configuredType;
         } else {
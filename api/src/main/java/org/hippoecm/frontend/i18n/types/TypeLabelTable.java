@@ -0,0 +1,142 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.hippoecm.frontend.i18n.types;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.Event;
+
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.LoadableDetachableModel;
+import org.hippoecm.frontend.observation.JcrChangeCounter;
+import org.hippoecm.frontend.session.UserSession;
+import org.hippoecm.repository.api.NodeNameCodec;
+import org.onehippo.cms7.services.HippoServiceRegistry;
+import org.onehippo.repository.l10n.LocalizationService;
+import org.onehippo.repository.l10n.ResourceBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application wide table of the labels of document types per locale.  A label is the "jcr:name" translation of the
+ * type, or else the name of the type's node in the namespace.  The table is cleared when the namespaces or the
+ * translations change.
+ */
+public final class TypeLabelTable {
+
+    private static final Logger log = LoggerFactory.getLogger(TypeLabelTable.class);
+
+    private static final String JCR_NAME = "jcr:name";
+    private static final String HIPPO_TYPES = "hippo:types";
+    static final String NAMESPACES_PATH = "/hippo:namespaces";
+    static final String TRANSLATIONS_PATH = "/hippo:configuration/hippo:translations";
+
+    static final int EVENT_TYPES = Event.NODE_ADDED | Event.NODE_REMOVED | Event.PROPERTY_ADDED
+            | Event.PROPERTY_CHANGED | Event.PROPERTY_REMOVED;
+
+    private static final ConcurrentMap<Locale, ConcurrentMap<String, String>> labels = new ConcurrentHashMap<>();
+    private static volatile long namespacesGeneration = -1;
+    private static volatile long translationsGeneration = -1;
+
+    private TypeLabelTable() {
+    }
+
+    /**
+     * @param type   the name of a document type, e.g. "myproject:newsdocument"
+     * @param locale the locale of the label
+     * @return the label of the type
+     */
+    public static String getLabel(final String type, final Locale locale) {
+        return getLabel(UserSession.get().getJcrSession(), type, locale);
+    }
+
+    static String getLabel(final Session session, final String type, final Locale locale) {
+        validate(session);
+        final ConcurrentMap<String, String> table = labels.computeIfAbsent(locale, key -> new ConcurrentHashMap<>());
+        String label = table.get(type);
+        if (label == null) {
+            label = loadLabel(session, type, locale);
+            table.put(type, label);
+        }
+        return label;
+    }
+
+    /**
+     * @return a model of the label of the type in the locale of the user
+     */
+    public static IModel<String> getLabelModel(final String type) {
+        return new LoadableDetachableModel<String>() {
+            @Override
+            protected String load() {
+                return getLabel(type, org.apache.wicket.Session.get().getLocale());
+            }
+        };
+    }
+
+    private static void validate(final Session session) {
+        try {
+            final long namespaces = JcrChangeCounter.get(NAMESPACES_PATH, EVENT_TYPES, true, null).getGeneration(session);
+            final long translations = JcrChangeCounter.get(TRANSLATIONS_PATH, EVENT_TYPES, true, null).getGeneration(session);
+            if (namespaces != namespacesGeneration || translations != translationsGeneration) {
+                labels.clear();
+                namespacesGeneration = namespaces;
+                translationsGeneration = translations;
+            }
+        } catch (RepositoryException e) {
+            log.warn("Cannot observe the namespaces and translations, clearing the type labels: {}", e.getMessage());
+            labels.clear();
+        }
+    }
+
+    private static String loadLabel(final Session session, final String type, final Locale locale) {
+        final LocalizationService service = HippoServiceRegistry.getService(LocalizationService.class);
+        if (service != null) {
+            final ResourceBundle bundle = service.getResourceBundle(getBundleName(type), locale);
+            if (bundle != null) {
+                final String translation = bundle.getString(JCR_NAME);
+                if (translation != null) {
+                    return translation;
+                }
+            }
+        }
+
+        final String path;
+        if (type.contains(":")) {
+            path = NAMESPACES_PATH + "/" + type.replace(':', '/');
+        } else {
+            path = NAMESPACES_PATH + "/system/" + type;
+        }
+        try {
+            if (session.nodeExists(path)) {
+                return NodeNameCodec.decode(session.getNode(path).getName());
+            }
+        } catch (RepositoryException e) {
+            log.error(e.getMessage());
+        }
+        return type;
+    }
+
+    static String getBundleName(String type) {
+        if (!type.contains(":")) {
+            type = "hipposys:" + type;
+        }
+        return HIPPO_TYPES + "." + type;
+    }
+}
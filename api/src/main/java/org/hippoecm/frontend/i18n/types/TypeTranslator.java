@@ -28,7 +28,6 @@ import org.hippoecm.frontend.i18n.TranslatorUtils;
 import org.hippoecm.frontend.model.JcrNodeModel;
 import org.hippoecm.frontend.model.nodetypes.JcrNodeTypeModel;
 import org.hippoecm.frontend.model.nodetypes.NodeTypeModelWrapper;
-import org.hippoecm.repository.api.NodeNameCodec;
 import org.onehippo.cms7.services.HippoServiceRegistry;
 import org.onehippo.repository.l10n.LocalizationService;
 import org.onehippo.repository.l10n.ResourceBundle;
@@ -40,8 +39,6 @@ public class TypeTranslator extends NodeTypeModelWrapper {
     final static Logger log = LoggerFactory.getLogger(TypeTranslator.class);
 
     private static final long serialVersionUID = 1L;
-    private static final String JCR_NAME = "jcr:name";
-    private static final String HIPPO_TYPES = "hippo:types";
 
     private TypeNameModel name;
     private transient boolean attached = false;
@@ -100,27 +97,7 @@ public class TypeTranslator extends NodeTypeModelWrapper {
 
         @Override
         protected String load() {
-
-            final String translation = getStringFromBundle(JCR_NAME);
-            if (translation != null) return translation;
-
-            String name = getNodeTypeModel().getType();
-
-            JcrNodeModel nodeModel = getNodeModel();
-            if (nodeModel == null) {
-                return name;
-            }
-            Node node = nodeModel.getNode();
-            if (node == null){
-                return name;
-            }
-
-            try {
-                name = NodeNameCodec.decode(node.getName());
-            } catch (RepositoryException ex) {
-                log.error(ex.getMessage());
-            }
-            return name;
+            return TypeLabelTable.getLabel(getNodeTypeModel().getType(), Session.get().getLocale());
         }
 
         void onDetachTranslator() {
@@ -136,11 +113,7 @@ public class TypeTranslator extends NodeTypeModelWrapper {
 
 
     private String getBundleName() {
-        String type = getNodeTypeModel().getType();
-        if (!type.contains(":")) {
-            type = "hipposys:" + type;
-        }
-        return HIPPO_TYPES + "." + type;
+        return TypeLabelTable.getBundleName(getNodeTypeModel().getType());
     }
 
     private String getStringFromBundle(final String key) {
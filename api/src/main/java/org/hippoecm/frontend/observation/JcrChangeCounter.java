@@ -0,0 +1,279 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hippoecm.frontend.observation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+import javax.jcr.observation.ObservationManager;
+
+import org.hippoecm.repository.api.SynchronousEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application wide counter of the changes in a subtree of the repository.  Caches that are shared by all sessions
+ * can compare the generation they were built at with the current generation to find out whether they are stale.
+ * <p>
+ * There is one JCR event listener per distinct combination of path, event types, depth, node types, property names
+ * and synchronicity.  The listener is asynchronous unless a synchronous counter is requested, which is only needed
+ * when a session must see the changes of its own save at its next refresh.  Either way, the listener does nothing
+ * but increment the generation, unless the counter is restricted to property names: then only property events of
+ * those properties and node events increment it.
+ * <p>
+ * The listeners are registered with a session of the application, so that they see the changes of nodes that the
+ * callers cannot read.  That session is logged in by the {@link SessionFactory} that the application sets at init and
+ * is shared by all counters.  When no factory is set, a listener is registered with the session of the caller
+ * instead.  When the listener session has been logged out, e.g. by {@link #logout()} when the application is
+ * destroyed, the listeners are registered again with a new one.  Since events may have been missed in the meantime,
+ * the generation is incremented on every registration.
+ */
+public final class JcrChangeCounter {
+
+    static final Logger log = LoggerFactory.getLogger(JcrChangeCounter.class);
+
+    private static final int PROPERTY_EVENTS = Event.PROPERTY_ADDED | Event.PROPERTY_CHANGED | Event.PROPERTY_REMOVED;
+
+    private static final ConcurrentMap<String, JcrChangeCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Logs in the session of the application that observes the changes.
+     */
+    @FunctionalInterface
+    public interface SessionFactory {
+
+        Session login() throws RepositoryException;
+    }
+
+    private static SessionFactory sessionFactory;
+    private static Session systemSession;
+
+    private final String absPath;
+    private final int eventTypes;
+    private final boolean deep;
+    private final String[] nodeTypes;
+    private final Set<String> propertyNames;
+    private final boolean synchronous;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Session listenerSession;
+
+    private JcrChangeCounter(final String absPath, final int eventTypes, final boolean deep, final String[] nodeTypes,
+                             final String[] propertyNames, final boolean synchronous) {
+        this.absPath = absPath;
+        this.eventTypes = eventTypes;
+        this.deep = deep;
+        this.nodeTypes = nodeTypes;
+        this.propertyNames = propertyNames == null ? null
+                : Collections.unmodifiableSet(new HashSet<>(Arrays.asList(propertyNames)));
+        this.synchronous = synchronous;
+    }
+
+    /**
+     * Returns the counter for the changes of the given event types below a path.
+     *
+     * @param absPath    the absolute path to observe
+     * @param eventTypes the JCR event types to observe
+     * @param deep       whether to observe the whole subtree or only the node at the path
+     * @param nodeTypes  the names of the node types of the parent nodes to observe, or null to observe all nodes
+     * @return the shared counter
+     */
+    public static JcrChangeCounter get(final String absPath, final int eventTypes, final boolean deep, final String[] nodeTypes) {
+        return get(absPath, eventTypes, deep, nodeTypes, null, false);
+    }
+
+    /**
+     * Returns the counter for the changes of the given event types below a path that is incremented in the thread
+     * that saves the changes.
+     *
+     * @see #get(String, int, boolean, String[])
+     */
+    public static JcrChangeCounter getSynchronous(final String absPath, final int eventTypes, final boolean deep, final String[] nodeTypes) {
+        return get(absPath, eventTypes, deep, nodeTypes, null, true);
+    }
+
+    /**
+     * Returns the counter for the node events and the events of the named properties below a path that is
+     * incremented in the thread that saves the changes.  Changes of other properties do not increment it.
+     *
+     * @param propertyNames the names of the properties to observe
+     * @see #getSynchronous(String, int, boolean, String[])
+     */
+    public static JcrChangeCounter getSynchronous(final String absPath, final int eventTypes, final boolean deep, final String[] nodeTypes,
+                                                  final String[] propertyNames) {
+        return get(absPath, eventTypes, deep, nodeTypes, propertyNames, true);
+    }
+
+    private static JcrChangeCounter get(final String absPath, final int eventTypes, final boolean deep, final String[] nodeTypes,
+                                        final String[] propertyNames, final boolean synchronous) {
+        final String key = absPath + '|' + eventTypes + '|' + deep + '|' + Arrays.toString(nodeTypes) + '|'
+                + Arrays.toString(propertyNames) + '|' + synchronous;
+        JcrChangeCounter counter = counters.get(key);
+        if (counter == null) {
+            counter = new JcrChangeCounter(absPath, eventTypes, deep, nodeTypes == null ? null : nodeTypes.clone(),
+                    propertyNames, synchronous);
+            final JcrChangeCounter existing = counters.putIfAbsent(key, counter);
+            if (existing != null) {
+                counter = existing;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Returns the current generation, making sure the changes are observed.
+     *
+     * @param session the session to observe the changes with when the application has no session factory
+     * @return the current generation
+     * @throws RepositoryException when the listener cannot be registered
+     */
+    public long getGeneration(final Session session) throws RepositoryException {
+        final Session current = listenerSession;
+        if (current == null || !current.isLive()) {
+            register(session);
+        }
+        return generation.get();
+    }
+
+    /**
+     * Increments the generation, e.g. after a change by the current session that should be visible right away,
+     * since the listener is notified asynchronously.
+     */
+    public void increment() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Sets the factory of the session that observes the changes, replacing the session of a previous factory.
+     *
+     * @param factory the factory, or null to observe with the sessions of the callers
+     */
+    public static synchronized void setSessionFactory(final SessionFactory factory) {
+        logout();
+        sessionFactory = factory;
+    }
+
+    /**
+     * @return whether the application has set a session factory
+     */
+    public static synchronized boolean hasSessionFactory() {
+        return sessionFactory != null;
+    }
+
+    /**
+     * Logs in a new session of the application, e.g. to build a shared cache from nodes that not all of its users can
+     * read.  The caller logs the session out.
+     *
+     * @return the new session, or null when the application has no session factory
+     * @throws RepositoryException when the session cannot be logged in
+     */
+    public static Session loginSystemSession() throws RepositoryException {
+        final SessionFactory factory;
+        synchronized (JcrChangeCounter.class) {
+            factory = sessionFactory;
+        }
+        return factory != null ? factory.login() : null;
+    }
+
+    /**
+     * Logs out the session of the application.  The listeners registered with it stop, and are registered again with
+     * a new session when the counters are used again.
+     */
+    public static synchronized void logout() {
+        if (systemSession != null) {
+            if (systemSession.isLive()) {
+                systemSession.logout();
+            }
+            systemSession = null;
+        }
+    }
+
+    private static synchronized Session getListenerSession(final Session session) throws RepositoryException {
+        if (sessionFactory == null) {
+            return session;
+        }
+        if (systemSession == null || !systemSession.isLive()) {
+            systemSession = sessionFactory.login();
+            log.debug("Observing changes with the session of '{}'", systemSession.getUserID());
+        }
+        return systemSession;
+    }
+
+    private synchronized void register(final Session session) throws RepositoryException {
+        final Session current = listenerSession;
+        if (current != null && current.isLive()) {
+            return;
+        }
+        final Session listenerSession = getListenerSession(session);
+        final ObservationManager obMgr = listenerSession.getWorkspace().getObservationManager();
+        final EventListener listener;
+        if (synchronous) {
+            listener = new SynchronousEventListener() {
+                @Override
+                public void onEvent(final EventIterator events) {
+                    if (isObserved(events)) {
+                        increment();
+                    }
+                }
+            };
+        } else {
+            listener = new EventListener() {
+                @Override
+                public void onEvent(final EventIterator events) {
+                    if (isObserved(events)) {
+                        increment();
+                    }
+                }
+            };
+        }
+        obMgr.addEventListener(listener, eventTypes, absPath, deep, null, nodeTypes, false);
+        this.listenerSession = listenerSession;
+        increment();
+        log.debug("Observing changes below '{}'", absPath);
+    }
+
+    boolean isObserved(final EventIterator events) {
+        if (propertyNames == null) {
+            return true;
+        }
+        while (events.hasNext()) {
+            final Event event = events.nextEvent();
+            if ((event.getType() & PROPERTY_EVENTS) == 0) {
+                return true;
+            }
+            try {
+                final String path = event.getPath();
+                if (propertyNames.contains(path.substring(path.lastIndexOf('/') + 1))) {
+                    return true;
+                }
+            } catch (RepositoryException e) {
+                log.debug("Cannot determine path of event, counting it as a change: {}", e.getMessage());
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -31,7 +31,6 @@ import java.util.Set;
 
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
-import javax.jcr.Property;
 import javax.jcr.RepositoryException;
 import javax.jcr.Value;
 import javax.jcr.observation.Event;
@@ -200,6 +199,7 @@ public class JcrPluginConfig extends AbstractValueMap implements IPluginConfig,
     private JcrMap map;
     private Map<JcrNodeModel, JcrPluginConfig> childConfigs;
     private transient Set<Map.Entry<String, Object>> entries;
+    private transient PluginConfigSnapshot snapshot;
 
     public JcrPluginConfig(JcrNodeModel nodeModel) {
         if (nodeModel == null) {
@@ -245,9 +245,9 @@ public class JcrPluginConfig extends AbstractValueMap implements IPluginConfig,
     @Override
     public boolean getBoolean(String key) throws StringValueConversionException {
         try {
-            Property property = getProperty(key);
-            if (property != null) {
-                return property.getBoolean();
+            PluginConfigSnapshot.Values values = getValues(key);
+            if (values != null) {
+                return values.getValue().getBoolean();
             }
         } catch (RepositoryException ex) {
             log.error(ex.getMessage());
@@ -263,9 +263,9 @@ public class JcrPluginConfig extends AbstractValueMap implements IPluginConfig,
     @Override
     public double getDouble(String key, double defaultValue) throws StringValueConversionException {
         try {
-            Property property = getProperty(key);
-            if (property != null) {
-                return property.getDouble();
+            PluginConfigSnapshot.Values values = getValues(key);
+            if (values != null) {
+                return values.getValue().getDouble();
             }
         } catch (RepositoryException ex) {
             log.error(ex.getMessage());
@@ -281,9 +281,9 @@ public class JcrPluginConfig extends AbstractValueMap implements IPluginConfig,
     @Override
     public int getInt(String key, int defaultValue) throws StringValueConversionException {
         try {
-            Property property = getProperty(key);
-            if (property != null) {
-                return (int) property.getLong();
+            PluginConfigSnapshot.Values values = getValues(key);
+            if (values != null) {
+                return (int) values.getValue().getLong();
             }
         } catch (RepositoryException ex) {
             log.error(ex.getMessage());
@@ -299,9 +299,9 @@ public class JcrPluginConfig extends AbstractValueMap implements IPluginConfig,
     @Override
     public long getLong(String key, long defaultValue) throws StringValueConversionException {
         try {
-            Property property = getProperty(key);
-            if (property != null) {
-                return property.getLong();
+            PluginConfigSnapshot.Values values = getValues(key);
+            if (values != null) {
+                return values.getValue().getLong();
             }
         } catch (RepositoryException ex) {
             log.error(ex.getMessage());
@@ -312,10 +312,10 @@ public class JcrPluginConfig extends AbstractValueMap implements IPluginConfig,
     @Override
     public String getKey(String key) {
         try {
-            Property property = getProperty(key);
-            if (property != null) {
-                if (!property.getDefinition().isMultiple()) {
-                    return property.getString();
+            PluginConfigSnapshot.Values values = getValues(key);
+            if (values != null) {
+                if (!values.isMultiple()) {
+                    return values.getValue().getString();
                 } else {
                     log.warn("Property is multiple");
                 }
@@ -343,18 +343,18 @@ public class JcrPluginConfig extends AbstractValueMap implements IPluginConfig,
     @Override
     public String[] getStringArray(String key) {
         try {
-            Property property = getProperty(key);
-            if (property != null) {
-                if (property.getDefinition().isMultiple()) {
-                    Value[] values = property.getValues();
-                    String[] result = new String[values.length];
+            PluginConfigSnapshot.Values values = getValues(key);
+            if (values != null) {
+                if (values.isMultiple()) {
+                    Value[] multiple = values.getValues();
+                    String[] result = new String[multiple.length];
                     int i = 0;
-                    for (Value value : values) {
+                    for (Value value : multiple) {
                         result[i++] = value.getString();
                     }
                     return result;
                 } else {
-                    return new String[] { property.getValue().getString() };
+                    return new String[] { values.getValue().getString() };
                 }
             }
         } catch (RepositoryException ex) {
@@ -516,11 +516,15 @@ public class JcrPluginConfig extends AbstractValueMap implements IPluginConfig,
         return new ConfigMap(value);
     }
 
-    private Property getProperty(String key) throws RepositoryException {
+    private PluginConfigSnapshot.Values getValues(String key) throws RepositoryException {
         Node node = nodeModel.getNode();
         if (node != null) {
+            snapshot = PluginConfigSnapshot.get(node, snapshot);
+            if (snapshot != null) {
+                return snapshot.getValues(key);
+            }
             if (node.hasProperty(key)) {
-                return node.getProperty(key);
+                return PluginConfigSnapshot.Values.of(node.getProperty(key));
             }
         } else {
             log.warn("Node model is not valid");
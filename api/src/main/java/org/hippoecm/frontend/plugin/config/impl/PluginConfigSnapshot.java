@@ -0,0 +1,202 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.hippoecm.frontend.plugin.config.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.PropertyType;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import javax.jcr.ValueFactory;
+import javax.jcr.ValueFormatException;
+import javax.jcr.observation.Event;
+
+import org.apache.jackrabbit.value.ValueFactoryImpl;
+import org.hippoecm.frontend.observation.JcrChangeCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Immutable copy of the properties of a plugin configuration node.  The copies of the nodes below
+ * {@value #FRONTEND_PATH} are kept once per application and shared by all sessions, as every session reads the same
+ * frontend configuration.  They are made again when anything below that path has changed, which is counted by one
+ * application wide listener.
+ * <p>
+ * A plugin configuration keeps the snapshot of its node, so that a read only has to compare the generation of the
+ * snapshot with the current one.  The plugin configurations still observe their own nodes to notify their plugins.
+ * Nodes with transient changes, and nodes elsewhere in the repository, are read directly.
+ */
+final class PluginConfigSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(PluginConfigSnapshot.class);
+
+    static final String FRONTEND_PATH = "/hippo:configuration/hippo:frontend";
+
+    private static final int EVENT_TYPES = Event.NODE_ADDED | Event.NODE_REMOVED | Event.PROPERTY_ADDED
+            | Event.PROPERTY_CHANGED | Event.PROPERTY_REMOVED;
+
+    private static final JcrChangeCounter counter = JcrChangeCounter.getSynchronous(FRONTEND_PATH, EVENT_TYPES, true,
+            null);
+
+    private static final Cache<String, PluginConfigSnapshot> snapshots = CacheBuilder.newBuilder()
+            .maximumSize(20000)
+            .build();
+
+    /**
+     * The value or values of a property.
+     */
+    static final class Values {
+
+        private final boolean multiple;
+        private final Value[] values;
+
+        private Values(final boolean multiple, final Value[] values) {
+            this.multiple = multiple;
+            this.values = values;
+        }
+
+        static Values of(final Property property) throws RepositoryException {
+            if (property.getDefinition().isMultiple()) {
+                return new Values(true, property.getValues());
+            }
+            return new Values(false, new Value[]{property.getValue()});
+        }
+
+        boolean isMultiple() {
+            return multiple;
+        }
+
+        /**
+         * @return the value of a single valued property
+         * @throws ValueFormatException when the property is multiple, like {@link Property#getValue()}
+         */
+        Value getValue() throws ValueFormatException {
+            if (multiple) {
+                throw new ValueFormatException("Property is multiple");
+            }
+            return values[0];
+        }
+
+        Value[] getValues() {
+            return values.clone();
+        }
+    }
+
+    private final String identifier;
+    private final long generation;
+    private final Map<String, Values> properties;
+
+    private PluginConfigSnapshot(final Node node, final String identifier, final long generation)
+            throws RepositoryException {
+        this.identifier = identifier;
+        this.generation = generation;
+
+        final ValueFactory valueFactory = ValueFactoryImpl.getInstance();
+        final Map<String, Values> properties = new HashMap<>();
+        for (PropertyIterator iter = node.getProperties(); iter.hasNext(); ) {
+            final Property property = iter.nextProperty();
+            final Values live = Values.of(property);
+            final Value[] copies = new Value[live.values.length];
+            for (int i = 0; i < copies.length; i++) {
+                copies[i] = copy(valueFactory, live.values[i]);
+            }
+            properties.put(property.getName(), new Values(live.multiple, copies));
+        }
+        this.properties = Collections.unmodifiableMap(properties);
+    }
+
+    /**
+     * Returns the snapshot of a plugin configuration node.  A caller that keeps the snapshot it got before only
+     * compares its generation with the current one, until the node is changed.
+     *
+     * @param node     the plugin configuration node
+     * @param previous the snapshot of the node that the caller got before, or null
+     * @return the current snapshot, or null when the node must be read directly
+     */
+    static PluginConfigSnapshot get(final Node node, final PluginConfigSnapshot previous) throws RepositoryException {
+        if (previous != null && !node.isModified() && previous.generation == getGeneration(node)
+                && previous.identifier.equals(node.getIdentifier())) {
+            return previous;
+        }
+        if (!isShared(node)) {
+            return null;
+        }
+        try {
+            return get(node);
+        } catch (RepositoryException e) {
+            log.warn("Cannot share the configuration of '{}', reading it directly: {}", node.getPath(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the values of a property, or null when there is no such property
+     */
+    Values getValues(final String key) {
+        return properties.get(key);
+    }
+
+    private static boolean isShared(final Node node) throws RepositoryException {
+        final String path = node.getPath();
+        return (path.equals(FRONTEND_PATH) || path.startsWith(FRONTEND_PATH + "/"))
+                && !node.isNew() && !node.isModified();
+    }
+
+    private static long getGeneration(final Node node) throws RepositoryException {
+        return counter.getGeneration(node.getSession());
+    }
+
+    private static PluginConfigSnapshot get(final Node node) throws RepositoryException {
+        final long generation = getGeneration(node);
+        final String identifier = node.getIdentifier();
+        PluginConfigSnapshot snapshot = snapshots.getIfPresent(identifier);
+        if (snapshot == null || snapshot.generation != generation) {
+            snapshot = new PluginConfigSnapshot(node, identifier, generation);
+            snapshots.put(identifier, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Copies a value into one that does not depend on the session.  Names, paths, references and binaries are copied
+     * as strings; configuration is only read as strings, booleans and numbers.
+     */
+    private static Value copy(final ValueFactory valueFactory, final Value value) throws RepositoryException {
+        switch (value.getType()) {
+            case PropertyType.BOOLEAN:
+                return valueFactory.createValue(value.getBoolean());
+            case PropertyType.LONG:
+                return valueFactory.createValue(value.getLong());
+            case PropertyType.DOUBLE:
+                return valueFactory.createValue(value.getDouble());
+            case PropertyType.DECIMAL:
+                return valueFactory.createValue(value.getDecimal());
+            case PropertyType.DATE:
+                return valueFactory.createValue(value.getDate());
+            default:
+                return valueFactory.createValue(value.getString());
+        }
+    }
+
+}
@@ -33,6 +33,7 @@ import org.apache.wicket.util.string.Strings;
 import org.hippoecm.frontend.editor.plugins.resource.MimeTypeHelper;
 import org.hippoecm.frontend.editor.plugins.resource.ResourceHelper;
 import org.hippoecm.frontend.plugins.gallery.model.GalleryException;
+import org.hippoecm.frontend.plugins.yui.upload.UploadMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,6 +65,17 @@ public class ImageBinary implements Binary {
     }
 
     public ImageBinary(final Node parent, final InputStream stream, final String fileName, String mimeType) throws GalleryException {
+        this(parent, stream, fileName, mimeType, null);
+    }
+
+    /**
+     * Creates an image binary for an upload of which the image information has been collected while it was
+     * uploaded, so the image does not have to be read again to determine its MIME type and color model.
+     *
+     * @param metadata the metadata of the upload, or null when unknown
+     */
+    public ImageBinary(final Node parent, final InputStream stream, final String fileName, String mimeType,
+                       final UploadMetadata metadata) throws GalleryException {
 
         try {
             binary = ResourceHelper.getValueFactory(parent).createBinary(stream);
@@ -78,11 +90,21 @@ public class ImageBinary implements Binary {
             this.mimeType = MimeTypeHelper.MIME_TYPE_SVG;
             this.colorModel = ColorModel.UNKNOWN;
         } else {
-            final ImageInfo info = createImageInfo();
+            final boolean probed = metadata != null && metadata.hasImageInfo();
+            final String detectedMimeType;
+            final int colorType;
+            if (probed) {
+                detectedMimeType = metadata.getImageMimeType();
+                colorType = metadata.getColorType();
+            } else {
+                final ImageInfo info = createImageInfo();
+                detectedMimeType = info.getMimeType();
+                colorType = info.getColorType();
+            }
 
-            this.mimeType = MimeTypeHelper.sanitizeMimeType(Strings.isEmpty(mimeType) ? info.getMimeType() : mimeType);
+            this.mimeType = MimeTypeHelper.sanitizeMimeType(Strings.isEmpty(mimeType) ? detectedMimeType : mimeType);
             try {
-                colorModel = parseColorModel(info);
+                colorModel = parseColorModel(colorType, probed ? metadata.isYCCK() : null);
             } catch (RepositoryException e) {
                 die("Failed to parse color model", e);
             }
@@ -131,11 +153,12 @@ public class ImageBinary implements Binary {
 
     /**
      * Currently only JPEG metadata is detected, al others formats are expected to be in the RGB color profile.
-     * @param info Sanselan image metadata
+     * @param colorType Sanselan color type of the image
+     * @param ycck whether a CMYK image is actually YCCK, or null when it has not been checked yet
      */
-    private ColorModel parseColorModel(final ImageInfo info) throws RepositoryException {
+    private ColorModel parseColorModel(final int colorType, final Boolean ycck) throws RepositoryException {
         if (MimeTypeHelper.isJpegMimeType(mimeType)) {
-            switch(info.getColorType()) {
+            switch(colorType) {
                 case ImageInfo.COLOR_TYPE_RGB:
                     return ColorModel.RGB;
                 case ImageInfo.COLOR_TYPE_BW:
@@ -144,7 +167,8 @@ public class ImageBinary implements Binary {
                     return ColorModel.RGB;
                 case ImageInfo.COLOR_TYPE_CMYK:
                     //Sanselan detects YCCK as CMYK so do a custom check
-                    return isYCCK() ? ColorModel.YCCK : ColorModel.CMYK;
+                    final boolean isYCCK = ycck != null ? ycck : isYCCK();
+                    return isYCCK ? ColorModel.YCCK : ColorModel.CMYK;
                 default:
                     return ColorModel.UNKNOWN;
             }
@@ -26,6 +26,7 @@ import org.apache.wicket.markup.html.panel.Panel;
 import org.apache.wicket.util.upload.FileItem;
 import org.hippoecm.frontend.plugin.config.IPluginConfig;
 import org.hippoecm.frontend.plugins.jquery.upload.behaviors.FileUploadInfo;
+import org.hippoecm.frontend.plugins.jquery.upload.behaviors.UploadTask;
 import org.hippoecm.frontend.plugins.yui.upload.validation.FileUploadValidationService;
 import org.hippoecm.frontend.validation.IValidationResult;
 import org.hippoecm.frontend.validation.ValidationException;
@@ -38,7 +39,8 @@ import org.slf4j.LoggerFactory;
  * When uploading a file, the widget should provide the following events in sequence:
  * <ul>
  *     <li>{@link #onBeforeUpload(FileUploadInfo)}</li>
- *     <li>{@link #onFileUpload(FileUpload fileUpload)}</li>
+ *     <li>{@link #onFileUpload(FileUpload fileUpload)}, or {@link #prepare(FileUpload)} when the widget
+ *     {@link #isConcurrent() is concurrent}</li>
  *     <li>{@link #onUploadError(FileUploadInfo)}</li>
  *     <li>{@link #onAfterUpload(FileItem, FileUploadInfo)}</li>
  * </ul>
@@ -67,6 +69,18 @@ public abstract class AbstractFileUploadWidget extends Panel {
      * @throws FileUploadViolationException
      */
     protected void process(FileUpload fileUpload) throws FileUploadViolationException {
+        validate(fileUpload);
+        onFileUpload(fileUpload);
+    }
+
+    /**
+     * Validate file upload item against the file upload validation service defined in
+     * {@link #AbstractFileUploadWidget(String, IPluginConfig, FileUploadValidationService)}
+     *
+     * @param fileUpload
+     * @throws FileUploadViolationException if the file is not valid
+     */
+    protected void validate(FileUpload fileUpload) throws FileUploadViolationException {
         try {
             validator.validate(fileUpload);
         } catch (ValidationException e) {
@@ -75,9 +89,7 @@ public abstract class AbstractFileUploadWidget extends Panel {
         }
 
         IValidationResult result = validator.getValidationResult();
-        if (result.isValid()){
-            onFileUpload(fileUpload);
-        } else {
+        if (!result.isValid()) {
             List<String> errors = new ArrayList<>();
             result.getViolations().forEach(violation -> errors.add(violation.getMessage().getObject()));
             throw new FileUploadViolationException(errors);
@@ -102,6 +114,29 @@ public abstract class AbstractFileUploadWidget extends Panel {
      */
     protected abstract void onFileUpload(FileUpload fileUpload) throws FileUploadViolationException;
 
+    /**
+     * Whether the files of one upload request are stored concurrently by the tasks of {@link #prepare(FileUpload)}.
+     * Only widgets that send several files in one request should return true.
+     */
+    protected boolean isConcurrent() {
+        return false;
+    }
+
+    /**
+     * Prepares an uploaded file on the request thread when the widget {@link #isConcurrent() is concurrent}. The
+     * returned task stores the file in a worker thread, so it must not use components, models or the session of the
+     * user. By default the file is processed right away by {@link #process(FileUpload)}.
+     *
+     * @param fileUpload
+     * @return the task that stores the file, or null if the file has been processed already
+     * @throws FileUploadViolationException
+     * @see UploadTask
+     */
+    protected UploadTask prepare(FileUpload fileUpload) throws FileUploadViolationException {
+        process(fileUpload);
+        return null;
+    }
+
     /**
      * The event is fired when there is an error during processing uploaded file.
      * @param fileUploadInfo
@@ -27,8 +27,10 @@ public class FileUploadWidgetSettings implements IClusterable {
     public static final String MAX_FILESIZE_PROP = "max.file.size";
     public static final String FILEUPLOAD_MAX_ITEMS = "fileupload.maxItems";
     public static final String AUTOUPLOAD_PROP = "autoUpload";
+    public static final String FILEUPLOAD_ITEMS_PER_REQUEST = "fileupload.itemsPerRequest";
 
     private static final long DEFAULT_MAX_NUMBER_OF_FILES = 25;
+    private static final int DEFAULT_ITEMS_PER_REQUEST = 1;
 
     private long maxWidth;
     private long maxHeight;
@@ -36,6 +38,7 @@ public class FileUploadWidgetSettings implements IClusterable {
     private String uploadUrl;
     private String uploadDoneNotificationUrl;
     private long maxNumberOfFiles;
+    private int itemsPerRequest;
     private String[] allowedExtensions;
     private boolean autoUpload;
     private String selectionChangeNotificationUrl;
@@ -51,6 +54,7 @@ public class FileUploadWidgetSettings implements IClusterable {
         this.maxWidth = pluginConfig.getAsLong(MAX_WIDTH_PROP, ImageUploadValidationService.DEFAULT_MAX_WIDTH);
         this.maxHeight = pluginConfig.getAsLong(MAX_HEIGHT_PROP, ImageUploadValidationService.DEFAULT_MAX_HEIGHT);
         this.maxNumberOfFiles = pluginConfig.getAsLong(FILEUPLOAD_MAX_ITEMS, DEFAULT_MAX_NUMBER_OF_FILES);
+        this.itemsPerRequest = Math.max(1, pluginConfig.getAsInteger(FILEUPLOAD_ITEMS_PER_REQUEST, DEFAULT_ITEMS_PER_REQUEST));
     }
 
     /**
@@ -113,6 +117,16 @@ public class FileUploadWidgetSettings implements IClusterable {
         return maxNumberOfFiles;
     }
 
+    /**
+     * The maximal number of files sent in one upload request, configured by {@value #FILEUPLOAD_ITEMS_PER_REQUEST}.
+     * The files of one request can be processed concurrently by the server, but the browser only reports the
+     * progress of the request as a whole. Defaults to one file per request, which leaves concurrent processing off;
+     * the gallery upload dialogs are configured with four. This setting is used for multi-files uploads only.
+     */
+    public int getItemsPerRequest() {
+        return itemsPerRequest;
+    }
+
     public String[] getAllowedExtensions(){
         return this.allowedExtensions;
     }
@@ -16,9 +16,17 @@
 
 package org.hippoecm.frontend.plugins.jquery.upload.behaviors;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.SimpleCredentials;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.wicket.Application;
@@ -42,6 +50,8 @@ import org.apache.wicket.util.upload.FileItem;
 import org.apache.wicket.util.upload.FileUploadException;
 import org.hippoecm.frontend.plugins.jquery.upload.FileUploadViolationException;
 import org.hippoecm.frontend.plugins.jquery.upload.TemporaryFileItem;
+import org.hippoecm.frontend.plugins.yui.upload.ProbedFileUpload;
+import org.hippoecm.frontend.session.UserSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,6 +66,16 @@ import static org.apache.commons.lang.StringEscapeUtils.escapeHtml;
  *     <li>{@link #onUploadError(FileUploadInfo)}</li>
  *     <li>{@link #onAfterUpload(FileItem, FileUploadInfo)}</li>
  * </ul>
+ * The files of one request are processed one after another on the request thread, unless {@link #isConcurrent()}
+ * is true; then {@link #prepare(FileUpload)} is called instead of {@link #process(FileUpload)}, and the
+ * {@link UploadTask} it returns runs in a worker of the {@link UploadProcessor}:
+ * <ul>
+ *     <li>{@link #onBeforeUpload(FileUploadInfo)}</li>
+ *     <li>{@link #prepare(FileUpload)}</li>
+ *     <li>{@link UploadTask#run(javax.jcr.Session)}, in a worker thread</li>
+ *     <li>{@link #onUploadError(FileUploadInfo)}</li>
+ *     <li>{@link #onAfterUpload(FileItem, FileUploadInfo)}</li>
+ * </ul>
  */
 public abstract class AjaxFileUploadBehavior extends AbstractAjaxBehavior {
     private static final Logger log = LoggerFactory.getLogger(AjaxFileUploadBehavior.class);
@@ -80,23 +100,22 @@ public abstract class AjaxFileUploadBehavior extends AbstractAjaxBehavior {
             multipartServletWebRequest.parseFileParts();
 
             Map<String, FileUploadInfo> allUploadedFiles = new HashMap<>();
-            // try to upload all files
-            for (List<FileItem> files : multipartServletWebRequest.getFiles().values()) {
-                for (FileItem file : files) {
+            List<FileItem> allFiles = new ArrayList<>();
+            multipartServletWebRequest.getFiles().values().forEach(allFiles::addAll);
+            if (allFiles.size() > 1 && isConcurrent()) {
+                processConcurrently(allFiles, allUploadedFiles);
+            } else {
+                // try to upload all files
+                for (FileItem file : allFiles) {
                     // save file info prior uploading because temporary files may be deleted,
                     // thus their file sizes won't be correct.
                     FileUploadInfo fileUploadInfo = new FileUploadInfo(file.getName(), file.getSize());
                     onBeforeUpload(fileUploadInfo);
                     try {
                         log.debug("Processed a file: {}", file.getName());
-                        process(new FileUpload(file));
+                        process(new ProbedFileUpload(file));
                     } catch (FileUploadViolationException e) {
-                        e.getViolationMessages().forEach(errorMsg -> fileUploadInfo.addErrorMessage(errorMsg));
-                        if (log.isDebugEnabled()) {
-                            log.debug("Uploading file '{}' has some violation: {}", file.getName(),
-                                    StringUtils.join(fileUploadInfo.getErrorMessages().toArray(), ";"), e);
-                        }
-                        onUploadError(fileUploadInfo);
+                        onViolation(file, fileUploadInfo, e);
                     } finally {
                         // remove from cache
                         file.delete();
@@ -113,6 +132,111 @@ public abstract class AjaxFileUploadBehavior extends AbstractAjaxBehavior {
         }
     }
 
+    /**
+     * Prepares the files on the request thread and hands their tasks to the {@link UploadProcessor}.  Each task gets
+     * a session of its own, impersonated from the session of the user on the request thread, because the session of
+     * the user is not safe to use by several threads.  The results are handled on the request thread in the order in
+     * which the files are done.
+     */
+    private void processConcurrently(final List<FileItem> files, final Map<String, FileUploadInfo> allUploadedFiles) {
+        final javax.jcr.Session userSession = UserSession.get().getJcrSession();
+        final String userId = userSession.getUserID();
+        final CompletionService<Void> completionService =
+                new ExecutorCompletionService<>(UploadProcessor.getInstance().getExecutor(userId));
+
+        final Map<Future<Void>, FileItem> submitted = new HashMap<>();
+        final Map<FileItem, UploadTask> tasks = new HashMap<>();
+        final Map<FileItem, FileUploadInfo> fileUploadInfos = new HashMap<>();
+        for (FileItem file : files) {
+            final FileUploadInfo fileUploadInfo = new FileUploadInfo(file.getName(), file.getSize());
+            onBeforeUpload(fileUploadInfo);
+            final javax.jcr.Session session;
+            final UploadTask task;
+            try {
+                session = userSession.impersonate(new SimpleCredentials(userId, new char[]{}));
+            } catch (RepositoryException e) {
+                log.error("Cannot process file '{}'", file.getName(), e);
+                onViolation(file, fileUploadInfo, new FileUploadViolationException(String.valueOf(e.getMessage())));
+                afterUpload(file, fileUploadInfo, allUploadedFiles);
+                continue;
+            }
+            try {
+                task = prepare(new ProbedFileUpload(file));
+            } catch (FileUploadViolationException e) {
+                session.logout();
+                onViolation(file, fileUploadInfo, e);
+                afterUpload(file, fileUploadInfo, allUploadedFiles);
+                continue;
+            }
+            if (task == null) {
+                session.logout();
+                log.debug("Processed a file: {}", file.getName());
+                afterUpload(file, fileUploadInfo, allUploadedFiles);
+                continue;
+            }
+            tasks.put(file, task);
+            fileUploadInfos.put(file, fileUploadInfo);
+            submitted.put(completionService.submit(() -> {
+                try {
+                    task.run(session);
+                    log.debug("Processed a file: {}", file.getName());
+                    return null;
+                } finally {
+                    session.logout();
+                }
+            }), file);
+        }
+
+        boolean interrupted = false;
+        while (!submitted.isEmpty()) {
+            final Future<Void> done;
+            try {
+                done = completionService.take();
+            } catch (InterruptedException e) {
+                // the workers still use the temporary files, so wait for them anyway
+                interrupted = true;
+                continue;
+            }
+            final FileItem file = submitted.remove(done);
+            final UploadTask task = tasks.get(file);
+            final FileUploadInfo fileUploadInfo = fileUploadInfos.get(file);
+            try {
+                done.get();
+                task.onSuccess();
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (!(cause instanceof FileUploadViolationException)) {
+                    log.error("Error processing file '{}'", file.getName(), cause);
+                }
+                onViolation(file, fileUploadInfo, task.onFailure(cause instanceof Exception ? (Exception) cause : e));
+            } catch (InterruptedException e) {
+                // cannot happen, the task is done
+                interrupted = true;
+            }
+            afterUpload(file, fileUploadInfo, allUploadedFiles);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void afterUpload(final FileItem file, final FileUploadInfo fileUploadInfo,
+                             final Map<String, FileUploadInfo> allUploadedFiles) {
+        // remove from cache
+        file.delete();
+        onAfterUpload(file, fileUploadInfo);
+        allUploadedFiles.put(file.getName(), fileUploadInfo);
+    }
+
+    private void onViolation(final FileItem file, final FileUploadInfo fileUploadInfo, final FileUploadViolationException e) {
+        e.getViolationMessages().forEach(errorMsg -> fileUploadInfo.addErrorMessage(errorMsg));
+        if (log.isDebugEnabled()) {
+            log.debug("Uploading file '{}' has some violation: {}", file.getName(),
+                    StringUtils.join(fileUploadInfo.getErrorMessages().toArray(), ";"), e);
+        }
+        onUploadError(fileUploadInfo);
+    }
+
     /**
      * Event is fired before processing the uploaded file.
      */
@@ -124,6 +248,27 @@ public abstract class AjaxFileUploadBehavior extends AbstractAjaxBehavior {
 
     protected abstract void process(final FileUpload fileUpload) throws FileUploadViolationException;
 
+    /**
+     * Whether the files of one request are processed concurrently, each in a worker of the {@link UploadProcessor}
+     * with its own JCR session.  When true, the files are prepared on the request thread by
+     * {@link #prepare(FileUpload)}.  Disabled by default.
+     */
+    protected boolean isConcurrent() {
+        return false;
+    }
+
+    /**
+     * Prepares an uploaded file on the request thread when {@link #isConcurrent()} is true.  This is the place to
+     * validate the file and to collect what is needed to store it; the returned task runs in a worker thread.  By
+     * default the file is processed right away by {@link #process(FileUpload)}.
+     *
+     * @return the task that stores the file, or null if the file has been processed already
+     */
+    protected UploadTask prepare(final FileUpload fileUpload) throws FileUploadViolationException {
+        process(fileUpload);
+        return null;
+    }
+
     /**
      * Create a multi-part request containing uploading files that supports disk caching.
      *
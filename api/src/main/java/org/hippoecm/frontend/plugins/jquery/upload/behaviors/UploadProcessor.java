@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.jquery.upload.behaviors;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Application wide pool of workers that process uploaded files.  The number of workers is bounded, and so is the
+ * number of workers that process the files of one user at the same time: the other files of that user wait until
+ * one of those workers is done.  A bulk upload of one user therefore leaves workers for the uploads of others.
+ * <p>
+ * The number of workers can be set with the system property {@value #WORKERS_PROPERTY} and the number of workers per
+ * user with {@value #WORKERS_PER_USER_PROPERTY}.
+ */
+public final class UploadProcessor {
+
+    public static final String WORKERS_PROPERTY = "hippo.upload.workers";
+    public static final String WORKERS_PER_USER_PROPERTY = "hippo.upload.workers.per.user";
+
+    private static final int DEFAULT_WORKERS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final int DEFAULT_WORKERS_PER_USER = 2;
+
+    private static volatile UploadProcessor instance;
+
+    private final Executor executor;
+    private final int workersPerUser;
+    private final Map<String, UserQueue> queues = new HashMap<>();
+
+    private static class UserQueue {
+        private final Deque<Runnable> pending = new ArrayDeque<>();
+        private int running;
+    }
+
+    UploadProcessor(final Executor executor, final int workersPerUser) {
+        this.executor = executor;
+        this.workersPerUser = Math.max(1, workersPerUser);
+    }
+
+    public static UploadProcessor getInstance() {
+        if (instance == null) {
+            synchronized (UploadProcessor.class) {
+                if (instance == null) {
+                    final int workers = Math.max(1, Integer.getInteger(WORKERS_PROPERTY, DEFAULT_WORKERS));
+                    final int workersPerUser = Integer.getInteger(WORKERS_PER_USER_PROPERTY, DEFAULT_WORKERS_PER_USER);
+                    instance = new UploadProcessor(Executors.newFixedThreadPool(workers, new ThreadFactoryBuilder()
+                            .setNameFormat("upload-processor-%d")
+                            .setDaemon(true)
+                            .build()), Math.min(workers, workersPerUser));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @param userId the user on behalf of whom the tasks are run
+     * @return an executor that runs tasks in the pool, but not more of them at the same time than allowed per user
+     */
+    public Executor getExecutor(final String userId) {
+        return task -> submit(userId, task);
+    }
+
+    private void submit(final String userId, final Runnable task) {
+        final boolean start;
+        synchronized (queues) {
+            final UserQueue queue = queues.computeIfAbsent(userId, id -> new UserQueue());
+            start = queue.running < workersPerUser;
+            if (start) {
+                queue.running++;
+            } else {
+                queue.pending.add(task);
+            }
+        }
+        if (start) {
+            executor.execute(() -> run(userId, task));
+        }
+    }
+
+    private void run(final String userId, final Runnable task) {
+        try {
+            task.run();
+        } finally {
+            final Runnable next = poll(userId);
+            if (next != null) {
+                // queue behind the tasks of other users instead of running it right away
+                executor.execute(() -> run(userId, next));
+            }
+        }
+    }
+
+    private Runnable poll(final String userId) {
+        synchronized (queues) {
+            final UserQueue queue = queues.get(userId);
+            final Runnable next = queue.pending.poll();
+            if (next == null && --queue.running == 0) {
+                queues.remove(userId);
+            }
+            return next;
+        }
+    }
+}
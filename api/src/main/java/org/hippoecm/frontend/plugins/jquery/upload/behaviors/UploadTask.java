@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.hippoecm.frontend.plugins.jquery.upload.behaviors;
+
+import javax.jcr.Session;
+
+import org.hippoecm.frontend.plugins.jquery.upload.FileUploadViolationException;
+
+/**
+ * Stores an uploaded file in a worker of the {@link UploadProcessor}.  A task is prepared on the request thread, so
+ * everything it needs from Wicket, like components, models, services and messages, has to be resolved when it is
+ * created: {@link #run(Session)} may only use that data and the given session.  The callbacks are invoked on the
+ * request thread again.
+ */
+public interface UploadTask {
+
+    /**
+     * Stores the file.  Called in a worker thread.
+     *
+     * @param session a JCR session of the user for this task only, logged out when this method returns
+     */
+    void run(Session session) throws Exception;
+
+    /**
+     * Called on the request thread after the task has run successfully.
+     */
+    default void onSuccess() {
+    }
+
+    /**
+     * Called on the request thread when the task failed.
+     *
+     * @param e the exception thrown by {@link #run(Session)}
+     * @return the violation to report for the file
+     */
+    default FileUploadViolationException onFailure(final Exception e) {
+        if (e instanceof FileUploadViolationException) {
+            return (FileUploadViolationException) e;
+        }
+        return new FileUploadViolationException(String.valueOf(e.getMessage()));
+    }
+}
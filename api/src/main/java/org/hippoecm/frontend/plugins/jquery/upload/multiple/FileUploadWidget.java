@@ -35,6 +35,7 @@ import org.hippoecm.frontend.plugins.jquery.upload.FileUploadViolationException;
 import org.hippoecm.frontend.plugins.jquery.upload.behaviors.AjaxCallbackUploadDoneBehavior;
 import org.hippoecm.frontend.plugins.jquery.upload.behaviors.AjaxFileUploadBehavior;
 import org.hippoecm.frontend.plugins.jquery.upload.behaviors.FileUploadInfo;
+import org.hippoecm.frontend.plugins.jquery.upload.behaviors.UploadTask;
 import org.hippoecm.frontend.plugins.yui.upload.validation.FileUploadValidationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -86,6 +87,16 @@ public abstract class FileUploadWidget extends AbstractFileUploadWidget {
                 FileUploadWidget.this.process(fileUpload);
             }
 
+            @Override
+            protected boolean isConcurrent() {
+                return FileUploadWidget.this.isConcurrent();
+            }
+
+            @Override
+            protected UploadTask prepare(final FileUpload fileUpload) throws FileUploadViolationException {
+                return FileUploadWidget.this.prepare(fileUpload);
+            }
+
             @Override
             protected void onResponse(final ServletWebRequest request, final Map<String, FileUploadInfo> uploadedFiles) {
                 FileUploadWidget.this.onFileUploadResponse(request, uploadedFiles);
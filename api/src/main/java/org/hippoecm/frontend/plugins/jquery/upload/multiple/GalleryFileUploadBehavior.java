@@ -66,6 +66,7 @@ public class GalleryFileUploadBehavior extends FileUploadBehavior {
         //the url to be notified when uploading has done
         variables.put("fileUploadDoneUrl", settings.getUploadDoneNotificationUrl());
         variables.put("selectionChangeUrl", settings.getSelectionChangeNotificationUrl());
+        variables.put(FileUploadWidgetSettings.FILEUPLOAD_ITEMS_PER_REQUEST, settings.getItemsPerRequest());
 
         final List<String> allowedExtensions = Arrays.asList(ArrayUtils.nullToEmpty(settings.getAllowedExtensions()));
 
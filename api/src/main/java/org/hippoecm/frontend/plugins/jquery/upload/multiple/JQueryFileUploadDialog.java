@@ -19,6 +19,8 @@ package org.hippoecm.frontend.plugins.jquery.upload.multiple;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.jcr.Session;
+
 import org.apache.commons.lang.StringUtils;
 import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.ajax.markup.html.form.AjaxButton;
@@ -33,6 +35,8 @@ import org.hippoecm.frontend.dialog.DialogConstants;
 import org.hippoecm.frontend.plugin.IPluginContext;
 import org.hippoecm.frontend.plugin.config.IPluginConfig;
 import org.hippoecm.frontend.plugins.jquery.upload.FileUploadViolationException;
+import org.hippoecm.frontend.plugins.jquery.upload.FileUploadWidgetSettings;
+import org.hippoecm.frontend.plugins.jquery.upload.behaviors.UploadTask;
 import org.hippoecm.frontend.plugins.yui.upload.validation.FileUploadValidationService;
 import org.hippoecm.frontend.plugins.yui.upload.validation.ImageUploadValidationService;
 import org.slf4j.Logger;
@@ -102,6 +106,17 @@ public abstract class JQueryFileUploadDialog extends Dialog {
                 JQueryFileUploadDialog.this.handleFileUpload(fileUpload);
             }
 
+            @Override
+            protected boolean isConcurrent() {
+                return settings.getItemsPerRequest() > 1 && JQueryFileUploadDialog.this.isConcurrent();
+            }
+
+            @Override
+            protected UploadTask prepare(final FileUpload fileUpload) throws FileUploadViolationException {
+                validate(fileUpload);
+                return JQueryFileUploadDialog.this.handlePrepareFileUpload(fileUpload);
+            }
+
             @Override
             protected void onFinished(final AjaxRequestTarget target, final int numberOfFiles, final boolean error) {
                 JQueryFileUploadDialog.this.onFinished();
@@ -133,22 +148,60 @@ public abstract class JQueryFileUploadDialog extends Dialog {
         try {
             onFileUpload(file);
         } catch (FileUploadException e) {
-            List<String> errors = new ArrayList<>();
-            Throwable t = e;
-            while(t != null) {
-                final String translatedMessage = (String) getExceptionTranslation(t, file.getClientFileName()).getObject();
-                if (translatedMessage != null && !errors.contains(translatedMessage)) {
-                    errors.add(translatedMessage);
+            throw toViolation(file, e);
+        }
+    }
+
+    /**
+     * Invoke the prepare event and translate the error messages of the task, which are reported on the request thread.
+     */
+    private UploadTask handlePrepareFileUpload(final FileUpload file) throws FileUploadViolationException {
+        final UploadTask task;
+        try {
+            task = prepareFileUpload(file);
+        } catch (FileUploadException e) {
+            throw toViolation(file, e);
+        }
+        if (task == null) {
+            return null;
+        }
+        return new UploadTask() {
+            @Override
+            public void run(final Session session) throws Exception {
+                task.run(session);
+            }
+
+            @Override
+            public void onSuccess() {
+                task.onSuccess();
+            }
+
+            @Override
+            public FileUploadViolationException onFailure(final Exception e) {
+                if (e instanceof FileUploadException) {
+                    return toViolation(file, (FileUploadException) e);
                 }
-                t = t.getCause();
+                return task.onFailure(e);
             }
-            if (log.isDebugEnabled()) {
-                log.debug("FileUploadException caught: {}", StringUtils.join(errors.toArray(), ";"), e);
-            } else {
-                log.info("FileUploadException caught: ", e);
+        };
+    }
+
+    private FileUploadViolationException toViolation(final FileUpload file, final FileUploadException e) {
+        List<String> errors = new ArrayList<>();
+        Throwable t = e;
+        while(t != null) {
+            final String translatedMessage = (String) getExceptionTranslation(t, file.getClientFileName()).getObject();
+            if (translatedMessage != null && !errors.contains(translatedMessage)) {
+                errors.add(translatedMessage);
             }
-            throw new FileUploadViolationException(errors);
+            t = t.getCause();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("FileUploadException caught: {}", StringUtils.join(errors.toArray(), ";"), e);
+        } else {
+            log.info("FileUploadException caught: ", e);
         }
+        return new FileUploadViolationException(errors);
     }
 
     /**
@@ -170,4 +223,26 @@ public abstract class JQueryFileUploadDialog extends Dialog {
     }
 
     protected abstract void onFileUpload(FileUpload file) throws FileUploadException;
+
+    /**
+     * Whether the files sent in one request are uploaded concurrently by the tasks of
+     * {@link #prepareFileUpload(FileUpload)}. The files are only sent several at a time when
+     * {@link FileUploadWidgetSettings#FILEUPLOAD_ITEMS_PER_REQUEST} is configured to be more than one.
+     */
+    protected boolean isConcurrent() {
+        return false;
+    }
+
+    /**
+     * Called on the request thread for a validated file when the dialog {@link #isConcurrent() is concurrent}. The
+     * returned task stores the file in a worker thread, so it must be given everything it needs from the dialog up
+     * front. A {@link FileUploadException} thrown by the task is translated like one thrown by
+     * {@link #onFileUpload(FileUpload)}. By default the file is uploaded right away by {@link #onFileUpload(FileUpload)}.
+     *
+     * @return the task that stores the file, or null if the file has been uploaded already
+     */
+    protected UploadTask prepareFileUpload(FileUpload file) throws FileUploadException {
+        onFileUpload(file);
+        return null;
+    }
 }
@@ -18,20 +18,28 @@ package org.hippoecm.frontend.plugins.standards.browse;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.jcr.RepositoryException;
 import javax.jcr.query.QueryResult;
 
 import org.apache.wicket.model.IDetachable;
 import org.apache.wicket.model.IModel;
 import org.hippoecm.frontend.model.IChangeListener;
+import org.hippoecm.frontend.plugins.standards.search.QueryResultModel;
+import org.hippoecm.frontend.plugins.standards.search.SearchHits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public final class BrowserSearchResult implements IDetachable {
 
     private static final long serialVersionUID = 1L;
 
+    private static final Logger log = LoggerFactory.getLogger(BrowserSearchResult.class);
+
     private List<IChangeListener> listeners = new ArrayList<IChangeListener>();
 
     private String queryName;
     private IModel<QueryResult> nodes;
+    private transient SearchHits hits;
 
     public BrowserSearchResult(String name, IModel<QueryResult> nodes) {
         this.queryName = name;
@@ -46,6 +54,28 @@ public final class BrowserSearchResult implements IDetachable {
         return nodes.getObject();
     }
 
+    /**
+     * @return the hits of the search, in result order
+     */
+    public SearchHits getHits() {
+        if (nodes instanceof QueryResultModel) {
+            final SearchHits queryHits = ((QueryResultModel) nodes).getHits();
+            return queryHits != null ? queryHits : SearchHits.EMPTY;
+        }
+        if (hits == null) {
+            hits = SearchHits.EMPTY;
+            final QueryResult result = getQueryResult();
+            if (result != null) {
+                try {
+                    hits = SearchHits.of(result, Integer.MAX_VALUE);
+                } catch (RepositoryException e) {
+                    log.error("Error reading the result of query " + queryName, e);
+                }
+            }
+        }
+        return hits;
+    }
+
     public void addChangeListener(IChangeListener listener) {
         listeners.add(listener);
     }
@@ -55,6 +85,7 @@ public final class BrowserSearchResult implements IDetachable {
     }
     
     public void detach() {
+        hits = null;
         nodes.detach();
     }
 
@@ -0,0 +1,347 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.standards.list;
+
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.nodetype.NodeType;
+
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.LoadableDetachableModel;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.hippoecm.repository.HippoStdNodeType;
+import org.hippoecm.repository.api.HippoNode;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.hippoecm.repository.api.NodeNameCodec;
+import org.hippoecm.repository.util.JcrUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.hippoecm.repository.HippoStdNodeType.HIPPOSTD_STATE;
+import static org.hippoecm.repository.HippoStdNodeType.HIPPOSTD_STATESUMMARY;
+import static org.hippoecm.repository.HippoStdNodeType.PUBLISHED;
+import static org.hippoecm.repository.HippoStdNodeType.UNPUBLISHED;
+import static org.hippoecm.repository.HippoStdPubWfNodeType.HIPPOSTDPUBWF_CREATED_BY;
+import static org.hippoecm.repository.HippoStdPubWfNodeType.HIPPOSTDPUBWF_CREATION_DATE;
+import static org.hippoecm.repository.HippoStdPubWfNodeType.HIPPOSTDPUBWF_LAST_MODIFIED_BY;
+import static org.hippoecm.repository.HippoStdPubWfNodeType.HIPPOSTDPUBWF_LAST_MODIFIED_DATE;
+import static org.hippoecm.repository.HippoStdPubWfNodeType.HIPPOSTDPUBWF_PUBLICATION_DATE;
+
+/**
+ * What the columns of a document listing show of a row: the display name, type, lock and state of a folder, handle,
+ * document or (document) version.  The summary of a node is read once per request and shared by all columns; the
+ * {@link DocumentsProvider} reads the summaries of the rows of a page at once.
+ * <p>
+ * A summary is not kept longer than the request, so columns should ask for it each time they render.  Nodes of a
+ * session with pending changes are read again on every call.
+ */
+public final class DocumentSummary {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentSummary.class);
+
+    private static final MetaDataKey<HashMap<String, DocumentSummary>> SUMMARIES = new MetaDataKey<HashMap<String, DocumentSummary>>() {
+        private static final long serialVersionUID = 1L;
+    };
+
+    private String displayName;
+    private String typeName;
+    private boolean folder;
+    private boolean document;
+    private boolean historic;
+    private boolean locked;
+    private String lockOwner;
+
+    private String stateSummary;
+    private String stateDocumentPath;
+
+    private String createdBy;
+    private Calendar creationDate;
+    private String lastModifiedBy;
+    private Calendar lastModifiedDate;
+    private Calendar publicationDate;
+
+    private DocumentSummary(final Node node) {
+        try {
+            load(node);
+        } catch (RepositoryException e) {
+            log.error("Unable to summarize node '{}'", JcrUtils.getNodePathQuietly(node), e);
+        }
+    }
+
+    /**
+     * @return the summary of a folder, handle, document or version
+     */
+    public static DocumentSummary of(final Node node) {
+        final Map<String, DocumentSummary> summaries = getSummaries(node);
+        if (summaries == null) {
+            return new DocumentSummary(node);
+        }
+        try {
+            final String identifier = node.getIdentifier();
+            DocumentSummary summary = summaries.get(identifier);
+            if (summary == null) {
+                summary = new DocumentSummary(node);
+                summaries.put(identifier, summary);
+            }
+            return summary;
+        } catch (RepositoryException e) {
+            log.warn("Unable to share the summary of '{}': {}", JcrUtils.getNodePathQuietly(node), e.getMessage());
+            return new DocumentSummary(node);
+        }
+    }
+
+    /**
+     * @return a model of the display name of the node of a row
+     */
+    public static IModel<String> getDisplayNameModel(final IModel<Node> nodeModel) {
+        return new LoadableDetachableModel<String>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected String load() {
+                final Node node = nodeModel.getObject();
+                return node != null ? of(node).getDisplayName() : null;
+            }
+
+            @Override
+            protected void onDetach() {
+                nodeModel.detach();
+            }
+        };
+    }
+
+    /**
+     * Reads the summaries of the nodes, so that the columns of their rows find them.
+     */
+    public static void loadAll(final Iterable<Node> nodes) {
+        for (Node node : nodes) {
+            of(node);
+        }
+    }
+
+    /**
+     * @return the display name; that of the handle for a document below a handle
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return the name of the primary type of the node; of its document for a handle or version
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public boolean isFolder() {
+        return folder;
+    }
+
+    /**
+     * @return whether the node is a handle with a document, or a document
+     */
+    public boolean isDocument() {
+        return document;
+    }
+
+    /**
+     * @return whether the node is a version of a document
+     */
+    public boolean isHistoric() {
+        return historic;
+    }
+
+    public boolean isLocked() {
+        return locked;
+    }
+
+    public String getLockOwner() {
+        return lockOwner;
+    }
+
+    /**
+     * @return the state summary ("new", "live" or "changed") of a publishable document, or null
+     */
+    public String getStateSummary() {
+        return stateSummary;
+    }
+
+    /**
+     * @return the path of the variant the state summary was read from, or null
+     */
+    public String getStateDocumentPath() {
+        return stateDocumentPath;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public Calendar getCreationDate() {
+        return creationDate;
+    }
+
+    public String getLastModifiedBy() {
+        return lastModifiedBy;
+    }
+
+    public Calendar getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public Calendar getPublicationDate() {
+        return publicationDate;
+    }
+
+    private void load(final Node node) throws RepositoryException {
+        displayName = loadDisplayName(node);
+        locked = node.isLocked();
+        if (locked) {
+            lockOwner = node.getLock().getLockOwner();
+        }
+
+        Node stateDocument = null;
+        NodeType primaryType = null;
+        if (node.isNodeType(HippoNodeType.NT_HANDLE)) {
+            stateDocument = loadVariants(node.getNodes(node.getName()));
+            if (stateDocument != null) {
+                primaryType = stateDocument.getPrimaryNodeType();
+                document = primaryType.isNodeType(HippoNodeType.NT_DOCUMENT);
+            }
+        } else if (node.isNodeType("nt:version")) {
+            historic = true;
+            final Node frozen = node.getNode("jcr:frozenNode");
+            final String primary = frozen.getProperty("jcr:frozenPrimaryType").getString();
+            primaryType = frozen.getSession().getWorkspace().getNodeTypeManager().getNodeType(primary);
+            if (primaryType.isNodeType(HippoNodeType.NT_DOCUMENT)) {
+                stateDocument = frozen;
+                loadDates(frozen);
+            }
+        } else {
+            primaryType = node.getPrimaryNodeType();
+            folder = primaryType.isNodeType(HippoStdNodeType.NT_FOLDER)
+                    || primaryType.isNodeType(HippoStdNodeType.NT_DIRECTORY);
+            document = primaryType.isNodeType(HippoNodeType.NT_DOCUMENT);
+            if (document) {
+                stateDocument = node;
+                loadDates(node);
+            }
+        }
+        if (primaryType != null) {
+            typeName = primaryType.getName();
+        }
+
+        if (stateDocument != null && (primaryType.isNodeType(HippoStdNodeType.NT_PUBLISHABLESUMMARY)
+                || stateDocument.isNodeType(HippoStdNodeType.NT_PUBLISHABLESUMMARY))) {
+            stateSummary = stateDocument.getProperty(HIPPOSTD_STATESUMMARY).getString();
+            stateDocumentPath = stateDocument.getPath();
+        }
+    }
+
+    private static String loadDisplayName(Node node) throws RepositoryException {
+        if (!node.isNodeType(HippoNodeType.NT_NAMED) && node.isNodeType(HippoNodeType.NT_DOCUMENT)
+                && node.getDepth() > 0 && node.getParent().isNodeType(HippoNodeType.NT_HANDLE)) {
+            node = node.getParent();
+        }
+        if (node instanceof HippoNode) {
+            return ((HippoNode) node).getDisplayName();
+        }
+        return NodeNameCodec.decode(node.getName());
+    }
+
+    /**
+     * Reads the dates of the variants of a handle.  The publication date is that of the published variant of a live
+     * or changed document; the last modification is that of the published variant of a live document and that of the
+     * unpublished variant otherwise.
+     *
+     * @return the unpublished variant or else the last one
+     */
+    private Node loadVariants(final NodeIterator variants) throws RepositoryException {
+        Node variant = null;
+        Node unpublished = null;
+        while (variants.hasNext()) {
+            variant = variants.nextNode();
+            if (variant.hasProperty(HIPPOSTD_STATESUMMARY) && variant.hasProperty(HIPPOSTD_STATE)) {
+                final String summary = variant.getProperty(HIPPOSTD_STATESUMMARY).getString();
+                final String state = variant.getProperty(HIPPOSTD_STATE).getString();
+
+                if (variant.hasProperty(HIPPOSTDPUBWF_PUBLICATION_DATE)) {
+                    if (PUBLISHED.equals(state) && ("live".equals(summary) || "changed".equals(summary))) {
+                        publicationDate = variant.getProperty(HIPPOSTDPUBWF_PUBLICATION_DATE).getDate();
+                    }
+                }
+
+                if (variant.hasProperty(HIPPOSTDPUBWF_LAST_MODIFIED_BY)
+                        && variant.hasProperty(HIPPOSTDPUBWF_LAST_MODIFIED_DATE)) {
+                    if ((PUBLISHED.equals(state) && "live".equals(summary))
+                            || (UNPUBLISHED.equals(state) && ("changed".equals(summary) || "new".equals(summary)))) {
+                        lastModifiedBy = variant.getProperty(HIPPOSTDPUBWF_LAST_MODIFIED_BY).getString();
+                        lastModifiedDate = variant.getProperty(HIPPOSTDPUBWF_LAST_MODIFIED_DATE).getDate();
+                    }
+                }
+
+                if (unpublished == null && UNPUBLISHED.equals(state)) {
+                    unpublished = variant;
+                }
+            }
+        }
+        return unpublished != null ? unpublished : variant;
+    }
+
+    private void loadDates(final Node document) throws RepositoryException {
+        if (document.hasProperty(HIPPOSTDPUBWF_PUBLICATION_DATE)) {
+            publicationDate = document.getProperty(HIPPOSTDPUBWF_PUBLICATION_DATE).getDate();
+        }
+        if (document.hasProperty(HIPPOSTDPUBWF_LAST_MODIFIED_DATE)) {
+            lastModifiedDate = document.getProperty(HIPPOSTDPUBWF_LAST_MODIFIED_DATE).getDate();
+        }
+        if (document.hasProperty(HIPPOSTDPUBWF_LAST_MODIFIED_BY)) {
+            lastModifiedBy = document.getProperty(HIPPOSTDPUBWF_LAST_MODIFIED_BY).getString();
+        }
+        if (document.hasProperty(HIPPOSTDPUBWF_CREATION_DATE)) {
+            creationDate = document.getProperty(HIPPOSTDPUBWF_CREATION_DATE).getDate();
+        }
+        if (document.hasProperty(HIPPOSTDPUBWF_CREATED_BY)) {
+            createdBy = document.getProperty(HIPPOSTDPUBWF_CREATED_BY).getString();
+        }
+    }
+
+    private static Map<String, DocumentSummary> getSummaries(final Node node) {
+        final RequestCycle requestCycle = RequestCycle.get();
+        if (requestCycle == null) {
+            return null;
+        }
+        try {
+            if (node.getSession().hasPendingChanges()) {
+                return null;
+            }
+        } catch (RepositoryException e) {
+            return null;
+        }
+        HashMap<String, DocumentSummary> summaries = requestCycle.getMetaData(SUMMARIES);
+        if (summaries == null) {
+            summaries = new HashMap<>();
+            requestCycle.setMetaData(SUMMARIES, summaries);
+        }
+        return summaries;
+    }
+}
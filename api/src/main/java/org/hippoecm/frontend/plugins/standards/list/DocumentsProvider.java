@@ -60,7 +60,9 @@ public class DocumentsProvider extends SortableDataProvider<Node> implements IOb
 
     public Iterator<Node> iterator(long first, long count) {
         load();
-        return entries.subList((int) first, (int) (first + count)).iterator();
+        final List<Node> page = entries.subList((int) first, (int) (first + count));
+        DocumentSummary.loadAll(page);
+        return page.iterator();
     }
 
     public IModel<Node> model(Node object) {
@@ -60,35 +60,15 @@ public class SingleVariantProvider extends LoadableDetachableModel<List<Node>> {
             try {
                 while (subNodes.hasNext()) {
                     Node subNode = (Node) subNodes.next();
-                    if (subNode == null || !(subNode instanceof HippoNode)) {
+                    if (subNode == null) {
                         continue;
                     }
-                    try {
-                        Node canonicalNode = ((HippoNode) subNode).getCanonicalNode();
-                        if (canonicalNode == null) {
-                            // no physical equivalent exists
-                            continue;
+                    String handleId = getHandleIdentifier(subNode);
+                    if (handleId != null) {
+                        Node currentNode = primaryNodes.get(handleId);
+                        if (currentNode == null || subNode.getIndex() < currentNode.getIndex()) {
+                            primaryNodes.put(handleId, subNode);
                         }
-                        if (canonicalNode.isNodeType(HippoNodeType.NT_DOCUMENT)) {
-                            Node parentNode = canonicalNode.getParent();
-                            if (parentNode.isNodeType(HippoNodeType.NT_HANDLE)) {
-                                if (parentNode.isNodeType(JcrConstants.MIX_REFERENCEABLE)) {
-                                    if (primaryNodes.containsKey(parentNode.getUUID())) {
-                                        Node currentNode = primaryNodes.get(parentNode.getUUID());
-                                        if (subNode.getIndex() < currentNode.getIndex()) {
-                                            primaryNodes.put(parentNode.getUUID(), subNode);
-                                        }
-                                    } else {
-                                        primaryNodes.put(parentNode.getUUID(), subNode);
-                                    }
-                                } else {
-                                    log.info("Skipping unreferenceable canonical handle " + parentNode.getPath());
-                                }
-                            }
-                        }
-                    } catch (ItemNotFoundException ex) {
-                        // physical item no longer exists
-                        continue;
                     }
                 }
             } catch (RepositoryException ex) {
@@ -98,6 +78,36 @@ public class SingleVariantProvider extends LoadableDetachableModel<List<Node>> {
         return new ArrayList<Node>(primaryNodes.values());
     }
 
+    /**
+     * @param node a document, typically a virtual one in a resultset
+     * @return the identifier of the handle of the physical document, or null when the node does not represent a
+     * variant of a referenceable handle
+     */
+    public static String getHandleIdentifier(Node node) throws RepositoryException {
+        if (!(node instanceof HippoNode)) {
+            return null;
+        }
+        try {
+            Node canonicalNode = ((HippoNode) node).getCanonicalNode();
+            if (canonicalNode == null) {
+                // no physical equivalent exists
+                return null;
+            }
+            if (canonicalNode.isNodeType(HippoNodeType.NT_DOCUMENT)) {
+                Node parentNode = canonicalNode.getParent();
+                if (parentNode.isNodeType(HippoNodeType.NT_HANDLE)) {
+                    if (parentNode.isNodeType(JcrConstants.MIX_REFERENCEABLE)) {
+                        return parentNode.getIdentifier();
+                    }
+                    log.info("Skipping unreferenceable canonical handle " + parentNode.getPath());
+                }
+            }
+        } catch (ItemNotFoundException ex) {
+            // physical item no longer exists
+        }
+        return null;
+    }
+
     @Override
     protected void onDetach() {
         super.onDetach();
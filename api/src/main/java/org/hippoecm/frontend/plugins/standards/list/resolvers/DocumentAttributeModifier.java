@@ -16,24 +16,14 @@
 package org.hippoecm.frontend.plugins.standards.list.resolvers;
 
 import javax.jcr.Node;
-import javax.jcr.NodeIterator;
-import javax.jcr.RepositoryException;
-import javax.jcr.nodetype.NodeType;
 
 import org.apache.wicket.AttributeModifier;
 import org.apache.wicket.model.IModel;
-import org.hippoecm.frontend.model.JcrNodeModel;
-import org.hippoecm.frontend.model.NodeNameModel;
-import org.hippoecm.repository.HippoStdNodeType;
-import org.hippoecm.repository.api.HippoNodeType;
-import org.hippoecm.repository.util.JcrUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.hippoecm.frontend.plugins.standards.list.DocumentSummary;
 
 public class DocumentAttributeModifier extends AbstractNodeAttributeModifier {
 
     private static final long serialVersionUID = 1L;
-    private static final Logger log = LoggerFactory.getLogger(DocumentAttributeModifier.class);
 
     private static final String FOLDER_CSS_CLASS = "hippo-folder";
     private static final String DOCUMENT_CSS_CLASS = "hippo-document";
@@ -55,55 +45,26 @@ public class DocumentAttributeModifier extends AbstractNodeAttributeModifier {
         final Node node = model.getObject();
 
         if (node != null) {
+            final DocumentSummary summary = DocumentSummary.of(node);
             return new AttributeModifier[] {
-                    createTitleModifierOrNull(node),
-                    createClassModifierOrNull(node)
+                    createTitleModifierOrNull(model),
+                    createClassModifierOrNull(summary)
             };
         }
         return null;
     }
 
-    private AttributeModifier createTitleModifierOrNull(final Node node) {
-        return TitleAttribute.append(new NodeNameModel(new JcrNodeModel(node)));
+    private AttributeModifier createTitleModifierOrNull(final IModel<Node> model) {
+        return TitleAttribute.append(DocumentSummary.getDisplayNameModel(model));
     }
 
-    private AttributeModifier createClassModifierOrNull(final Node node) {
-        final NodeType primaryType = getPrimaryTypeOfDocument(node);
-        if (primaryType != null) {
-            if (isFolder(primaryType)) {
-                return FOLDER_CLASS_APPENDER;
-            } else if (isDocument(primaryType)) {
-                return DOCUMENT_CLASS_APPENDER;
-            }
+    private AttributeModifier createClassModifierOrNull(final DocumentSummary summary) {
+        if (summary.isFolder()) {
+            return FOLDER_CLASS_APPENDER;
+        } else if (summary.isDocument()) {
+            return DOCUMENT_CLASS_APPENDER;
         }
         return null;
     }
 
-    private NodeType getPrimaryTypeOfDocument(final Node handleOrDocument) {
-        try {
-            if (handleOrDocument.isNodeType(HippoNodeType.NT_HANDLE)) {
-                NodeIterator nodeIt = handleOrDocument.getNodes();
-                while (nodeIt.hasNext()) {
-                    Node childNode = nodeIt.nextNode();
-                    if (childNode.isNodeType(HippoNodeType.NT_DOCUMENT)) {
-                        return childNode.getPrimaryNodeType();
-                    }
-                }
-            } else {
-                return handleOrDocument.getPrimaryNodeType();
-            }
-        } catch (RepositoryException e) {
-            log.warn("Unable to determine type of node '{}'", JcrUtils.getNodePathQuietly(handleOrDocument), e);
-        }
-        return null;
-    }
-
-    private boolean isFolder(NodeType primaryType) {
-        return primaryType.isNodeType(HippoStdNodeType.NT_FOLDER) || primaryType.isNodeType(HippoStdNodeType.NT_DIRECTORY);
-    }
-
-    private boolean isDocument(NodeType primaryType) {
-        return primaryType.isNodeType(HippoNodeType.NT_DOCUMENT);
-    }
-
 }
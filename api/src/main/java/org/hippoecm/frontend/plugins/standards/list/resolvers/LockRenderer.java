@@ -20,6 +20,7 @@ import javax.jcr.RepositoryException;
 
 import org.apache.wicket.Component;
 import org.apache.wicket.markup.html.basic.Label;
+import org.hippoecm.frontend.plugins.standards.list.DocumentSummary;
 
 public class LockRenderer extends AbstractNodeRenderer {
 
@@ -27,7 +28,7 @@ public class LockRenderer extends AbstractNodeRenderer {
 
     @Override
     protected Component getViewer(String id, Node node) throws RepositoryException {
-        return new Label(id, String.valueOf(node.isLocked()));
+        return new Label(id, String.valueOf(DocumentSummary.of(node).isLocked()));
     }
 
 }
@@ -24,6 +24,7 @@ import org.apache.wicket.model.IModel;
 import org.hippoecm.frontend.model.JcrNodeModel;
 import org.hippoecm.frontend.model.NodeNameModel;
 import org.hippoecm.frontend.model.event.IObservable;
+import org.hippoecm.frontend.plugins.standards.list.DocumentSummary;
 
 public class NameRenderer extends AbstractNodeRenderer {
 
@@ -31,7 +32,7 @@ public class NameRenderer extends AbstractNodeRenderer {
 
     @Override
     protected Component getViewer(String id, Node node) throws RepositoryException {
-        return new Label(id, new NodeNameModel(new JcrNodeModel(node)));
+        return new Label(id, DocumentSummary.getDisplayNameModel(new JcrNodeModel(node)));
     }
 
     @Override
@@ -16,25 +16,18 @@
 package org.hippoecm.frontend.plugins.standards.list.resolvers;
 
 import javax.jcr.Node;
-import javax.jcr.NodeIterator;
-import javax.jcr.Property;
-import javax.jcr.RepositoryException;
-import javax.jcr.nodetype.NodeType;
-import javax.jcr.nodetype.NodeTypeManager;
 
 import org.apache.wicket.model.IDetachable;
-import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.Model;
 import org.hippoecm.frontend.i18n.types.TypeTranslator;
 import org.hippoecm.frontend.model.JcrNodeModel;
 import org.hippoecm.frontend.model.event.IObservable;
 import org.hippoecm.frontend.model.event.IObservationContext;
 import org.hippoecm.frontend.model.event.Observable;
 import org.hippoecm.frontend.model.nodetypes.JcrNodeTypeModel;
-import org.hippoecm.frontend.model.properties.JcrPropertyModel;
-import org.hippoecm.frontend.model.properties.JcrPropertyValueModel;
+import org.hippoecm.frontend.plugins.standards.list.DocumentSummary;
 import org.hippoecm.frontend.skin.Icon;
 import org.hippoecm.repository.HippoStdNodeType;
-import org.hippoecm.repository.api.HippoNodeType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -91,66 +84,26 @@ public class StateIconAttributes implements IObservable, IDetachable {
     void load() {
         if (!loaded) {
             observable.setTarget(null);
-            try {
-                final Node node = nodeModel.getNode();
-                if (node != null) {
-                    loadAttributes(node);
-                }
-            } catch (RepositoryException ex) {
-                log.error("Unable to obtain state properties", ex);
+            final Node node = nodeModel.getNode();
+            if (node != null) {
+                loadAttributes(DocumentSummary.of(node));
             }
             loaded = true;
         }
     }
 
-    private void loadAttributes(final Node node) throws RepositoryException {
-        Node document = null;
-        NodeType primaryType = null;
-        boolean isHistoric = false;
-        if (node.isNodeType(HippoNodeType.NT_HANDLE)) {
-            NodeIterator docs = node.getNodes(node.getName());
-            while (docs.hasNext()) {
-                document = docs.nextNode();
-                primaryType = document.getPrimaryNodeType();
-                if (document.isNodeType(HippoStdNodeType.NT_PUBLISHABLE)) {
-                    String state = document.getProperty(HippoStdNodeType.HIPPOSTD_STATE).getString();
-                    if ("unpublished".equals(state)) {
-                        break;
-                    }
-                }
-            }
-        } else if (node.isNodeType(HippoNodeType.NT_DOCUMENT)) {
-            document = node;
-            primaryType = document.getPrimaryNodeType();
-        } else if (node.isNodeType("nt:version")) {
-            isHistoric = true;
-            Node frozen = node.getNode("jcr:frozenNode");
-            String primary = frozen.getProperty("jcr:frozenPrimaryType").getString();
-            NodeTypeManager ntMgr = frozen.getSession().getWorkspace().getNodeTypeManager();
-            primaryType = ntMgr.getNodeType(primary);
-            if (primaryType.isNodeType(HippoNodeType.NT_DOCUMENT)) {
-                document = frozen;
-            }
-        }
-        if (document != null) {
-            if (primaryType.isNodeType(HippoStdNodeType.NT_PUBLISHABLESUMMARY)
-                    || document.isNodeType(HippoStdNodeType.NT_PUBLISHABLESUMMARY)) {
+    private void loadAttributes(final DocumentSummary document) {
+        final String state = document.getStateSummary();
+        if (state != null) {
+            cssClass = StateIconAttributeModifier.PREFIX + (document.isHistoric() ? "prev-" : "") + state;
 
-                final Property stateProperty = document.getProperty(HippoStdNodeType.HIPPOSTD_STATESUMMARY);
+            final JcrNodeTypeModel nodeTypeModel = new JcrNodeTypeModel(HippoStdNodeType.NT_PUBLISHABLESUMMARY);
+            final TypeTranslator typeTranslator = new TypeTranslator(nodeTypeModel);
+            summary = typeTranslator.getValueName(HippoStdNodeType.HIPPOSTD_STATESUMMARY, Model.of(state)).getObject();
 
-                final String state = stateProperty.getString();
-                cssClass = StateIconAttributeModifier.PREFIX + (isHistoric ? "prev-" : "") + state;
+            icons = getStateIcons(state);
 
-                final JcrPropertyModel stateSummaryModel = new JcrPropertyModel(stateProperty);
-                final IModel<String> stateModel = new JcrPropertyValueModel<>(stateSummaryModel);
-                final JcrNodeTypeModel nodeTypeModel = new JcrNodeTypeModel(HippoStdNodeType.NT_PUBLISHABLESUMMARY);
-                final TypeTranslator typeTranslator = new TypeTranslator(nodeTypeModel);
-                summary = typeTranslator.getValueName(HippoStdNodeType.HIPPOSTD_STATESUMMARY, stateModel).getObject();
-
-                icons = getStateIcons(state);
-
-                observable.setTarget(new JcrNodeModel(document));
-            }
+            observable.setTarget(new JcrNodeModel(document.getStateDocumentPath()));
         }
     }
 
@@ -22,8 +22,7 @@ import org.apache.wicket.Component;
 import org.apache.wicket.markup.html.basic.Label;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
-import org.hippoecm.frontend.i18n.types.TypeTranslator;
-import org.hippoecm.frontend.model.nodetypes.JcrNodeTypeModel;
+import org.hippoecm.frontend.i18n.types.TypeLabelTable;
 
 import static org.hippoecm.repository.api.HippoNodeType.NT_DOCUMENT;
 import static org.hippoecm.repository.api.HippoNodeType.NT_HANDLE;
@@ -57,7 +56,7 @@ public class TypeRenderer extends AbstractNodeRenderer {
             type = node.getParent().getName() + ":" + node.getName();
         }
         if (type != null) {
-            return new TypeTranslator(new JcrNodeTypeModel(type)).getTypeName();
+            return TypeLabelTable.getLabelModel(type);
         }
         return new Model<>("unknown");
     }
@@ -16,42 +16,77 @@
 package org.hippoecm.frontend.plugins.standards.search;
 
 import javax.jcr.RepositoryException;
+import javax.jcr.observation.Event;
 import javax.jcr.query.Query;
 import javax.jcr.query.QueryManager;
 import javax.jcr.query.QueryResult;
 
 import org.apache.wicket.model.LoadableDetachableModel;
+import org.hippoecm.frontend.observation.JcrChangeCounter;
 import org.hippoecm.frontend.session.UserSession;
 
+/**
+ * Model for the result of a search query.  The query is executed once; its {@link SearchHits} are kept when the
+ * model is detached, so paging through the result or selecting a hit does not execute the query again.  The query
+ * is executed again when nodes have been added, removed or moved below /content.
+ */
 public class QueryResultModel extends LoadableDetachableModel<QueryResult> {
 
     private static final long serialVersionUID = 1L;
 
     public static final int LIMIT = 100;
 
+    private static final String CONTENT_PATH = "/content";
+
     private final String query;
     private int limit;
+    private SearchHits hits;
+    private long generation;
 
     public QueryResultModel(String query, int limit) {
         this.query = query;
         this.limit = limit;
     }
 
+    /**
+     * @return the hits of the query, executing the query when the hits are not available or out of date
+     */
+    public SearchHits getHits() {
+        final long current = getGeneration();
+        if (hits == null || current != generation) {
+            hits = execute();
+            generation = current;
+        }
+        return hits;
+    }
+
     @Override
     protected QueryResult load() {
-        QueryResult result = null;
-        javax.jcr.Session session = UserSession.get().getJcrSession();
+        final SearchHits current = getHits();
+        return current != null ? current.toQueryResult(UserSession.get().getJcrSession()) : null;
+    }
+
+    private long getGeneration() {
+        final JcrChangeCounter counter = JcrChangeCounter.get(CONTENT_PATH,
+                Event.NODE_ADDED | Event.NODE_REMOVED | Event.NODE_MOVED, true, null);
+        try {
+            return counter.getGeneration(UserSession.get().getJcrSession());
+        } catch (RepositoryException e) {
+            TextSearchBuilder.log.warn("Unable to observe changes below " + CONTENT_PATH, e);
+            return generation + 1;
+        }
+    }
+
+    private SearchHits execute() {
+        SearchHits result = null;
         try {
             QueryManager queryManager = UserSession.get().getQueryManager();
             Query q = queryManager.createQuery(query, "xpath");
-            if (limit > 0 && limit < LIMIT) {
-                q.setLimit(limit);
-            } else {
-                q.setLimit(LIMIT);
-            }
+            final int max = limit > 0 && limit < LIMIT ? limit : LIMIT;
+            q.setLimit(max);
 
             long start = System.currentTimeMillis();
-            result = q.execute();
+            result = SearchHits.of(q.execute(), max);
             long end = System.currentTimeMillis();
             TextSearchBuilder.log.info("Executing search query: " + TextSearchBuilder.TEXT_QUERY_NAME + " took " + (end - start) + "ms");
         } catch (RepositoryException e) {
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.standards.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.PropertyType;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.ValueFactory;
+import javax.jcr.query.QueryResult;
+import javax.jcr.query.Row;
+import javax.jcr.query.RowIterator;
+
+import org.apache.commons.lang.ArrayUtils;
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.commons.iterator.NodeIteratorAdapter;
+import org.apache.jackrabbit.commons.iterator.RowIteratorAdapter;
+import org.apache.wicket.util.io.IClusterable;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The hits of a search query, in result order.  Only the identifiers of the matching nodes and their excerpts are
+ * kept, so the hits can be stored with the page and serve pages, counts and membership checks without executing
+ * the query again.  The nodes are resolved with the session that asks for them; hits that have been removed since
+ * the query was executed are skipped.
+ */
+public final class SearchHits implements IClusterable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final Logger log = LoggerFactory.getLogger(SearchHits.class);
+
+    private static final String EXCERPT_COLUMN = "rep:excerpt()";
+    private static final String PATH_COLUMN = JcrConstants.JCR_PATH;
+    private static final String SCORE_COLUMN = "jcr:score";
+
+    public static final SearchHits EMPTY = new SearchHits(ArrayUtils.EMPTY_STRING_ARRAY, ArrayUtils.EMPTY_STRING_ARRAY,
+            ArrayUtils.EMPTY_DOUBLE_ARRAY, null, ArrayUtils.EMPTY_STRING_ARRAY, ArrayUtils.EMPTY_STRING_ARRAY);
+
+    private final String[] identifiers;
+    private final String[] documents;
+    private final double[] scores;
+    private final String[] excerpts;
+    private final String[] columnNames;
+    private final String[] selectorNames;
+
+    private transient Set<String> documentSet;
+
+    private SearchHits(final String[] identifiers, final String[] documents, final double[] scores,
+                       final String[] excerpts, final String[] columnNames, final String[] selectorNames) {
+        this.identifiers = identifiers;
+        this.documents = documents;
+        this.scores = scores;
+        this.excerpts = excerpts;
+        this.columnNames = columnNames;
+        this.selectorNames = selectorNames;
+    }
+
+    /**
+     * Reads the hits from a query result.
+     *
+     * @param result  the query result
+     * @param maxSize the maximum number of hits to keep
+     * @return the hits
+     * @throws RepositoryException when the result cannot be read
+     */
+    public static SearchHits of(final QueryResult result, final int maxSize) throws RepositoryException {
+        final String[] columnNames = result.getColumnNames();
+        final boolean hasExcerpt = ArrayUtils.contains(columnNames, EXCERPT_COLUMN);
+
+        final List<String> identifiers = new ArrayList<>();
+        final List<String> documents = new ArrayList<>();
+        final List<Double> scores = new ArrayList<>();
+        final List<String> excerpts = new ArrayList<>();
+        final RowIterator rows = result.getRows();
+        while (rows.hasNext() && identifiers.size() < maxSize) {
+            final Row row = rows.nextRow();
+            final Node node = row.getNode();
+            if (node == null || node.getDepth() == 0) {
+                continue;
+            }
+            identifiers.add(node.getIdentifier());
+            final Node parent = node.getParent();
+            documents.add(parent.isNodeType(HippoNodeType.NT_HANDLE) ? parent.getIdentifier() : node.getIdentifier());
+            scores.add(row.getScore());
+            if (hasExcerpt) {
+                final Value excerpt = row.getValue(EXCERPT_COLUMN);
+                excerpts.add(excerpt != null ? excerpt.getString() : null);
+            }
+        }
+
+        String[] selectorNames;
+        try {
+            selectorNames = result.getSelectorNames();
+        } catch (UnsupportedOperationException e) {
+            selectorNames = ArrayUtils.EMPTY_STRING_ARRAY;
+        }
+        return new SearchHits(identifiers.toArray(new String[identifiers.size()]),
+                documents.toArray(new String[documents.size()]),
+                ArrayUtils.toPrimitive(scores.toArray(new Double[scores.size()])),
+                hasExcerpt ? excerpts.toArray(new String[excerpts.size()]) : null,
+                columnNames, selectorNames);
+    }
+
+    /**
+     * @return the number of hits
+     */
+    public int size() {
+        return identifiers.length;
+    }
+
+    /**
+     * @param index the position of the hit
+     * @return the identifier of the matching node
+     */
+    public String getIdentifier(final int index) {
+        return identifiers[index];
+    }
+
+    /**
+     * @param index the position of the hit
+     * @return the score of the hit
+     */
+    public double getScore(final int index) {
+        return scores[index];
+    }
+
+    /**
+     * @param index the position of the hit
+     * @return the excerpt of the hit, or null when the query does not provide excerpts
+     */
+    public String getExcerpt(final int index) {
+        return excerpts != null ? excerpts[index] : null;
+    }
+
+    /**
+     * Checks whether a document is part of the result.  A document is either the handle of a matching variant, or
+     * a matching node that is not a variant, e.g. a folder.
+     *
+     * @param identifier the identifier of the handle or the node
+     * @return true when the document is part of the result
+     */
+    public boolean containsDocument(final String identifier) {
+        if (documentSet == null) {
+            documentSet = new HashSet<>(Arrays.asList(documents));
+        }
+        return documentSet.contains(identifier);
+    }
+
+    /**
+     * Returns the matches in a range of the hits.  Hits that cannot be resolved are skipped, so fewer matches may
+     * be returned than requested.
+     *
+     * @param session the session to resolve the nodes with
+     * @param first   the position of the first hit
+     * @param count   the number of hits, or -1 for all remaining hits
+     * @return the matches
+     */
+    public List<TextSearchMatch> getMatches(final Session session, final long first, final long count) {
+        final int end = count < 0 ? identifiers.length : (int) Math.min(identifiers.length, first + count);
+        final List<TextSearchMatch> matches = new ArrayList<>(Math.max(0, end - (int) first));
+        for (int i = (int) first; i < end; i++) {
+            final Node node = resolve(session, i);
+            if (node != null) {
+                matches.add(new TextSearchMatch(node, getExcerpt(i)));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Exposes the hits as a query result, for components that read the nodes or rows of the result.
+     *
+     * @param session the session to resolve the nodes with
+     * @return the query result
+     */
+    public QueryResult toQueryResult(final Session session) {
+        return new HitsQueryResult(session);
+    }
+
+    private Node resolve(final Session session, final int index) {
+        try {
+            return session.getNodeByIdentifier(identifiers[index]);
+        } catch (ItemNotFoundException e) {
+            log.debug("Search hit {} no longer exists", identifiers[index]);
+        } catch (RepositoryException e) {
+            log.warn("Unable to resolve search hit " + identifiers[index], e);
+        }
+        return null;
+    }
+
+    private final class HitsQueryResult implements QueryResult {
+
+        private final Session session;
+        private List<Integer> positions;
+        private List<Node> nodes;
+
+        private HitsQueryResult(final Session session) {
+            this.session = session;
+        }
+
+        private void load() {
+            if (nodes == null) {
+                positions = new ArrayList<>(identifiers.length);
+                nodes = new ArrayList<>(identifiers.length);
+                for (int i = 0; i < identifiers.length; i++) {
+                    final Node node = resolve(session, i);
+                    if (node != null) {
+                        positions.add(i);
+                        nodes.add(node);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public String[] getColumnNames() {
+            return columnNames.clone();
+        }
+
+        @Override
+        public RowIterator getRows() throws RepositoryException {
+            load();
+            final List<Row> rows = new ArrayList<>(nodes.size());
+            for (int i = 0; i < nodes.size(); i++) {
+                final int position = positions.get(i);
+                rows.add(new HitRow(session, nodes.get(i), getScore(position), getExcerpt(position)));
+            }
+            return new RowIteratorAdapter(rows);
+        }
+
+        @Override
+        public NodeIterator getNodes() throws RepositoryException {
+            load();
+            return new NodeIteratorAdapter(nodes);
+        }
+
+        @Override
+        public String[] getSelectorNames() {
+            return selectorNames.clone();
+        }
+    }
+
+    private final class HitRow implements Row {
+
+        private final Session session;
+        private final Node node;
+        private final double score;
+        private final String excerpt;
+
+        private HitRow(final Session session, final Node node, final double score, final String excerpt) {
+            this.session = session;
+            this.node = node;
+            this.score = score;
+            this.excerpt = excerpt;
+        }
+
+        @Override
+        public Value[] getValues() throws RepositoryException {
+            final Value[] values = new Value[columnNames.length];
+            for (int i = 0; i < columnNames.length; i++) {
+                values[i] = getValue(columnNames[i]);
+            }
+            return values;
+        }
+
+        @Override
+        public Value getValue(final String columnName) throws RepositoryException {
+            final ValueFactory valueFactory = session.getValueFactory();
+            if (EXCERPT_COLUMN.equals(columnName)) {
+                return excerpt != null ? valueFactory.createValue(excerpt) : null;
+            } else if (PATH_COLUMN.equals(columnName)) {
+                return valueFactory.createValue(node.getPath(), PropertyType.PATH);
+            } else if (SCORE_COLUMN.equals(columnName)) {
+                return valueFactory.createValue(score);
+            } else if (node.hasProperty(columnName)) {
+                return node.getProperty(columnName).getValue();
+            }
+            return null;
+        }
+
+        @Override
+        public Node getNode() {
+            return node;
+        }
+
+        @Override
+        public Node getNode(final String selectorName) {
+            return node;
+        }
+
+        @Override
+        public String getPath() throws RepositoryException {
+            return node.getPath();
+        }
+
+        @Override
+        public String getPath(final String selectorName) throws RepositoryException {
+            return node.getPath();
+        }
+
+        @Override
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public double getScore(final String selectorName) {
+            return score;
+        }
+    }
+}
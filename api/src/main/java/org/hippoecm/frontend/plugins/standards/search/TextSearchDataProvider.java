@@ -17,16 +17,6 @@ package org.hippoecm.frontend.plugins.standards.search;
 
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-
-import javax.jcr.ItemNotFoundException;
-import javax.jcr.Node;
-import javax.jcr.RepositoryException;
-import javax.jcr.ValueFormatException;
-import javax.jcr.query.QueryResult;
-import javax.jcr.query.Row;
-import javax.jcr.query.RowIterator;
 
 import org.apache.wicket.markup.repeater.data.IDataProvider;
 import org.apache.wicket.model.IModel;
@@ -51,42 +41,9 @@ public class TextSearchDataProvider implements IDataProvider<TextSearchMatch> {
 
     public Iterator<? extends TextSearchMatch> iterator(long first, long count) {
         BrowserSearchResult bsr = resultModel.getObject();
-        QueryResult result = bsr.getQueryResult();
-        if (result != null) {
-            try {
-                javax.jcr.Session session = UserSession.get().getJcrSession();
-
-                List<TextSearchMatch> resultList = new LinkedList<TextSearchMatch>();
-                boolean hasExcerpt = false;
-                for (String colName : result.getColumnNames()) {
-                    if ("rep:excerpt()".equals(colName)) {
-                        hasExcerpt = true;
-                        break;
-                    }
-                }
-                RowIterator rows = result.getRows();
-                rows.skip(first);
-                while (rows.hasNext() && (count == -1 || count-- > 0)) {
-                    Row row = rows.nextRow();
-                    try {
-                        String path = row.getValue("jcr:path").getString();
-                        Node node = (Node) session.getItem(path);
-                        if (hasExcerpt) {
-                            String excerpt = row.getValue("rep:excerpt()").getString();
-                            resultList.add(new TextSearchMatch(node, excerpt));
-                        } else {
-                            resultList.add(new TextSearchMatch(node));
-                        }
-                    } catch (ItemNotFoundException infe) {
-                        log.warn("Item not found", infe);
-                    } catch (ValueFormatException vfe) {
-                        log.error("Value is invalid", vfe);
-                    }
-                    return resultList.iterator();
-                }
-            } catch (RepositoryException e) {
-                log.error("Error parsing query results[" + bsr.getQueryName() + "]", e);
-            }
+        if (bsr != null) {
+            javax.jcr.Session session = UserSession.get().getJcrSession();
+            return bsr.getHits().getMatches(session, first, count).iterator();
         }
         return Collections.<TextSearchMatch>emptyList().iterator();
     }
@@ -97,15 +54,8 @@ public class TextSearchDataProvider implements IDataProvider<TextSearchMatch> {
     }
 
     public long size() {
-        QueryResult result = resultModel.getObject().getQueryResult();
-        if (result != null) {
-            try {
-                return (int) result.getRows().getSize();
-            } catch (RepositoryException e) {
-                log.error("Error parsing query results", e);
-            }
-        }
-        return 0;
+        BrowserSearchResult bsr = resultModel.getObject();
+        return bsr != null ? bsr.getHits().size() : 0;
     }
 
     public void detach() {
@@ -35,6 +35,7 @@ public class MagicMimeTypeFileItem implements FileItem {
 
     private FileItem delegate;
     private String contentType;
+    private transient UploadProbe probe;
 
     public MagicMimeTypeFileItem(FileItem delegate) {
         this.delegate = delegate;
@@ -44,23 +45,45 @@ public class MagicMimeTypeFileItem implements FileItem {
      * @return The best matching mimetype for this fileItem
      */
     private String resolveMimeType(FileItem fileItem) {
-        try (InputStream in = fileItem.getInputStream()) {
-            final String fileName = fileItem.getName();
-            final String extensionBasedMediaType = tika.detect(fileName);
-            if (MediaTypeRegistry.getDefaultRegistry().isInstanceOf(extensionBasedMediaType, MediaType.TEXT_PLAIN)) {
-                return extensionBasedMediaType;
-            }
-
-            String resolvedMediaType = tika.detect(in, fileName);
-            if (MediaTypeRegistry.getDefaultRegistry().isInstanceOf(resolvedMediaType, MediaType.APPLICATION_ZIP)) {
-                return extensionBasedMediaType;
-            }
-
-            return resolvedMediaType;
+        final String fileName = fileItem.getName();
+        final String extensionBasedMediaType = tika.detect(fileName);
+        if (MediaTypeRegistry.getDefaultRegistry().isInstanceOf(extensionBasedMediaType, MediaType.TEXT_PLAIN)) {
+            return extensionBasedMediaType;
+        }
+
+        final String resolvedMediaType;
+        try {
+            resolvedMediaType = detectContentType(fileItem);
         } catch (IOException e) {
             log.warn("Tika failed to detect mime-type, falling back on browser provided mime-type", e);
+            return fileItem.getContentType();
+        }
+        if (MediaTypeRegistry.getDefaultRegistry().isInstanceOf(resolvedMediaType, MediaType.APPLICATION_ZIP)) {
+            return extensionBasedMediaType;
+        }
+
+        return resolvedMediaType;
+    }
+
+    /**
+     * Detects the mimetype from the first bytes collected while the item was written, or else from its content.
+     */
+    private String detectContentType(FileItem fileItem) throws IOException {
+        final UploadMetadata metadata = getMetadata();
+        if (metadata != null) {
+            return tika.detect(metadata.getHead(), fileItem.getName());
+        }
+        try (InputStream in = fileItem.getInputStream()) {
+            return tika.detect(in, fileItem.getName());
         }
-        return fileItem.getContentType();
+    }
+
+    /**
+     * @return the metadata collected while the content was written to this item, or null when the content has not
+     * been written through {@link #getOutputStream()}
+     */
+    public UploadMetadata getMetadata() {
+        return probe != null ? probe.getMetadata() : null;
     }
 
     public String getContentType() {
@@ -123,6 +146,7 @@ public class MagicMimeTypeFileItem implements FileItem {
     }
 
     public OutputStream getOutputStream() throws IOException {
-        return delegate.getOutputStream();
+        probe = new UploadProbe(delegate.getOutputStream(), delegate.getName());
+        return probe;
     }
 }
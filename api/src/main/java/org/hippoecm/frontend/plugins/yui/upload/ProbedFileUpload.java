@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.yui.upload;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.wicket.markup.html.form.upload.FileUpload;
+import org.apache.wicket.util.upload.FileItem;
+
+/**
+ * File upload that carries the {@link UploadMetadata} collected while the file was written to disk.  Use
+ * {@link UploadMetadata#of(FileUpload)} to get the metadata of any file upload.  The streams of the upload carry
+ * the metadata too, see {@link UploadMetadata#of(InputStream)}.
+ */
+public class ProbedFileUpload extends FileUpload {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient UploadMetadata metadata;
+
+    public ProbedFileUpload(final FileItem item) {
+        super(item);
+        metadata = item instanceof MagicMimeTypeFileItem ? ((MagicMimeTypeFileItem) item).getMetadata() : null;
+    }
+
+    UploadMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        final InputStream stream = super.getInputStream();
+        return metadata != null ? metadata.wrap(stream) : stream;
+    }
+}
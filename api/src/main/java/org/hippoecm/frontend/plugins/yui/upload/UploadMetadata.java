@@ -0,0 +1,215 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.yui.upload;
+
+import java.awt.Dimension;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.sanselan.ImageInfo;
+import org.apache.sanselan.ImageReadException;
+import org.apache.sanselan.Sanselan;
+import org.apache.wicket.markup.html.form.upload.FileUpload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.drew.imaging.jpeg.JpegProcessingException;
+import com.drew.imaging.jpeg.JpegSegmentReader;
+
+/**
+ * What is known about an upload after it has been written to its temporary file by an {@link UploadProbe}: its
+ * size and its first bytes.  The image information (format, dimensions and color type)
+ * is read from the first bytes when it is asked for.  It is unknown when the headers of the image do not fit in
+ * the first bytes; the upload itself then has to be read.
+ */
+public final class UploadMetadata {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadMetadata.class);
+
+    private final String fileName;
+    private final long size;
+    private final byte[] head;
+    private final boolean complete;
+
+    private boolean analysed;
+    private String imageMimeType;
+    private Dimension imageSize;
+    private int colorType = ImageInfo.COLOR_TYPE_UNKNOWN;
+    private Boolean ycck;
+
+    UploadMetadata(final String fileName, final long size, final byte[] head, final boolean complete) {
+        this.fileName = fileName;
+        this.size = size;
+        this.head = head;
+        this.complete = complete;
+    }
+
+    /**
+     * @param upload an uploaded file
+     * @return the metadata collected while the file was uploaded, or null when the upload was not inspected
+     */
+    public static UploadMetadata of(final FileUpload upload) {
+        return upload instanceof ProbedFileUpload ? ((ProbedFileUpload) upload).getMetadata() : null;
+    }
+
+    /**
+     * @param stream a stream of an uploaded file
+     * @return the metadata of the upload when the stream was created by {@link #wrap(InputStream)}, or null
+     */
+    public static UploadMetadata of(final InputStream stream) {
+        return stream instanceof MetadataInputStream ? ((MetadataInputStream) stream).metadata : null;
+    }
+
+    /**
+     * Wraps a stream of the content of the upload, so code that only gets the stream can use the metadata.
+     *
+     * @param stream a stream of the content of the upload
+     * @return a stream that reads the given stream and carries this metadata
+     */
+    public InputStream wrap(final InputStream stream) {
+        return new MetadataInputStream(stream, this);
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @return the number of bytes of the upload
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return true when the first bytes are the whole upload
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return a stream of the first bytes of the upload, e.g. to check magic bytes or headers
+     */
+    public InputStream getHeadStream() {
+        return new ByteArrayInputStream(head);
+    }
+
+    byte[] getHead() {
+        return head;
+    }
+
+    /**
+     * @return true when the upload is an image of which the format, dimensions and color type are known
+     */
+    public boolean hasImageInfo() {
+        analyse();
+        return imageMimeType != null;
+    }
+
+    /**
+     * @return the MIME type of the image format, or null when unknown
+     */
+    public String getImageMimeType() {
+        analyse();
+        return imageMimeType;
+    }
+
+    /**
+     * @return the dimensions of the image, or null when unknown
+     */
+    public Dimension getImageSize() {
+        analyse();
+        return imageSize != null ? new Dimension(imageSize) : null;
+    }
+
+    /**
+     * @return the Sanselan color type of the image, i.e. one of the ImageInfo.COLOR_TYPE_* constants
+     */
+    public int getColorType() {
+        analyse();
+        return colorType;
+    }
+
+    /**
+     * Sanselan detects YCCK images as CMYK, so CMYK JPEG images are checked for YCCK too.
+     *
+     * @return whether a CMYK image is actually YCCK, or null when unknown or not applicable
+     */
+    public Boolean isYCCK() {
+        analyse();
+        return ycck;
+    }
+
+    private synchronized void analyse() {
+        if (analysed) {
+            return;
+        }
+        analysed = true;
+
+        final Map<String, Object> params = new HashMap<>();
+        // a truncated or corrupt thumbnail must not break reading the metadata
+        params.put(Sanselan.PARAM_KEY_READ_THUMBNAILS, Boolean.FALSE);
+        try {
+            final ImageInfo info = Sanselan.getImageInfo(head, params);
+            imageMimeType = info.getMimeType();
+            imageSize = new Dimension(info.getWidth(), info.getHeight());
+            colorType = info.getColorType();
+            if (colorType == ImageInfo.COLOR_TYPE_CMYK) {
+                ycck = readYCCK();
+            }
+        } catch (ImageReadException | IOException | RuntimeException e) {
+            log.debug("No image information in the first {} bytes of '{}': {}", head.length, fileName, e.toString());
+            imageMimeType = null;
+            colorType = ImageInfo.COLOR_TYPE_UNKNOWN;
+            imageSize = readImageSize();
+        }
+    }
+
+    private Dimension readImageSize() {
+        try {
+            return Sanselan.getImageSize(head);
+        } catch (ImageReadException | IOException | RuntimeException e) {
+            log.debug("No image size in the first {} bytes of '{}': {}", head.length, fileName, e.toString());
+            return null;
+        }
+    }
+
+    private Boolean readYCCK() {
+        try {
+            final JpegSegmentReader reader = new JpegSegmentReader(new ByteArrayInputStream(head), false);
+            final byte[] appe = reader.readSegment(JpegSegmentReader.SEGMENT_APPE);
+            return appe != null && appe[11] == 2;
+        } catch (JpegProcessingException | RuntimeException e) {
+            log.debug("Unable to read the color space of '{}': {}", fileName, e.toString());
+            return null;
+        }
+    }
+
+    private static final class MetadataInputStream extends FilterInputStream {
+
+        private final UploadMetadata metadata;
+
+        private MetadataInputStream(final InputStream in, final UploadMetadata metadata) {
+            super(in);
+            this.metadata = metadata;
+        }
+    }
+}
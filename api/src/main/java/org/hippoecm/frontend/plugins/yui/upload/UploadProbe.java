@@ -0,0 +1,80 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.yui.upload;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream that inspects an upload while it is written to its temporary file.  It counts the bytes and keeps
+ * the first {@link #HEAD_SIZE} bytes, which contain the magic bytes and the headers of all common image formats.
+ * When the stream is closed, the collected {@link UploadMetadata} is available, so the upload does not have to be
+ * read again to find out what it is.
+ */
+public class UploadProbe extends OutputStream {
+
+    public static final int HEAD_SIZE = 256 * 1024;
+
+    private final OutputStream out;
+    private final String fileName;
+    private final ByteArrayOutputStream head = new ByteArrayOutputStream(8192);
+    private long size;
+    private UploadMetadata metadata;
+
+    public UploadProbe(final OutputStream out, final String fileName) {
+        this.out = out;
+        this.fileName = fileName;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        out.write(b);
+        if (size < HEAD_SIZE) {
+            head.write(b);
+        }
+        size++;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        out.write(b, off, len);
+        if (size < HEAD_SIZE) {
+            head.write(b, off, (int) Math.min(len, HEAD_SIZE - size));
+        }
+        size += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+        if (metadata == null) {
+            metadata = new UploadMetadata(fileName, size, head.toByteArray(), size <= HEAD_SIZE);
+        }
+    }
+
+    /**
+     * @return the metadata of the upload, or null when the stream has not been closed yet
+     */
+    public UploadMetadata getMetadata() {
+        return metadata;
+    }
+}
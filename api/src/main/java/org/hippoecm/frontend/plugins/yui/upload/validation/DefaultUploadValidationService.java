@@ -35,6 +35,7 @@ import org.hippoecm.frontend.editor.plugins.resource.InvalidMimeTypeException;
 import org.hippoecm.frontend.editor.plugins.resource.MimeTypeHelper;
 import org.hippoecm.frontend.plugin.IPluginContext;
 import org.hippoecm.frontend.plugin.config.IPluginConfig;
+import org.hippoecm.frontend.plugins.yui.upload.UploadMetadata;
 import org.hippoecm.frontend.validation.IValidationResult;
 import org.hippoecm.frontend.validation.IValidationService;
 import org.hippoecm.frontend.validation.ValidationException;
@@ -162,7 +163,19 @@ public class DefaultUploadValidationService implements FileUploadValidationServi
         if (allowedMimeTypes.contains(mimeType)) {
             return;
         }
-        try (InputStream is = upload.getInputStream()){
+        // the headers are in the first bytes of the upload, which have been collected while it was uploaded
+        final UploadMetadata metadata = UploadMetadata.of(upload);
+        if (metadata != null && !metadata.isComplete()) {
+            try (InputStream is = metadata.getHeadStream()) {
+                MimeTypeHelper.validateMimeType(is, mimeType);
+                return;
+            } catch (InvalidMimeTypeException | IOException e) {
+                // the first bytes may not suffice to recognize the content, check the whole upload
+                log.debug("Unable to validate MIME type of '{}' from its first bytes", upload.getClientFileName());
+            }
+        }
+        final boolean complete = metadata != null && metadata.isComplete();
+        try (InputStream is = complete ? metadata.getHeadStream() : upload.getInputStream()) {
             MimeTypeHelper.validateMimeType(is, mimeType);
         } catch (InvalidMimeTypeException e) {
             addViolation("file.validation.mime.invalid", upload.getClientFileName(), mimeType);
@@ -224,7 +237,8 @@ public class DefaultUploadValidationService implements FileUploadValidationServi
     }
 
     /**
-     * Get the validation service specified by the parameter {@link IValidationService#VALIDATE_ID} in the plugin config.
+     * Get the validation service specified by the parameter {@link IValidationService#VALIDATE_ID} in the plugin
+     * config.
      * If no service id configuration is found, the service with id <code>defaultValidationServiceId</code> is used.
      * If it cannot find this service, a new default service is returned.
      */
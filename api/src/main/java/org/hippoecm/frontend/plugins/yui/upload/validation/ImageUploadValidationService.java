@@ -18,6 +18,7 @@ package org.hippoecm.frontend.plugins.yui.upload.validation;
 
 import java.awt.Dimension;
 import java.io.IOException;
+import java.io.InputStream;
 
 import org.apache.sanselan.ImageReadException;
 import org.apache.sanselan.Sanselan;
@@ -26,6 +27,7 @@ import org.apache.wicket.util.value.IValueMap;
 import org.hippoecm.frontend.editor.plugins.resource.MimeTypeHelper;
 import org.hippoecm.frontend.plugin.IPluginContext;
 import org.hippoecm.frontend.plugin.config.IPluginConfig;
+import org.hippoecm.frontend.plugins.yui.upload.UploadMetadata;
 import org.hippoecm.frontend.validation.IValidationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,15 +65,11 @@ public class ImageUploadValidationService extends DefaultUploadValidationService
     private void validateSizes(final FileUpload upload) {
         String fileName = upload.getClientFileName();
 
-        Dimension dim;
-        try {
-            dim = Sanselan.getImageSize(upload.getInputStream(), fileName);
-        } catch (IOException | ImageReadException e) {
-            addViolation("image.validation.metadata.error", fileName);
-            log.error("Error validating dimensions for file " + fileName, e);
-            return;
+        final UploadMetadata metadata = UploadMetadata.of(upload);
+        Dimension dim = metadata != null ? metadata.getImageSize() : null;
+        if (dim == null) {
+            dim = readImageSize(upload);
         }
-
         if (dim == null) {
             addViolation("image.validation.metadata.error", fileName);
             return;
@@ -94,6 +92,15 @@ public class ImageUploadValidationService extends DefaultUploadValidationService
         }
     }
 
+    private Dimension readImageSize(final FileUpload upload) {
+        try (InputStream is = upload.getInputStream()) {
+            return Sanselan.getImageSize(is, upload.getClientFileName());
+        } catch (IOException | ImageReadException e) {
+            log.error("Error validating dimensions for file " + upload.getClientFileName(), e);
+            return null;
+        }
+    }
+
     @Override
     protected String[] getDefaultExtensionsAllowed() {
         return DEFAULT_EXTENSIONS_ALLOWED;
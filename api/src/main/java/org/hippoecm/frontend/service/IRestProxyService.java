@@ -16,6 +16,9 @@
 package org.hippoecm.frontend.service;
 
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import javax.security.auth.Subject;
 
@@ -87,4 +90,22 @@ public interface IRestProxyService extends IClusterable {
      */
     <T> T createSecureRestProxy(Class<T> restServiceApiClass, List<Object> additionalProviders);
 
+    /**
+     * Invokes a call on one or more proxies created by this service asynchronously, so several REST calls can be
+     * executed in parallel while rendering. Proxies created by this service carry all request specific state with
+     * them, so they can safely be used from the invoking thread.
+     * <P>
+     * The default implementation executes the call synchronously in the calling thread.
+     * </P>
+     *
+     * @param call the call to execute, typically one or more invocations on proxies created by this service
+     * @param <T> the type of the result of the call
+     * @return a future that holds the result of the call
+     */
+    default <T> Future<T> invokeAsync(Callable<T> call) {
+        final FutureTask<T> task = new FutureTask<>(call);
+        task.run();
+        return task;
+    }
+
 }
@@ -129,11 +129,19 @@ public enum Icon {
     private static final Logger log = LoggerFactory.getLogger(Icon.class);
 
     private static final String SPRITE_FILE_NAME = "images/icons/hippo-icon-sprite.svg";
+    private static final PackageResourceReference ICON_SPRITE = new PackageResourceReference(Icon.class, SPRITE_FILE_NAME);
+
+    /**
+     * @return a reference to the sprite that contains all icons. The URL of the reference is versioned by the
+     * caching strategy of the application, so browsers can cache the sprite.
+     */
+    public static PackageResourceReference getIconSpriteReference() {
+        return ICON_SPRITE;
+    }
 
     public static String getIconSprite() {
-        PackageResourceReference iconSprite = new PackageResourceReference(Icon.class, SPRITE_FILE_NAME);
         try {
-            return IconUtil.svgAsString(iconSprite);
+            return IconUtil.svgAsString(ICON_SPRITE);
         } catch (ResourceStreamNotFoundException|IOException e) {
             log.warn("Cannot find Hippo icon sprite", e);
             return "";
@@ -22,24 +22,85 @@ import java.util.stream.Collectors;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.wicket.Application;
 import org.apache.wicket.request.resource.PackageResource;
 import org.apache.wicket.request.resource.PackageResourceReference;
+import org.apache.wicket.request.resource.ResourceReference;
 import org.apache.wicket.util.io.IOUtils;
 import org.apache.wicket.util.resource.IResourceStream;
 import org.apache.wicket.util.resource.ResourceStreamNotFoundException;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 public class IconUtil {
 
+    /**
+     * SVG markup per resource and CSS classes, so icons are read from their resource only once. Not used in
+     * development mode, where changes to the SVG files should show up right away.
+     */
+    private static final Cache<SvgKey, String> svgCache = CacheBuilder.newBuilder()
+            .maximumSize(2000)
+            .build();
+
+    private static final class SvgKey {
+
+        private final ResourceReference.Key resource;
+        private final String cssClasses;
+
+        private SvgKey(final ResourceReference.Key resource, final String cssClasses) {
+            this.resource = resource;
+            this.cssClasses = cssClasses;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SvgKey)) {
+                return false;
+            }
+            final SvgKey other = (SvgKey) o;
+            return resource.equals(other.resource) && cssClasses.equals(other.cssClasses);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * resource.hashCode() + cssClasses.hashCode();
+        }
+    }
+
     private IconUtil() {
     }
 
     public static String svgAsString(PackageResourceReference reference, String... cssClasses) throws ResourceStreamNotFoundException, IOException {
+        final String cssClassesAsString = cssClassesAsString(cssClasses);
+        if (Application.exists() && Application.get().usesDevelopmentConfig()) {
+            return readSvg(reference, cssClassesAsString);
+        }
+
+        final SvgKey key = new SvgKey(reference.getKey(), cssClassesAsString);
+        String svgAsString = svgCache.getIfPresent(key);
+        if (svgAsString == null) {
+            svgAsString = readSvg(reference, cssClassesAsString);
+            svgCache.put(key, svgAsString);
+        }
+        return svgAsString;
+    }
+
+    private static String readSvg(PackageResourceReference reference, String cssClassesAsString) throws ResourceStreamNotFoundException, IOException {
         final PackageResource resource = reference.getResource();
         final IResourceStream resourceStream = resource.getResourceStream();
         if (resourceStream == null) {
             throw new ResourceStreamNotFoundException("Cannot find SVG icon " + resource);
         }
-        String svgAsString = IOUtils.toString(resourceStream.getInputStream());
+        String svgAsString;
+        try {
+            svgAsString = IOUtils.toString(resourceStream.getInputStream());
+        } finally {
+            resourceStream.close();
+        }
 
         int rootIndex = svgAsString.indexOf("<svg");
         if (rootIndex == -1) {
@@ -50,7 +111,6 @@ public class IconUtil {
         svgAsString = svgAsString.substring(rootIndex);
 
         //append css classes if present
-        final String cssClassesAsString = cssClassesAsString(cssClasses);
         if (StringUtils.isNotEmpty(cssClassesAsString)) {
             //check if class attribute is present and part of <svg element
             final int classAttributeIndex = svgAsString.indexOf("class=\"");
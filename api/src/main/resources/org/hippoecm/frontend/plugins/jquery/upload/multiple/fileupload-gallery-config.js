@@ -55,7 +55,7 @@
     dataType: 'json',
     previewMaxWidth: 32,
     previewMaxHeight: 32,
-    limitMultiFileUploads:1,
+    limitMultiFileUploads:${fileupload.itemsPerRequest},
     sequentialUploads:true
   });
 })();
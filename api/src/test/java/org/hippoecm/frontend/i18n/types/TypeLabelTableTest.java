@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hippoecm.frontend.i18n.types;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Workspace;
+import javax.jcr.observation.ObservationManager;
+
+import org.easymock.EasyMock;
+import org.hippoecm.frontend.observation.JcrChangeCounter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+
+public class TypeLabelTableTest {
+
+    private static final String TYPE_PATH = TypeLabelTable.NAMESPACES_PATH + "/labeltest/newsdocument";
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private Session session;
+
+    @Before
+    public void setUp() throws RepositoryException {
+        final Workspace workspace = EasyMock.createNiceMock(Workspace.class);
+        expect(workspace.getObservationManager()).andReturn(EasyMock.createNiceMock(ObservationManager.class)).anyTimes();
+        final Session systemSession = EasyMock.createNiceMock(Session.class);
+        expect(systemSession.isLive()).andReturn(true).anyTimes();
+        expect(systemSession.getWorkspace()).andReturn(workspace).anyTimes();
+        replay(workspace, systemSession);
+
+        final Node typeNode = EasyMock.createNiceMock(Node.class);
+        expect(typeNode.getName()).andReturn("newsdocument").anyTimes();
+        replay(typeNode);
+
+        session = EasyMock.createNiceMock(Session.class);
+        expect(session.nodeExists(EasyMock.anyString())).andAnswer(() -> {
+            lookups.incrementAndGet();
+            return TYPE_PATH.equals(EasyMock.getCurrentArguments()[0]);
+        }).anyTimes();
+        expect(session.getNode(TYPE_PATH)).andReturn(typeNode).anyTimes();
+        replay(session);
+        JcrChangeCounter.setSessionFactory(() -> systemSession);
+
+        // forget the labels of other tests
+        JcrChangeCounter.get(TypeLabelTable.NAMESPACES_PATH, TypeLabelTable.EVENT_TYPES, true, null).increment();
+    }
+
+    @After
+    public void tearDown() {
+        JcrChangeCounter.setSessionFactory(null);
+    }
+
+    @Test
+    public void label_is_the_name_of_the_type_node() {
+        assertEquals("newsdocument", TypeLabelTable.getLabel(session, "labeltest:newsdocument", Locale.ENGLISH));
+    }
+
+    @Test
+    public void label_of_an_unknown_type_is_the_type() {
+        assertEquals("labeltest:unknown", TypeLabelTable.getLabel(session, "labeltest:unknown", Locale.ENGLISH));
+    }
+
+    @Test
+    public void label_is_kept_until_the_namespaces_change() {
+        TypeLabelTable.getLabel(session, "labeltest:newsdocument", Locale.ENGLISH);
+        TypeLabelTable.getLabel(session, "labeltest:newsdocument", Locale.ENGLISH);
+        assertEquals(1, lookups.get());
+
+        JcrChangeCounter.get(TypeLabelTable.NAMESPACES_PATH, TypeLabelTable.EVENT_TYPES, true, null).increment();
+        assertEquals("newsdocument", TypeLabelTable.getLabel(session, "labeltest:newsdocument", Locale.ENGLISH));
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void labels_are_kept_per_locale() {
+        TypeLabelTable.getLabel(session, "labeltest:newsdocument", Locale.ENGLISH);
+        TypeLabelTable.getLabel(session, "labeltest:newsdocument", Locale.GERMAN);
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void bundle_name_of_a_system_type_has_the_hipposys_prefix() {
+        assertEquals("hippo:types.hipposys:String", TypeLabelTable.getBundleName("String"));
+        assertEquals("hippo:types.labeltest:newsdocument", TypeLabelTable.getBundleName("labeltest:newsdocument"));
+    }
+}
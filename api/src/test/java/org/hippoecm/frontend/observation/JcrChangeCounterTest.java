@@ -0,0 +1,84 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hippoecm.frontend.observation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+
+import org.apache.jackrabbit.commons.iterator.EventIteratorAdapter;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JcrChangeCounterTest {
+
+    private static final String PATH = "/countertest";
+    private static final int EVENT_TYPES = Event.NODE_ADDED | Event.PROPERTY_CHANGED;
+
+    private static EventIterator events(final Object... typesAndPaths) throws RepositoryException {
+        final List<Event> events = new ArrayList<>();
+        for (int i = 0; i < typesAndPaths.length; i += 2) {
+            final Event event = EasyMock.createMock(Event.class);
+            expect(event.getType()).andReturn((Integer) typesAndPaths[i]).anyTimes();
+            expect(event.getPath()).andReturn((String) typesAndPaths[i + 1]).anyTimes();
+            replay(event);
+            events.add(event);
+        }
+        return new EventIteratorAdapter(events);
+    }
+
+    @Test
+    public void counters_are_shared() {
+        assertSame(JcrChangeCounter.get(PATH, EVENT_TYPES, true, null),
+                JcrChangeCounter.get(PATH, EVENT_TYPES, true, null));
+        assertNotSame(JcrChangeCounter.get(PATH, EVENT_TYPES, true, null),
+                JcrChangeCounter.getSynchronous(PATH, EVENT_TYPES, true, null));
+        assertNotSame(JcrChangeCounter.getSynchronous(PATH, EVENT_TYPES, true, null),
+                JcrChangeCounter.getSynchronous(PATH, EVENT_TYPES, true, null, new String[]{"countertest:members"}));
+    }
+
+    @Test
+    public void every_event_is_observed_without_property_names() throws RepositoryException {
+        final JcrChangeCounter counter = JcrChangeCounter.get(PATH, EVENT_TYPES, true, null);
+        assertTrue(counter.isObserved(events(Event.PROPERTY_CHANGED, PATH + "/node/countertest:other")));
+    }
+
+    @Test
+    public void only_the_named_properties_are_observed() throws RepositoryException {
+        final JcrChangeCounter counter = JcrChangeCounter.getSynchronous(PATH, EVENT_TYPES, true, null,
+                new String[]{"countertest:members"});
+        assertFalse(counter.isObserved(events(Event.PROPERTY_CHANGED, PATH + "/node/countertest:other")));
+        assertTrue(counter.isObserved(events(Event.PROPERTY_CHANGED, PATH + "/node/countertest:other",
+                Event.PROPERTY_CHANGED, PATH + "/node/countertest:members")));
+    }
+
+    @Test
+    public void node_events_are_observed_with_property_names() throws RepositoryException {
+        final JcrChangeCounter counter = JcrChangeCounter.getSynchronous(PATH, EVENT_TYPES, true, null,
+                new String[]{"countertest:members"});
+        assertTrue(counter.isObserved(events(Event.NODE_ADDED, PATH + "/node")));
+    }
+}
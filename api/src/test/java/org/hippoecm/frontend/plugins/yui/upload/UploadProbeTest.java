@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.yui.upload;
+
+import java.awt.Dimension;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.sanselan.ImageInfo;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class UploadProbeTest {
+
+    private static byte[] read(String resource) throws IOException {
+        try (InputStream is = UploadProbeTest.class.getResourceAsStream(resource)) {
+            return IOUtils.toByteArray(is);
+        }
+    }
+
+    private static UploadMetadata probe(byte[] content, String fileName, ByteArrayOutputStream out) throws IOException {
+        UploadProbe probe = new UploadProbe(out, fileName);
+        // write in chunks, like a multipart parser does
+        for (int offset = 0; offset < content.length; offset += 4096) {
+            probe.write(content, offset, Math.min(4096, content.length - offset));
+        }
+        assertNull(probe.getMetadata());
+        probe.close();
+        return probe.getMetadata();
+    }
+
+    @Test
+    public void content_is_written_unchanged() throws IOException {
+        byte[] content = read("/test-380x428.jpg");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        UploadMetadata metadata = probe(content, "test-380x428.jpg", out);
+
+        assertArrayEquals(content, out.toByteArray());
+        assertEquals(content.length, metadata.getSize());
+        assertTrue(metadata.isComplete());
+    }
+
+    @Test
+    public void image_information_is_collected() throws IOException {
+        UploadMetadata metadata = probe(read("/test-380x428.jpg"), "test-380x428.jpg", new ByteArrayOutputStream());
+
+        assertTrue(metadata.hasImageInfo());
+        assertEquals("image/jpeg", metadata.getImageMimeType());
+        assertEquals(new Dimension(380, 428), metadata.getImageSize());
+        assertEquals(ImageInfo.COLOR_TYPE_RGB, metadata.getColorType());
+        assertNull(metadata.isYCCK());
+    }
+
+    @Test
+    public void cmyk_and_ycck_are_distinguished() throws IOException {
+        UploadMetadata cmyk = probe(read("/test-CMYK.jpg"), "test-CMYK.jpg", new ByteArrayOutputStream());
+        assertEquals(ImageInfo.COLOR_TYPE_CMYK, cmyk.getColorType());
+        assertEquals(Boolean.FALSE, cmyk.isYCCK());
+
+        UploadMetadata ycck = probe(read("/test-YCCK.jpg"), "test-YCCK.jpg", new ByteArrayOutputStream());
+        assertEquals(ImageInfo.COLOR_TYPE_CMYK, ycck.getColorType());
+        assertEquals(Boolean.TRUE, ycck.isYCCK());
+    }
+
+    @Test
+    public void only_the_head_of_large_uploads_is_kept() throws IOException {
+        byte[] image = read("/test-5000x1.png");
+        byte[] content = Arrays.copyOf(image, UploadProbe.HEAD_SIZE * 3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        UploadMetadata metadata = probe(content, "large.png", out);
+
+        assertEquals(content.length, out.size());
+        assertEquals(content.length, metadata.getSize());
+        assertFalse(metadata.isComplete());
+        assertEquals(UploadProbe.HEAD_SIZE, metadata.getHead().length);
+        assertEquals(new Dimension(5000, 1), metadata.getImageSize());
+    }
+
+    @Test
+    public void wrapped_streams_carry_the_metadata() throws IOException {
+        UploadMetadata metadata = probe(read("/test-380x428.jpg"), "test-380x428.jpg", new ByteArrayOutputStream());
+
+        assertSame(metadata, UploadMetadata.of(metadata.wrap(metadata.getHeadStream())));
+        assertNull(UploadMetadata.of(metadata.getHeadStream()));
+    }
+
+    @Test
+    public void other_content_has_no_image_information() throws IOException {
+        UploadMetadata metadata = probe(read("/test.pdf"), "test.pdf", new ByteArrayOutputStream());
+
+        assertFalse(metadata.hasImageInfo());
+        assertNull(metadata.getImageSize());
+    }
+}
@@ -74,7 +74,6 @@ import org.hippoecm.repository.api.HippoNodeType;
 import org.hippoecm.repository.api.HippoWorkspace;
 import org.hippoecm.repository.api.StringCodec;
 import org.hippoecm.repository.api.Workflow;
-import org.hippoecm.repository.api.WorkflowDescriptor;
 import org.hippoecm.repository.api.WorkflowException;
 import org.hippoecm.repository.api.WorkflowManager;
 import org.hippoecm.repository.standardworkflow.DefaultWorkflow;
@@ -99,10 +98,7 @@ public class FolderWorkflowPlugin extends RenderPlugin {
         try {
             WorkflowDescriptorModel model = getModel();
             List<StdWorkflow> list = new LinkedList<>();
-            WorkflowDescriptor descriptor = model.getObject();
-            WorkflowManager manager = UserSession.get().getWorkflowManager();
-            Workflow workflow = manager.getWorkflow(descriptor);
-            final Map<String, Serializable> hints = workflow.hints();
+            final Map<String, Serializable> hints = model.getHints();
 
             if (isActionAvailable("rename", hints)) {
                 add(new StdWorkflow("rename", new StringResourceModel("rename-title", this, null), context, getModel()) {
@@ -154,7 +150,7 @@ public class FolderWorkflowPlugin extends RenderPlugin {
 
             if (isActionAvailable("reorder", hints)) {
                 add(new StdWorkflow("reorder", new StringResourceModel("reorder-folder", this, null), context, getModel()) {
-                    public List<String> order = new LinkedList<>();
+                    public ReorderOperations operations = new ReorderOperations();
 
                     @Override
                     protected Component getIcon(final String id) {
@@ -163,14 +159,17 @@ public class FolderWorkflowPlugin extends RenderPlugin {
 
                     @Override
                     protected Dialog createRequestDialog() {
-                        return new ReorderDialog(this, config, getModel(), order);
+                        return new ReorderDialog(this, config, getModel(), operations);
                     }
 
                     @Override
                     protected void execute(WorkflowDescriptorModel model) throws Exception {
+                        if (!operations.isModified()) {
+                            return;
+                        }
                         WorkflowManager manager = UserSession.get().getWorkflowManager();
                         FolderWorkflow workflow = (FolderWorkflow) manager.getWorkflow(model.getObject());
-                        workflow.reorder(order);
+                        workflow.reorder(operations.getMapping(model.getNode()));
                     }
                 });
             }
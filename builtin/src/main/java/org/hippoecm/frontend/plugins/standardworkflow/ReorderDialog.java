@@ -18,11 +18,11 @@ package org.hippoecm.frontend.plugins.standardworkflow;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
+import javax.jcr.Session;
 
 import org.apache.wicket.Component;
 import org.apache.wicket.ajax.AjaxRequestTarget;
@@ -54,6 +54,7 @@ import org.hippoecm.frontend.plugins.standards.list.datatable.SortableDataProvid
 import org.hippoecm.frontend.plugins.standards.list.resolvers.IListCellRenderer;
 import org.hippoecm.frontend.plugins.standards.list.resolvers.IconRenderer;
 import org.hippoecm.frontend.service.IconSize;
+import org.hippoecm.frontend.session.UserSession;
 import org.hippoecm.frontend.skin.Icon;
 import org.hippoecm.repository.api.WorkflowDescriptor;
 import org.slf4j.Logger;
@@ -63,86 +64,84 @@ class ReorderDialog extends WorkflowDialog<WorkflowDescriptor> {
 
     private static final Logger log = LoggerFactory.getLogger(ReorderDialog.class);
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
     private ReorderPanel panel;
-    private List<String> mapping;
 
     static class ListItem implements IDetachable {
 
-        private String name;
+        private String identifier;
         private IModel<String> displayName;
         private JcrNodeModel nodeModel;
-        private int index;
 
-        ListItem(JcrNodeModel nodeModel) {
+        ListItem(String identifier, JcrNodeModel nodeModel) {
+            this.identifier = identifier;
             this.nodeModel = nodeModel;
-            try {
-                name = nodeModel.getNode().getName();
-                index = nodeModel.getNode().getIndex();
-                displayName = new NodeNameModel(nodeModel);
-            } catch (RepositoryException e) {
-                log.error(e.getMessage(), e);
-            }
+            displayName = new NodeNameModel(nodeModel);
         }
 
         public IModel<String> getDisplayName() {
             return displayName;
         }
 
-        public String getName() {
-            return name;
+        public String getIdentifier() {
+            return identifier;
         }
 
         public IModel<Node> getNodeModel() {
             return nodeModel;
         }
 
-        public String getPathName() {
-            return name + (index > 1 ? "["+index+"]" : "");
-        }
-
         public void detach() {
             nodeModel.detach();
         }
 
         @Override
         public boolean equals(Object other) {
-            if (other instanceof ListItem) {
-                ListItem otherItem = (ListItem) other;
-                try {
-                    return otherItem.nodeModel.getNode().isSame(nodeModel.getNode());
-                } catch (RepositoryException e) {
-                    return false;
-                }
-            }
-            return false;
+            return other instanceof ListItem && ((ListItem) other).identifier.equals(identifier);
         }
 
         @Override
         public int hashCode() {
-            int hash = 3;
-            hash = 67 * hash + (nodeModel != null && nodeModel.getNode() != null ? nodeModel.getNode().hashCode() : 0);
-            return hash;
+            return identifier.hashCode();
         }
     }
 
+    /**
+     * Keeps the order of the documents by identifier; the list items are only created for the rows that are shown.
+     * A shift marks the order as modified.
+     */
     static class ReorderDataProvider extends SortableDataProvider<ListItem> {
 
-        private final List<ListItem> listItems;
+        private final List<String> identifiers;
+        private final ReorderOperations operations;
 
-        ReorderDataProvider(DocumentsProvider documents) {
-            listItems = new LinkedList<>();
+        ReorderDataProvider(DocumentsProvider documents, ReorderOperations operations) {
+            this.operations = operations;
+            identifiers = new ArrayList<>((int) documents.size());
             Iterator<Node> it = documents.iterator(0, documents.size());
             while (it.hasNext()) {
-                IModel<Node> entry = documents.model(it.next());
-                if (entry instanceof JcrNodeModel) {
-                    listItems.add(new ListItem((JcrNodeModel) entry));
+                try {
+                    identifiers.add(it.next().getIdentifier());
+                } catch (RepositoryException e) {
+                    log.error(e.getMessage(), e);
                 }
             }
+            documents.detach();
         }
 
         @Override
         public Iterator<ListItem> iterator(long first, long count) {
-            return listItems.subList((int) first, (int) (first + count)).iterator();
+            final Session session = UserSession.get().getJcrSession();
+            final List<ListItem> items = new ArrayList<>((int) count);
+            for (String identifier : identifiers.subList((int) first, (int) (first + count))) {
+                try {
+                    items.add(new ListItem(identifier, new JcrNodeModel(session.getNodeByIdentifier(identifier))));
+                } catch (RepositoryException e) {
+                    log.warn("Document {} is not available: {}", identifier, e.getMessage());
+                }
+            }
+            return items.iterator();
         }
 
         @Override
@@ -152,54 +151,41 @@ class ReorderDialog extends WorkflowDialog<WorkflowDescriptor> {
 
         @Override
         public long size() {
-            return listItems.size();
+            return identifiers.size();
         }
 
-        @Override
-        public void detach() {
-            for (ListItem item : listItems) {
-                item.detach();
-            }
+        int indexOf(ListItem item) {
+            return identifiers.indexOf(item.getIdentifier());
         }
 
         public void shiftTop(ListItem item) {
-            int index = listItems.indexOf(item);
-            if (index > 0) {
-                listItems.remove(index);
-                listItems.add(0, item);
-            }
+            moveTo(item, 0);
         }
 
         public void shiftUp(ListItem item) {
-            int index = listItems.indexOf(item);
-            if (index > 0) {
-                listItems.remove(index);
-                listItems.add(--index, item);
-            }
+            moveTo(item, indexOf(item) - 1);
         }
 
         public void shiftDown(ListItem item) {
-            int index = listItems.indexOf(item);
-            if (index < listItems.size()) {
-                listItems.remove(index);
-                listItems.add(++index, item);
-            }
+            moveTo(item, indexOf(item) + 1);
         }
 
         public void shiftBottom(ListItem item) {
-            int index = listItems.indexOf(item);
-            if (index < listItems.size()) {
-                listItems.remove(index);
-                listItems.add(item);
-            }
+            moveTo(item, identifiers.size() - 1);
         }
 
-        public List<String> getMapping() {
-            LinkedList<String> newOrder = new LinkedList<>();
-            for (ListItem item : listItems) {
-                newOrder.add(item.getPathName());
+        private void moveTo(ListItem item, int position) {
+            int index = indexOf(item);
+            if (index < 0 || position < 0 || position >= identifiers.size() || position == index) {
+                return;
             }
-            return newOrder;
+            identifiers.remove(index);
+            identifiers.add(position, item.getIdentifier());
+            operations.markModified();
+        }
+
+        void saveOrder() {
+            operations.setOrder(identifiers);
         }
     }
 
@@ -214,7 +200,8 @@ class ReorderDialog extends WorkflowDialog<WorkflowDescriptor> {
         private AjaxLink<Void> top;
         private AjaxLink<Void> bottom;
 
-        public ReorderPanel(String id, JcrNodeModel model, DocumentListFilter filter) {
+        public ReorderPanel(String id, JcrNodeModel model, DocumentListFilter filter, ReorderOperations operations,
+                            int pageSize) {
             super(id);
             setOutputMarkupId(true);
 
@@ -258,10 +245,10 @@ class ReorderDialog extends WorkflowDialog<WorkflowDescriptor> {
 
             tableDefinition = new TableDefinition<>(columns, false);
             DocumentsProvider documents = new DocumentsProvider(model, filter, new HashMap<>());
-            dataProvider = new ReorderDataProvider(documents);
+            dataProvider = new ReorderDataProvider(documents, operations);
 
             pagingDefinition = new ListPagingDefinition();
-            pagingDefinition.setPageSize(dataProvider.size() > 0 ? (int) dataProvider.size() : 1);
+            pagingDefinition.setPageSize(pageSize);
             dataTable = new ListDataTable<>("table", tableDefinition, dataProvider, this, false, pagingDefinition);
             add(dataTable);
 
@@ -270,13 +257,7 @@ class ReorderDialog extends WorkflowDialog<WorkflowDescriptor> {
                 public void onClick(AjaxRequestTarget target) {
                     IModel<ListItem> selection = dataTable.getModel();
                     dataProvider.shiftTop(selection.getObject());
-
-                    ReorderPanel thisPanel = ReorderPanel.this;
-                    dataTable = new ListDataTable<>("table", tableDefinition, dataProvider, thisPanel, false,
-                            pagingDefinition);
-                    dataTable.setScrollSelectedIntoView(true, true);
-                    thisPanel.replace(dataTable);
-                    selectionChanged(selection);
+                    shifted(selection, true);
                 }
             };
             add(top);
@@ -289,13 +270,7 @@ class ReorderDialog extends WorkflowDialog<WorkflowDescriptor> {
                 public void onClick(AjaxRequestTarget target) {
                     IModel<ListItem> selection = dataTable.getModel();
                     dataProvider.shiftUp(selection.getObject());
-
-                    ReorderPanel thisPanel = ReorderPanel.this;
-                    dataTable = new ListDataTable<>("table", tableDefinition, dataProvider, thisPanel, false,
-                            pagingDefinition);
-                    dataTable.setScrollSelectedIntoView(true, true);
-                    thisPanel.replace(dataTable);
-                    selectionChanged(selection);
+                    shifted(selection, true);
                 }
             };
             add(up);
@@ -306,13 +281,7 @@ class ReorderDialog extends WorkflowDialog<WorkflowDescriptor> {
                 public void onClick(AjaxRequestTarget target) {
                     IModel<ListItem> selection = dataTable.getModel();
                     dataProvider.shiftDown(selection.getObject());
-
-                    ReorderPanel thisPanel = ReorderPanel.this;
-                    dataTable = new ListDataTable<>("table", tableDefinition, dataProvider, thisPanel, false,
-                            pagingDefinition);
-                    dataTable.setScrollSelectedIntoView(true, false);
-                    thisPanel.replace(dataTable);
-                    selectionChanged(selection);
+                    shifted(selection, false);
                 }
             };
             add(down);
@@ -323,13 +292,7 @@ class ReorderDialog extends WorkflowDialog<WorkflowDescriptor> {
                 public void onClick(AjaxRequestTarget target) {
                     IModel<ListItem> selection = dataTable.getModel();
                     dataProvider.shiftBottom(selection.getObject());
-
-                    ReorderPanel thisPanel = ReorderPanel.this;
-                    dataTable = new ListDataTable<>("table", tableDefinition, dataProvider, thisPanel, false,
-                            pagingDefinition);
-                    dataTable.setScrollSelectedIntoView(true, false);
-                    thisPanel.replace(dataTable);
-                    selectionChanged(selection);
+                    shifted(selection, false);
                 }
             };
             add(bottom);
@@ -348,25 +311,24 @@ class ReorderDialog extends WorkflowDialog<WorkflowDescriptor> {
             }
         }
 
+        private void shifted(IModel<ListItem> selection, boolean topAlign) {
+            dataTable = new ListDataTable<>("table", tableDefinition, dataProvider, this, false, pagingDefinition);
+            dataTable.setScrollSelectedIntoView(true, topAlign);
+            replace(dataTable);
+            selectionChanged(selection);
+        }
+
         public void selectionChanged(IModel<ListItem> model) {
             ListItem item = model.getObject();
-            long position = -1;
+            int index = dataProvider.indexOf(item);
             long size = dataProvider.size();
-            Iterator<ListItem> siblings = dataProvider.iterator(0, size);
-            int i = 0;
-            while (siblings.hasNext()) {
-                i++;
-                ListItem sibling = siblings.next();
-                if (sibling.equals(item)) {
-                    position = i;
-                    break;
-                }
-            }
-            if (position != -1) {
-                top.setEnabled(position > 1);
-                up.setEnabled(position > 1);
-                down.setEnabled(position < size);
-                bottom.setEnabled(position < size);
+            if (index != -1) {
+                top.setEnabled(index > 0);
+                up.setEnabled(index > 0);
+                down.setEnabled(index < size - 1);
+                bottom.setEnabled(index < size - 1);
+                // show the page of the selection without searching the other pages for it
+                dataTable.setCurrentPage(index / dataTable.getItemsPerPage());
             }
 
             dataTable.setModel(model);
@@ -376,24 +338,25 @@ class ReorderDialog extends WorkflowDialog<WorkflowDescriptor> {
             }
         }
 
-        List<String> getMapping() {
-            return dataProvider.getMapping();
+        void saveOrder() {
+            dataProvider.saveOrder();
         }
     }
 
     ReorderDialog(IWorkflowInvoker invoker, IPluginConfig pluginConfig, WorkflowDescriptorModel model,
-                  List<String> mapping) {
+                  ReorderOperations operations) {
         super(invoker, model);
 
         setTitleKey("reorder");
         setSize(DialogConstants.MEDIUM_AUTO);
 
-        this.mapping = mapping;
+        operations.clear();
 
         String name;
         try {
             JcrNodeModel folderModel = new JcrNodeModel(model.getNode());
-            panel = new ReorderPanel("reorder-panel", folderModel, new DocumentListFilter(pluginConfig));
+            panel = new ReorderPanel("reorder-panel", folderModel, new DocumentListFilter(pluginConfig), operations,
+                    pluginConfig.getInt("reorder.page.size", DEFAULT_PAGE_SIZE));
             add(panel);
             name = folderModel.getNode().getName();
         } catch (RepositoryException e) {
@@ -405,8 +368,7 @@ class ReorderDialog extends WorkflowDialog<WorkflowDescriptor> {
 
     @Override
     protected void onOk() {
-        mapping.clear();
-        mapping.addAll(panel.getMapping());
+        panel.saveOrder();
         super.onOk();
     }
 }
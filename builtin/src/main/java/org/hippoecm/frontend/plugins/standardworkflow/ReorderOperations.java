@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.standardworkflow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.wicket.util.io.IClusterable;
+
+/**
+ * The changes made in the {@link ReorderDialog}.  The folder is reordered by its workflow, which takes the complete
+ * order, so only that order is kept, together with whether it has been changed at all.  The order is only resolved
+ * to names when it is applied, as the dialog refers to the children by identifier.
+ */
+final class ReorderOperations implements IClusterable {
+
+    private final List<String> order = new ArrayList<>();
+    private boolean modified;
+
+    /**
+     * Records that a child has been moved.
+     */
+    void markModified() {
+        modified = true;
+    }
+
+    boolean isModified() {
+        return modified;
+    }
+
+    void clear() {
+        modified = false;
+        order.clear();
+    }
+
+    /**
+     * @param order the identifiers of the children in the order shown by the dialog, for workflows that can only
+     *              reorder by the complete list
+     */
+    void setOrder(final List<String> order) {
+        this.order.clear();
+        this.order.addAll(order);
+    }
+
+    /**
+     * @return the names, with same-name sibling index, of the children in the order shown by the dialog.  Children
+     * that are no longer in the folder are left out.
+     */
+    List<String> getMapping(final Node folder) throws RepositoryException {
+        final Session session = folder.getSession();
+        final List<String> mapping = new ArrayList<>(order.size());
+        for (String identifier : order) {
+            final Node child = getChild(session, folder, identifier);
+            if (child != null) {
+                mapping.add(getPathName(child));
+            }
+        }
+        return mapping;
+    }
+
+    private static Node getChild(final Session session, final Node folder, final String identifier)
+            throws RepositoryException {
+        try {
+            final Node child = session.getNodeByIdentifier(identifier);
+            return child.getParent().isSame(folder) ? child : null;
+        } catch (ItemNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static String getPathName(final Node child) throws RepositoryException {
+        final int index = child.getIndex();
+        return child.getName() + (index > 1 ? "[" + index + "]" : "");
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.hippoecm.frontend.plugins.standardworkflow.validators;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.Event;
+
+import org.apache.commons.lang.StringUtils;
+import org.hippoecm.frontend.observation.JcrChangeCounter;
+import org.hippoecm.repository.HippoStdNodeType;
+import org.hippoecm.repository.api.HippoNode;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Application wide index of the display names of the folders and documents in a folder.  The index of a folder is
+ * built on first use and rebuilt when the generation of the changes below /content has changed since.  Only folders
+ * below /content are indexed.
+ * <p>
+ * The changes are counted by a synchronous {@link JcrChangeCounter}, so a save, including the save of a workflow
+ * invoked by the caller, has incremented the generation when it returns.  An index at the current generation is
+ * therefore complete, and a miss is answered from the index without iterating over the children.
+ * <p>
+ * When the application has a system session, an index is built with it and shared by all users; the children found
+ * in it are checked with the session of the caller, so children that the caller cannot read are not reported.
+ * Otherwise an index only contains the children that the session that built it can read, and is shared by the
+ * sessions of the same user only.
+ */
+class DisplayNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DisplayNameIndex.class);
+
+    private static final int EVENT_TYPES = Event.NODE_ADDED | Event.NODE_REMOVED | Event.PROPERTY_ADDED
+            | Event.PROPERTY_CHANGED | Event.PROPERTY_REMOVED;
+    private static final String[] NODE_TYPES = {HippoStdNodeType.NT_FOLDER, HippoStdNodeType.NT_DIRECTORY,
+            HippoNodeType.NT_HANDLE, HippoNodeType.NT_NAMED};
+
+    private static final String CONTENT_PATH = "/content";
+
+    private static final DisplayNameIndex instance = new DisplayNameIndex();
+
+    private static final class Index {
+
+        private final long generation;
+        /**
+         * Display name -> identifiers of the children with that display name
+         */
+        private final Map<String, Set<String>> names;
+
+        private Index(final long generation, final Map<String, Set<String>> names) {
+            this.generation = generation;
+            this.names = names;
+        }
+    }
+
+    /**
+     * Folder path, prefixed with the user id when the indexes are not shared -> index
+     */
+    private final Cache<String, Index> folders = CacheBuilder.newBuilder()
+            .maximumSize(500)
+            .expireAfterAccess(30, TimeUnit.MINUTES)
+            .build();
+
+    DisplayNameIndex() {
+    }
+
+    static DisplayNameIndex getInstance() {
+        return instance;
+    }
+
+    boolean hasChildWithDisplayName(final Node parentNode, final String displayName) throws RepositoryException {
+        final Session session = parentNode.getSession();
+        final String path = parentNode.getPath();
+        if (!path.startsWith(CONTENT_PATH + "/") || parentNode.isNew() || session.hasPendingChanges()) {
+            // the index does not know the transient changes of the session
+            return scan(parentNode, displayName);
+        }
+        final long generation;
+        try {
+            generation = getGeneration(session);
+        } catch (RepositoryException e) {
+            log.warn("Cannot observe display names, checking '{}' without index: {}", path, e.getMessage());
+            return scan(parentNode, displayName);
+        }
+
+        final String key = getKey(path, session.getUserID());
+        Index index = folders.getIfPresent(key);
+        if (index == null || index.generation != generation) {
+            index = new Index(generation, build(parentNode));
+            folders.put(key, index);
+        }
+
+        for (String identifier : index.names.getOrDefault(displayName, Collections.emptySet())) {
+            if (isChildWithDisplayName(session, parentNode, identifier, displayName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    long getGeneration(final Session session) throws RepositoryException {
+        return JcrChangeCounter.getSynchronous(CONTENT_PATH, EVENT_TYPES, true, NODE_TYPES).getGeneration(session);
+    }
+
+    boolean isIndexed(final String path, final String userId) {
+        return folders.getIfPresent(getKey(path, userId)) != null;
+    }
+
+    private static String getKey(final String path, final String userId) {
+        return JcrChangeCounter.hasSessionFactory() ? path : userId + '|' + path;
+    }
+
+    private static Map<String, Set<String>> build(final Node parentNode) throws RepositoryException {
+        final Session systemSession = JcrChangeCounter.loginSystemSession();
+        if (systemSession == null) {
+            return index(parentNode);
+        }
+        try {
+            return index(systemSession.getNode(parentNode.getPath()));
+        } finally {
+            systemSession.logout();
+        }
+    }
+
+    private static Map<String, Set<String>> index(final Node parentNode) throws RepositoryException {
+        final Map<String, Set<String>> index = new HashMap<>();
+        final NodeIterator children = parentNode.getNodes();
+        while (children.hasNext()) {
+            final Node child = children.nextNode();
+            if (isFolderOrDocument(child)) {
+                final String childName = ((HippoNode) child).getDisplayName();
+                index.computeIfAbsent(childName, name -> new HashSet<>(2)).add(child.getIdentifier());
+            }
+        }
+        log.debug("Indexed {} display names of '{}'", index.size(), parentNode.getPath());
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static boolean scan(final Node parentNode, final String displayName) throws RepositoryException {
+        final NodeIterator children = parentNode.getNodes();
+        while (children.hasNext()) {
+            Node child = children.nextNode();
+            if (isFolderOrDocument(child)) {
+                String childName = ((HippoNode) child).getDisplayName();
+                if (StringUtils.equals(childName, displayName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isChildWithDisplayName(final Session session, final Node parentNode, final String identifier,
+                                                  final String displayName) throws RepositoryException {
+        try {
+            final Node child = session.getNodeByIdentifier(identifier);
+            return child.getParent().isSame(parentNode) && isFolderOrDocument(child)
+                    && StringUtils.equals(((HippoNode) child).getDisplayName(), displayName);
+        } catch (ItemNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static boolean isFolderOrDocument(final Node node) throws RepositoryException {
+        return node.isNodeType(HippoStdNodeType.NT_FOLDER) || node.isNodeType(HippoNodeType.NT_HANDLE);
+    }
+}
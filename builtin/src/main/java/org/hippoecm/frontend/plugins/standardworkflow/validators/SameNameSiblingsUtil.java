@@ -17,14 +17,8 @@
 package org.hippoecm.frontend.plugins.standardworkflow.validators;
 
 import javax.jcr.Node;
-import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
 
-import org.apache.commons.lang.StringUtils;
-import org.hippoecm.repository.HippoStdNodeType;
-import org.hippoecm.repository.api.HippoNode;
-import org.hippoecm.repository.api.HippoNodeType;
-
 public final class SameNameSiblingsUtil {
 
     private SameNameSiblingsUtil() {
@@ -33,19 +27,10 @@ public final class SameNameSiblingsUtil {
 
     /**
      * Return true if <code>parentNode</code> contains a child having the same display name with the specified
-     * <code>displayName</code>
+     * <code>displayName</code>. The display names of the children are looked up in an index, so repeated checks
+     * do not iterate over all children of the folder.
      */
     public static boolean hasChildWithDisplayName(final Node parentNode, final String displayName) throws RepositoryException {
-        final NodeIterator children = parentNode.getNodes();
-        while (children.hasNext()) {
-            Node child = children.nextNode();
-            if (child.isNodeType(HippoStdNodeType.NT_FOLDER) || child.isNodeType(HippoNodeType.NT_HANDLE)) {
-                String childName = ((HippoNode) child).getDisplayName();
-                if (StringUtils.equals(childName, displayName)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return DisplayNameIndex.getInstance().hasChildWithDisplayName(parentNode, displayName);
     }
 }
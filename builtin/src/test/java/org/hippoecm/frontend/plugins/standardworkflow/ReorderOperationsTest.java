@@ -0,0 +1,82 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.standardworkflow;
+
+import javax.jcr.RepositoryException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onehippo.repository.mock.MockNode;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReorderOperationsTest {
+
+    private MockNode folder;
+
+    @Before
+    public void setUp() throws RepositoryException {
+        folder = MockNode.root().addNode("folder", "hippostd:folder");
+        for (String name : asList("a", "b", "c", "d", "e")) {
+            folder.addNode(name, "hippo:handle");
+        }
+    }
+
+    private String id(String name) throws RepositoryException {
+        return folder.getNode(name).getIdentifier();
+    }
+
+    @Test
+    public void nothing_to_reorder_without_moves() {
+        final ReorderOperations operations = new ReorderOperations();
+        assertFalse(operations.isModified());
+    }
+
+    @Test
+    public void move_modifies_the_order() {
+        final ReorderOperations operations = new ReorderOperations();
+        operations.markModified();
+        assertTrue(operations.isModified());
+    }
+
+    @Test
+    public void clear_forgets_modification_and_order() throws RepositoryException {
+        final ReorderOperations operations = new ReorderOperations();
+        operations.markModified();
+        operations.setOrder(asList(id("b"), id("a"), id("c"), id("d"), id("e")));
+        operations.clear();
+        assertFalse(operations.isModified());
+        assertTrue(operations.getMapping(folder).isEmpty());
+    }
+
+    @Test
+    public void mapping_lists_the_names_in_the_new_order() throws RepositoryException {
+        final ReorderOperations operations = new ReorderOperations();
+        operations.setOrder(asList(id("b"), id("a"), id("c"), id("d"), id("e")));
+        assertEquals(asList("b", "a", "c", "d", "e"), operations.getMapping(folder));
+    }
+
+    @Test
+    public void mapping_leaves_out_removed_documents() throws RepositoryException {
+        final ReorderOperations operations = new ReorderOperations();
+        operations.setOrder(asList(id("e"), id("c"), id("a"), id("b"), id("d")));
+        folder.getNode("c").remove();
+        assertEquals(asList("e", "a", "b", "d"), operations.getMapping(folder));
+    }
+}
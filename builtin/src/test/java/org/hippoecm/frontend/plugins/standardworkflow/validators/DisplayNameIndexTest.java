@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.standardworkflow.validators;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.apache.jackrabbit.commons.iterator.NodeIteratorAdapter;
+import org.easymock.EasyMock;
+import org.hippoecm.repository.HippoStdNodeType;
+import org.hippoecm.repository.api.HippoNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DisplayNameIndexTest {
+
+    private static final String FOLDER_PATH = "/content/documents";
+
+    private final Map<String, HippoNode> children = new LinkedHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private Session session;
+    private Node folder;
+    private DisplayNameIndex index;
+
+    @Before
+    public void setUp() throws RepositoryException {
+        session = EasyMock.createNiceMock(Session.class);
+        expect(session.getUserID()).andReturn("alice").anyTimes();
+        expect(session.getNodeByIdentifier(EasyMock.anyString())).andAnswer(() -> {
+            final Node child = children.get((String) EasyMock.getCurrentArguments()[0]);
+            if (child == null) {
+                throw new ItemNotFoundException();
+            }
+            return child;
+        }).anyTimes();
+        replay(session);
+
+        folder = EasyMock.createNiceMock(Node.class);
+        expect(folder.getSession()).andReturn(session).anyTimes();
+        expect(folder.getPath()).andReturn(FOLDER_PATH).anyTimes();
+        expect(folder.isSame(folder)).andReturn(true).anyTimes();
+        expect(folder.getNodes()).andAnswer(() -> new NodeIteratorAdapter(new ArrayList<>(children.values()))).anyTimes();
+        replay(folder);
+
+        index = new DisplayNameIndex() {
+            @Override
+            long getGeneration(final Session session) {
+                return generation.get();
+            }
+        };
+        addChild("news", "News");
+    }
+
+    private void addChild(final String name, final String displayName) throws RepositoryException {
+        final HippoNode child = EasyMock.createNiceMock(HippoNode.class);
+        expect(child.getIdentifier()).andReturn(name).anyTimes();
+        expect(child.getDisplayName()).andReturn(displayName).anyTimes();
+        expect(child.isNodeType(HippoStdNodeType.NT_FOLDER)).andReturn(true).anyTimes();
+        expect(child.getParent()).andReturn(folder).anyTimes();
+        replay(child);
+        children.put(name, child);
+    }
+
+    @Test
+    public void child_is_found_in_the_index() throws RepositoryException {
+        assertTrue(index.hasChildWithDisplayName(folder, "News"));
+        assertTrue(index.isIndexed(FOLDER_PATH, "alice"));
+        assertTrue(index.hasChildWithDisplayName(folder, "News"));
+    }
+
+    @Test
+    public void miss_is_answered_from_the_index() throws RepositoryException {
+        assertFalse(index.hasChildWithDisplayName(folder, "Events"));
+
+        // the folder is not iterated over again while the generation is unchanged
+        addChild("events", "Events");
+        assertFalse(index.hasChildWithDisplayName(folder, "Events"));
+    }
+
+    @Test
+    public void change_rebuilds_the_index() throws RepositoryException {
+        assertFalse(index.hasChildWithDisplayName(folder, "Events"));
+
+        addChild("events", "Events");
+        generation.incrementAndGet();
+        assertTrue(index.hasChildWithDisplayName(folder, "Events"));
+    }
+
+    @Test
+    public void removed_child_is_not_found() throws RepositoryException {
+        assertTrue(index.hasChildWithDisplayName(folder, "News"));
+
+        // the removal is checked with the session of the caller
+        children.remove("news");
+        assertFalse(index.hasChildWithDisplayName(folder, "News"));
+    }
+
+    @Test
+    public void folders_outside_content_are_not_indexed() throws RepositoryException {
+        final Node other = EasyMock.createNiceMock(Node.class);
+        expect(other.getSession()).andReturn(session).anyTimes();
+        expect(other.getPath()).andReturn("/hippo:configuration").anyTimes();
+        expect(other.getNodes()).andAnswer(() -> new NodeIteratorAdapter(new ArrayList<>(children.values()))).anyTimes();
+        replay(other);
+
+        assertTrue(index.hasChildWithDisplayName(other, "News"));
+        assertFalse(index.isIndexed("/hippo:configuration", "alice"));
+    }
+
+    @Test
+    public void indexes_are_kept_per_user_without_a_system_session() throws RepositoryException {
+        index.hasChildWithDisplayName(folder, "News");
+        assertTrue(index.isIndexed(FOLDER_PATH, "alice"));
+        assertFalse(index.isIndexed(FOLDER_PATH, "bob"));
+    }
+}
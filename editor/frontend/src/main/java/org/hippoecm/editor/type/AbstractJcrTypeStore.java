@@ -23,12 +23,8 @@ import java.util.Map;
 import java.util.TreeMap;
 
 import javax.jcr.Node;
-import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
-import javax.jcr.query.Query;
-import javax.jcr.query.QueryManager;
-import javax.jcr.query.QueryResult;
 
 import org.hippoecm.editor.model.JcrTypeInfo;
 import org.hippoecm.editor.model.JcrTypeVersion;
@@ -112,7 +108,7 @@ public abstract class AbstractJcrTypeStore implements IStore<ITypeDescriptor> {
     public void delete(ITypeDescriptor object) {
     }
 
-    @SuppressWarnings({ "unchecked", "deprecation" })
+    @SuppressWarnings("unchecked")
     @Override
     public Iterator<ITypeDescriptor> find(Map<String, Object> criteria) throws StoreException {
         Map<String, ITypeDescriptor> results = new TreeMap<String, ITypeDescriptor>();
@@ -124,68 +120,15 @@ public abstract class AbstractJcrTypeStore implements IStore<ITypeDescriptor> {
             if (supertype.size() == 0) {
                 throw new StoreException("No supertypes specified");
             }
-            Session session = getJcrSession();
             try {
-                QueryManager qm = session.getWorkspace().getQueryManager();
-                StringBuilder sb = new StringBuilder();
-                sb.append("//element(*,");
-                sb.append(HippoNodeType.NT_NODETYPE);
-                sb.append(")[@");
-                sb.append(HippoNodeType.HIPPO_SUPERTYPE);
-                sb.append("='");
-                boolean first = true;
-                for (String type : supertype) {
-                    if (first) {
-                        first = false;
-                    } else {
-                        sb.append("' or @");
-                        sb.append(HippoNodeType.HIPPO_SUPERTYPE);
-                        sb.append("='");
-                    }
-                    sb.append(type);
-                }
-                sb.append("']");
-                String queryStr = sb.toString();
-                log.debug("Query for supertypes: {}", queryStr);
-                Query query = qm.createQuery(queryStr, Query.XPATH);
-                QueryResult result = query.execute();
-                for (NodeIterator nodes = result.getNodes(); nodes.hasNext();) {
-                    Node node = nodes.nextNode();
-                    String realType = null;
-                    if (node.hasProperty(HippoNodeType.HIPPOSYSEDIT_TYPE)) {
-                        realType = node.getProperty(HippoNodeType.HIPPOSYSEDIT_TYPE).getString();
-                    }
-                    // assume /hippo:namespaces/<prefix>/<subType>/hipposysedit:nodetype/hipposysedit:nodetype
-                    if (node.getDepth() < 5) {
-                        continue;
-                    }
-                    node = node.getParent();
-                    if (!node.isNodeType(HippoNodeType.NT_HANDLE)) {
-                        continue;
-                    }
-                    node = node.getParent();
-                    if (!node.isNodeType(HippoNodeType.NT_TEMPLATETYPE)) {
-                        continue;
-                    }
-                    String subType = node.getName();
-                    node = node.getParent();
-                    if (!node.isNodeType(HippoNodeType.NT_NAMESPACE)) {
-                        continue;
-                    }
-                    String prefix = node.getName();
-                    if ("system".equals(prefix)) {
-                        continue;
-                    }
-                    String subTypeName = prefix + ":" + subType;
-                    if (realType != null && !realType.equals(subTypeName)) {
-                        continue;
-                    }
+                JcrTypeRegistry.Snapshot snapshot = JcrTypeRegistry.getInstance().getSnapshot(getJcrSession());
+                for (String subTypeName : snapshot.getDirectSubTypes(supertype)) {
                     if (!results.containsKey(subTypeName)) {
                         try {
                             ITypeDescriptor type = locator.locate(subTypeName);
                             results.put(subTypeName, type);
                         } catch (StoreException ex) {
-                            // not found; continue
+                            // not found or not readable; continue
                             continue;
                         }
                     }
@@ -230,6 +173,7 @@ public abstract class AbstractJcrTypeStore implements IStore<ITypeDescriptor> {
                 Workflow workflow = workflowManager.getWorkflow("editor", nsNode);
 
                 ((NamespaceWorkflow) workflow).addCompoundType(info.getTypeName());
+                JcrTypeRegistry.getInstance().invalidate();
 
                 nsNode.refresh(false);
 
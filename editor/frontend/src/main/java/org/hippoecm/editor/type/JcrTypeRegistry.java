@@ -0,0 +1,217 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hippoecm.editor.type;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.observation.Event;
+
+import org.hippoecm.frontend.observation.JcrChangeCounter;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.hippoecm.repository.api.NodeNameCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JVM wide registry of the CMS types that are defined in the namespace nodes.  It keeps an immutable
+ * {@link Snapshot} with the supertype/subtype graph between the defined types, so type stores do not have to
+ * query the repository to find subtypes.
+ * <p>
+ * The snapshot is built from the namespace nodes with a session of the application, so it holds every type, and is
+ * rebuilt when the {@link JcrChangeCounter} of the namespaces changes.  When the application has no session, the
+ * session of the store that needs the snapshot is used.  The type descriptors themselves are still loaded with the
+ * session of the store, so a store only sees the types its user can read.
+ */
+public final class JcrTypeRegistry {
+
+    static final Logger log = LoggerFactory.getLogger(JcrTypeRegistry.class);
+
+    private static final String NAMESPACES_PATH = "/" + HippoNodeType.NAMESPACES_PATH;
+    private static final String SYSTEM_PREFIX = "system";
+
+    private static final int EVENT_TYPES = Event.NODE_ADDED | Event.NODE_REMOVED | Event.NODE_MOVED
+            | Event.PROPERTY_ADDED | Event.PROPERTY_CHANGED | Event.PROPERTY_REMOVED;
+
+    private static final JcrTypeRegistry INSTANCE = new JcrTypeRegistry();
+
+    private volatile Snapshot snapshot;
+
+    private JcrTypeRegistry() {
+    }
+
+    public static JcrTypeRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the current snapshot of the type definitions, building it when there is no valid snapshot.
+     *
+     * @param session the session to observe the namespace nodes with when the application has no session, and to
+     *                read them with when the application cannot log in one
+     * @return the current snapshot
+     * @throws RepositoryException when the namespace nodes cannot be read
+     */
+    public Snapshot getSnapshot(Session session) throws RepositoryException {
+        final long generation = getCounter().getGeneration(session);
+        Snapshot current = snapshot;
+        if (current != null && current.version == generation) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && current.version == generation) {
+                return current;
+            }
+            // changes during the build increment the generation, so they invalidate the result
+            final Session systemSession = JcrChangeCounter.loginSystemSession();
+            try {
+                current = build(systemSession != null ? systemSession : session, generation);
+            } finally {
+                if (systemSession != null) {
+                    systemSession.logout();
+                }
+            }
+            snapshot = current;
+            return current;
+        }
+    }
+
+    /**
+     * Invalidates the current snapshot.  To be invoked after the type definitions have been changed by the current
+     * session, since the observation listener is notified asynchronously.
+     */
+    public void invalidate() {
+        getCounter().increment();
+    }
+
+    private static JcrChangeCounter getCounter() {
+        return JcrChangeCounter.get(NAMESPACES_PATH, EVENT_TYPES, true, null);
+    }
+
+    private static Snapshot build(Session session, long version) throws RepositoryException {
+        final long start = System.currentTimeMillis();
+        int count = 0;
+        final Map<String, Set<String>> subTypes = new HashMap<String, Set<String>>();
+
+        if (session.nodeExists(NAMESPACES_PATH)) {
+            for (NodeIterator nsNodes = session.getNode(NAMESPACES_PATH).getNodes(); nsNodes.hasNext(); ) {
+                Node nsNode = nsNodes.nextNode();
+                if (nsNode == null || !nsNode.isNodeType(HippoNodeType.NT_NAMESPACE)) {
+                    continue;
+                }
+                String prefix = nsNode.getName();
+                for (NodeIterator typeNodes = nsNode.getNodes(); typeNodes.hasNext(); ) {
+                    Node typeNode = typeNodes.nextNode();
+                    if (typeNode == null || !typeNode.isNodeType(HippoNodeType.NT_TEMPLATETYPE)) {
+                        continue;
+                    }
+                    String localName = NodeNameCodec.decode(typeNode.getName());
+                    String typeName = SYSTEM_PREFIX.equals(prefix) ? localName : prefix + ":" + localName;
+                    count++;
+                    if (!SYSTEM_PREFIX.equals(prefix)) {
+                        addSuperTypes(typeNode, typeName, subTypes);
+                    }
+                }
+            }
+        }
+
+        log.debug("Built type registry with {} types in {} ms", count, System.currentTimeMillis() - start);
+        return new Snapshot(version, subTypes);
+    }
+
+    /**
+     * Registers the supertypes of all variants of the type, consistent with a query for
+     * hipposysedit:nodetype nodes that have the supertype.
+     */
+    private static void addSuperTypes(Node typeNode, String typeName, Map<String, Set<String>> subTypes)
+            throws RepositoryException {
+        if (!typeNode.hasNode(HippoNodeType.HIPPOSYSEDIT_NODETYPE)) {
+            return;
+        }
+        Node handle = typeNode.getNode(HippoNodeType.HIPPOSYSEDIT_NODETYPE);
+        if (!handle.isNodeType(HippoNodeType.NT_HANDLE)) {
+            return;
+        }
+        for (NodeIterator variants = handle.getNodes(HippoNodeType.HIPPOSYSEDIT_NODETYPE); variants.hasNext(); ) {
+            Node variant = variants.nextNode();
+            if (variant == null || !variant.isNodeType(HippoNodeType.NT_NODETYPE)
+                    || !variant.hasProperty(HippoNodeType.HIPPO_SUPERTYPE)) {
+                continue;
+            }
+            if (variant.hasProperty(HippoNodeType.HIPPOSYSEDIT_TYPE)
+                    && !typeName.equals(variant.getProperty(HippoNodeType.HIPPOSYSEDIT_TYPE).getString())) {
+                continue;
+            }
+            for (Value value : variant.getProperty(HippoNodeType.HIPPO_SUPERTYPE).getValues()) {
+                Set<String> subs = subTypes.get(value.getString());
+                if (subs == null) {
+                    subs = new TreeSet<String>();
+                    subTypes.put(value.getString(), subs);
+                }
+                subs.add(typeName);
+            }
+        }
+    }
+
+    /**
+     * Immutable view on the type definitions at a particular version of the namespace nodes.
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final Map<String, Set<String>> subTypes;
+
+        private Snapshot(long version, Map<String, Set<String>> subTypes) {
+            this.version = version;
+            final Map<String, Set<String>> frozen = new HashMap<String, Set<String>>();
+            for (Map.Entry<String, Set<String>> entry : subTypes.entrySet()) {
+                frozen.put(entry.getKey(), Collections.unmodifiableSet(entry.getValue()));
+            }
+            this.subTypes = Collections.unmodifiableMap(frozen);
+        }
+
+        /**
+         * @param type the name of the supertype
+         * @return the names of the types that declare the type as a direct supertype, in alphabetical order
+         */
+        public Set<String> getDirectSubTypes(String type) {
+            final Set<String> result = subTypes.get(type);
+            return result != null ? result : Collections.<String>emptySet();
+        }
+
+        /**
+         * @param superTypes the names of the supertypes
+         * @return the names of the types that declare any of the types as a direct supertype
+         */
+        public Set<String> getDirectSubTypes(Collection<String> superTypes) {
+            final Set<String> result = new TreeSet<String>();
+            for (String superType : superTypes) {
+                result.addAll(getDirectSubTypes(superType));
+            }
+            return result;
+        }
+    }
+}
@@ -18,7 +18,9 @@ package org.hippoecm.frontend.editor.validator;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.HashSet;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 
 import com.google.common.base.CharMatcher;
 
@@ -29,22 +31,54 @@ import org.hippoecm.frontend.validation.ValidatorMessages;
 import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
 import org.xml.sax.helpers.DefaultHandler;
 
+/**
+ * Checks that a rich text value is not empty, i.e. that it contains visible text or one of the
+ * {@link #VALID_ELEMENTS}.  Parsers are taken from a small pool that is shared by all validations, and parsing stops
+ * at the first text or element that makes the value non-empty.
+ */
 public class HtmlValidator implements IClusterable {
 
     private static final long serialVersionUID = 1L;
 
     public static final String[] VALID_ELEMENTS = new String[]{"img", "object", "embed", "form", "applet", "iframe"};
 
+    private static final CharMatcher VISIBLE = CharMatcher.INVISIBLE.negate();
+
+    private static final int MAX_POOLED_PARSERS = 8;
+
+    private static final Queue<SAXParser> PARSERS = new ArrayBlockingQueue<>(MAX_POOLED_PARSERS);
+
+    /**
+     * Thrown by the handler to stop parsing as soon as the value is known to be non-empty.
+     */
+    static class NonEmptyException extends SAXException {
+
+        private static final long serialVersionUID = 1L;
+
+        NonEmptyException() {
+            super("html is not empty");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
     static class Handler extends DefaultHandler {
         boolean valid = false;
 
         @Override
         public void characters(char[] chars, int start, int length) throws SAXException {
-            String value = new String(chars, start, length).intern();
-            if (CharMatcher.INVISIBLE.negate().matchesAnyOf(value)) {
-                valid = true;
+            for (int i = start; i < start + length; i++) {
+                if (VISIBLE.matches(chars[i])) {
+                    valid = true;
+                    throw new NonEmptyException();
+                }
             }
         }
 
@@ -54,7 +88,7 @@ public class HtmlValidator implements IClusterable {
             for (String element : VALID_ELEMENTS) {
                 if (element.equalsIgnoreCase(localName)) {
                     valid = true;
-                    break;
+                    throw new NonEmptyException();
                 }
             }
         }
@@ -67,30 +101,52 @@ public class HtmlValidator implements IClusterable {
     public Set<String> validateNonEmpty(String html) throws ValidationException {
         Set<String> result = new HashSet<>();
         Handler handler = new Handler();
+        SAXParser parser = PARSERS.poll();
+        if (parser == null) {
+            parser = createParser();
+        }
+        boolean reusable = true;
         try {
             InputSource is = new InputSource();
             is.setCharacterStream(new StringReader(html));
 
-            SAXParser parser = new SAXParser();
-            parser.setFeature("http://xml.org/sax/features/namespaces", true);
-            parser.setFeature("http://cyberneko.org/html/features/override-namespaces", false);
-            parser.setFeature("http://cyberneko.org/html/features/insert-namespaces", false);
-            parser.setFeature("http://cyberneko.org/html/features/scanner/ignore-specified-charset", true);
-            parser.setProperty("http://cyberneko.org/html/properties/default-encoding", "UTF-8");
-            parser.setProperty("http://cyberneko.org/html/properties/names/elems", "lower");
-            parser.setProperty("http://cyberneko.org/html/properties/names/attrs", "lower");
-
             parser.setContentHandler(handler);
             parser.parse(is);
 
             if (!handler.isValid()) {
                 result.add(ValidatorMessages.HTML_IS_EMPTY);
             }
+        } catch (NonEmptyException e) {
+            // the value is not empty, no need to parse the rest of it
         } catch (SAXException e) {
+            reusable = false;
             result.add(ValidatorMessages.INVALID_XML);
         } catch (IOException e) {
+            reusable = false;
             throw new ValidationException("Input/output error", e);
+        } finally {
+            parser.setContentHandler(null);
+            if (reusable) {
+                // a full pool drops the parser
+                PARSERS.offer(parser);
+            }
         }
         return result;
     }
+
+    private static SAXParser createParser() {
+        SAXParser parser = new SAXParser();
+        try {
+            parser.setFeature("http://xml.org/sax/features/namespaces", true);
+            parser.setFeature("http://cyberneko.org/html/features/override-namespaces", false);
+            parser.setFeature("http://cyberneko.org/html/features/insert-namespaces", false);
+            parser.setFeature("http://cyberneko.org/html/features/scanner/ignore-specified-charset", true);
+            parser.setProperty("http://cyberneko.org/html/properties/default-encoding", "UTF-8");
+            parser.setProperty("http://cyberneko.org/html/properties/names/elems", "lower");
+            parser.setProperty("http://cyberneko.org/html/properties/names/attrs", "lower");
+        } catch (SAXNotRecognizedException | SAXNotSupportedException e) {
+            throw new IllegalStateException("Unable to configure the html parser", e);
+        }
+        return parser;
+    }
 }
@@ -23,7 +23,9 @@ import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 
 public class HtmlValidatorTest {
-    
+
+    private static final String EMPTY_PARAGRAPH = "<p>&nbsp;</p><br/>\n";
+
     private static final String NORMAL_SPACE = Character.toString((char) 32);
     private static final String NON_BREAKING_SPACE = Character.toString((char) 160);
 
@@ -118,6 +120,36 @@ public class HtmlValidatorTest {
         assertEquals(0, violations.size());
     }
 
+    @Test
+    public void testTextAfterEmptyParagraphs() throws Exception {
+        String text = repeat(EMPTY_PARAGRAPH, 10 * 1024) + "aap";
+        Set<String> violations = validate(text);
+        assertEquals(0, violations.size());
+    }
+
+    @Test
+    public void testOnlyEmptyParagraphs() throws Exception {
+        String text = repeat(EMPTY_PARAGRAPH, 10 * 1024);
+        Set<String> violations = validate(text);
+        assertEquals(1, violations.size());
+    }
+
+    @Test
+    public void testValidatorIsReusable() throws Exception {
+        HtmlValidator validator = new HtmlValidator();
+        assertEquals(0, validator.validateNonEmpty("<html><body>aap</body></html>").size());
+        assertEquals(1, validator.validateNonEmpty("<html><body><p> </p></body></html>").size());
+        assertEquals(0, validator.validateNonEmpty("<html><body><img src=\"xxx\"/></body></html>").size());
+    }
+
+    private static String repeat(final String fragment, final int size) {
+        StringBuilder sb = new StringBuilder(size + fragment.length());
+        while (sb.length() < size) {
+            sb.append(fragment);
+        }
+        return sb.toString();
+    }
+
     private Set<String> validate(final String text) throws ValidationException {
         String html = "<html><body>" + text + "</body></html>";
         return new HtmlValidator().validateNonEmpty(html);
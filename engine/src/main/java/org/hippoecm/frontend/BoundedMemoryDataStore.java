@@ -0,0 +1,170 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.hippoecm.frontend;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.wicket.pageStore.IDataStore;
+import org.apache.wicket.util.lang.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps serialized pages in memory, within a budget per session and a budget for all sessions together.  When a
+ * budget is exceeded, the least recently used pages are evicted; first those of the session that stores a page, then
+ * those of any session.  Pages that are larger than the budget per session are not kept at all.
+ * <p>
+ * The pages are kept in access order both per session and for all sessions together, so that either eviction takes
+ * the first page of its list instead of searching for it.
+ */
+public class BoundedMemoryDataStore implements IDataStore {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedMemoryDataStore.class);
+
+    private static final class PageKey {
+
+        private final String sessionId;
+        private final int pageId;
+
+        private PageKey(final String sessionId, final int pageId) {
+            this.sessionId = sessionId;
+            this.pageId = pageId;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PageKey)) {
+                return false;
+            }
+            final PageKey other = (PageKey) o;
+            return pageId == other.pageId && sessionId.equals(other.sessionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sessionId.hashCode() + pageId;
+        }
+    }
+
+    /**
+     * The pages of one session, in access order, least recently used first.
+     */
+    private static final class SessionPages {
+
+        private final LinkedHashMap<Integer, byte[]> pages = new LinkedHashMap<>(16, 0.75f, true);
+        private long size;
+    }
+
+    private final long maxSizePerSession;
+    private final long maxSize;
+
+    // the pages of all sessions in access order, least recently used first
+    private final LinkedHashMap<PageKey, byte[]> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, SessionPages> sessions = new HashMap<>();
+    private long size;
+
+    public BoundedMemoryDataStore(final Bytes maxSizePerSession, final Bytes maxSize) {
+        this.maxSizePerSession = maxSizePerSession.bytes();
+        this.maxSize = maxSize.bytes();
+    }
+
+    @Override
+    public synchronized byte[] getData(final String sessionId, final int id) {
+        final SessionPages session = sessions.get(sessionId);
+        if (session == null || session.pages.get(id) == null) {
+            return null;
+        }
+        return pages.get(new PageKey(sessionId, id));
+    }
+
+    @Override
+    public synchronized void removeData(final String sessionId, final int id) {
+        remove(new PageKey(sessionId, id));
+    }
+
+    @Override
+    public synchronized void removeData(final String sessionId) {
+        final SessionPages session = sessions.remove(sessionId);
+        if (session != null) {
+            for (Integer id : session.pages.keySet()) {
+                pages.remove(new PageKey(sessionId, id));
+            }
+            size -= session.size;
+        }
+    }
+
+    @Override
+    public synchronized void storeData(final String sessionId, final int id, final byte[] data) {
+        final PageKey key = new PageKey(sessionId, id);
+        remove(key);
+        if (data.length > maxSizePerSession || data.length > maxSize) {
+            log.debug("Not keeping page {} of session {}, its size of {} bytes exceeds the budget", id, sessionId, data.length);
+            return;
+        }
+
+        final SessionPages session = sessions.computeIfAbsent(sessionId, sid -> new SessionPages());
+        session.pages.put(id, data);
+        session.size += data.length;
+        pages.put(key, data);
+        size += data.length;
+
+        while (session.size > maxSizePerSession) {
+            remove(new PageKey(sessionId, session.pages.keySet().iterator().next()));
+        }
+        while (size > maxSize) {
+            remove(pages.keySet().iterator().next());
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        pages.clear();
+        sessions.clear();
+        size = 0;
+    }
+
+    @Override
+    public boolean isReplicated() {
+        return false;
+    }
+
+    @Override
+    public boolean canBeAsynchronous() {
+        return true;
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    private void remove(final PageKey key) {
+        final byte[] data = pages.remove(key);
+        if (data != null) {
+            size -= data.length;
+            final SessionPages session = sessions.get(key.sessionId);
+            session.pages.remove(key.pageId);
+            session.size -= data.length;
+            if (session.pages.isEmpty()) {
+                sessions.remove(key.sessionId);
+            }
+        }
+    }
+}
@@ -93,9 +93,11 @@ import org.hippoecm.frontend.http.CsrfPreventionRequestCycleListener;
 import org.hippoecm.frontend.model.JcrHelper;
 import org.hippoecm.frontend.model.JcrNodeModel;
 import org.hippoecm.frontend.model.UserCredentials;
+import org.hippoecm.frontend.observation.JcrChangeCounter;
 import org.hippoecm.frontend.observation.JcrObservationManager;
 import org.hippoecm.frontend.plugin.config.impl.IApplicationFactory;
 import org.hippoecm.frontend.plugin.config.impl.JcrApplicationFactory;
+import org.hippoecm.frontend.service.restproxy.RestProxyServicePlugin;
 import org.hippoecm.frontend.session.PluginUserSession;
 import org.hippoecm.frontend.session.UserSession;
 import org.hippoecm.frontend.settings.GlobalSettings;
@@ -130,6 +132,12 @@ public class Main extends PluginApplication {
     public final static String REPOSITORY_DIRECTORY_PARAM = "repository-directory";
     public final static String REPOSITORY_USERNAME_PARAM = "repository-username";
     public final static String REPOSITORY_PASSWORD_PARAM = "repository-password";
+    /**
+     * Parameter names of the credentials of the session that observes changes for the caches that are shared by all
+     * sessions.  When not set, the caches observe with the sessions of their users.
+     */
+    public final static String REPOSITORY_SYSTEM_USERNAME_PARAM = "repository-system-username";
+    public final static String REPOSITORY_SYSTEM_PASSWORD_PARAM = "repository-system-password";
     public final static String DEFAULT_REPOSITORY_DIRECTORY = "WEB-INF/storage";
     public final static String MAXUPLOAD_PARAM = "upload-limit";
     public final static String ENCRYPT_URLS = "encrypt-urls";
@@ -162,6 +170,28 @@ public class Main extends PluginApplication {
      */
     public final static String DEPLOYMENT_REQUEST_TIMEOUT_PARAM = "wicket.deployment.request.timeout";
 
+    /**
+     * Page store configuration parameter name in deployment mode: {@value #PAGE_STORE_AMNESIC} (the default) does not
+     * keep pages, {@value #PAGE_STORE_MEMORY} keeps serialized pages in memory and {@value #PAGE_STORE_DISK} keeps
+     * them on local disk.
+     */
+    public final static String DEPLOYMENT_PAGE_STORE_PARAM = "wicket.deployment.page.store";
+    public final static String PAGE_STORE_AMNESIC = "amnesic";
+    public final static String PAGE_STORE_MEMORY = "memory";
+    public final static String PAGE_STORE_DISK = "disk";
+
+    /**
+     * Maximum size of the serialized pages kept per session, e.g. "10MB".
+     */
+    public final static String PAGE_STORE_SESSION_SIZE_PARAM = "wicket.deployment.page.store.session.size";
+    public final static Bytes DEFAULT_PAGE_STORE_SESSION_SIZE = Bytes.megabytes(10);
+
+    /**
+     * Maximum size of the serialized pages kept in memory for all sessions together, e.g. "500MB".
+     */
+    public final static String PAGE_STORE_TOTAL_SIZE_PARAM = "wicket.deployment.page.store.total.size";
+    public final static Bytes DEFAULT_PAGE_STORE_TOTAL_SIZE = Bytes.megabytes(500);
+
     // class in the root package, to make it possible to use the caching resource stream locator
     // for resources that are not associated with a class.
     private static final Class<?> CACHING_RESOURCE_STREAM_LOCATOR_CLASS;
@@ -186,6 +216,8 @@ public class Main extends PluginApplication {
 
         registerSessionListeners();
 
+        registerChangeCounterSession();
+
         getPageSettings().setVersionPagesByDefault(false);
 //        getPageSettings().setAutomaticMultiWindowSupport(false);
 
@@ -444,14 +476,7 @@ public class Main extends PluginApplication {
             // do not render Wicket-specific markup since it can break CSS
             getMarkupSettings().setStripWicketTags(true);
         } else {
-            // don't serialize pages for performance
-            setPageManagerProvider(new DefaultPageManagerProvider(this) {
-
-                @Override
-                protected IPageStore newPageStore(final IDataStore dataStore) {
-                    return new AmnesicPageStore();
-                }
-            });
+            configurePageStore();
 
             // don't throw on missing resource
             resourceSettings.setThrowExceptionOnMissingResource(false);
@@ -507,6 +532,50 @@ public class Main extends PluginApplication {
         }
     }
 
+    private void configurePageStore() {
+        final String pageStore = getConfigurationParameter(DEPLOYMENT_PAGE_STORE_PARAM, PAGE_STORE_AMNESIC);
+        final Bytes sessionSize = getBytesParameter(PAGE_STORE_SESSION_SIZE_PARAM, DEFAULT_PAGE_STORE_SESSION_SIZE);
+
+        if (PAGE_STORE_MEMORY.equals(pageStore)) {
+            final Bytes totalSize = getBytesParameter(PAGE_STORE_TOTAL_SIZE_PARAM, DEFAULT_PAGE_STORE_TOTAL_SIZE);
+            log.info("Keeping at most {} of pages per session and {} in total in memory", sessionSize, totalSize);
+            setPageManagerProvider(new DefaultPageManagerProvider(this) {
+
+                @Override
+                protected IDataStore newDataStore() {
+                    return new BoundedMemoryDataStore(sessionSize, totalSize);
+                }
+            });
+        } else if (PAGE_STORE_DISK.equals(pageStore)) {
+            log.info("Keeping at most {} of pages per session on disk", sessionSize);
+            getStoreSettings().setMaxSizePerSession(sessionSize);
+        } else {
+            if (!PAGE_STORE_AMNESIC.equals(pageStore)) {
+                log.warn("Unknown page store '{}', not keeping pages", pageStore);
+            }
+            // don't serialize pages for performance
+            setPageManagerProvider(new DefaultPageManagerProvider(this) {
+
+                @Override
+                protected IPageStore newPageStore(final IDataStore dataStore) {
+                    return new AmnesicPageStore();
+                }
+            });
+        }
+    }
+
+    private Bytes getBytesParameter(final String parameterName, final Bytes defaultValue) {
+        final String value = getConfigurationParameter(parameterName, null);
+        if (value != null) {
+            try {
+                return Bytes.valueOf(value);
+            } catch (StringValueConversionException e) {
+                log.warn("Invalid value '{}' of parameter {}, using {}", value, parameterName, defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     protected IPackageResourceGuard createPackageResourceGuard() {
         return new WhitelistedClassesResourceGuard() {
             @Override
@@ -605,6 +674,18 @@ public class Main extends PluginApplication {
         return new JcrApplicationFactory(new JcrNodeModel(FRONTEND_PATH));
     }
 
+    private void registerChangeCounterSession() {
+        final String username = getConfigurationParameter(REPOSITORY_SYSTEM_USERNAME_PARAM, null);
+        if (username == null || username.trim().isEmpty()) {
+            log.info("No {} configured, shared caches observe changes with the sessions of their users",
+                    REPOSITORY_SYSTEM_USERNAME_PARAM);
+            return;
+        }
+        final String password = getConfigurationParameter(REPOSITORY_SYSTEM_PASSWORD_PARAM, "");
+        final UserCredentials credentials = new UserCredentials(username.trim(), password);
+        JcrChangeCounter.setSessionFactory(() -> getRepository().getRepository().login(credentials.getJcrCredentials()));
+    }
+
     public HippoRepository getRepository() throws RepositoryException {
         if (repository == null) {
             String repositoryAddress = getConfigurationParameter(REPOSITORY_ADDRESS_PARAM, null);
@@ -633,6 +714,7 @@ public class Main extends PluginApplication {
             cmsContextServiceImpl = null;
         }
         cmsContextService = null;
+        RestProxyServicePlugin.shutdownAsyncExecutor();
         if (repository != null) {
             // remove listeners
             JcrObservationManager jom = JcrObservationManager.getInstance();
@@ -651,6 +733,7 @@ public class Main extends PluginApplication {
             } catch (RepositoryException e) {
                 log.error("Unable to get registered event listeners for shutdown", e);
             }
+            JcrChangeCounter.setSessionFactory(null);
 
             // close
             repository.close();
@@ -25,18 +25,27 @@ import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.observation.Event;
-import javax.jcr.observation.EventIterator;
-import javax.jcr.observation.ObservationManager;
 
 import org.hippoecm.repository.api.HippoNodeType;
-import org.hippoecm.repository.api.SynchronousEventListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Notifies the listeners below facet root nodes (facet searches and facet navigations) of changes to the documents
+ * in the docbases of those facet roots.
+ * <p>
+ * The changes in a docbase are counted by one application wide event listener per docbase, see
+ * {@link JcrChangeCounter}.  A facet root listener compares the generation of its docbases with the generation it
+ * has last seen when the session is refreshed, so the cost of a save does not depend on the number of sessions that
+ * observe facet roots.  The counters are incremented synchronously, so a session sees the changes of its own save
+ * at its next refresh.
+ */
 public class FacetRootsObserver implements IFacetRootsObserver {
 
     static final Logger log = LoggerFactory.getLogger(FacetRootsObserver.class);
 
+    private static final int DOCBASE_EVENT_TYPES = Event.NODE_ADDED | Event.NODE_REMOVED | Event.PROPERTY_CHANGED;
+
     private Set<UpstreamEntry> upstream;
     private boolean broadcast = false;
 
@@ -80,14 +89,12 @@ public class FacetRootsObserver implements IFacetRootsObserver {
             entry.rootListeners = new LinkedList<FacetRootListener>();
             upstream.add(entry);
 
-            ObservationManager obMgr = session.getWorkspace().getObservationManager();
             for (String id : uuids) {
                 try {
                     String docbase = session.getNodeByIdentifier(id).getPath();
                     // CMS7-5568: facet navigation can have multiple docbases.
-                    FacetRootListener rootListener = new FacetRootListener(node.getPath(), session.getUserID(), listener);
-                    obMgr.addEventListener(rootListener, Event.NODE_ADDED | Event.NODE_REMOVED | Event.PROPERTY_CHANGED, docbase, true,
-                                         null, null, false);
+                    JcrChangeCounter counter = JcrChangeCounter.getSynchronous(docbase, DOCBASE_EVENT_TYPES, true, null);
+                    FacetRootListener rootListener = new FacetRootListener(node.getPath(), session, listener, counter);
                     entry.rootListeners.add(rootListener);
                 } catch (ItemNotFoundException e) {
                     log.warn("The {} property of facet node {} refers to a non-existing UUID '{}'",
@@ -98,16 +105,12 @@ public class FacetRootsObserver implements IFacetRootsObserver {
         }
     }
 
-    void unsubscribe(JcrListener listener, Session session) throws RepositoryException {
-        ObservationManager obMgr = session.getWorkspace().getObservationManager();
+    void unsubscribe(JcrListener listener) {
         synchronized (upstream) {
             Iterator<UpstreamEntry> iter = upstream.iterator();
             while (iter.hasNext()) {
                 UpstreamEntry entry = iter.next();
                 if (entry.listener == listener) {
-                    for (FacetRootListener frl : entry.rootListeners) {
-                        obMgr.removeEventListener(frl);
-                    }
                     iter.remove();
                 }
             }
@@ -119,29 +122,35 @@ public class FacetRootsObserver implements IFacetRootsObserver {
         LinkedList<FacetRootListener> rootListeners;
     }
 
-    private static class FacetRootListener implements SynchronousEventListener {
+    private static class FacetRootListener {
 
         // path to the facet root node
         private String nodePath;
-        private volatile boolean refresh = false;
+        private final Session session;
         private final JcrListener listener;
-        private final String userID;
+        private final JcrChangeCounter counter;
+        private long generation;
 
-        FacetRootListener(String path, String userID, JcrListener listener) {
+        FacetRootListener(String path, Session session, JcrListener listener, JcrChangeCounter counter) throws RepositoryException {
             this.nodePath = path;
+            this.session = session;
             this.listener = listener;
-            this.userID = userID;
+            this.counter = counter;
+            this.generation = counter.getGeneration(session);
         }
 
         void broadcast() {
-            if (refresh) {
-                refresh = false;
-                listener.onVirtualEvent(new ChangeEvent(nodePath, userID));
+            final long current;
+            try {
+                current = counter.getGeneration(session);
+            } catch (RepositoryException e) {
+                log.warn("Unable to observe the docbase of facet root {}: {}", nodePath, e.getMessage());
+                return;
+            }
+            if (current != generation) {
+                generation = current;
+                listener.onVirtualEvent(new ChangeEvent(nodePath, session.getUserID()));
             }
-        }
-
-        public void onEvent(EventIterator events) {
-            refresh = true;
         }
 
     }
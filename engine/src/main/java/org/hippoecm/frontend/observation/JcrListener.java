@@ -253,7 +253,7 @@ class JcrListener extends WeakReference<EventListener> implements SynchronousEve
 
     private void unsubscribe() throws RepositoryException {
         if (fro != null) {
-            fro.unsubscribe(this, session);
+            fro.unsubscribe(this);
             fro = null;
         }
 
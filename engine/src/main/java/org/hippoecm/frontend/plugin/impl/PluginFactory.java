@@ -15,18 +15,25 @@
  */
 package org.hippoecm.frontend.plugin.impl;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.wicket.Application;
 import org.apache.wicket.MarkupContainer;
 import org.apache.wicket.RestartResponseException;
+import org.apache.wicket.RuntimeConfigurationType;
 import org.apache.wicket.core.util.resource.locator.IResourceStreamLocator;
 import org.apache.wicket.markup.IMarkupCacheKeyProvider;
 import org.apache.wicket.markup.IMarkupResourceStreamProvider;
 import org.apache.wicket.settings.IResourceSettings;
 import org.apache.wicket.util.io.IClusterable;
 import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.UrlResourceStream;
 import org.hippoecm.frontend.plugin.IPlugin;
 import org.hippoecm.frontend.plugin.IPluginContext;
 import org.hippoecm.frontend.plugin.config.IPluginConfig;
@@ -38,12 +45,25 @@ import org.hippoecm.frontend.session.UserSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 public class PluginFactory implements IClusterable {
 
     private static final long serialVersionUID = 1L;
 
     private static final Logger log = LoggerFactory.getLogger(PluginFactory.class);
 
+    private static final Class<?>[] FORMAL_ARGS = new Class[] { IPluginContext.class, IPluginConfig.class };
+
+    /**
+     * Resolved plugin classes per class loader.  Both the class loaders and the resolved classes are weakly
+     * referenced, so the entries of a discarded (session) class loader go away with it.
+     */
+    private static final Cache<ClassLoader, ConcurrentMap<String, PluginClass>> pluginClasses = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
     public PluginFactory() {
     }
 
@@ -61,22 +81,20 @@ public class PluginFactory implements IClusterable {
                 loader = getClass().getClassLoader();
             }
             try {
-                @SuppressWarnings("unchecked")
-                Class<? extends IPlugin> clazz = (Class<? extends IPlugin>) Class.forName(className, true, loader);
-                Class<?>[] formalArgs = new Class[] { IPluginContext.class, IPluginConfig.class };
-                Constructor<? extends IPlugin> constructor = clazz.getConstructor(formalArgs);
-                Object[] actualArgs = new Object[] { context, config };
-                plugin = constructor.newInstance(actualArgs);
-
-            } catch (ClassNotFoundException e) {
-                IResourceSettings resourceSettings = Application.get().getResourceSettings();
-                IResourceStreamLocator locator = resourceSettings.getResourceStreamLocator();
-                IResourceStream stream = locator.locate(null, className.replace('.', '/') + ".html");
-                if (stream != null) {
-                    plugin = new LayoutPlugin(context, config, stream);
+                PluginClass pluginClass = getPluginClass(className, loader);
+                Constructor<?> constructor = pluginClass.getConstructor();
+                if (constructor != null) {
+                    Object[] actualArgs = new Object[] { context, config };
+                    plugin = (IPlugin) constructor.newInstance(actualArgs);
+                } else if (pluginClass.markupPath != null) {
+                    IResourceStream stream = pluginClass.getMarkup();
+                    if (stream != null) {
+                        plugin = new LayoutPlugin(context, config, stream);
+                    } else {
+                        message = "Layout markup '" + pluginClass.markupPath + "' not found";
+                    }
                 } else {
-                    message = e.getClass().getName() + ": " + e.getMessage();
-                    log.error(message, e);
+                    message = pluginClass.error;
                 }
 
             } catch (InvocationTargetException e) {
@@ -109,6 +127,115 @@ public class PluginFactory implements IClusterable {
         return plugin;
     }
 
+    /**
+     * Looks up the plugin class in the cache of resolved plugin classes.  The cache is not used in development
+     * mode, so changes to classes and layout markup are picked up.
+     */
+    static PluginClass getPluginClass(final String className, final ClassLoader loader) throws ExecutionException {
+        if (RuntimeConfigurationType.DEVELOPMENT.equals(Application.get().getConfigurationType())) {
+            return resolvePluginClass(className, loader);
+        }
+        final ConcurrentMap<String, PluginClass> classes = pluginClasses.get(loader, ConcurrentHashMap::new);
+        PluginClass pluginClass = classes.get(className);
+        if (pluginClass == null || pluginClass.isUnloaded()) {
+            pluginClass = resolvePluginClass(className, loader);
+            classes.put(className, pluginClass);
+        } else if (pluginClass.error != null) {
+            log.error(pluginClass.error);
+        }
+        return pluginClass;
+    }
+
+    private static PluginClass resolvePluginClass(final String className, final ClassLoader loader) {
+        String message;
+        try {
+            Class<?> clazz = Class.forName(className, true, loader);
+            return new PluginClass(clazz.getConstructor(FORMAL_ARGS), null, null, null);
+
+        } catch (ClassNotFoundException e) {
+            // a stream cannot be shared by plugins, so only the location of the markup is kept
+            String markupPath = className.replace('.', '/') + ".html";
+            IResourceStream stream = getResourceStreamLocator().locate(null, markupPath);
+            if (stream != null) {
+                URL markupUrl = stream instanceof UrlResourceStream ? ((UrlResourceStream) stream).getURL() : null;
+                return new PluginClass(null, markupPath, markupUrl, null);
+            }
+            message = e.getClass().getName() + ": " + e.getMessage();
+            log.error(message, e);
+        } catch (Exception e) {
+            message = e.getClass().getName() + ": " + e.getMessage();
+            log.error(message, e);
+        }
+        return new PluginClass(null, null, null, message);
+    }
+
+    private static IResourceStreamLocator getResourceStreamLocator() {
+        IResourceSettings resourceSettings = Application.get().getResourceSettings();
+        return resourceSettings.getResourceStreamLocator();
+    }
+
+    /**
+     * The resolved form of a plugin class name: either the constructor of the plugin class, the location of the
+     * markup of a layout plugin or the error message that explains why the class name could not be resolved.  The
+     * constructor is weakly referenced, as it references the class; when it has been collected while the class is
+     * still loaded, it is looked up again.
+     */
+    static final class PluginClass {
+
+        private final WeakReference<Class<?>> clazz;
+        private volatile WeakReference<Constructor<?>> constructor;
+        final String markupPath;
+        private final URL markupUrl;
+        final String error;
+
+        private PluginClass(final Constructor<?> constructor, final String markupPath, final URL markupUrl,
+                            final String error) {
+            if (constructor != null) {
+                this.clazz = new WeakReference<Class<?>>(constructor.getDeclaringClass());
+                this.constructor = new WeakReference<Constructor<?>>(constructor);
+            } else {
+                this.clazz = null;
+            }
+            this.markupPath = markupPath;
+            this.markupUrl = markupUrl;
+            this.error = error;
+        }
+
+        Class<?> getPluginClass() {
+            return clazz != null ? clazz.get() : null;
+        }
+
+        /**
+         * @return the constructor of the plugin class, or null when there is no plugin class
+         */
+        Constructor<?> getConstructor() throws NoSuchMethodException {
+            Constructor<?> result = constructor != null ? constructor.get() : null;
+            if (result == null) {
+                final Class<?> pluginClass = getPluginClass();
+                if (pluginClass == null) {
+                    return null;
+                }
+                result = pluginClass.getConstructor(FORMAL_ARGS);
+                constructor = new WeakReference<Constructor<?>>(result);
+            }
+            return result;
+        }
+
+        /**
+         * @return a new stream of the markup of the layout plugin, or null when it cannot be found
+         */
+        IResourceStream getMarkup() {
+            if (markupUrl != null) {
+                return new UrlResourceStream(markupUrl);
+            }
+            return markupPath != null ? getResourceStreamLocator().locate(null, markupPath) : null;
+        }
+
+        private boolean isUnloaded() {
+            return clazz != null && clazz.get() == null;
+        }
+    }
+
     private static class LayoutPlugin extends RenderPlugin implements IMarkupCacheKeyProvider, IMarkupResourceStreamProvider {
         private static final long serialVersionUID = 1L;
 
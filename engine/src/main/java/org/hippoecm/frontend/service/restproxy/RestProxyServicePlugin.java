@@ -19,7 +19,16 @@ import java.lang.annotation.Annotation;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.jcr.Credentials;
 import javax.security.auth.Subject;
@@ -31,8 +40,6 @@ import org.apache.commons.proxy.Interceptor;
 import org.apache.commons.proxy.Invocation;
 import org.apache.commons.proxy.ProxyFactory;
 import org.apache.cxf.common.util.StringUtils;
-import org.apache.cxf.interceptor.LoggingInInterceptor;
-import org.apache.cxf.interceptor.LoggingOutInterceptor;
 import org.apache.cxf.jaxrs.client.Client;
 import org.apache.cxf.jaxrs.client.ClientConfiguration;
 import org.apache.cxf.jaxrs.client.JAXRSClientFactory;
@@ -63,6 +70,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectMapper.DefaultTyping;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Creates proxies for HST REST services. Plugin configuration properties:
@@ -70,6 +80,13 @@ import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
  * <li>'rest.uri': the base URI of the HST REST service to use (default: 'http://localhost:8080/site/_cmsrest')</li>
  * <li>'service.id': the ID to register this service under (default: 'IHstRestService')</li>
  * </ul>
+ * <p>
+ * The CXF client proxies are expensive to create, so they are created once per combination of REST uri, service
+ * API class, additional providers and secure flag, and shared by all sessions. The CXF proxies are thread-safe; the
+ * request specific headers of a secure proxy are captured when the proxy is requested and applied to the thread
+ * local client state on every invocation. Provider instances may carry state, so proxies that are created with
+ * additional providers are not shared; a new proxy is created for every call.
+ * </p>
  */
 public class RestProxyServicePlugin extends Plugin implements IRestProxyService {
 
@@ -93,6 +110,15 @@ public class RestProxyServicePlugin extends Plugin implements IRestProxyService
         }});
     }};
 
+    private static final int MAX_CACHED_PROXIES = 500;
+    private static final int ASYNC_POOL_SIZE = Integer.getInteger("hippo.restproxy.async.poolsize", 10);
+
+    private static final Cache<ProxyKey, Object> proxyCache = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_PROXIES)
+            .build();
+
+    private static volatile ExecutorService asyncExecutor;
+
     private final String restUri;
     private final String contextPath;
 
@@ -173,11 +199,11 @@ public class RestProxyServicePlugin extends Plugin implements IRestProxyService
      * @param additionalProviders {@link java.util.List} of additional providers to configure client proxies with
      * @return a proxy to the REST service represented by the given class, or null if no proxy could be created.
      */
-    @SuppressWarnings("unchecked")
     @Override
     public <T> T createRestProxy(final Class<T> restServiceApiClass, final List<Object> additionalProviders) {
-        T cxfProxy = JAXRSClientFactory.create(restUri, restServiceApiClass, getProviders(additionalProviders));
-        return createHDCEnabledJaxrsClientInterceptorProxy(cxfProxy, restServiceApiClass);
+        final T cxfProxy = getCachedProxy(restServiceApiClass, additionalProviders, false);
+        return createHDCEnabledJaxrsClientInterceptorProxy(cxfProxy, restServiceApiClass,
+                Collections.<String, String>emptyMap());
     }
 
     /**
@@ -195,7 +221,7 @@ public class RestProxyServicePlugin extends Plugin implements IRestProxyService
      */
     @Override
     public <T> T createSecureRestProxy(final Class<T> restServiceApiClass, final List<Object> additionalProviders) {
-        T clientProxy = JAXRSClientFactory.create(restUri, restServiceApiClass, getProviders(additionalProviders));
+        final T cxfProxy = getCachedProxy(restServiceApiClass, additionalProviders, true);
 
         HttpServletRequest httpServletRequest = (HttpServletRequest) RequestCycle.get().getRequest().getContainerRequest();
         HttpSession httpSession = httpServletRequest.getSession();
@@ -205,22 +231,83 @@ public class RestProxyServicePlugin extends Plugin implements IRestProxyService
             cmsSessionContext = cmsContextService.create(httpSession);
             CmsSessionUtil.populateCmsSessionContext(cmsContextService, cmsSessionContext, (PluginUserSession) UserSession.get());
         }
-        // The accept method is called to solve an issue as the REST call was sent with 'text/plain' as an accept header
-        // which caused problems matching with the relevant JAXRS resource
-        final Client client = WebClient.client(clientProxy);
-        client.header(HEADER_CMS_CONTEXT_SERVICE_ID, cmsSessionContext.getCmsContextServiceId())
-                .header(HEADER_CMS_SESSION_CONTEXT_ID, cmsSessionContext.getId())
-                .header(CMSREST_CMSHOST_HEADER, RequestUtils.getFarthestRequestHost(httpServletRequest))
-                .accept(MediaType.WILDCARD_TYPE);
- 
-        // Enabling CXF logging from client-side
-        ClientConfiguration config = WebClient.getConfig(client);
-        config.getInInterceptors().add(new RestProxyLoggingInInterceptor());
-        config.getOutInterceptors().add(new RestProxyLoggingOutInterceptor());
-
-        // default time out is 60000 ms;
-
-        return createHDCEnabledJaxrsClientInterceptorProxy(clientProxy, restServiceApiClass);
+
+        // the headers are applied on every invocation, the shared CXF proxy keeps them in thread local state
+        final Map<String, String> headers = new LinkedHashMap<>();
+        headers.put(HEADER_CMS_CONTEXT_SERVICE_ID, cmsSessionContext.getCmsContextServiceId());
+        headers.put(HEADER_CMS_SESSION_CONTEXT_ID, cmsSessionContext.getId());
+        headers.put(CMSREST_CMSHOST_HEADER, RequestUtils.getFarthestRequestHost(httpServletRequest));
+
+        return createHDCEnabledJaxrsClientInterceptorProxy(cxfProxy, restServiceApiClass, headers);
+    }
+
+    /**
+     * Executes the call on a thread pool that is shared by all sessions. Proxies created by this service can be
+     * invoked from the call, since they do not depend on the request cycle of the calling thread.
+     */
+    @Override
+    public <T> Future<T> invokeAsync(final Callable<T> call) {
+        return getAsyncExecutor().submit(call);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getCachedProxy(final Class<T> restServiceApiClass, final List<Object> additionalProviders,
+                                 final boolean secure) {
+        if (additionalProviders != null && !additionalProviders.isEmpty()) {
+            // provider instances may carry state, a proxy that uses them cannot be shared
+            return createCxfProxy(restServiceApiClass, additionalProviders, secure);
+        }
+        // subclasses can override getProviders(), so proxies are only shared between instances of the same class
+        final ProxyKey key = new ProxyKey(getClass(), restUri, restServiceApiClass, secure);
+        try {
+            return (T) proxyCache.get(key, () -> createCxfProxy(restServiceApiClass, additionalProviders, secure));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Cannot create REST proxy for '" + restServiceApiClass.getName() + "'",
+                    e.getCause());
+        }
+    }
+
+    private <T> T createCxfProxy(final Class<T> restServiceApiClass, final List<Object> additionalProviders,
+                                 final boolean secure) {
+        log.debug("Creating {}REST proxy for '{}'", secure ? "secure " : "", restServiceApiClass.getName());
+        final T cxfProxy = JAXRSClientFactory.create(restUri, restServiceApiClass, getProviders(additionalProviders), true);
+
+        if (secure) {
+            // Enabling CXF logging from client-side
+            ClientConfiguration config = WebClient.getConfig(WebClient.client(cxfProxy));
+            config.getInInterceptors().add(new RestProxyLoggingInInterceptor());
+            config.getOutInterceptors().add(new RestProxyLoggingOutInterceptor());
+
+            // default time out is 60000 ms;
+        }
+        return cxfProxy;
+    }
+
+    private static ExecutorService getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            synchronized (RestProxyServicePlugin.class) {
+                if (asyncExecutor == null) {
+                    asyncExecutor = Executors.newFixedThreadPool(ASYNC_POOL_SIZE, new ThreadFactoryBuilder()
+                            .setNameFormat("rest-proxy-async-%d")
+                            .setDaemon(true)
+                            .build());
+                }
+            }
+        }
+        return asyncExecutor;
+    }
+
+    /**
+     * Shuts down the thread pool of {@link #invokeAsync(Callable)}.  Calls that have been submitted are still
+     * executed.  The pool is shared by all sessions, so it is shut down when the application is destroyed.
+     */
+    public static void shutdownAsyncExecutor() {
+        synchronized (RestProxyServicePlugin.class) {
+            if (asyncExecutor != null) {
+                asyncExecutor.shutdown();
+                asyncExecutor = null;
+            }
+        }
     }
 
     protected Subject getSubject() {
@@ -262,11 +349,13 @@ public class RestProxyServicePlugin extends Plugin implements IRestProxyService
     }
 
     @SuppressWarnings({ "unchecked" })
-    private <T> T createHDCEnabledJaxrsClientInterceptorProxy(final T cxfProxy, final Class<T> restServiceApiClass) {
+    private <T> T createHDCEnabledJaxrsClientInterceptorProxy(final T cxfProxy, final Class<T> restServiceApiClass,
+                                                              final Map<String, String> headers) {
         return (T) new ProxyFactory().createInterceptorProxy(cxfProxy, new Interceptor() {
             @Override
             public Object intercept(Invocation invocation) throws Throwable {
                 Task jaxrsClientTask = null;
+                final Client client = WebClient.client(cxfProxy);
 
                 try {
                     if (HDC.isStarted()) {
@@ -275,8 +364,19 @@ public class RestProxyServicePlugin extends Plugin implements IRestProxyService
                         jaxrsClientTask.setAttribute("method", invocation.getMethod().getName());
                     }
 
+                    if (!headers.isEmpty()) {
+                        for (Map.Entry<String, String> header : headers.entrySet()) {
+                            client.header(header.getKey(), header.getValue());
+                        }
+                        // The accept method is called to solve an issue as the REST call was sent with 'text/plain'
+                        // as an accept header which caused problems matching with the relevant JAXRS resource
+                        client.accept(MediaType.WILDCARD_TYPE);
+                    }
+
                     return invocation.proceed();
                 } finally {
+                    // clear the thread local state of the shared CXF proxy
+                    client.reset();
                     if (jaxrsClientTask != null) {
                         jaxrsClientTask.stop();
                     }
@@ -284,4 +384,40 @@ public class RestProxyServicePlugin extends Plugin implements IRestProxyService
             }
         }, new Class [] { restServiceApiClass });
     }
+
+    private static final class ProxyKey {
+
+        private final Class<?> pluginClass;
+        private final String restUri;
+        private final Class<?> restServiceApiClass;
+        private final boolean secure;
+
+        private ProxyKey(final Class<?> pluginClass, final String restUri, final Class<?> restServiceApiClass,
+                         final boolean secure) {
+            this.pluginClass = pluginClass;
+            this.restUri = restUri;
+            this.restServiceApiClass = restServiceApiClass;
+            this.secure = secure;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ProxyKey)) {
+                return false;
+            }
+            final ProxyKey other = (ProxyKey) o;
+            return secure == other.secure
+                    && pluginClass.equals(other.pluginClass)
+                    && restUri.equals(other.restUri)
+                    && restServiceApiClass.equals(other.restServiceApiClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pluginClass, restUri, restServiceApiClass, secure);
+        }
+    }
 }
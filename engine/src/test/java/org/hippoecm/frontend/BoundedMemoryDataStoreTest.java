@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hippoecm.frontend;
+
+import org.apache.wicket.util.lang.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class BoundedMemoryDataStoreTest {
+
+    private BoundedMemoryDataStore store;
+
+    @Before
+    public void setUp() {
+        store = new BoundedMemoryDataStore(Bytes.bytes(30), Bytes.bytes(50));
+    }
+
+    @Test
+    public void storedPageIsReturned() {
+        store.storeData("a", 1, new byte[10]);
+        assertNotNull(store.getData("a", 1));
+        assertNull(store.getData("a", 2));
+        assertNull(store.getData("b", 1));
+    }
+
+    @Test
+    public void leastRecentlyUsedPageOfSessionIsEvicted() {
+        store.storeData("a", 1, new byte[10]);
+        store.storeData("a", 2, new byte[10]);
+        store.storeData("a", 3, new byte[10]);
+        store.getData("a", 1);
+
+        store.storeData("a", 4, new byte[10]);
+        assertNotNull(store.getData("a", 1));
+        assertNull(store.getData("a", 2));
+        assertNotNull(store.getData("a", 3));
+        assertNotNull(store.getData("a", 4));
+        assertEquals(30, store.getSize());
+    }
+
+    @Test
+    public void leastRecentlyUsedPageOfAnySessionIsEvictedWhenTotalIsExceeded() {
+        store.storeData("a", 1, new byte[20]);
+        store.storeData("b", 1, new byte[20]);
+        store.storeData("c", 1, new byte[20]);
+
+        assertNull(store.getData("a", 1));
+        assertNotNull(store.getData("b", 1));
+        assertNotNull(store.getData("c", 1));
+        assertEquals(40, store.getSize());
+    }
+
+    @Test
+    public void pageLargerThanSessionBudgetIsNotKept() {
+        store.storeData("a", 1, new byte[10]);
+        store.storeData("a", 1, new byte[40]);
+        assertNull(store.getData("a", 1));
+        assertEquals(0, store.getSize());
+    }
+
+    @Test
+    public void pagesOfSessionAreRemoved() {
+        store.storeData("a", 1, new byte[10]);
+        store.storeData("a", 2, new byte[10]);
+        store.storeData("b", 1, new byte[10]);
+
+        store.removeData("a");
+        assertNull(store.getData("a", 1));
+        assertNull(store.getData("a", 2));
+        assertNotNull(store.getData("b", 1));
+        assertEquals(10, store.getSize());
+    }
+}
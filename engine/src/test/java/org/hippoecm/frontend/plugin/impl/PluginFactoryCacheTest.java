@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hippoecm.frontend.plugin.impl;
+
+import java.lang.reflect.Constructor;
+
+import org.apache.wicket.RuntimeConfigurationType;
+import org.apache.wicket.mock.MockApplication;
+import org.apache.wicket.util.tester.WicketTester;
+import org.hippoecm.frontend.plugin.Plugin;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PluginFactoryCacheTest {
+
+    private static final String MISSING_CLASS = "org.hippoecm.frontend.plugin.impl.MissingPlugin";
+
+    /**
+     * Counts the requests for the missing plugin class.  Classes that cannot be found are not recorded by the
+     * JVM, so every lookup that is not served from the cache reaches the class loader.
+     */
+    private static class CountingClassLoader extends ClassLoader {
+
+        private int missingLookups;
+
+        CountingClassLoader() {
+            super(PluginFactoryCacheTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+            if (MISSING_CLASS.equals(name)) {
+                missingLookups++;
+                throw new ClassNotFoundException(name);
+            }
+            return super.loadClass(name, resolve);
+        }
+    }
+
+    private RuntimeConfigurationType configurationType;
+    private WicketTester tester;
+
+    @Before
+    public void setUp() {
+        configurationType = RuntimeConfigurationType.DEPLOYMENT;
+        tester = new WicketTester(new MockApplication() {
+            @Override
+            public RuntimeConfigurationType getConfigurationType() {
+                return configurationType;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        tester.destroy();
+    }
+
+    @Test
+    public void plugin_class_is_resolved_once() throws Exception {
+        final CountingClassLoader loader = new CountingClassLoader();
+        final PluginFactory.PluginClass first = PluginFactory.getPluginClass(Plugin.class.getName(), loader);
+        final PluginFactory.PluginClass second = PluginFactory.getPluginClass(Plugin.class.getName(), loader);
+        assertSame(first, second);
+        assertSame(Plugin.class, second.getPluginClass());
+    }
+
+    @Test
+    public void plugin_constructor_is_looked_up_once() throws Exception {
+        final CountingClassLoader loader = new CountingClassLoader();
+        final PluginFactory.PluginClass pluginClass = PluginFactory.getPluginClass(Plugin.class.getName(), loader);
+        final Constructor<?> constructor = pluginClass.getConstructor();
+        assertSame(constructor, pluginClass.getConstructor());
+        assertSame(Plugin.class, constructor.getDeclaringClass());
+    }
+
+    @Test
+    public void missing_plugin_class_is_cached() throws Exception {
+        final CountingClassLoader loader = new CountingClassLoader();
+        final PluginFactory.PluginClass first = PluginFactory.getPluginClass(MISSING_CLASS, loader);
+        final PluginFactory.PluginClass second = PluginFactory.getPluginClass(MISSING_CLASS, loader);
+        assertEquals(1, loader.missingLookups);
+        assertSame(first, second);
+        assertNull(second.getPluginClass());
+        assertNull(second.markupPath);
+        assertNotNull(second.error);
+    }
+
+    @Test
+    public void missing_plugin_class_is_cached_per_class_loader() throws Exception {
+        final CountingClassLoader loader = new CountingClassLoader();
+        final CountingClassLoader other = new CountingClassLoader();
+        PluginFactory.getPluginClass(MISSING_CLASS, loader);
+        PluginFactory.getPluginClass(MISSING_CLASS, other);
+        assertEquals(1, loader.missingLookups);
+        assertEquals(1, other.missingLookups);
+    }
+
+    @Test
+    public void cache_is_bypassed_in_development_mode() throws Exception {
+        configurationType = RuntimeConfigurationType.DEVELOPMENT;
+        final CountingClassLoader loader = new CountingClassLoader();
+        PluginFactory.getPluginClass(MISSING_CLASS, loader);
+        PluginFactory.getPluginClass(MISSING_CLASS, loader);
+        assertEquals(2, loader.missingLookups);
+    }
+}
@@ -23,6 +23,7 @@ import java.util.List;
 
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
+import javax.jcr.Session;
 
 import org.apache.wicket.Component;
 import org.apache.wicket.ajax.AjaxRequestTarget;
@@ -50,6 +51,7 @@ import org.hippoecm.frontend.plugin.config.IPluginConfig;
 import org.hippoecm.frontend.plugins.gallery.model.DefaultGalleryProcessor;
 import org.hippoecm.frontend.plugins.gallery.model.GalleryException;
 import org.hippoecm.frontend.plugins.gallery.model.GalleryProcessor;
+import org.hippoecm.frontend.plugins.jquery.upload.behaviors.UploadTask;
 import org.hippoecm.frontend.plugins.jquery.upload.multiple.JQueryFileUploadDialog;
 import org.hippoecm.frontend.plugins.standards.icon.HippoIconStack;
 import org.hippoecm.frontend.plugins.standards.icon.HippoIconStack.Position;
@@ -64,6 +66,7 @@ import org.hippoecm.frontend.widgets.AbstractView;
 import org.hippoecm.repository.api.Document;
 import org.hippoecm.repository.api.HippoNode;
 import org.hippoecm.repository.api.HippoNodeType;
+import org.hippoecm.repository.api.HippoWorkspace;
 import org.hippoecm.repository.api.StringCodec;
 import org.hippoecm.repository.api.WorkflowException;
 import org.hippoecm.repository.api.WorkflowManager;
@@ -100,6 +103,20 @@ public class GalleryWorkflowPlugin extends CompatibilityWorkflowPlugin<GalleryWo
             }
         }
 
+        @Override
+        protected boolean isConcurrent() {
+            return true;
+        }
+
+        @Override
+        protected UploadTask prepareFileUpload(final FileUpload file) throws FileUploadException {
+            try {
+                return new GalleryItemUpload(file);
+            } catch (GalleryException e) {
+                throw new FileUploadException("Error while creating gallery item", e);
+            }
+        }
+
         @Override
         public void onClose() {
             afterUploadItems();
@@ -126,57 +143,121 @@ public class GalleryWorkflowPlugin extends CompatibilityWorkflowPlugin<GalleryWo
     }
 
     private void createGalleryItem(FileUpload upload) throws GalleryException {
-        try (InputStream is = upload.getInputStream()) {
-            String fileName = upload.getClientFileName();
-            String mimeType = upload.getContentType();
+        GalleryItemUpload itemUpload = new GalleryItemUpload(upload);
+        HippoNode node = itemUpload.create(UserSession.get().getJcrSession());
+        onGalleryItemCreation(node);
+        newItems.add(itemUpload.path);
+    }
 
-            WorkflowManager manager = UserSession.get().getWorkflowManager();
-            HippoNode node;
+    /**
+     * Creates a gallery item for an uploaded file.  The codecs, the gallery processor and the messages are resolved
+     * when the upload is created on the request thread; {@link #create(Session)} only uses the given session, so the
+     * files of one upload can be created concurrently, each with a session of its own.
+     */
+    private class GalleryItemUpload implements UploadTask {
+
+        private final String fileName;
+        private final String mimeType;
+        private final String galleryType;
+        private final String category;
+        private final String folderId;
+        private final String nodeName;
+        private final String localName;
+        private final GalleryProcessor galleryProcessor;
+        private final String failedMessage;
+        private final String truncatedMessage;
+        private final InputStream stream;
+        private String path;
+
+        private GalleryItemUpload(FileUpload upload) throws GalleryException {
+            fileName = upload.getClientFileName();
+            mimeType = upload.getContentType();
+            galleryType = type;
+
+            WorkflowDescriptorModel workflowDescriptorModel = (WorkflowDescriptorModel) GalleryWorkflowPlugin.this
+                    .getDefaultModel();
+            category = workflowDescriptorModel.getCategory();
             try {
-                WorkflowDescriptorModel workflowDescriptorModel = (WorkflowDescriptorModel) GalleryWorkflowPlugin.this
-                        .getDefaultModel();
-
-                GalleryWorkflow workflow = (GalleryWorkflow) manager
-                        .getWorkflow(workflowDescriptorModel.getObject());
-
-                String nodeName = getNodeNameCodec(workflowDescriptorModel.getNode()).encode(fileName);
-                String localName = getLocalizeCodec().encode(fileName);
-                Document document = workflow.createGalleryItem(nodeName, type, fileName);
-                node = (HippoNode) UserSession.get().getJcrSession()
-                        .getNodeByIdentifier(document.getIdentity());
-                DefaultWorkflow defaultWorkflow = (DefaultWorkflow) manager.getWorkflow("core", node);
-                if (!node.getDisplayName().equals(localName)) {
-                    defaultWorkflow.setDisplayName(localName);
-                }
-            } catch (WorkflowException ex) {
-                GalleryWorkflowPlugin.log.error(ex.getMessage());
-                throw new GalleryException("Workflow failed", ex);
+                Node folder = workflowDescriptorModel.getNode();
+                folderId = folder.getIdentifier();
+                nodeName = getNodeNameCodec(folder).encode(fileName);
             } catch (RepositoryException ex) {
                 GalleryWorkflowPlugin.log.error(ex.getMessage());
                 throw new GalleryException("Repository failed", ex);
             }
+            localName = getLocalizeCodec().encode(fileName);
+            galleryProcessor = DefaultGalleryProcessor.getGalleryProcessor(getPluginContext(), getPluginConfig());
+            failedMessage = new StringResourceModel("upload-failed-named-label",
+                    GalleryWorkflowPlugin.this, null, null, fileName).getString();
+            truncatedMessage = new StringResourceModel("upload-failed-label", GalleryWorkflowPlugin.this, null).getString();
 
             try {
-                GalleryProcessor galleryProcessor = DefaultGalleryProcessor.getGalleryProcessor(getPluginContext(), getPluginConfig());
-                galleryProcessor.makeImage(node, is, mimeType, fileName);
-                node.getSession().save();
-                onGalleryItemCreation(node);
-                newItems.add(node.getPath());
-            } catch (Exception ex) {
-                remove(manager, node);
-                final StringResourceModel messageModel = new StringResourceModel("upload-failed-named-label",
-                        GalleryWorkflowPlugin.this, null, null, fileName);
-                throw new GalleryException(messageModel.getString(), ex);
+                stream = upload.getInputStream();
+            } catch (IOException ex) {
+                GalleryWorkflowPlugin.log.info("upload of image truncated");
+                throw new GalleryException(truncatedMessage);
+            }
+        }
+
+        private HippoNode create(Session session) throws GalleryException {
+            try (InputStream is = stream) {
+                WorkflowManager manager = ((HippoWorkspace) session.getWorkspace()).getWorkflowManager();
+                HippoNode node;
+                try {
+                    GalleryWorkflow workflow = (GalleryWorkflow) manager.getWorkflow(category,
+                            session.getNodeByIdentifier(folderId));
+                    Document document = workflow.createGalleryItem(nodeName, galleryType, fileName);
+                    node = (HippoNode) session.getNodeByIdentifier(document.getIdentity());
+                    DefaultWorkflow defaultWorkflow = (DefaultWorkflow) manager.getWorkflow("core", node);
+                    if (!node.getDisplayName().equals(localName)) {
+                        defaultWorkflow.setDisplayName(localName);
+                    }
+                } catch (WorkflowException ex) {
+                    GalleryWorkflowPlugin.log.error(ex.getMessage());
+                    throw new GalleryException("Workflow failed", ex);
+                } catch (RepositoryException ex) {
+                    GalleryWorkflowPlugin.log.error(ex.getMessage());
+                    throw new GalleryException("Repository failed", ex);
+                }
+
+                try {
+                    galleryProcessor.makeImage(node, is, mimeType, fileName);
+                    session.save();
+                    path = node.getPath();
+                } catch (Exception ex) {
+                    remove(manager, node);
+                    throw new GalleryException(failedMessage, ex);
+                }
+                return node;
+            } catch (IOException ex) {
+                GalleryWorkflowPlugin.log.info("upload of image truncated");
+                throw new GalleryException(truncatedMessage);
+            }
+        }
+
+        @Override
+        public void run(Session session) throws FileUploadException {
+            try {
+                create(session);
+            } catch (GalleryException e) {
+                throw new FileUploadException("Error while creating gallery item", e);
+            }
+        }
+
+        @Override
+        public void onSuccess() {
+            try {
+                onGalleryItemCreation(UserSession.get().getJcrSession().getNode(path));
+            } catch (RepositoryException e) {
+                GalleryWorkflowPlugin.log.warn("Cannot read gallery item {}: {}", path, e.getMessage());
             }
-        } catch (IOException ex) {
-            GalleryWorkflowPlugin.log.info("upload of image truncated");
-            throw new GalleryException(new StringResourceModel("upload-failed-label", GalleryWorkflowPlugin.this, null).getString());
+            newItems.add(path);
         }
     }
 
     protected void onGalleryItemCreation(Node node) { }
 
-    private void remove(final WorkflowManager manager, final HippoNode node) {
+    private static void remove(final WorkflowManager manager, final HippoNode node) {
         try {
             DefaultWorkflow defaultWorkflow = (DefaultWorkflow) manager.getWorkflow("core", node);
             defaultWorkflow.delete();
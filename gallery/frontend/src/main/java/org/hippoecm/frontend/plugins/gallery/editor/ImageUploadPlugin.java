@@ -34,6 +34,7 @@ import org.hippoecm.frontend.plugins.gallery.model.GalleryProcessor;
 import org.hippoecm.frontend.plugins.jquery.upload.FileUploadViolationException;
 import org.hippoecm.frontend.plugins.jquery.upload.behaviors.FileUploadInfo;
 import org.hippoecm.frontend.plugins.jquery.upload.single.FileUploadPanel;
+import org.hippoecm.frontend.plugins.yui.upload.UploadMetadata;
 import org.hippoecm.frontend.plugins.yui.upload.validation.FileUploadValidationService;
 import org.hippoecm.frontend.plugins.yui.upload.validation.ImageUploadValidationService;
 import org.hippoecm.frontend.service.IEditor;
@@ -87,7 +88,8 @@ public class ImageUploadPlugin extends RenderPlugin {
         JcrNodeModel nodeModel = (JcrNodeModel) getDefaultModel();
         Node node = nodeModel.getNode();
         try {
-            ImageBinary image = new ImageBinary(node, upload.getInputStream(), fileName, mimeType);
+            ImageBinary image = new ImageBinary(node, upload.getInputStream(), fileName, mimeType,
+                    UploadMetadata.of(upload));
             processor.initGalleryResource(node, image.getStream(), image.getMimeType(), image.getFileName(), Calendar.getInstance());
         } catch (IOException | GalleryException | RepositoryException e) {
             if (log.isDebugEnabled()) {
@@ -33,6 +33,7 @@ import org.hippoecm.frontend.model.ocm.StoreException;
 import org.hippoecm.frontend.plugins.gallery.imageutil.ImageBinary;
 import org.hippoecm.frontend.plugins.gallery.model.GalleryException;
 import org.hippoecm.frontend.plugins.gallery.model.GalleryProcessor;
+import org.hippoecm.frontend.plugins.yui.upload.UploadMetadata;
 import org.hippoecm.frontend.types.IFieldDescriptor;
 import org.hippoecm.frontend.types.ITypeDescriptor;
 import org.hippoecm.repository.api.HippoNodeType;
@@ -62,8 +63,9 @@ public abstract class AbstractGalleryProcessor implements GalleryProcessor {
             throw new GalleryException("Resource node not of primaryType " + HippoNodeType.NT_RESOURCE);
         }
 
-        //Create a new image binary that serves as the original source converted to RGB plus image metadata
-        ImageBinary image = new ImageBinary(node, stream, fileName, mimeType);
+        //Create a new image binary that serves as the original source converted to RGB plus image metadata,
+        //using the metadata that was collected while the image was uploaded when the stream carries it
+        ImageBinary image = new ImageBinary(node, stream, fileName, mimeType, UploadMetadata.of(stream));
 
         log.debug("Setting JCR data of primary resource");
         ResourceHelper.setDefaultResourceProperties(resourceNode, image.getMimeType(), image, image.getFileName());
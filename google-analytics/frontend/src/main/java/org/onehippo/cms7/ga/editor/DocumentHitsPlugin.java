@@ -15,15 +15,6 @@
  */
 package org.onehippo.cms7.ga.editor;
 
-import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
-import com.google.api.client.http.HttpTransport;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.JsonFactory;
-import com.google.api.client.json.jackson2.JacksonFactory;
-import com.google.api.client.util.SecurityUtils;
-import com.google.api.services.analytics.Analytics;
-import com.google.api.services.analytics.AnalyticsScopes;
-import com.google.api.services.analytics.model.GaData;
 import org.apache.wicket.AttributeModifier;
 import org.apache.wicket.Component;
 import org.apache.wicket.extensions.ajax.markup.html.AjaxLazyLoadPanel;
@@ -38,21 +29,15 @@ import org.hippoecm.frontend.plugin.IPluginContext;
 import org.hippoecm.frontend.plugin.config.IPluginConfig;
 import org.hippoecm.frontend.plugins.standards.list.resolvers.TitleAttribute;
 import org.hippoecm.frontend.service.render.RenderPlugin;
-import org.onehippo.cms7.services.HippoServiceRegistry;
-import org.onehippo.cms7.services.googleanalytics.GoogleAnalyticsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.security.GeneralSecurityException;
-import java.security.PrivateKey;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 
@@ -61,8 +46,6 @@ public class DocumentHitsPlugin extends RenderPlugin<Node> {
     private static final long serialVersionUID = 1L;
     private static final Logger log = LoggerFactory.getLogger(DocumentHitsPlugin.class);
     private static final double RANGE = 62.0;
-    private static final HttpTransport HTTP_TRANSPORT = new NetHttpTransport();
-    private static final JsonFactory JSON_FACTORY = JacksonFactory.getDefaultInstance();
 
     private enum Period {
 
@@ -216,21 +199,9 @@ public class DocumentHitsPlugin extends RenderPlugin<Node> {
         loaded = true;
         success = false;
         try {
-            // Create Google analytics query
-            final Analytics analyticsService = getAnalyticsService();
-            final Analytics.Data.Ga.Get get = analyticsService.data().ga().get(getTableId(), getStartDate(), getEndDate(), "ga:visits");
-            get.setDimensions(period.getDimension());
-            get.setMetrics("ga:pageviews");
-            get.setFilters("ga:pagePath==" + getParentNodePath());
-            final GaData dataFeed = get.execute();
-            // Output data to the screen.
-            final List<List<String>> rows = dataFeed.getRows();
-            // Gather the results
-            pageViewsList = new LinkedList<>();
-
-            for (List<String> entry : rows) {
-                Long pageViews = Long.valueOf(entry.get(1));
-                pageViewsList.add(pageViews);
+            pageViewsList = DocumentHitsService.getInstance().getPageViews(getParentNodePath(),
+                    period.getDimension(), getStartDate(), getEndDate());
+            for (Long pageViews : pageViewsList) {
                 // remember the maximum number of page views in the data set
                 if (maxPageViews < pageViews) {
                     maxPageViews = pageViews;
@@ -279,38 +250,6 @@ public class DocumentHitsPlugin extends RenderPlugin<Node> {
         return dateFormat.format(cal.getTime());
     }
 
-    private Analytics getAnalyticsService() throws GeneralSecurityException, IOException, RepositoryException {
-        if (getPrivateKey() == null) {
-            throw new IllegalArgumentException("Missing public/private key pair for Google Maps API");
-        }
-
-        final GoogleCredential.Builder builder = new GoogleCredential.Builder()
-                .setTransport(HTTP_TRANSPORT)
-                .setJsonFactory(JSON_FACTORY)
-                .setServiceAccountId(getUserName())
-                .setServiceAccountScopes(Collections.singletonList(AnalyticsScopes.ANALYTICS_READONLY));
-        final PrivateKey privateKey = SecurityUtils.loadPrivateKeyFromKeyStore(SecurityUtils.getPkcs12KeyStore(), getPrivateKey(), "notasecret", "privatekey", "notasecret");
-        final GoogleCredential credential = builder.setServiceAccountPrivateKey(privateKey).build();
-        return new Analytics.Builder(HTTP_TRANSPORT, JSON_FACTORY, credential).setApplicationName("hippocms7_reporting_v1").build();
-    }
-
-    private String getTableId() {
-        final GoogleAnalyticsService service = HippoServiceRegistry.getService(GoogleAnalyticsService.class);
-        return service != null ? service.getTableId() : null;
-    }
-
-    private String getUserName() {
-        final GoogleAnalyticsService service = HippoServiceRegistry.getService(GoogleAnalyticsService.class);
-        return service != null ? service.getUserName() : null;
-    }
-
-
-
-    private InputStream getPrivateKey() throws RepositoryException {
-        final GoogleAnalyticsService service = HippoServiceRegistry.getService(GoogleAnalyticsService.class);
-        return service != null ? service.getPrivateKey() : null;
-    }
-
     private String getParentNodePath() throws RepositoryException {
         Node node = getModelObject();
         return node.getParent().getPath();
@@ -0,0 +1,226 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.onehippo.cms7.ga.editor;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.util.SecurityUtils;
+import com.google.api.services.analytics.Analytics;
+import com.google.api.services.analytics.AnalyticsScopes;
+import com.google.api.services.analytics.model.GaData;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.onehippo.cms7.services.HippoServiceRegistry;
+import org.onehippo.cms7.services.googleanalytics.GoogleAnalyticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.RepositoryException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application wide source of the page views of documents.  The authenticated Google Analytics client is created
+ * once and reused until the Google Analytics configuration changes or a request fails, and the page views of a
+ * path are cached for {@link #DEFAULT_TTL_MINUTES} minutes.  Since Google Analytics data has a latency of a day,
+ * there is no need to ask for them more often.
+ */
+public class DocumentHitsService {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentHitsService.class);
+
+    static final long DEFAULT_TTL_MINUTES = 60L;
+    private static final int MAX_CACHED_PATHS = 1000;
+    private static final String APPLICATION_NAME = "hippocms7_reporting_v1";
+    private static final JsonFactory JSON_FACTORY = JacksonFactory.getDefaultInstance();
+
+    private static final DocumentHitsService INSTANCE = new DocumentHitsService(new NetHttpTransport(),
+            DEFAULT_TTL_MINUTES, TimeUnit.MINUTES);
+
+    private final HttpTransport transport;
+    private final Cache<String, List<Long>> pageViews;
+    private volatile Client client;
+
+    DocumentHitsService(final HttpTransport transport, final long ttl, final TimeUnit unit) {
+        this.transport = transport;
+        this.pageViews = CacheBuilder.newBuilder()
+                .maximumSize(MAX_CACHED_PATHS)
+                .expireAfterWrite(ttl, unit)
+                .build();
+    }
+
+    public static DocumentHitsService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the number of page views of a path per interval, oldest first.
+     *
+     * @param pagePath  the path of the page
+     * @param dimension the Google Analytics dimension of the intervals, e.g. "ga:nthWeek"
+     * @param startDate the first day, formatted as yyyy-MM-dd
+     * @param endDate   the last day, formatted as yyyy-MM-dd
+     * @return the page views per interval
+     * @throws IOException              when Google Analytics cannot be reached or refuses the request
+     * @throws GeneralSecurityException when the private key cannot be loaded
+     */
+    public List<Long> getPageViews(final String pagePath, final String dimension, final String startDate,
+                                   final String endDate) throws IOException, GeneralSecurityException {
+        final String key = getTableId() + '|' + pagePath + '|' + dimension + '|' + startDate + '|' + endDate;
+        try {
+            return pageViews.get(key, () -> fetchPageViews(pagePath, dimension, startDate, endDate));
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof GeneralSecurityException) {
+                throw (GeneralSecurityException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } catch (UncheckedExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Discards the cached page views and the client.
+     */
+    public void invalidate() {
+        pageViews.invalidateAll();
+        client = null;
+    }
+
+    private List<Long> fetchPageViews(final String pagePath, final String dimension, final String startDate,
+                                      final String endDate) throws IOException, GeneralSecurityException {
+        final Client current = getClient();
+        try {
+            final Analytics.Data.Ga.Get get = current.analytics.data().ga()
+                    .get(current.tableId, startDate, endDate, "ga:visits");
+            get.setDimensions(dimension);
+            get.setMetrics("ga:pageviews");
+            get.setFilters("ga:pagePath==" + pagePath);
+            final GaData dataFeed = get.execute();
+
+            final List<List<String>> rows = dataFeed.getRows();
+            if (rows == null) {
+                return Collections.emptyList();
+            }
+            final List<Long> result = new ArrayList<>(rows.size());
+            for (List<String> entry : rows) {
+                result.add(Long.valueOf(entry.get(1)));
+            }
+            return Collections.unmodifiableList(result);
+        } catch (IOException e) {
+            // the credentials may have been revoked; authenticate again on the next request
+            client = null;
+            throw e;
+        }
+    }
+
+    private Client getClient() throws IOException, GeneralSecurityException {
+        final String tableId = getTableId();
+        final String userName = getUserName();
+        Client current = client;
+        if (current == null || !current.isFor(tableId, userName)) {
+            synchronized (this) {
+                current = client;
+                if (current == null || !current.isFor(tableId, userName)) {
+                    log.debug("Creating Google Analytics client for account '{}'", userName);
+                    final Analytics analytics = new Analytics.Builder(transport, JSON_FACTORY, createCredential(userName))
+                            .setApplicationName(APPLICATION_NAME).build();
+                    current = new Client(tableId, userName, analytics);
+                    client = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    protected GoogleCredential createCredential(final String userName) throws IOException, GeneralSecurityException {
+        final InputStream privateKeyStream = getPrivateKey();
+        if (privateKeyStream == null) {
+            throw new IllegalArgumentException("Missing public/private key pair for Google Maps API");
+        }
+        final PrivateKey privateKey;
+        try {
+            privateKey = SecurityUtils.loadPrivateKeyFromKeyStore(SecurityUtils.getPkcs12KeyStore(),
+                    privateKeyStream, "notasecret", "privatekey", "notasecret");
+        } finally {
+            privateKeyStream.close();
+        }
+        return new GoogleCredential.Builder()
+                .setTransport(transport)
+                .setJsonFactory(JSON_FACTORY)
+                .setServiceAccountId(userName)
+                .setServiceAccountScopes(Collections.singletonList(AnalyticsScopes.ANALYTICS_READONLY))
+                .setServiceAccountPrivateKey(privateKey)
+                .build();
+    }
+
+    protected String getTableId() {
+        final GoogleAnalyticsService service = HippoServiceRegistry.getService(GoogleAnalyticsService.class);
+        return service != null ? service.getTableId() : null;
+    }
+
+    protected String getUserName() {
+        final GoogleAnalyticsService service = HippoServiceRegistry.getService(GoogleAnalyticsService.class);
+        return service != null ? service.getUserName() : null;
+    }
+
+    protected InputStream getPrivateKey() throws IOException {
+        final GoogleAnalyticsService service = HippoServiceRegistry.getService(GoogleAnalyticsService.class);
+        try {
+            return service != null ? service.getPrivateKey() : null;
+        } catch (RepositoryException e) {
+            throw new IOException("Unable to read the private key", e);
+        }
+    }
+
+    private static final class Client {
+
+        private final String tableId;
+        private final String userName;
+        private final Analytics analytics;
+
+        private Client(final String tableId, final String userName, final Analytics analytics) {
+            this.tableId = tableId;
+            this.userName = userName;
+            this.analytics = analytics;
+        }
+
+        private boolean isFor(final String tableId, final String userName) {
+            return Objects.equals(this.tableId, tableId) && Objects.equals(this.userName, userName);
+        }
+    }
+}
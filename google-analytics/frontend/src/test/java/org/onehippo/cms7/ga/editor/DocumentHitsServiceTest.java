@@ -0,0 +1,140 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.onehippo.cms7.ga.editor;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.Json;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DocumentHitsServiceTest {
+
+    private static final String DATA = "{\"rows\": [[\"0\", \"3\"], [\"1\", \"12\"], [\"2\", \"7\"]]}";
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger credentials = new AtomicInteger();
+    private int status;
+    private String tableId;
+
+    private class StubTransport extends MockHttpTransport {
+
+        @Override
+        public LowLevelHttpRequest buildRequest(final String method, final String url) throws IOException {
+            return new MockLowLevelHttpRequest(url) {
+                @Override
+                public LowLevelHttpResponse execute() throws IOException {
+                    requests.incrementAndGet();
+                    final MockLowLevelHttpResponse response = new MockLowLevelHttpResponse();
+                    response.setStatusCode(status);
+                    response.setContentType(Json.MEDIA_TYPE);
+                    response.setContent(status == 200 ? DATA : "{}");
+                    return response;
+                }
+            };
+        }
+    }
+
+    private class StubService extends DocumentHitsService {
+
+        StubService() {
+            super(new StubTransport(), 1, TimeUnit.HOURS);
+        }
+
+        @Override
+        protected GoogleCredential createCredential(final String userName) {
+            credentials.incrementAndGet();
+            return new GoogleCredential().setAccessToken("token");
+        }
+
+        @Override
+        protected String getTableId() {
+            return tableId;
+        }
+
+        @Override
+        protected String getUserName() {
+            return "user";
+        }
+    }
+
+    @Before
+    public void setUp() {
+        status = 200;
+        tableId = "ga:1";
+    }
+
+    @Test
+    public void page_views_are_read_from_the_rows() throws Exception {
+        final DocumentHitsService service = new StubService();
+        final List<Long> pageViews = service.getPageViews("/news/item", "ga:nthWeek", "2017-01-01", "2017-03-01");
+        assertEquals(Arrays.asList(3L, 12L, 7L), pageViews);
+    }
+
+    @Test
+    public void page_views_are_cached_per_path() throws Exception {
+        final DocumentHitsService service = new StubService();
+        service.getPageViews("/news/item", "ga:nthWeek", "2017-01-01", "2017-03-01");
+        service.getPageViews("/news/item", "ga:nthWeek", "2017-01-01", "2017-03-01");
+        assertEquals(1, requests.get());
+
+        service.getPageViews("/news/other", "ga:nthWeek", "2017-01-01", "2017-03-01");
+        assertEquals(2, requests.get());
+        assertEquals(1, credentials.get());
+    }
+
+    @Test
+    public void client_is_created_again_when_the_configuration_changes() throws Exception {
+        final DocumentHitsService service = new StubService();
+        service.getPageViews("/news/item", "ga:nthWeek", "2017-01-01", "2017-03-01");
+        tableId = "ga:2";
+        service.getPageViews("/news/item", "ga:nthWeek", "2017-01-01", "2017-03-01");
+        assertEquals(2, requests.get());
+        assertEquals(2, credentials.get());
+    }
+
+    @Test
+    public void failures_are_not_cached() throws Exception {
+        final DocumentHitsService service = new StubService();
+        status = 403;
+        try {
+            service.getPageViews("/news/item", "ga:nthWeek", "2017-01-01", "2017-03-01");
+            fail("Expected the request to fail");
+        } catch (IOException expected) {
+            assertTrue(requests.get() > 0);
+        }
+
+        status = 200;
+        final int before = requests.get();
+        assertEquals(3, service.getPageViews("/news/item", "ga:nthWeek", "2017-01-01", "2017-03-01").size());
+        assertEquals(before + 1, requests.get());
+        assertEquals(2, credentials.get());
+    }
+}
@@ -18,24 +18,30 @@ package org.hippoecm.frontend.plugins.cms.admin;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
+import javax.jcr.PathNotFoundException;
 import javax.jcr.RepositoryException;
 import javax.jcr.observation.Event;
 import javax.jcr.observation.EventIterator;
 import javax.jcr.query.Query;
+import javax.jcr.query.RowIterator;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.wicket.extensions.markup.html.repeater.util.SortParam;
 import org.apache.wicket.extensions.markup.html.repeater.util.SortableDataProvider;
 import org.hippoecm.frontend.model.JcrNodeModel;
 import org.hippoecm.frontend.model.event.IObservable;
 import org.hippoecm.frontend.model.event.IObservationContext;
 import org.hippoecm.frontend.model.event.JcrEventListener;
 import org.hippoecm.frontend.session.UserSession;
+import org.hippoecm.repository.api.NodeNameCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,6 +53,10 @@ import org.slf4j.LoggerFactory;
  * Whenever something changes below the JCR path and in the JCR types provided to the constructor, this observable will
  * notify registered {@link org.hippoecm.frontend.model.event.IObserver}s.
  * <p/>
+ * Beans are only created for the requested page. The paths of all matching nodes are kept per search term in a
+ * small, short-lived cache to count the results and to page through them in node name order. When the sort property
+ * maps onto a JCR property (see {@link #getOrderByProperty(String)}), ordering and paging are done by the query.
+ * <p/>
  * TODO: Remove primitive total count accounting when it's possible to get the size of the resultset without going
  * through the accessmanager.
  */
@@ -84,10 +94,13 @@ public abstract class SearchableDataProvider<T extends Comparable<T>> extends So
 
     private final String searchTermSqlStatementTemplate;
 
+    private static final int MAX_CACHED_SEARCH_TERMS = 5;
+    private static final long RESULT_TTL_MILLIS = 60 * 1000L;
+
     private final String observePath;
     private final String[] observeNodeTypes;
     private String searchTerm;
-    private List<T> list = new ArrayList<T>();
+    private transient Map<String, CachedResult> results;
     private volatile boolean dirty = true;
     private IObservationContext<JcrNodeModel> context;
     private JcrEventListener listener;
@@ -116,67 +129,139 @@ public abstract class SearchableDataProvider<T extends Comparable<T>> extends So
      */
     protected abstract T createBean(Node node) throws RepositoryException;
 
+    /**
+     * Returns the JCR property to order the query results by when sorting on the given sort property. Subclasses
+     * should override this method for sort properties that map onto an (indexed) JCR property.
+     *
+     * @param sortProperty the sort property of the data provider
+     * @return the JCR property to order by, or null to sort on the node name
+     */
+    protected String getOrderByProperty(String sortProperty) {
+        return null;
+    }
+
     @Override
     public Iterator<T> iterator(long first, long count) {
-        populateList(searchTerm);
-        List<T> result = new ArrayList<T>();
-        for (long i = first; i < (count + first); i++) {
-            result.add(list.get((int) i));
+        final List<String> paths = getPaths();
+        final SortParam<String> sort = getSort();
+        final String orderByProperty = sort != null ? getOrderByProperty(sort.getProperty()) : null;
+
+        final List<T> result = new ArrayList<T>();
+        if (orderByProperty != null) {
+            loadPage(orderByProperty, sort.isAscending(), first, count, result);
+        } else {
+            final boolean ascending = sort == null || sort.isAscending();
+            final int size = paths.size();
+            final long last = Math.min(first + count, size);
+            for (long i = first; i < last; i++) {
+                addBean(paths.get((int) (ascending ? i : size - 1 - i)), result);
+            }
         }
         return result.iterator();
     }
 
     @Override
     public long size() {
-        populateList(searchTerm);
-        return list.size();
+        return getPaths().size();
     }
 
-    protected List<T> getList() {
-        return list;
+    private String getStatement() {
+        if (StringUtils.isNotEmpty(searchTerm)) {
+            return searchTermSqlStatementTemplate.replace("{}", searchTerm);
+        }
+        return searchAllSqlStatement;
     }
 
     /**
-     * Populate list, refresh when a new session id is found or when dirty
-     *
-     * @param searchTerm the searchTerm used for free text search to limit the list
+     * Returns the paths of all matching nodes, ordered by node name.  The paths are cached per search term until
+     * the observed nodes change, the provider is detached without observation or the cache entry expires.
      */
-    private void populateList(final String searchTerm) {
-        // synchronize on the runtime class, as there can be multiple implementations of this abstract class
-        if (!dirty) {
-            return;
+    private List<String> getPaths() {
+        if (results == null) {
+            results = new LinkedHashMap<String, CachedResult>(MAX_CACHED_SEARCH_TERMS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, CachedResult> eldest) {
+                    return size() > MAX_CACHED_SEARCH_TERMS;
+                }
+            };
+        }
+        if (dirty) {
+            results.clear();
+            dirty = false;
         }
-        list.clear();
 
-        final StringBuilder sqlQuery;
-        if (StringUtils.isNotEmpty(searchTerm)) {
-            sqlQuery = new StringBuilder(searchTermSqlStatementTemplate.replace("{}", searchTerm));
-        } else {
-            sqlQuery = new StringBuilder(searchAllSqlStatement);
+        final String key = StringUtils.defaultString(searchTerm);
+        CachedResult cached = results.get(key);
+        if (cached == null || cached.isExpired()) {
+            final List<String> paths = queryPaths();
+            if (paths == null) {
+                return Collections.emptyList();
+            }
+            cached = new CachedResult(paths);
+            results.put(key, cached);
         }
+        return cached.paths;
+    }
+
+    private List<String> queryPaths() {
+        final String sqlQuery = getStatement();
         log.debug("Executing query: {}", sqlQuery);
         try {
             UserSession session = UserSession.get();
             @SuppressWarnings("deprecation") Query listQuery =
-                    session.getQueryManager().createQuery(sqlQuery.toString(), Query.SQL);
-            NodeIterator iter = listQuery.execute().getNodes();
+                    session.getQueryManager().createQuery(sqlQuery, Query.SQL);
+            final List<String> paths = new ArrayList<String>();
+            for (RowIterator rows = listQuery.execute().getRows(); rows.hasNext(); ) {
+                paths.add(rows.nextRow().getPath());
+            }
+            Collections.sort(paths, (path1, path2) -> getName(path1).compareTo(getName(path2)));
+            return paths;
+        } catch (RepositoryException e) {
+            log.error("Error while executing query: " + sqlQuery, e);
+            return null;
+        }
+    }
+
+    private void loadPage(final String orderByProperty, final boolean ascending, final long first, final long count,
+                          final List<T> page) {
+        final String sqlQuery = getStatement() + " ORDER BY " + orderByProperty + (ascending ? " ASC" : " DESC");
+        log.debug("Executing query: {} (offset {}, limit {})", sqlQuery, first, count);
+        try {
+            UserSession session = UserSession.get();
+            @SuppressWarnings("deprecation") Query pageQuery =
+                    session.getQueryManager().createQuery(sqlQuery, Query.SQL);
+            pageQuery.setOffset(first);
+            pageQuery.setLimit(count);
+            NodeIterator iter = pageQuery.execute().getNodes();
             while (iter.hasNext()) {
                 Node node = iter.nextNode();
                 if (node != null) {
                     try {
-                        list.add(createBean(node));
+                        page.add(createBean(node));
                     } catch (RepositoryException e) {
                         log.warn("Unable to instantiate new bean.", e);
                     }
                 }
             }
-            Collections.sort(list);
-            dirty = false;
         } catch (RepositoryException e) {
             log.error("Error while executing query: " + sqlQuery, e);
         }
     }
 
+    private void addBean(final String path, final List<T> page) {
+        try {
+            page.add(createBean(UserSession.get().getJcrSession().getNode(path)));
+        } catch (PathNotFoundException e) {
+            log.debug("Node '{}' has been removed since the query was executed", path);
+        } catch (RepositoryException e) {
+            log.warn("Unable to instantiate new bean.", e);
+        }
+    }
+
+    private static String getName(final String path) {
+        return NodeNameCodec.decode(path.substring(path.lastIndexOf('/') + 1));
+    }
+
     /**
      * Set the search searchTerm. Only beans that match the searchTerm will be included. A '*' in the searchTerm acts as a wildcard.
      * When the searchTerm is null or empty, all beans will be included.
@@ -188,7 +273,6 @@ public abstract class SearchableDataProvider<T extends Comparable<T>> extends So
     @SuppressWarnings("unused")
     public void setSearchTerm(final String searchTerm) {
         this.searchTerm = escapeJcrContainsQuery(searchTerm);
-        dirty = true;
     }
 
     /**
@@ -323,7 +407,6 @@ public abstract class SearchableDataProvider<T extends Comparable<T>> extends So
     public void detach() {
         if (listener == null) {
             dirty = true;
-            list.clear();
         }
         super.detach();
     }
@@ -358,4 +441,18 @@ public abstract class SearchableDataProvider<T extends Comparable<T>> extends So
                 .toHashCode();
     }
 
+    private static final class CachedResult {
+
+        private final List<String> paths;
+        private final long created = System.currentTimeMillis();
+
+        private CachedResult(final List<String> paths) {
+            this.paths = paths;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - created > RESULT_TTL_MILLIS;
+        }
+    }
+
 }
@@ -0,0 +1,372 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.cms.admin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.observation.Event;
+
+import org.apache.jackrabbit.JcrConstants;
+import org.hippoecm.frontend.observation.JcrChangeCounter;
+import org.hippoecm.frontend.session.UserSession;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.hippoecm.repository.api.NodeNameCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * The users, groups, domains and roles below /hippo:configuration and how they relate: which users are member of
+ * which groups and which groups have which roles on which domains.  The graph is read in one pass and kept per user
+ * id, as it only contains what the user can read.  It is read again when a node below the users, groups, domains or
+ * roles has been added or removed, or when one of the properties that the graph holds has changed; other changes,
+ * like the last login of a user, keep it.
+ * <p>
+ * The users, groups and domains are kept by path, as folders may hold nodes with the same name.  A user or group
+ * that is looked up by name is the first one with that node name in name and path order.
+ * <p>
+ * The graph only holds names and paths; the admin panels read the nodes of the users, groups and domains they show.
+ */
+public final class SecurityGraph {
+
+    private static final Logger log = LoggerFactory.getLogger(SecurityGraph.class);
+
+    private static final String CONFIGURATION_PATH = "/" + HippoNodeType.CONFIGURATION_PATH;
+    private static final String ROLES_PATH = "hippo:roles";
+    private static final String NT_ROLE = "hipposys:role";
+    private static final String INTERNAL_PROVIDER = "internal";
+
+    private static final String[] OBSERVED_PATHS = {
+            CONFIGURATION_PATH + "/" + HippoNodeType.USERS_PATH,
+            CONFIGURATION_PATH + "/" + HippoNodeType.GROUPS_PATH,
+            CONFIGURATION_PATH + "/" + HippoNodeType.DOMAINS_PATH,
+            CONFIGURATION_PATH + "/" + ROLES_PATH
+    };
+
+    private static final int EVENT_TYPES = Event.NODE_ADDED | Event.NODE_REMOVED | Event.NODE_MOVED
+            | Event.PROPERTY_ADDED | Event.PROPERTY_CHANGED | Event.PROPERTY_REMOVED;
+
+    private static final String[] OBSERVED_PROPERTIES = {
+            HippoNodeType.HIPPO_SYSTEM,
+            HippoNodeType.HIPPO_MEMBERS,
+            HippoNodeType.HIPPO_SECURITYPROVIDER,
+            HippoNodeType.HIPPO_GROUPS,
+            JcrConstants.JCR_MIXINTYPES
+    };
+
+    private static final Cache<String, SecurityGraph> graphs = CacheBuilder.newBuilder()
+            .maximumSize(50)
+            .expireAfterAccess(30, TimeUnit.MINUTES)
+            .build();
+
+    private static final class UserEntry {
+
+        private final String path;
+        private final boolean system;
+
+        private UserEntry(final String path, final boolean system) {
+            this.path = path;
+            this.system = system;
+        }
+    }
+
+    private static final class GroupEntry {
+
+        private final String path;
+        private final boolean external;
+        private final boolean system;
+        private final boolean internal;
+        private final List<String> members;
+
+        private GroupEntry(final String path, final boolean external, final boolean system, final boolean internal,
+                           final List<String> members) {
+            this.path = path;
+            this.external = external;
+            this.system = system;
+            this.internal = internal;
+            this.members = members;
+        }
+    }
+
+    /**
+     * A role that a group has on a domain.
+     */
+    public static final class Permission {
+
+        private final String domainPath;
+        private final String authRolePath;
+
+        private Permission(final String domainPath, final String authRolePath) {
+            this.domainPath = domainPath;
+            this.authRolePath = authRolePath;
+        }
+
+        public String getDomainPath() {
+            return domainPath;
+        }
+
+        public String getAuthRolePath() {
+            return authRolePath;
+        }
+    }
+
+    private final long[] generations;
+
+    // absolute path -> entry; the groups in name order
+    private final Map<String, UserEntry> users = new HashMap<>();
+    private final Map<String, GroupEntry> groups = new LinkedHashMap<>();
+    // node name -> absolute path of the first user or group with that name
+    private final Map<String, String> userPaths = new HashMap<>();
+    private final Map<String, String> groupPaths = new HashMap<>();
+    // absolute paths of the domains, in name order
+    private final List<String> domains = new ArrayList<>();
+    private final List<String> roles = new ArrayList<>();
+
+    // user name -> groups that have the user as member, in group name order
+    private final Map<String, List<GroupEntry>> memberships = new HashMap<>();
+    // group name -> the roles of the group on domains, in domain name order
+    private final Map<String, List<Permission>> permissions = new HashMap<>();
+
+    private SecurityGraph(final Session session, final long[] generations) throws RepositoryException {
+        this.generations = generations;
+
+        final Node configuration = session.getNode(CONFIGURATION_PATH);
+        final List<Node> userNodes = new ArrayList<>();
+        if (configuration.hasNode(HippoNodeType.USERS_PATH)) {
+            collect(configuration.getNode(HippoNodeType.USERS_PATH), HippoNodeType.NT_USER, userNodes);
+        }
+        for (Node user : sortByName(userNodes)) {
+            final String path = user.getPath();
+            users.put(path, new UserEntry(path, getBoolean(user, HippoNodeType.HIPPO_SYSTEM)));
+            userPaths.putIfAbsent(user.getName(), path);
+        }
+
+        final List<Node> groupNodes = new ArrayList<>();
+        if (configuration.hasNode(HippoNodeType.GROUPS_PATH)) {
+            collect(configuration.getNode(HippoNodeType.GROUPS_PATH), HippoNodeType.NT_GROUP, groupNodes);
+        }
+        for (Node group : sortByName(groupNodes)) {
+            readGroup(group);
+        }
+
+        final List<Node> domainNodes = new ArrayList<>();
+        if (configuration.hasNode(HippoNodeType.DOMAINS_PATH)) {
+            collect(configuration.getNode(HippoNodeType.DOMAINS_PATH), HippoNodeType.NT_DOMAIN, domainNodes);
+        }
+        for (Node domain : sortByName(domainNodes)) {
+            domains.add(domain.getPath());
+            readAuthRoles(domain);
+        }
+        if (configuration.hasNode(ROLES_PATH)) {
+            final NodeIterator children = configuration.getNode(ROLES_PATH).getNodes();
+            while (children.hasNext()) {
+                final Node child = children.nextNode();
+                if (child != null && child.isNodeType(NT_ROLE)) {
+                    roles.add(child.getName());
+                }
+            }
+            Collections.sort(roles);
+        }
+
+        for (GroupEntry group : groups.values()) {
+            for (String member : group.members) {
+                memberships.computeIfAbsent(member, name -> new ArrayList<>()).add(group);
+            }
+        }
+        log.debug("Read {} users, {} groups and {} domains", users.size(), groups.size(), domains.size());
+    }
+
+    /**
+     * @return the graph as seen by the user of the current session
+     * @throws RepositoryException when the graph cannot be read or its changes cannot be observed
+     */
+    public static SecurityGraph get() throws RepositoryException {
+        final Session session = UserSession.get().getJcrSession();
+        final long[] generations = new long[OBSERVED_PATHS.length];
+        for (int i = 0; i < OBSERVED_PATHS.length; i++) {
+            generations[i] = JcrChangeCounter.getSynchronous(OBSERVED_PATHS[i], EVENT_TYPES, true, null,
+                    OBSERVED_PROPERTIES).getGeneration(session);
+        }
+        SecurityGraph graph = graphs.getIfPresent(session.getUserID());
+        if (graph == null || !Arrays.equals(graph.generations, generations)) {
+            graph = new SecurityGraph(session, generations);
+            graphs.put(session.getUserID(), graph);
+        }
+        return graph;
+    }
+
+    public boolean userExists(final String username) {
+        return getUserPath(username) != null;
+    }
+
+    /**
+     * @return the absolute path of the user, or null when there is no such user
+     */
+    public String getUserPath(final String username) {
+        return userPaths.get(NodeNameCodec.encode(username));
+    }
+
+    public boolean isSystemUser(final String username) {
+        final String path = getUserPath(username);
+        return path != null && users.get(path).system;
+    }
+
+    public boolean groupExists(final String groupName) {
+        return getGroupPath(groupName) != null;
+    }
+
+    /**
+     * @return the absolute path of the group, or null when there is no such group
+     */
+    public String getGroupPath(final String groupName) {
+        return groupPaths.get(NodeNameCodec.encode(groupName, true));
+    }
+
+    /**
+     * @param localOnly whether to return only the non-system groups of the internal security provider
+     * @return the absolute paths of the groups, in group name order
+     */
+    public List<String> getGroupPaths(final boolean localOnly) {
+        final List<String> paths = new ArrayList<>(groups.size());
+        for (GroupEntry group : groups.values()) {
+            if (!localOnly || (group.internal && !group.system)) {
+                paths.add(group.path);
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * @return the members of the group, also those that do not exist as users, or an empty list
+     */
+    public List<String> getMembers(final String groupName) {
+        final String path = getGroupPath(groupName);
+        return path != null ? groups.get(path).members : Collections.emptyList();
+    }
+
+    /**
+     * @param external            whether to return only the external groups
+     * @param excludeSystemGroups whether to leave out the system groups
+     * @return the absolute paths of the groups that have the user as member, in group name order
+     */
+    public List<String> getMembershipPaths(final String username, final boolean external, final boolean excludeSystemGroups) {
+        final List<String> paths = new ArrayList<>();
+        for (GroupEntry group : memberships.getOrDefault(username, Collections.emptyList())) {
+            if ((!external || group.external) && !(excludeSystemGroups && group.system)) {
+                paths.add(group.path);
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * @return the roles of the group on domains, in domain name order
+     */
+    public List<Permission> getPermissions(final String groupName) {
+        return Collections.unmodifiableList(permissions.getOrDefault(groupName, Collections.emptyList()));
+    }
+
+    /**
+     * @return the absolute paths of the domains, in domain name order
+     */
+    public List<String> getDomainPaths() {
+        return new ArrayList<>(domains);
+    }
+
+    /**
+     * @return the names of the roles, in name order
+     */
+    public List<String> getRoles() {
+        return Collections.unmodifiableList(roles);
+    }
+
+    private static void collect(final Node folder, final String nodeType, final List<Node> nodes) throws RepositoryException {
+        final NodeIterator children = folder.getNodes();
+        while (children.hasNext()) {
+            final Node child = children.nextNode();
+            if (child == null) {
+                continue;
+            }
+            if (child.isNodeType(nodeType)) {
+                nodes.add(child);
+            } else {
+                collect(child, nodeType, nodes);
+            }
+        }
+    }
+
+    private static List<Node> sortByName(final List<Node> nodes) throws RepositoryException {
+        final Map<Node, String> keys = new HashMap<>();
+        for (Node node : nodes) {
+            keys.put(node, NodeNameCodec.decode(node.getName()) + '\u0000' + node.getPath());
+        }
+        nodes.sort(Comparator.comparing(keys::get));
+        return nodes;
+    }
+
+    private void readGroup(final Node group) throws RepositoryException {
+        final String path = group.getPath();
+        final boolean internal = group.hasProperty(HippoNodeType.HIPPO_SECURITYPROVIDER)
+                && INTERNAL_PROVIDER.equals(group.getProperty(HippoNodeType.HIPPO_SECURITYPROVIDER).getString());
+        groups.put(path, new GroupEntry(path, group.isNodeType(HippoNodeType.NT_EXTERNALGROUP),
+                getBoolean(group, HippoNodeType.HIPPO_SYSTEM), internal, getStrings(group, HippoNodeType.HIPPO_MEMBERS)));
+        groupPaths.putIfAbsent(group.getName(), path);
+    }
+
+    private void readAuthRoles(final Node domain) throws RepositoryException {
+        final NodeIterator children = domain.getNodes();
+        while (children.hasNext()) {
+            final Node child = children.nextNode();
+            if (child != null && child.isNodeType(HippoNodeType.NT_AUTHROLE)) {
+                final Permission permission = new Permission(domain.getPath(), child.getPath());
+                for (String group : getStrings(child, HippoNodeType.HIPPO_GROUPS)) {
+                    permissions.computeIfAbsent(group, name -> new ArrayList<>()).add(permission);
+                }
+            }
+        }
+    }
+
+    private static boolean getBoolean(final Node node, final String property) throws RepositoryException {
+        return node.hasProperty(property) && node.getProperty(property).getBoolean();
+    }
+
+    private static List<String> getStrings(final Node node, final String property) throws RepositoryException {
+        if (!node.hasProperty(property)) {
+            return Collections.emptyList();
+        }
+        final Value[] values = node.getProperty(property).getValues();
+        final List<String> strings = new ArrayList<>(values.length);
+        for (Value value : values) {
+            strings.add(value.getString());
+        }
+        return Collections.unmodifiableList(strings);
+    }
+}
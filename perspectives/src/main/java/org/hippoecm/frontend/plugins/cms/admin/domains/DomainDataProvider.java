@@ -20,15 +20,13 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
-import javax.jcr.Node;
-import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
-import javax.jcr.query.Query;
+import javax.jcr.Session;
 
-import org.apache.wicket.Session;
 import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
 import org.apache.wicket.extensions.markup.html.repeater.util.SortableDataProvider;
 import org.apache.wicket.model.IModel;
+import org.hippoecm.frontend.plugins.cms.admin.SecurityGraph;
 import org.hippoecm.frontend.session.UserSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,27 +35,19 @@ public class DomainDataProvider extends SortableDataProvider<Domain, String> {
 
     private static final Logger log = LoggerFactory.getLogger(DomainDataProvider.class);
 
-    private static final String QUERY_DOMAIN_LIST = "SELECT * FROM hipposys:domain";
-
-    private static final transient List<Domain> domainList = new ArrayList<>();
-    private static volatile boolean dirty = true;
-
-    private static String sessionId = "none";
-
     public DomainDataProvider() {
         setSort("name", SortOrder.ASCENDING);
     }
 
     @Override
     public Iterator<Domain> iterator(long first, long count) {
-        final List<Domain> domains = getDomainList();
-        domains.sort((domain1, domain2) -> {
-            final int direction = getSort().isAscending() ? 1 : -1;
-            return direction * domain1.compareTo(domain2);
-        });
+        final List<String> paths = getDomainPaths();
+        if (!getSort().isAscending()) {
+            Collections.reverse(paths);
+        }
 
-        final int endIndex = (int) Math.min(first + count, domains.size());
-        return domains.subList((int) first, endIndex).iterator();
+        final int endIndex = (int) Math.min(first + count, paths.size());
+        return getDomains(paths.subList((int) first, endIndex)).iterator();
     }
 
     @Override
@@ -67,51 +57,41 @@ public class DomainDataProvider extends SortableDataProvider<Domain, String> {
 
     @Override
     public long size() {
-        return getDomainList().size();
+        return getDomainPaths().size();
     }
 
     /**
-     * Actively invalidate cached list
+     * The list of domains follows the changes in the repository, it does not have to be invalidated anymore.
+     *
+     * @deprecated the domains are read from the {@link SecurityGraph}, which observes the domains
      */
+    @Deprecated
     public static void setDirty() {
-        dirty = true;
     }
 
-    /**
-     * Populate list, refresh when a new session id is found or when dirty
-     */
-    private static void populateDomainList() {
-        synchronized (DomainDataProvider.class) {
-            if (!dirty && sessionId.equals(Session.get().getId())) {
-                return;
-            }
-            domainList.clear();
-            NodeIterator iterator;
+    private static List<String> getDomainPaths() {
+        try {
+            return SecurityGraph.get().getDomainPaths();
+        } catch (RepositoryException e) {
+            log.error("Error while reading the list of domains.", e);
+            return new ArrayList<>();
+        }
+    }
+
+    private static List<Domain> getDomains(final List<String> paths) {
+        final Session session = UserSession.get().getJcrSession();
+        final List<Domain> domains = new ArrayList<>(paths.size());
+        for (String path : paths) {
             try {
-                @SuppressWarnings("deprecation")
-                Query listQuery = UserSession.get().getQueryManager().createQuery(QUERY_DOMAIN_LIST, Query.SQL);
-                iterator = listQuery.execute().getNodes();
-                while (iterator.hasNext()) {
-                    Node node = iterator.nextNode();
-                    if (node != null) {
-                        try {
-                            domainList.add(new Domain(node));
-                        } catch (RepositoryException e) {
-                            log.warn("Unable to instantiate new domain.", e);
-                        }
-                    }
-                }
-                Collections.sort(domainList);
-                sessionId = Session.get().getId();
-                dirty = false;
+                domains.add(new Domain(session.getNode(path)));
             } catch (RepositoryException e) {
-                log.error("Error while trying to query domain nodes.", e);
+                log.warn("Unable to instantiate new domain.", e);
             }
         }
+        return domains;
     }
 
     public List<Domain> getDomainList() {
-        populateDomainList();
-        return domainList;
+        return getDomains(getDomainPaths());
     }
 }
@@ -17,32 +17,23 @@ package org.hippoecm.frontend.plugins.cms.admin.groups;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 
-import javax.jcr.Item;
 import javax.jcr.Node;
-import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
+import javax.jcr.Session;
 import javax.jcr.Value;
-import javax.jcr.query.Query;
 import javax.jcr.query.QueryManager;
-import javax.jcr.query.QueryResult;
 
-import org.apache.jackrabbit.util.ISO9075;
-import org.apache.jackrabbit.util.Text;
 import org.apache.wicket.util.io.IClusterable;
+import org.hippoecm.frontend.plugins.cms.admin.SecurityGraph;
 import org.hippoecm.frontend.plugins.cms.admin.domains.Domain;
 import org.hippoecm.frontend.plugins.cms.admin.domains.Domain.AuthRole;
 import org.hippoecm.frontend.plugins.cms.admin.permissions.PermissionBean;
 import org.hippoecm.frontend.plugins.cms.admin.users.DetachableUser;
-import org.hippoecm.frontend.plugins.cms.admin.users.SystemUserDataProvider;
 import org.hippoecm.frontend.plugins.cms.admin.users.User;
-import org.hippoecm.frontend.plugins.cms.admin.users.UserDataProvider;
 import org.hippoecm.frontend.session.UserSession;
 import org.hippoecm.frontend.util.EventBusUtils;
 import org.hippoecm.repository.api.HippoNodeType;
@@ -56,10 +47,6 @@ public class Group implements Comparable<Group>, IClusterable {
     private static final Logger log = LoggerFactory.getLogger(Group.class);
 
     private static final String PROP_DESCRIPTION = "hipposys:description";
-    private static final String QUERY_ALL_LOCAL = "select * from hipposys:group where hipposys:securityprovider='internal' and (hipposys:system <> 'true' or hipposys:system IS NULL)";
-    private static final String QUERY_ALL = "select * from hipposys:group";
-    private static final String QUERY_ALL_ROLES = "select * from hipposys:role";
-    private static final String QUERY_GROUP = "SELECT * FROM hipposys:group WHERE fn:name()='{}'";
     private static final char SLASH = '/';
 
     private String path;
@@ -75,50 +62,41 @@ public class Group implements Comparable<Group>, IClusterable {
     }
 
     public static boolean exists(final String groupName) {
-        return getGroup(groupName) != null;
-    }
-
-    @FunctionalInterface
-    private interface QueryResultMapper<T> {
-        T map(final Node node) throws RepositoryException;
+        try {
+            return SecurityGraph.get().groupExists(groupName);
+        } catch (RepositoryException e) {
+            log.error("Unable to check if group '{}' exists, returning true", groupName, e);
+            return true;
+        }
     }
 
-    private static <T extends Comparable<T>> List<T> executeQuery(final String sql, final QueryResultMapper<T> mapper)
-            throws RepositoryException {
-        @SuppressWarnings("deprecation")
-        final Query query = getQueryManager().createQuery(sql, Query.SQL);
-        final NodeIterator iter = query.execute().getNodes();
-
-        final List<T> result = new ArrayList<>();
-        while (iter.hasNext()) {
-            final Node node = iter.nextNode();
-            if (node != null) {
-                try {
-                    result.add(mapper.map(node));
-                } catch(final RepositoryException e) {
-                    log.warn("Unable to map node to result list", e);
-                }
+    private static List<Group> getGroups(final List<String> paths) throws RepositoryException {
+        final Session session = UserSession.get().getJcrSession();
+        final List<Group> groups = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            try {
+                groups.add(new Group(session.getNode(path)));
+            } catch (final RepositoryException e) {
+                log.warn("Unable to read group '{}'", path, e);
             }
         }
-        // TODO: remove when query can sort on node names
-        Collections.sort(result);
-        return result;
+        return groups;
     }
 
     public static List<Group> getLocalGroups() {
         try {
-            return executeQuery(QUERY_ALL_LOCAL, Group::new);
+            return getGroups(SecurityGraph.get().getGroupPaths(true));
         } catch (final RepositoryException e) {
-            log.error("Error while querying for a list of local groups", e);
+            log.error("Error while reading the list of local groups", e);
         }
         return Collections.emptyList();
     }
 
     public static List<Group> getAllGroups() {
         try {
-            return executeQuery(QUERY_ALL, Group::new);
+            return getGroups(SecurityGraph.get().getGroupPaths(false));
         } catch (final RepositoryException e) {
-            log.error("Error while querying for a list of all groups", e);
+            log.error("Error while reading the list of all groups", e);
         }
         return Collections.emptyList();
     }
@@ -130,9 +108,9 @@ public class Group implements Comparable<Group>, IClusterable {
     */
     public static List<String> getAllRoles() {
         try {
-            return executeQuery(QUERY_ALL_ROLES, Item::getName);
+            return SecurityGraph.get().getRoles();
         } catch (final RepositoryException e) {
-            log.error("Error while querying for a list of all roles", e);
+            log.error("Error while reading the list of all roles", e);
         }
         return Collections.emptyList();
     }
@@ -144,17 +122,12 @@ public class Group implements Comparable<Group>, IClusterable {
      * @return the Group with name groupName
      */
     public static Group getGroup(final String groupName) {
-        final String escapedGroupName = Text.escapeIllegalJcr10Chars(ISO9075.encode(NodeNameCodec.encode(groupName, true)));
-        final String queryString = QUERY_GROUP.replace("{}", escapedGroupName);
         try {
-            @SuppressWarnings("deprecation")
-            final Query query = getQueryManager().createQuery(queryString, Query.SQL);
-            final QueryResult queryResult = query.execute();
-            final NodeIterator iterator = queryResult.getNodes();
-            if (!iterator.hasNext()) {
+            final String groupPath = SecurityGraph.get().getGroupPath(groupName);
+            if (groupPath == null) {
                 return null;
             }
-            return new Group(iterator.nextNode());
+            return new Group(UserSession.get().getJcrSession().getNode(groupPath));
         } catch (RepositoryException e) {
             log.error("Unable to check if group '{}' exists, returning true", groupName, e);
             return null;
@@ -221,13 +194,11 @@ public class Group implements Comparable<Group>, IClusterable {
         if (node.hasProperty(HippoNodeType.HIPPO_MEMBERS)) {
             final Value[] storedMembers = node.getProperty(HippoNodeType.HIPPO_MEMBERS).getValues();
 
-            // do query for system users only when needed
-            final Set<String> systemUserNames = excludeSystemUsers ? getSystemUserNames() : Collections.emptySet();
-
+            final SecurityGraph graph = SecurityGraph.get();
             for (final Value value : storedMembers) {
                 final String userName = value.getString();
 
-                if (excludeSystemUsers && systemUserNames.contains(userName)) {
+                if (excludeSystemUsers && graph.isSystemUser(userName)) {
                     continue;
                 }
 
@@ -247,29 +218,21 @@ public class Group implements Comparable<Group>, IClusterable {
         }
 
         final List<DetachableUser> users = new ArrayList<>();
-        for (final String username : usernames) {
-            if (!User.userExists(username)) {
-                continue;
+        try {
+            final SecurityGraph graph = SecurityGraph.get();
+            for (final String username : usernames) {
+                final String userPath = graph.getUserPath(username);
+                if (userPath != null) {
+                    users.add(new DetachableUser(userPath));
+                }
             }
-            final User user = new User(username);
-            final DetachableUser detachableUser = new DetachableUser(user);
-            users.add(detachableUser);
+        } catch (RepositoryException e) {
+            throw new IllegalStateException("Cannot get members for this group", e);
         }
 
         return users;
     }
 
-    private Set<String> getSystemUserNames() {
-        final UserDataProvider dataProvider = new SystemUserDataProvider();
-        final Iterator<User> iterator = dataProvider.iterator(0, dataProvider.size());
-        final Set<String> names = new HashSet<>();
-        while (iterator.hasNext()) {
-            final String systemUserName = iterator.next().getUsername();
-            names.add(systemUserName);
-        }
-        return names;
-    }
-
     //-------------------- persistence helpers ----------//
 
     /**
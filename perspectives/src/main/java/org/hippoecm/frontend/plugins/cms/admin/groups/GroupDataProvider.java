@@ -15,12 +15,6 @@
  */
 package org.hippoecm.frontend.plugins.cms.admin.groups;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Iterator;
-import java.util.List;
-
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 
@@ -61,19 +55,4 @@ public class GroupDataProvider extends SearchableDataProvider<Group> {
     public IModel<Group> model(final Group group) {
         return new DetachableGroup(group);
     }
-
-    @Override
-    public Iterator<Group> iterator(long first, long count) {
-        List<Group> groupList = new ArrayList<Group>(getList());
-
-        Collections.sort(groupList, new Comparator<Group>() {
-            public int compare(Group group1, Group group2) {
-                int direction = getSort().isAscending() ? 1 : -1;
-
-                return direction * (group1.compareTo(group2));
-            }
-        });
-
-        return groupList.subList((int) first, (int) Math.min(first + count, groupList.size())).iterator();
-    }
 }
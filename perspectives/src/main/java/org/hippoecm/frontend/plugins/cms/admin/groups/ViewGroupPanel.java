@@ -35,7 +35,6 @@ import org.hippoecm.frontend.plugin.IPluginContext;
 import org.hippoecm.frontend.plugins.cms.admin.AdminBreadCrumbPanel;
 import org.hippoecm.frontend.plugins.cms.admin.domains.Domain;
 import org.hippoecm.frontend.plugins.cms.admin.domains.Domain.AuthRole;
-import org.hippoecm.frontend.plugins.cms.admin.domains.DomainDataProvider;
 import org.hippoecm.frontend.plugins.cms.admin.permissions.PermissionBean;
 import org.hippoecm.frontend.plugins.cms.admin.permissions.ViewDomainActionLink;
 import org.hippoecm.frontend.plugins.cms.admin.users.DetachableUser;
@@ -101,10 +100,7 @@ public class ViewGroupPanel extends AdminBreadCrumbPanel {
                 final Confirm confirm = new Confirm(
                         getString("group-delete-title", groupModel),
                         getString("group-delete-text", groupModel)
-                ).ok(() -> {
-                    deleteGroup(group);
-                    DomainDataProvider.setDirty();
-                });
+                ).ok(() -> deleteGroup(group));
 
                 dialogService.show(confirm);
             }
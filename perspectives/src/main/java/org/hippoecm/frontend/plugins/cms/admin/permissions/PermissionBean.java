@@ -21,31 +21,20 @@ import java.util.Comparator;
 import java.util.List;
 
 import javax.jcr.Node;
-import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
-import javax.jcr.query.InvalidQueryException;
-import javax.jcr.query.Query;
-import javax.jcr.query.QueryManager;
-import javax.jcr.query.QueryResult;
+import javax.jcr.Session;
 
-import org.apache.jackrabbit.util.Text;
-import org.apache.wicket.Session;
+import org.hippoecm.frontend.plugins.cms.admin.SecurityGraph;
 import org.hippoecm.frontend.plugins.cms.admin.domains.DetachableDomain;
 import org.hippoecm.frontend.plugins.cms.admin.domains.Domain;
 import org.hippoecm.frontend.plugins.cms.admin.groups.DetachableGroup;
 import org.hippoecm.frontend.plugins.cms.admin.groups.Group;
 import org.hippoecm.frontend.session.UserSession;
-import org.hippoecm.repository.api.HippoNodeType;
 
 /**
  * Holds a role - domain - group combination
  */
 public class PermissionBean implements Serializable {
-    
-    private static final String DOMAINS_BASE_PATH = 
-            "/jcr:root/" + HippoNodeType.CONFIGURATION_PATH + "/" + HippoNodeType.DOMAINS_PATH; 
-    private static final String ALL_AUTHROLES_FOR_GROUP_QUERY = DOMAINS_BASE_PATH + 
-            "/*/element(*, hipposys:authrole)[@hipposys:groups='{}']";
 
     public static final PermissionsBeanByDomainNameComparator COMPARATOR_BY_DOMAIN_NAME =
             new PermissionsBeanByDomainNameComparator();
@@ -80,19 +69,25 @@ public class PermissionBean implements Serializable {
      * @return a {@link List} of {@link PermissionBean}s containing all permissions for this group
      */
     public static List<PermissionBean> forGroup(Group group) {
-        final String escapedGroupName = Text.escapeIllegalJcr10Chars(group.getGroupname());
-        final String queryString = ALL_AUTHROLES_FOR_GROUP_QUERY.replace("{}", escapedGroupName);
-        NodeIterator nodeIterator = obtainNodeIteratorForQueryString(queryString);
+        final List<SecurityGraph.Permission> permissions;
+        try {
+            permissions = SecurityGraph.get().getPermissions(group.getGroupname());
+        } catch (RepositoryException e) {
+            throw new IllegalStateException("Repository error occured, cannot read permissions.", e);
+        }
 
+        final Session session = UserSession.get().getJcrSession();
         DetachableGroup detachableGroup = new DetachableGroup(group);
         List<PermissionBean> permissionBeans = new ArrayList<PermissionBean>();
-        while (nodeIterator.hasNext()) {
-            Node node = nodeIterator.nextNode();
+        for (SecurityGraph.Permission permission : permissions) {
+            Node node;
+            try {
+                node = session.getNode(permission.getAuthRolePath());
+            } catch (RepositoryException e) {
+                throw new IllegalStateException("Cannot obtain the authrole node.", e);
+            }
             Domain.AuthRole authRole = new Domain.AuthRole(node);
-
-            DetachableDomain detachableDomain;
-            String domainNodePath = getDomainNodePathForAuthRole(node);
-            detachableDomain = new DetachableDomain(domainNodePath);
+            DetachableDomain detachableDomain = new DetachableDomain(permission.getDomainPath());
 
             PermissionBean permissionBean = new PermissionBean(detachableGroup, detachableDomain, authRole);
             permissionBeans.add(permissionBean);
@@ -101,32 +96,6 @@ public class PermissionBean implements Serializable {
         return permissionBeans;
     }
 
-
-    private static NodeIterator obtainNodeIteratorForQueryString(final String queryString) {
-        QueryManager queryManager = ((UserSession) Session.get()).getQueryManager();
-        try {
-            @SuppressWarnings("deprecation") Query query = queryManager.createQuery(queryString, Query.XPATH);
-            QueryResult queryResult = query.execute();
-           return queryResult.getNodes();
-        } catch (InvalidQueryException e) {
-            throw new IllegalArgumentException("Query is malformed, cannot create query.", e);
-        } catch (RepositoryException e) {
-            throw new IllegalStateException("Repository error occured, cannot create query.", e);
-        }
-    }
-
-    private static String getDomainNodePathForAuthRole(Node authRoleNode) {
-        try {
-            Node domainNodeCandidate = authRoleNode.getParent();
-            if (!domainNodeCandidate.isNodeType(HippoNodeType.NT_DOMAIN)) {
-                throw new IllegalStateException("Parent of authrole node is not a domain node");
-            }
-            return domainNodeCandidate.getPath();
-        } catch (RepositoryException e) {
-            throw new IllegalStateException("Cannot obtain the domain node for authrole node.");
-        }
-    }
-    
     public static class PermissionsBeanByDomainNameComparator implements Comparator<PermissionBean>, Serializable {
         @Override
         public int compare(final PermissionBean o1, final PermissionBean o2) {
@@ -15,52 +15,350 @@
  */
 package org.hippoecm.frontend.plugins.cms.admin.updater;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import javax.jcr.Binary;
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 
 import org.apache.wicket.Component;
-import org.apache.wicket.ajax.AjaxSelfUpdatingTimerBehavior;
+import org.apache.wicket.ajax.AbstractAjaxTimerBehavior;
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.ajax.json.JSONObject;
+import org.apache.wicket.markup.head.IHeaderResponse;
+import org.apache.wicket.markup.head.JavaScriptReferenceHeaderItem;
 import org.apache.wicket.markup.html.basic.Label;
+import org.apache.wicket.markup.html.link.ResourceLink;
 import org.apache.wicket.markup.html.panel.Panel;
-import org.apache.wicket.model.AbstractReadOnlyModel;
-import org.apache.wicket.util.io.IOUtils;
+import org.apache.wicket.model.LoadableDetachableModel;
+import org.apache.wicket.model.StringResourceModel;
+import org.apache.wicket.request.resource.ContentDisposition;
+import org.apache.wicket.request.resource.JavaScriptResourceReference;
+import org.apache.wicket.request.resource.ResourceStreamResource;
+import org.apache.wicket.util.lang.Bytes;
+import org.apache.wicket.util.resource.AbstractResourceStream;
+import org.apache.wicket.util.resource.ResourceStreamNotFoundException;
 import org.apache.wicket.util.time.Duration;
 import org.hippoecm.repository.util.JcrUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Shows the log of an updater.  Only the tail of the log is rendered; while the updater is running, the bytes that
+ * were appended to the log since the last poll are sent to the browser, which keeps at most {@link #MAX_LINES} lines.
+ * The full log can be downloaded.
+ */
 public class UpdaterOutput extends Panel {
 
+    private static final Logger log = LoggerFactory.getLogger(UpdaterOutput.class);
+
+    private static final JavaScriptResourceReference SCRIPT_REFERENCE =
+            new JavaScriptResourceReference(UpdaterOutput.class, "UpdaterOutput.js");
+
+    private static final String HIPPOSYS_LOG = "hipposys:log";
+    private static final String HIPPOSYS_LOGTAIL = "hipposys:logtail";
+
+    private static final int TAIL_SIZE = 64 * 1024;
+    private static final int MAX_SEGMENT_SIZE = 1024 * 1024;
+    private static final int MAX_LINES = 5000;
+
+    private final Component container;
+    private final Label output;
+    private final ResourceLink download;
+
+    /**
+     * Offset in the log binary up to which the log has been sent to the browser, or -1 when the log tail property
+     * was rendered instead.
+     */
+    private long offset = -1;
+    private int logTailHash;
+
     public UpdaterOutput(final String id, final Component container, final boolean updating) {
         super(id);
-        final Label output = new Label("output", new AbstractReadOnlyModel<String>() {
+        this.container = container;
+
+        output = new Label("output", new LoadableDetachableModel<String>() {
+            @Override
+            protected String load() {
+                return readTail();
+            }
+        });
+        output.setOutputMarkupId(true);
+        add(output);
+
+        download = new ResourceLink("download", newLogResource()) {
             @Override
-            public String getObject() {
-                final Object o = container.getDefaultModelObject();
-                if (o != null) {
-                    final Node node = (Node) o;
+            protected void onConfigure() {
+                super.onConfigure();
+                setVisible(hasLog());
+            }
+        };
+        download.setOutputMarkupPlaceholderTag(true);
+        add(download);
+
+        if (updating) {
+            output.add(new TailBehavior());
+        }
+    }
+
+    @Override
+    public void renderHead(final IHeaderResponse response) {
+        super.renderHead(response);
+        response.render(JavaScriptReferenceHeaderItem.forReference(SCRIPT_REFERENCE));
+    }
+
+    private Node getNode() {
+        return (Node) container.getDefaultModelObject();
+    }
+
+    private boolean hasLog() {
+        final Node node = getNode();
+        try {
+            return node != null && node.hasProperty(HIPPOSYS_LOG);
+        } catch (RepositoryException e) {
+            log.warn("Cannot determine whether updater has a log: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private String readTail() {
+        offset = -1;
+        logTailHash = 0;
+        final Node node = getNode();
+        if (node == null) {
+            return "";
+        }
+        try {
+            final Binary fullLog = JcrUtils.getBinaryProperty(node, HIPPOSYS_LOG, null);
+            if (fullLog == null) {
+                final String logTail = JcrUtils.getStringProperty(node, HIPPOSYS_LOGTAIL, "");
+                logTailHash = logTail.hashCode();
+                return logTail;
+            }
+            try {
+                final long size = fullLog.getSize();
+                final long start = Math.max(0, size - TAIL_SIZE);
+                final byte[] bytes = read(fullLog, start, size);
+                int begin = 0;
+                if (start > 0) {
+                    // skip the partial line at the start of the tail
+                    begin = indexOf(bytes, (byte) '\n') + 1;
+                }
+                final int end = lastIndexOf(bytes, (byte) '\n') + 1;
+                offset = start + Math.max(begin, end);
+                final String text = end > begin ? new String(bytes, begin, end - begin, StandardCharsets.UTF_8) : "";
+                if (start > 0) {
+                    return getString("earlier-output-omitted") + "\n" + text;
+                }
+                return text;
+            } finally {
+                fullLog.dispose();
+            }
+        } catch (RepositoryException | IOException e) {
+            return new StringResourceModel("cannot-read-log", this, null, e.getMessage()).getString();
+        }
+    }
+
+    /**
+     * @return the lines that were appended to the log after the current offset, or null if the output has to be
+     * rendered again
+     */
+    private String readAppended() throws RepositoryException, IOException {
+        final Node node = getNode();
+        if (node == null) {
+            return "";
+        }
+        final Binary fullLog = JcrUtils.getBinaryProperty(node, HIPPOSYS_LOG, null);
+        if (fullLog == null) {
+            final String logTail = JcrUtils.getStringProperty(node, HIPPOSYS_LOGTAIL, "");
+            return offset < 0 && logTail.hashCode() == logTailHash ? "" : null;
+        }
+        try {
+            final long size = fullLog.getSize();
+            if (offset < 0 || size < offset) {
+                return null;
+            }
+            if (size == offset) {
+                return "";
+            }
+            final long limit = Math.min(size, offset + MAX_SEGMENT_SIZE);
+            final byte[] bytes = read(fullLog, offset, limit);
+            final int end = getSendableLength(bytes, limit == size);
+            offset += end;
+            return new String(bytes, 0, end, StandardCharsets.UTF_8);
+        } finally {
+            fullLog.dispose();
+        }
+    }
+
+    /**
+     * @param bytes   a segment of the log
+     * @param endOfLog whether the segment ends where the log ends
+     * @return the number of bytes of the segment that can be sent: up to the last complete line, or, when a single
+     * line is longer than a segment, up to a character boundary.  0 when the rest of the line has to be waited for.
+     */
+    static int getSendableLength(final byte[] bytes, final boolean endOfLog) {
+        int end = lastIndexOf(bytes, (byte) '\n') + 1;
+        if (end == 0 && !endOfLog) {
+            // a single line longer than a segment: cut it at a character boundary
+            int lead = bytes.length - 1;
+            while (lead > 0 && (bytes[lead] & 0xC0) == 0x80) {
+                lead--;
+            }
+            end = lead >= 0 && isCompleteCharacter(bytes[lead], bytes.length - lead) ? bytes.length : Math.max(lead, 0);
+        }
+        return end;
+    }
+
+    private static boolean isCompleteCharacter(final byte lead, final int length) {
+        if ((lead & 0x80) == 0) {
+            return length == 1;
+        } else if ((lead & 0xE0) == 0xC0) {
+            return length == 2;
+        } else if ((lead & 0xF0) == 0xE0) {
+            return length == 3;
+        }
+        return length == 4;
+    }
+
+    /**
+     * Reads the bytes between two positions of a binary, without reading the bytes before the start.
+     */
+    static byte[] read(final Binary binary, final long start, final long end) throws RepositoryException, IOException {
+        final byte[] bytes = new byte[(int) (end - start)];
+        if (bytes.length == 0) {
+            return bytes;
+        }
+        int count = binary.read(bytes, start);
+        if (count < 0) {
+            throw new EOFException("Log is shorter than " + start + " bytes");
+        }
+        while (count < bytes.length) {
+            final byte[] rest = new byte[bytes.length - count];
+            final int n = binary.read(rest, start + count);
+            if (n <= 0) {
+                break;
+            }
+            System.arraycopy(rest, 0, bytes, count, n);
+            count += n;
+        }
+        return count == bytes.length ? bytes : Arrays.copyOf(bytes, count);
+    }
+
+    static int indexOf(final byte[] bytes, final byte b) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int lastIndexOf(final byte[] bytes, final byte b) {
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private ResourceStreamResource newLogResource() {
+        final ResourceStreamResource resource = new ResourceStreamResource(new LogResourceStream()) {
+            @Override
+            protected ResourceResponse newResourceResponse(final Attributes attributes) {
+                final ResourceResponse response = super.newResourceResponse(attributes);
+                final Node node = getNode();
+                if (node != null) {
                     try {
-                        final Binary fullLog = JcrUtils.getBinaryProperty(node, "hipposys:log", null);
-                        if (fullLog != null) {
-                            return IOUtils.toString(fullLog.getStream());
-                        } else {
-                            return JcrUtils.getStringProperty(node, "hipposys:logtail", "");
-                        }
+                        response.setFileName(node.getName() + ".log");
                     } catch (RepositoryException e) {
-                        return "Cannot read log: " + e.getMessage();
-                    } catch (IOException e) {
-                        return "Cannot read log: " + e.getMessage();
+                        log.warn("Cannot determine name of log file: {}", e.getMessage());
                     }
                 }
-                return "";
+                return response;
+            }
+        };
+        resource.setCacheDuration(Duration.NONE);
+        resource.setContentDisposition(ContentDisposition.ATTACHMENT);
+        return resource;
+    }
+
+    private class LogResourceStream extends AbstractResourceStream {
+
+        private transient InputStream stream;
+
+        @Override
+        public String getContentType() {
+            return "text/plain; charset=UTF-8";
+        }
+
+        @Override
+        public Bytes length() {
+            final Node node = getNode();
+            try {
+                if (node != null && node.hasProperty(HIPPOSYS_LOG)) {
+                    return Bytes.bytes(node.getProperty(HIPPOSYS_LOG).getLength());
+                }
+            } catch (RepositoryException e) {
+                log.warn("Cannot determine length of log: {}", e.getMessage());
+            }
+            return null;
+        }
+
+        @Override
+        public InputStream getInputStream() throws ResourceStreamNotFoundException {
+            final Node node = getNode();
+            try {
+                if (node == null || !node.hasProperty(HIPPOSYS_LOG)) {
+                    throw new ResourceStreamNotFoundException("Updater has no log");
+                }
+                close();
+                stream = node.getProperty(HIPPOSYS_LOG).getBinary().getStream();
+                return stream;
+            } catch (RepositoryException | IOException e) {
+                throw new ResourceStreamNotFoundException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+        }
+    }
+
+    private class TailBehavior extends AbstractAjaxTimerBehavior {
+
+        TailBehavior() {
+            super(Duration.seconds(5));
+        }
+
+        @Override
+        protected void onTimer(final AjaxRequestTarget target) {
+            String appended;
+            try {
+                appended = readAppended();
+            } catch (RepositoryException | IOException e) {
+                log.warn("Cannot read appended log: {}", e.getMessage());
+                return;
+            }
+            if (appended == null) {
+                target.add(output, download);
+            } else if (!appended.isEmpty()) {
+                target.appendJavaScript(String.format("if (Hippo && Hippo.UpdaterOutput) { Hippo.UpdaterOutput.append('%s', %s, %d); }",
+                        output.getMarkupId(), JSONObject.quote(appended), MAX_LINES));
+                if (!download.isVisible()) {
+                    target.add(download);
+                }
             }
-        });
-        if (updating) {
-            output.setOutputMarkupId(true);
-            output.add(new AjaxSelfUpdatingTimerBehavior(Duration.seconds(5)));
         }
-        add(output);
     }
 
 }
@@ -46,7 +46,6 @@ import org.hippoecm.frontend.dialog.HippoForm;
 import org.hippoecm.frontend.plugin.IPluginContext;
 import org.hippoecm.frontend.plugins.cms.admin.AdminBreadCrumbPanel;
 import org.hippoecm.frontend.plugins.cms.admin.domains.Domain;
-import org.hippoecm.frontend.plugins.cms.admin.domains.DomainDataProvider;
 import org.hippoecm.frontend.plugins.cms.admin.groups.DetachableGroup;
 import org.hippoecm.frontend.plugins.cms.admin.groups.Group;
 import org.hippoecm.frontend.plugins.cms.admin.groups.ViewGroupActionLink;
@@ -187,7 +186,6 @@ public class SetMembershipsPanel extends Panel {
             setModel(new PropertyModel<>(user, "localMembershipsAsListOfGroups"));
             setReuseItems(false);
             setOutputMarkupId(true);
-            DomainDataProvider.setDirty();
         }
 
         @Override
@@ -27,19 +27,16 @@ import java.util.Map.Entry;
 import java.util.TreeMap;
 
 import javax.jcr.Node;
-import javax.jcr.NodeIterator;
 import javax.jcr.Property;
 import javax.jcr.PropertyIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Value;
-import javax.jcr.query.Query;
 import javax.jcr.query.QueryManager;
 
 import org.apache.commons.lang.StringUtils;
-import org.apache.jackrabbit.util.ISO9075;
-import org.apache.jackrabbit.util.Text;
 import org.apache.wicket.Session;
 import org.apache.wicket.util.io.IClusterable;
+import org.hippoecm.frontend.plugins.cms.admin.SecurityGraph;
 import org.hippoecm.frontend.plugins.cms.admin.groups.DetachableGroup;
 import org.hippoecm.frontend.plugins.cms.admin.groups.Group;
 import org.hippoecm.frontend.session.UserSession;
@@ -95,12 +92,6 @@ public class User implements Comparable<User>, IClusterable {
     public static final String PROP_PASSWORDLASTMODIFIED = HippoNodeType.HIPPO_PASSWORDLASTMODIFIED;
     public static final String PROP_SYSTEM = HippoNodeType.HIPPO_SYSTEM;
 
-    private static final String QUERY_USER = "SELECT * FROM hipposys:user WHERE fn:name()='{}'";
-
-    private static final String QUERY_LOCAL_MEMBERSHIPS = "//element(*, hipposys:group)[@hipposys:members='{}']";
-    private static final String QUERY_EXTERNAL_MEMBERSHIPS = "//element(*, hipposys:externalgroup)[@hipposys:members='{}']";
-    private static final String QUERY_AND_NOT_A_SYSTEM_GROUP = "//element(*, hipposys:group)[@hipposys:members='{}' and (not(@hipposys:system) or @hipposys:system=false)]";
-
     private static final long ONEDAYMS = 1000 * 3600 * 24;
 
     private boolean external = false;
@@ -139,10 +130,8 @@ public class User implements Comparable<User>, IClusterable {
      * @return true if the user exists, false otherwise
      */
     public static boolean userExists(final String username) {
-        final String queryString = QUERY_USER.replace("{}", Text.escapeIllegalJcr10Chars(ISO9075.encode(NodeNameCodec.encode(username))));
         try {
-            final Query query = getQueryManager().createQuery(queryString, Query.SQL);
-            return query.execute().getNodes().hasNext();
+            return SecurityGraph.get().userExists(username);
         } catch (RepositoryException e) {
             log.error("Unable to check if user '{}' exists, returning true", username, e);
             return true;
@@ -277,12 +266,10 @@ public class User implements Comparable<User>, IClusterable {
      * @param username the name of the user to fetch
      */
     public User(final String username) {
-        final String queryString = QUERY_USER.replace("{}", Text.escapeIllegalJcr10Chars(ISO9075.encode(NodeNameCodec.encode(username))));
         try {
-            final Query query = getQueryManager().createQuery(queryString, Query.SQL);
-            final NodeIterator iter = query.execute().getNodes();
-            if (iter.hasNext()) {
-                init(iter.nextNode());
+            final String userPath = SecurityGraph.get().getUserPath(username);
+            if (userPath != null) {
+                init(UserSession.get().getJcrSession().getNode(userPath));
             } else {
                 log.error("User {} does not exist, returning object without state.", username);
             }
@@ -362,27 +349,13 @@ public class User implements Comparable<User>, IClusterable {
     }
 
     public List<DetachableGroup> getLocalMemberships(final boolean excludeSystemUsers) {
-        final String escapedUsername = Text.escapeIllegalXpathSearchChars(username).replaceAll("'", "''");
-        final String xpathQuery = excludeSystemUsers ? QUERY_AND_NOT_A_SYSTEM_GROUP : QUERY_LOCAL_MEMBERSHIPS;
-        final String queryString = xpathQuery.replace("{}", escapedUsername);
         final List<DetachableGroup> localMemberships = new ArrayList<>();
         try {
-            @SuppressWarnings("deprecation") // we have to use XPath
-            final Query query = getQueryManager().createQuery(queryString, Query.XPATH);
-            final NodeIterator iter = query.execute().getNodes();
-            while (iter.hasNext()) {
-                final Node node = iter.nextNode();
-                if (node == null) {
-                    continue;
-                }
-                try {
-                    localMemberships.add(new DetachableGroup(node.getPath()));
-                } catch (RepositoryException e) {
-                    log.warn("Unable to add group to local memberships for user '{}'", username, e);
-                }
+            for (String groupPath : SecurityGraph.get().getMembershipPaths(username, false, excludeSystemUsers)) {
+                localMemberships.add(new DetachableGroup(groupPath));
             }
         } catch (RepositoryException e) {
-            log.error("Error while querying local memberships of user '{}'", e);
+            log.error("Error while reading local memberships of user '{}'", username, e);
         }
         return localMemberships;
     }
@@ -410,24 +383,12 @@ public class User implements Comparable<User>, IClusterable {
         }
 
         externalMemberships = new ArrayList<DetachableGroup>();
-        final String escapedUserName = Text.escapeIllegalXpathSearchChars(username).replaceAll("'", "''");
-        final String queryString = QUERY_EXTERNAL_MEMBERSHIPS.replace("{}", escapedUserName);
         try {
-            final Query query = getQueryManager().createQuery(queryString, Query.XPATH);
-            final NodeIterator iter = query.execute().getNodes();
-            while (iter.hasNext()) {
-                final Node node = iter.nextNode();
-                if (node == null) {
-                    continue;
-                }
-                try {
-                    externalMemberships.add(new DetachableGroup(node.getPath()));
-                } catch (RepositoryException e) {
-                    log.warn("Unable to add group to external memberships for user '{}'", username, e);
-                }
+            for (String groupPath : SecurityGraph.get().getMembershipPaths(username, true, false)) {
+                externalMemberships.add(new DetachableGroup(groupPath));
             }
         } catch (RepositoryException e) {
-            log.error("Error while querying external memberships of user '{}'", username, e);
+            log.error("Error while reading external memberships of user '{}'", username, e);
         }
         return externalMemberships;
     }
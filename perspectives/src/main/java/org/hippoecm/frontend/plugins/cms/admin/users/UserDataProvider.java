@@ -15,16 +15,9 @@
  */
 package org.hippoecm.frontend.plugins.cms.admin.users;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Iterator;
-import java.util.List;
-
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 
-import org.apache.commons.collections.comparators.NullComparator;
 import org.apache.wicket.extensions.markup.html.repeater.data.sort.SortOrder;
 import org.apache.wicket.model.IModel;
 import org.hippoecm.frontend.plugins.cms.admin.SearchableDataProvider;
@@ -74,25 +67,13 @@ public class UserDataProvider extends SearchableDataProvider<User> {
     }
 
     @Override
-    public Iterator<User> iterator(long first, long count) {
-        List<User> userList = new ArrayList<>(getList());
-
-        final Comparator<String> nullSafeComparator = new NullComparator(false);
-
-        Collections.sort(userList, new Comparator<User>() {
-            public int compare(User user1, User user2) {
-                int direction = getSort().isAscending() ? 1 : -1;
-
-                if ("frontend:firstname".equals(getSort().getProperty())) {
-                    return direction * (nullSafeComparator.compare(user1.getFirstName(), user2.getFirstName()));
-                } else if ("frontend:lastname".equals(getSort().getProperty())) {
-                    return direction * (nullSafeComparator.compare(user1.getLastName(), user2.getLastName()));
-                } else {
-                    return direction * (nullSafeComparator.compare(user1.getUsername(), user2.getUsername()));
-                }
-            }
-        });
-
-        return userList.subList((int) first, (int) Math.min(first + count, userList.size())).iterator();
+    protected String getOrderByProperty(final String sortProperty) {
+        if ("frontend:firstname".equals(sortProperty)) {
+            return User.PROP_FIRSTNAME;
+        } else if ("frontend:lastname".equals(sortProperty)) {
+            return User.PROP_LASTNAME;
+        }
+        // sort on username, i.e. the node name
+        return null;
     }
 }
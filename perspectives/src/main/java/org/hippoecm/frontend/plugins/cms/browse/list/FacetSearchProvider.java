@@ -18,16 +18,20 @@ package org.hippoecm.frontend.plugins.cms.browse.list;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
 
 import org.apache.wicket.model.IModel;
-import org.apache.wicket.model.LoadableDetachableModel;
 import org.hippoecm.frontend.model.JcrNodeModel;
 import org.hippoecm.frontend.model.event.IObservable;
 import org.hippoecm.frontend.model.event.IObservationContext;
@@ -40,7 +44,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Provider of JcrNodeModels for nodes in a facet(sub)search resultset.
- * Multiple variants of the same document are collapsed to a single entry.  
+ * Multiple variants of the same document are collapsed to a single entry.
+ * <p>
+ * The resultset is streamed: only the nodes up to the end of the requested page are kept, in a bounded heap.  The
+ * number of documents is remembered together with the hippo:count of the resultset, and is only counted again when
+ * the hippo:count changes.
  */
 public final class FacetSearchProvider extends SortableDataProvider<Node> implements IObservable {
     private static final long serialVersionUID = 1L;
@@ -49,53 +57,43 @@ public final class FacetSearchProvider extends SortableDataProvider<Node> implem
     static final Logger log = LoggerFactory.getLogger(FacetSearchProvider.class);
 
     private JcrNodeModel model;
-    private SingleVariantProvider handleProvider;
     private Map<String, Comparator<Node>> comparators;
     private IObservationContext obContext;
     private JcrNodeModel resultSetModel;
 
+    private long size = -1;
+    private long sizeHitCount = -1;
+
     public FacetSearchProvider(JcrNodeModel model, Map<String, Comparator<Node>> comparators) {
         this.model = model;
         this.comparators = comparators;
-        this.handleProvider = new SingleVariantProvider(new LoadableDetachableModel<Iterator>() {
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            protected NodeIterator load() {
-                Node node = FacetSearchProvider.this.model.getNode();
-                // workaround: node may disappear without notification
-                if (node != null) {
-                    try {
-                        return node.getNode(HippoNodeType.HIPPO_RESULTSET).getNodes();
-                    } catch (RepositoryException e) {
-                        log.info("Could not get NodeIterator from resultset for FacetSearchProvider, will return null.",
-                                e);
-                    }
-                }
-                return null;
-            }
-        });
     }
 
     // impl IDataProvider
 
     @Override
     public Iterator<Node> iterator(long first, long count) {
-        List<Node> displayedList = new ArrayList<Node>(handleProvider.getObject());
-        SortState sortState = getSortState();
-        if (sortState != null && sortState.isSorted()) {
-            String sortProperty = sortState.getProperty();
-            if (sortProperty != null) {
-                Comparator<Node> comparator = comparators.get(sortProperty);
-                if (comparator != null) {
-                    Collections.sort(displayedList, comparator);
-                    if (sortState.isDescending()) {
-                        Collections.reverse(displayedList);
-                    }
-                }
+        final Node resultSet = getResultSet();
+        if (resultSet == null || count <= 0) {
+            return Collections.<Node>emptyIterator();
+        }
+        final Comparator<Node> comparator = getComparator();
+        final List<Node> page;
+        if (comparator == null) {
+            final PageCollector collector = new PageCollector(first, count);
+            updateSize(resultSet, collect(resultSet, collector));
+            page = collector.page;
+        } else {
+            final long limit = Math.min(first + count, Integer.MAX_VALUE);
+            Comparator<Hit> order = Comparator.comparing((Hit hit) -> hit.node, comparator).thenComparingLong(hit -> hit.index);
+            if (getSortState().isDescending()) {
+                order = order.reversed();
             }
+            final TopCollector collector = new TopCollector(order, (int) limit);
+            updateSize(resultSet, collect(resultSet, collector));
+            page = collector.getPage(first);
         }
-        return displayedList.subList((int) first, (int)(first + count)).iterator();
+        return page.iterator();
     }
 
     @Override
@@ -105,18 +103,190 @@ public final class FacetSearchProvider extends SortableDataProvider<Node> implem
 
     @Override
     public long size() {
-        return handleProvider.getObject().size();
+        final Node resultSet = getResultSet();
+        if (resultSet == null) {
+            return 0;
+        }
+        final long hitCount = getHitCount(resultSet);
+        if (hitCount == 0) {
+            return 0;
+        }
+        if (size < 0 || hitCount < 0 || hitCount != sizeHitCount) {
+            updateSize(resultSet, collect(resultSet, null));
+        }
+        return size;
     }
 
     @Override
     public void detach() {
-        handleProvider.detach();
         model.detach();
         if (resultSetModel != null) {
             resultSetModel.detach();
         }
     }
 
+    private Comparator<Node> getComparator() {
+        SortState sortState = getSortState();
+        if (sortState != null && sortState.isSorted()) {
+            String sortProperty = sortState.getProperty();
+            if (sortProperty != null) {
+                return comparators.get(sortProperty);
+            }
+        }
+        return null;
+    }
+
+    private Node getResultSet() {
+        Node node = model.getNode();
+        // workaround: node may disappear without notification
+        if (node != null) {
+            try {
+                return node.getNode(HippoNodeType.HIPPO_RESULTSET);
+            } catch (RepositoryException e) {
+                log.info("Could not get resultset for FacetSearchProvider", e);
+            }
+        }
+        return null;
+    }
+
+    private void updateSize(final Node resultSet, final long size) {
+        this.size = size;
+        this.sizeHitCount = getHitCount(resultSet);
+    }
+
+    /**
+     * The number of hits in the resultset.  Variants of a document are separate hits, so this is only an upper bound
+     * of the number of documents.
+     */
+    private static long getHitCount(final Node resultSet) {
+        try {
+            if (resultSet.hasProperty(HippoNodeType.HIPPO_COUNT)) {
+                return resultSet.getProperty(HippoNodeType.HIPPO_COUNT).getLong();
+            }
+        } catch (RepositoryException e) {
+            log.warn("Could not read count of resultset: {}", e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Passes a single variant of each document in the resultset to the consumer, the one with the lowest index.  The
+     * resultset is streamed: a variant with index 1 is passed on as soon as it is found.  Only for the documents of
+     * which no such variant has been found yet, the variant with the lowest index so far is kept; those are passed
+     * on at the end.
+     *
+     * @return the number of documents
+     */
+    static long collect(final Node resultSet, final Consumer<Node> consumer) {
+        final Set<String> collected = new HashSet<>();
+        final Map<String, Node> pending = new LinkedHashMap<>();
+        try {
+            final NodeIterator hits = resultSet.getNodes();
+            while (hits.hasNext()) {
+                final Node hit = hits.nextNode();
+                if (hit == null) {
+                    continue;
+                }
+                final String handleId = SingleVariantProvider.getHandleIdentifier(hit);
+                if (handleId == null || collected.contains(handleId)) {
+                    continue;
+                }
+                final int index = hit.getIndex();
+                if (index == 1) {
+                    pending.remove(handleId);
+                    collected.add(handleId);
+                    if (consumer != null) {
+                        consumer.accept(hit);
+                    }
+                } else {
+                    final Node current = pending.get(handleId);
+                    if (current == null || index < current.getIndex()) {
+                        pending.put(handleId, hit);
+                    }
+                }
+            }
+        } catch (RepositoryException ex) {
+            log.error(ex.getMessage());
+        }
+        if (consumer != null) {
+            pending.values().forEach(consumer);
+        }
+        return collected.size() + pending.size();
+    }
+
+    private static class Hit {
+
+        private final Node node;
+        private final long index;
+
+        private Hit(final Node node, final long index) {
+            this.node = node;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Keeps the nodes of a page in the order of the resultset.
+     */
+    private static class PageCollector implements Consumer<Node> {
+
+        private final long first;
+        private final long end;
+        private final List<Node> page = new ArrayList<>();
+        private long index;
+
+        private PageCollector(final long first, final long count) {
+            this.first = first;
+            this.end = first + count;
+        }
+
+        @Override
+        public void accept(final Node node) {
+            if (index >= first && index < end) {
+                page.add(node);
+            }
+            index++;
+        }
+    }
+
+    /**
+     * Keeps the first nodes in sort order in a heap that has the last of them on top.
+     */
+    private static class TopCollector implements Consumer<Node> {
+
+        private final Comparator<Hit> order;
+        private final int limit;
+        private final PriorityQueue<Hit> heap;
+        private long index;
+
+        private TopCollector(final Comparator<Hit> order, final int limit) {
+            this.order = order;
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 1024) + 1, order.reversed());
+        }
+
+        @Override
+        public void accept(final Node node) {
+            final Hit hit = new Hit(node, index++);
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (order.compare(hit, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+        private List<Node> getPage(final long first) {
+            final List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(order);
+            final List<Node> page = new ArrayList<>();
+            for (int i = (int) Math.min(first, hits.size()); i < hits.size(); i++) {
+                page.add(hits.get(i).node);
+            }
+            return page;
+        }
+    }
+
     // observation
 
     public void setObservationContext(IObservationContext context) {
@@ -16,9 +16,7 @@
 package org.hippoecm.frontend.plugins.cms.browse.section;
 
 import javax.jcr.Node;
-import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
-import javax.jcr.query.QueryResult;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.wicket.Component;
@@ -57,7 +55,6 @@ import org.hippoecm.frontend.plugins.standards.search.TextSearchBuilder;
 import org.hippoecm.frontend.service.IconSize;
 import org.hippoecm.frontend.service.render.RenderPlugin;
 import org.hippoecm.frontend.skin.Icon;
-import org.hippoecm.repository.api.HippoNodeType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -256,23 +253,9 @@ public class SearchingSectionPlugin extends RenderPlugin implements IBrowserSect
                 final Node docNode = document.getObject();
                 if (docNode != null) {
                     final BrowserSearchResult bsr = collection.getSearchResult().getObject();
-                    final QueryResult result = bsr.getQueryResult();
                     try {
-                        final NodeIterator nodes = result.getNodes();
-                        while (nodes.hasNext()) {
-                            final Node node = nodes.nextNode();
-                            if (node != null && node.getDepth() > 0) {
-                                final Node parent = node.getParent();
-                                if (parent.isNodeType(HippoNodeType.NT_HANDLE)) {
-                                    if (parent.isSame(docNode)) {
-                                        return;
-                                    }
-                                } else {
-                                    if (node.isSame(docNode)) {
-                                        return;
-                                    }
-                                }
-                            }
+                        if (bsr.getHits().containsDocument(docNode.getIdentifier())) {
+                            return;
                         }
                     } catch (final RepositoryException ex) {
                         log.error("Error processing query results", ex);
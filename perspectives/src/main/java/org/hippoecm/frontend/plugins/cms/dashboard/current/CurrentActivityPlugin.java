@@ -18,6 +18,7 @@ package org.hippoecm.frontend.plugins.cms.dashboard.current;
 import java.io.Serializable;
 import java.text.DateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -106,7 +107,9 @@ public class CurrentActivityPlugin extends RenderPlugin<Node> {
             final IDataProvider dataProvider = (IDataProvider) getDefaultModel();
             return new Iterator() {
 
-                private final Iterator upstream = dataProvider.iterator(0, 0);
+                private Iterator upstream = Collections.emptyIterator();
+                private long first = 0;
+                private boolean exhausted = false;
                 private Object next = null;
                 private int fetched = 0;
 
@@ -135,7 +138,7 @@ public class CurrentActivityPlugin extends RenderPlugin<Node> {
                     if (fetched >= limit) {
                         return;
                     }
-                    while (upstream.hasNext()) {
+                    while (nextPage()) {
                         JcrNodeModel candidate = (JcrNodeModel) upstream.next();
                         if (accept(candidate)) {
                             next = candidate;
@@ -145,6 +148,19 @@ public class CurrentActivityPlugin extends RenderPlugin<Node> {
                     }
                 }
 
+                /**
+                 * Requests the next page of events when the current one has been consumed, as the filters may
+                 * reject some of them.
+                 */
+                private boolean nextPage() {
+                    if (!upstream.hasNext() && !exhausted) {
+                        upstream = dataProvider.iterator(first, limit);
+                        first += limit;
+                        exhausted = !upstream.hasNext();
+                    }
+                    return upstream.hasNext();
+                }
+
                 @Override
                 public void remove() {
                     throw new UnsupportedOperationException();
@@ -15,11 +15,15 @@
  */
 package org.hippoecm.frontend.plugins.cms.edit;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
 
 import javax.jcr.InvalidItemStateException;
@@ -28,6 +32,7 @@ import javax.jcr.RepositoryException;
 
 import org.apache.wicket.model.IDetachable;
 import org.apache.wicket.model.IModel;
+import org.hippoecm.frontend.editor.AbstractCmsEditor;
 import org.hippoecm.frontend.editor.IEditorContext;
 import org.hippoecm.frontend.editor.IEditorFactory;
 import org.hippoecm.frontend.model.JcrNodeModel;
@@ -45,17 +50,36 @@ import org.hippoecm.repository.api.HippoNodeType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Manages the editors of documents.
+ * <p>
+ * Editors that are not focused can be made to hibernate: their clusters are stopped until they are focused again.
+ * This is disabled by default; it is enabled by configuring one or both of
+ * <ul>
+ *     <li>{@value #HIBERNATION_MAX_ACTIVE}: the maximum number of editors that are started</li>
+ *     <li>{@value #HIBERNATION_IDLE_TIME}: the number of seconds after which an editor that has not been focused
+ *     hibernates</li>
+ * </ul>
+ * Editors with changes do not hibernate.
+ */
 public class EditorManagerPlugin extends Plugin implements IEditorManager, IRefreshable, IDetachable {
 
     private static final long serialVersionUID = 1L;
 
     static final Logger log = LoggerFactory.getLogger(EditorManagerPlugin.class);
 
+    public static final String HIBERNATION_MAX_ACTIVE = "hibernation.max.active";
+    public static final String HIBERNATION_IDLE_TIME = "hibernation.idle.time";
+
     private IEditorFactory editorFactory;
     private BrowserObserver browser;
 
     private List<IEditor<Node>> editors;
     private final Set<IEditorOpenListener> openListeners;
+    // editors by the time they were last focused, in the order in which they were focused
+    private final Map<IEditor<Node>, Long> focusTimes;
+    private final int hibernationMaxActive;
+    private final long hibernationIdleTime;
     private transient boolean active = false;
 
     public EditorManagerPlugin(final IPluginContext context, final IPluginConfig config) {
@@ -66,6 +90,9 @@ public class EditorManagerPlugin extends Plugin implements IEditorManager, IRefr
 
         editors = new LinkedList<>();
         openListeners = new LinkedHashSet<>();
+        focusTimes = new LinkedHashMap<>();
+        hibernationMaxActive = config.getInt(HIBERNATION_MAX_ACTIVE, 0);
+        hibernationIdleTime = config.getInt(HIBERNATION_IDLE_TIME, 0) * 1000L;
         context.registerService(this, IRefreshable.class.getName());
 
         // register editor
@@ -186,7 +213,9 @@ public class EditorManagerPlugin extends Plugin implements IEditorManager, IRefr
 
             openListeners.forEach(listener -> listener.onOpen(model));
             editors.add(editor);
+            setFocusTime(editor);
             editor.focus();
+            hibernateEditors();
 
             focusBrowser(model);
             return editor;
@@ -208,6 +237,7 @@ public class EditorManagerPlugin extends Plugin implements IEditorManager, IRefr
                     ((IRefreshable) editor).refresh();
                 }
             }
+            hibernateEditors();
         } finally {
             active = false;
         }
@@ -219,6 +249,11 @@ public class EditorManagerPlugin extends Plugin implements IEditorManager, IRefr
         if (!active) {
             active = true;
             try {
+                IEditor<Node> editor = getEditor(model);
+                if (editor != null) {
+                    setFocusTime(editor);
+                    hibernateEditors();
+                }
                 focusBrowser(model);
             } finally {
                 active = false;
@@ -233,7 +268,9 @@ public class EditorManagerPlugin extends Plugin implements IEditorManager, IRefr
     void onClose(IModel<Node> model) {
         if (model != null) {
             // cleanup internals
-            editors.remove(getEditor(model));
+            IEditor<Node> editor = getEditor(model);
+            editors.remove(editor);
+            focusTimes.remove(editor);
             if (editors.size() == 0) {
                 browser.setModel(new JcrNodeModel((Node) null));
             }
@@ -242,6 +279,46 @@ public class EditorManagerPlugin extends Plugin implements IEditorManager, IRefr
 
     // internal
 
+    /**
+     * Lets the editors that were focused longest ago hibernate when there are more than the maximum number of started
+     * editors, or when they have not been focused for the idle time.  The most recently focused editor is never
+     * hibernated.
+     */
+    private void hibernateEditors() {
+        if (hibernationMaxActive <= 0 && hibernationIdleTime <= 0) {
+            return;
+        }
+        final List<IEditor<Node>> recentFirst = new ArrayList<>(focusTimes.keySet());
+        Collections.reverse(recentFirst);
+
+        final long now = System.currentTimeMillis();
+        int started = 0;
+        for (IEditor<Node> editor : recentFirst) {
+            if (!(editor instanceof AbstractCmsEditor)) {
+                started++;
+                continue;
+            }
+            final AbstractCmsEditor<Node> cmsEditor = (AbstractCmsEditor<Node>) editor;
+            if (cmsEditor.isHibernated()) {
+                continue;
+            }
+            if (started > 0) {
+                final boolean tooMany = hibernationMaxActive > 0 && started >= hibernationMaxActive;
+                final boolean idle = hibernationIdleTime > 0 && now - focusTimes.get(editor) > hibernationIdleTime;
+                if ((tooMany || idle) && cmsEditor.hibernate()) {
+                    log.debug("Editor of {} hibernates", editor.getModel());
+                    continue;
+                }
+            }
+            started++;
+        }
+    }
+
+    private void setFocusTime(IEditor<Node> editor) {
+        focusTimes.remove(editor);
+        focusTimes.put(editor, System.currentTimeMillis());
+    }
+
     private JcrNodeModel getEditorModel(JcrNodeModel nodeModel) {
         Node node = nodeModel.getNode();
         if (node != null) {
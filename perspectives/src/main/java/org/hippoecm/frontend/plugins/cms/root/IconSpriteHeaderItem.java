@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.cms.root;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.wicket.markup.head.HeaderItem;
+import org.apache.wicket.markup.head.OnDomReadyHeaderItem;
+import org.apache.wicket.request.Response;
+import org.apache.wicket.request.cycle.RequestCycle;
+import org.apache.wicket.request.handler.resource.ResourceReferenceRequestHandler;
+import org.apache.wicket.util.template.PackageTextTemplate;
+import org.hippoecm.frontend.HippoHeaderItem;
+import org.hippoecm.frontend.skin.Icon;
+
+/**
+ * Loads the icon sprite from its versioned URL and adds it to the page, instead of writing the whole sprite into
+ * every page. Browsers cache the sprite, so it is downloaded only once per release of the CMS.
+ */
+public class IconSpriteHeaderItem extends HippoHeaderItem {
+
+    private static final String LOAD_ICON_SPRITE_JS = "load-icon-sprite.js";
+
+    private static final IconSpriteHeaderItem INSTANCE = new IconSpriteHeaderItem();
+
+    public static IconSpriteHeaderItem get() {
+        return INSTANCE;
+    }
+
+    private IconSpriteHeaderItem() {
+    }
+
+    @Override
+    public Iterable<?> getRenderTokens() {
+        return Collections.singleton("icon-sprite-header-item");
+    }
+
+    @Override
+    public void render(final Response response) {
+        createLoadIconSpriteScript().render(response);
+    }
+
+    private HeaderItem createLoadIconSpriteScript() {
+        final CharSequence url = RequestCycle.get().urlFor(new ResourceReferenceRequestHandler(Icon.getIconSpriteReference()));
+        final Map<String, String> scriptParams = new TreeMap<>();
+        scriptParams.put("url", url.toString());
+
+        final PackageTextTemplate loadScriptTemplate = new PackageTextTemplate(IconSpriteHeaderItem.class, LOAD_ICON_SPRITE_JS);
+        final String javaScript = loadScriptTemplate.asString(scriptParams);
+        return OnDomReadyHeaderItem.forScript(javaScript);
+    }
+
+}
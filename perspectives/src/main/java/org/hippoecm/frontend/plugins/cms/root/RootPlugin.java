@@ -20,7 +20,6 @@ import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.wicket.feedback.IFeedbackMessageFilter;
-import org.apache.wicket.markup.ComponentTag;
 import org.apache.wicket.markup.head.IHeaderResponse;
 import org.apache.wicket.markup.html.basic.Label;
 import org.apache.wicket.markup.html.link.ResourceLink;
@@ -29,8 +28,6 @@ import org.apache.wicket.markup.repeater.data.IDataProvider;
 import org.apache.wicket.markup.repeater.data.ListDataProvider;
 import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
-import org.apache.wicket.request.Response;
-import org.apache.wicket.request.cycle.RequestCycle;
 import org.apache.wicket.util.time.Duration;
 import org.hippoecm.frontend.CmsHeaderItem;
 import org.hippoecm.frontend.PluginApplication;
@@ -56,7 +53,6 @@ import org.hippoecm.frontend.service.IRenderService;
 import org.hippoecm.frontend.service.IconSize;
 import org.hippoecm.frontend.service.ServiceTracker;
 import org.hippoecm.frontend.service.render.ListViewService;
-import org.hippoecm.frontend.skin.Icon;
 import org.hippoecm.frontend.usagestatistics.UsageStatisticsHeaderItem;
 import org.hippoecm.frontend.useractivity.MonitorExtUserActivityHeaderItem;
 import org.hippoecm.frontend.useractivity.UserActivityHeaderItem;
@@ -225,12 +221,6 @@ public class RootPlugin extends TabsPlugin {
         super.render(target);
     }
 
-    @Override
-    public void onComponentTag(final ComponentTag tag) {
-        final Response response = RequestCycle.get().getResponse();
-        response.write(Icon.getIconSprite());
-    }
-
     @Override
     public void renderHead(final IHeaderResponse response) {
         super.renderHead(response);
@@ -238,6 +228,7 @@ public class RootPlugin extends TabsPlugin {
         response.render(CmsHeaderItem.get());
         response.render(ExtResourcesHeaderItem.get());
         response.render(RootPluginHeaderItem.get());
+        response.render(IconSpriteHeaderItem.get());
 
         final UserActivityHeaderItem userActivity = new UserActivityHeaderItem(getMaxInactiveIntervalMinutes());
         response.render(new MonitorExtUserActivityHeaderItem(userActivity));
@@ -18,12 +18,17 @@ package org.hippoecm.frontend.plugins.reporting;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
 import java.util.regex.PatternSyntaxException;
 
+import javax.jcr.ItemNotFoundException;
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
+import javax.jcr.Session;
 import javax.jcr.Value;
 import javax.jcr.query.QueryManager;
 import javax.jcr.query.QueryResult;
@@ -34,16 +39,28 @@ import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 import org.apache.wicket.markup.repeater.data.IDataProvider;
 import org.apache.wicket.model.IModel;
+import org.hippoecm.frontend.FrontendNodeType;
 import org.hippoecm.frontend.model.JcrNodeModel;
 import org.hippoecm.frontend.model.NodeModelWrapper;
 import org.hippoecm.frontend.model.event.IObservable;
 import org.hippoecm.frontend.model.event.IObservationContext;
 import org.hippoecm.frontend.model.event.JcrFrontendListener;
+import org.hippoecm.frontend.observation.JcrChangeCounter;
 import org.hippoecm.frontend.session.UserSession;
 import org.hippoecm.repository.api.HippoQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Data provider for the result of the query of a report node.  A shared report model takes the result from the
+ * {@link SharedReportResults}, so identical report queries are executed once for all sessions until the nodes
+ * observed by the report listener change.
+ * <p>
+ * A page of the result is requested with a positive count; the offset and limit of the page are then passed to the
+ * query, within the offset and limit of the report itself.  A count of zero or less requests the whole result.
+ * Consumers that show a limited number of nodes, like the current activity, request pages rather than counting the
+ * result.
+ */
 public class ReportModel extends NodeModelWrapper<Void> implements IDataProvider, IObservable {
 
     private static final long serialVersionUID = 1L;
@@ -55,10 +72,23 @@ public class ReportModel extends NodeModelWrapper<Void> implements IDataProvider
     private JcrFrontendListener listener;
     private IObservationContext obContext;
     private transient boolean attached = false;
-    private transient QueryResult resultSet;
+    private transient List<String> identifiers;
+    private transient Long size;
+    // the nodes of the whole result that size() counted, until they are iterated
+    private transient NodeIterator countedNodes;
+    private final boolean shared;
 
     public ReportModel(JcrNodeModel nodeModel) {
+        this(nodeModel, false);
+    }
+
+    /**
+     * @param nodeModel the model of the report node
+     * @param shared whether to share the result of the report query with other sessions
+     */
+    public ReportModel(JcrNodeModel nodeModel, boolean shared) {
         super(nodeModel);
+        this.shared = shared;
     }
 
     // IDataProvider
@@ -66,23 +96,30 @@ public class ReportModel extends NodeModelWrapper<Void> implements IDataProvider
     @Override
     public Iterator iterator(long first, long count) {
         load();
-        if (resultSet != null) {
-            try {
-                final NodeIterator nodeIterator = resultSet.getNodes();
-                return new Iterator<IModel>() {
-                    public boolean hasNext() {
-                        return nodeIterator.hasNext();
-                    }
-                    public IModel next() {
-                        return new JcrNodeModel(nodeIterator.nextNode());
-                    }
-                    public void remove() {
-                        throw new UnsupportedOperationException();
-                    }
-                };
-            } catch (RepositoryException ex) {
-                log.error("Failed to obtain nodes from query result");
+        if (identifiers != null) {
+            return new SharedResultIterator(subList(identifiers, first, count).iterator());
+        }
+        if (countedNodes != null) {
+            // reuse the result that was executed to count it
+            final NodeIterator nodeIterator = countedNodes;
+            countedNodes = null;
+            if (skip(nodeIterator, first)) {
+                return new ResultIterator(nodeIterator, count);
+            }
+            return new ArrayList(0).iterator();
+        }
+        try {
+            final Node reportNode = nodeModel.getObject();
+            if (reportNode != null && reportNode.isNodeType(ReportingNodeTypes.NT_REPORT)) {
+                final QueryResult resultSet = execute(UserSession.get().getJcrSession(), reportNode, first, count);
+                if (resultSet != null) {
+                    return new ResultIterator(resultSet.getNodes(), count);
+                }
             }
+        } catch (RepositoryException ex) {
+            log.error("Failed to obtain nodes from query result");
+        } catch (PatternSyntaxException e) {
+            log.error(e.getMessage());
         }
         return new ArrayList(0).iterator();
     }
@@ -96,9 +133,52 @@ public class ReportModel extends NodeModelWrapper<Void> implements IDataProvider
         }
     }
 
+    /**
+     * @return the number of nodes in the result.  For a shared result this is an estimate, as the nodes that the user
+     * cannot read are only skipped while iterating.  For a result that is not shared, the query is executed once per
+     * request and its result is reused by the next call of {@link #iterator(long, long)}.  When the query cannot tell
+     * the number of nodes, {@link #UNKNOWN_SIZE} is returned.
+     */
     @Override
     public long size() {
-        return UNKNOWN_SIZE;
+        load();
+        if (identifiers != null) {
+            return identifiers.size();
+        }
+        if (size == null) {
+            size = (long) UNKNOWN_SIZE;
+            try {
+                final Node reportNode = nodeModel.getObject();
+                if (reportNode != null && reportNode.isNodeType(ReportingNodeTypes.NT_REPORT)) {
+                    final QueryResult resultSet = execute(UserSession.get().getJcrSession(), reportNode, 0, 0);
+                    if (resultSet != null) {
+                        countedNodes = resultSet.getNodes();
+                        if (countedNodes.getSize() >= 0) {
+                            size = countedNodes.getSize();
+                        }
+                    }
+                }
+            } catch (RepositoryException e) {
+                log.error("Failed to determine size of query result", e);
+            } catch (PatternSyntaxException e) {
+                log.error(e.getMessage());
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return whether there are nodes left after skipping the first ones
+     */
+    private static boolean skip(final NodeIterator nodes, final long first) {
+        if (first > 0) {
+            try {
+                nodes.skip(first);
+            } catch (NoSuchElementException e) {
+                return false;
+            }
+        }
+        return nodes.hasNext();
     }
 
     // privates
@@ -109,38 +189,20 @@ public class ReportModel extends NodeModelWrapper<Void> implements IDataProvider
             try {
                 Node reportNode = nodeModel.getObject();
                 if (reportNode.isNodeType(ReportingNodeTypes.NT_REPORT)) {
-                    Node queryNode = reportNode.getNode(ReportingNodeTypes.QUERY);
-                    QueryManager queryManager = UserSession.get().getQueryManager();
-
-                    String statement = queryNode.getProperty("jcr:statement").getString();
-                    String language = queryNode.getProperty("jcr:language").getString();
-
-                    statement = statement.replace("__USER__", reportNode.getSession().getUserID());
-
-                    HippoQuery query = (HippoQuery) queryManager.createQuery(statement, language);
-
-                    Map<String, String> arguments = new HashMap<String, String>();
-                    if (reportNode.hasProperty(ReportingNodeTypes.PARAMETER_NAMES)) {
-                        Value[] parameterNames = reportNode.getProperty(ReportingNodeTypes.PARAMETER_NAMES).getValues();
-                        Value[] parameterValues = reportNode.getProperty(ReportingNodeTypes.PARAMETER_VALUES)
-                                .getValues();
-                        if (parameterNames.length == parameterValues.length) {
-                            for (int i = 0; i < parameterNames.length; i++) {
-                                arguments.put(parameterNames[i].getString(), parameterValues[i].getString());
-                            }
-                        }
-                    }
-                    if (reportNode.hasProperty(ReportingNodeTypes.LIMIT)) {
-                        query.setLimit(reportNode.getProperty(ReportingNodeTypes.LIMIT).getLong());
-                    }
-                    if (reportNode.hasProperty(ReportingNodeTypes.OFFSET)) {
-                        query.setOffset(reportNode.getProperty(ReportingNodeTypes.OFFSET).getLong());
-                    }
-
-                    if (arguments.isEmpty()) {
-                        resultSet = query.execute();
-                    } else {
-                        resultSet = query.execute(arguments);
+                    if (shared && reportNode.hasNode(ReportingNodeTypes.LISTENER)) {
+                        identifiers = SharedReportResults.getIdentifiers(getResultKey(reportNode),
+                                getChangeCounter(reportNode.getNode(ReportingNodeTypes.LISTENER)),
+                                reportNode.getSession(), session -> {
+                                    final List<String> result = new ArrayList<>();
+                                    final NodeIterator nodes = execute(session, reportNode, 0, 0).getNodes();
+                                    while (nodes.hasNext()) {
+                                        final Node node = nodes.nextNode();
+                                        if (node != null) {
+                                            result.add(node.getIdentifier());
+                                        }
+                                    }
+                                    return result;
+                                });
                     }
                 }
             } catch (RepositoryException e) {
@@ -154,12 +216,219 @@ public class ReportModel extends NodeModelWrapper<Void> implements IDataProvider
         }
     }
 
+    /**
+     * Executes the query of the report with the session for the nodes from the first one, up to count nodes if count
+     * is positive.
+     *
+     * @return the result, or null when the page is beyond the limit of the report
+     */
+    private static QueryResult execute(Session session, Node reportNode, long first, long count)
+            throws RepositoryException {
+        Node queryNode = reportNode.getNode(ReportingNodeTypes.QUERY);
+        QueryManager queryManager = session.getWorkspace().getQueryManager();
+
+        String statement = getStatement(reportNode);
+        String language = queryNode.getProperty("jcr:language").getString();
+
+        HippoQuery query = (HippoQuery) queryManager.createQuery(statement, language);
+
+        Map<String, String> arguments = getArguments(reportNode);
+        long limit = -1;
+        long offset = 0;
+        if (reportNode.hasProperty(ReportingNodeTypes.LIMIT)) {
+            limit = reportNode.getProperty(ReportingNodeTypes.LIMIT).getLong();
+        }
+        if (reportNode.hasProperty(ReportingNodeTypes.OFFSET)) {
+            offset = reportNode.getProperty(ReportingNodeTypes.OFFSET).getLong();
+        }
+        final long[] page = getPage(offset, limit, first, count);
+        if (page == null) {
+            return null;
+        }
+        if (page[1] >= 0) {
+            query.setLimit(page[1]);
+        }
+        if (page[0] > 0) {
+            query.setOffset(page[0]);
+        }
+
+        if (arguments.isEmpty()) {
+            return query.execute();
+        } else {
+            return query.execute(arguments);
+        }
+    }
+
+    /**
+     * @param offset the offset of the report
+     * @param limit  the limit of the report, negative when there is none
+     * @param first  the index of the first node of the page in the result of the report
+     * @param count  the number of nodes of the page, zero or less for all nodes from the first one
+     * @return the offset and the limit of the page, the limit being negative when there is none, or null when the
+     * page is beyond the limit of the report
+     */
+    static long[] getPage(long offset, long limit, long first, long count) {
+        if (first > 0) {
+            if (limit >= 0) {
+                if (first >= limit) {
+                    return null;
+                }
+                limit -= first;
+            }
+            offset += first;
+        }
+        if (count > 0) {
+            limit = limit >= 0 ? Math.min(limit, count) : count;
+        }
+        return new long[]{offset, limit};
+    }
+
+    /**
+     * @return the identifiers from the first one, up to count identifiers if count is positive
+     */
+    static List<String> subList(List<String> identifiers, long first, long count) {
+        final int from = (int) Math.min(Math.max(first, 0), identifiers.size());
+        final int to = count > 0 ? from + (int) Math.min(count, identifiers.size() - from) : identifiers.size();
+        return identifiers.subList(from, to);
+    }
+
+    private static String getStatement(Node reportNode) throws RepositoryException {
+        Node queryNode = reportNode.getNode(ReportingNodeTypes.QUERY);
+        String statement = queryNode.getProperty("jcr:statement").getString();
+        return statement.replace("__USER__", reportNode.getSession().getUserID());
+    }
+
+    private static Map<String, String> getArguments(Node reportNode) throws RepositoryException {
+        Map<String, String> arguments = new HashMap<String, String>();
+        if (reportNode.hasProperty(ReportingNodeTypes.PARAMETER_NAMES)) {
+            Value[] parameterNames = reportNode.getProperty(ReportingNodeTypes.PARAMETER_NAMES).getValues();
+            Value[] parameterValues = reportNode.getProperty(ReportingNodeTypes.PARAMETER_VALUES)
+                    .getValues();
+            if (parameterNames.length == parameterValues.length) {
+                for (int i = 0; i < parameterNames.length; i++) {
+                    arguments.put(parameterNames[i].getString(), parameterValues[i].getString());
+                }
+            }
+        }
+        return arguments;
+    }
+
+    /**
+     * The result of a report is identified by everything that determines the outcome of its query.  The user only
+     * determines it through the statement, in which the user id replaces __USER__.
+     */
+    private static String getResultKey(Node reportNode) throws RepositoryException {
+        final StringBuilder key = new StringBuilder();
+        key.append(reportNode.getNode(ReportingNodeTypes.QUERY).getProperty("jcr:language").getString());
+        key.append('|').append(getStatement(reportNode));
+        key.append('|').append(new TreeMap<>(getArguments(reportNode)));
+        if (reportNode.hasProperty(ReportingNodeTypes.LIMIT)) {
+            key.append("|limit=").append(reportNode.getProperty(ReportingNodeTypes.LIMIT).getLong());
+        }
+        if (reportNode.hasProperty(ReportingNodeTypes.OFFSET)) {
+            key.append("|offset=").append(reportNode.getProperty(ReportingNodeTypes.OFFSET).getLong());
+        }
+        return key.toString();
+    }
+
+    private static JcrChangeCounter getChangeCounter(Node listenerNode) throws RepositoryException {
+        boolean deep = false;
+        if (listenerNode.hasProperty(FrontendNodeType.FRONTEND_DEEP)) {
+            deep = listenerNode.getProperty(FrontendNodeType.FRONTEND_DEEP).getBoolean();
+        }
+        String[] nodeTypes = null;
+        if (listenerNode.hasProperty(FrontendNodeType.FRONTEND_NODETYPES)) {
+            Value[] values = listenerNode.getProperty(FrontendNodeType.FRONTEND_NODETYPES).getValues();
+            nodeTypes = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                nodeTypes[i] = values[i].getString();
+            }
+        }
+        return JcrChangeCounter.get(listenerNode.getProperty(FrontendNodeType.FRONTEND_PATH).getString(),
+                (int) listenerNode.getProperty(FrontendNodeType.FRONTEND_EVENTS).getLong(), deep, nodeTypes);
+    }
+
+    /**
+     * Iterates over the nodes of a result, up to count nodes if count is positive.
+     */
+    private static class ResultIterator implements Iterator<IModel> {
+
+        private final NodeIterator nodes;
+        private long remaining;
+
+        ResultIterator(NodeIterator nodes, long count) {
+            this.nodes = nodes;
+            this.remaining = count > 0 ? count : Long.MAX_VALUE;
+        }
+
+        public boolean hasNext() {
+            return remaining > 0 && nodes.hasNext();
+        }
+
+        public IModel next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            remaining--;
+            return new JcrNodeModel(nodes.nextNode());
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Resolves the identifiers of a shared result with the session of the user, skipping the nodes that have
+     * been removed or that the user cannot read.
+     */
+    private static class SharedResultIterator implements Iterator<IModel> {
+
+        private final Iterator<String> upstream;
+        private final Session session;
+        private Node next;
+
+        SharedResultIterator(Iterator<String> upstream) {
+            this.upstream = upstream;
+            this.session = UserSession.get().getJcrSession();
+        }
+
+        public boolean hasNext() {
+            while (next == null && upstream.hasNext()) {
+                final String identifier = upstream.next();
+                try {
+                    next = session.getNodeByIdentifier(identifier);
+                } catch (ItemNotFoundException e) {
+                    log.debug("Skipping report result node '{}': removed or not readable", identifier);
+                } catch (RepositoryException e) {
+                    log.warn("Cannot resolve report result node '{}'", identifier, e);
+                }
+            }
+            return next != null;
+        }
+
+        public IModel next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Node node = next;
+            next = null;
+            return new JcrNodeModel(node);
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     // IDetachable
 
     @Override
     public void detach() {
         attached = false;
-        resultSet = null;
+        identifiers = null;
+        size = null;
+        countedNodes = null;
         if (listener != null) {
             listener.detach();
         }
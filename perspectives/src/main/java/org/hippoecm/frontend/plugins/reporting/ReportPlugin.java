@@ -32,10 +32,21 @@ import org.hippoecm.frontend.session.UserSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Starts the renderer of a report node with a {@link ReportModel} for the result of its query.  Plugin configuration
+ * properties:
+ * <ul>
+ * <li>'report.input.node': the identifier of the report node</li>
+ * <li>'report.resultset.model': the id to register the report model under</li>
+ * <li>'report.shared': whether the result of the report query is shared with other sessions (default: false)</li>
+ * </ul>
+ */
 public class ReportPlugin extends Plugin {
 
     private static final long serialVersionUID = 1L;
 
+    public static final String CONFIG_SHARED = "report.shared";
+
     static final Logger log = LoggerFactory.getLogger(ReportPlugin.class);
 
     public ReportPlugin(IPluginContext context, IPluginConfig config) {
@@ -50,7 +61,8 @@ public class ReportPlugin extends Plugin {
         } else {
             IPluginContext context = getPluginContext();
             String modelId = getPluginConfig().getString("report.resultset.model");
-            ReportModel reportModel = new ReportModel(new JcrNodeModel(reportNode));
+            boolean shared = getPluginConfig().getAsBoolean(CONFIG_SHARED, false);
+            ReportModel reportModel = new ReportModel(new JcrNodeModel(reportNode), shared);
             ModelReference modelService = new ModelReference(modelId, reportModel);
             modelService.init(context);
 
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.reporting;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.hippoecm.frontend.observation.JcrChangeCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.Striped;
+
+/**
+ * Application wide cache of the identifiers of the nodes in the result of a report query.  A cached result is
+ * reused by all sessions until the nodes observed by the report change or it is older than {@link #MAX_AGE_MILLIS};
+ * it is then refreshed by the first session that needs it.
+ * <p>
+ * The query is executed with a session of the application, so a result is shared by all users that run the same
+ * query; the sessions skip the nodes that their user cannot read while iterating.  Within the limit of a report, a
+ * user may therefore see fewer nodes than the limit.  When the application has no session, the query is executed
+ * with the session of the user and the result is only shared by the sessions of that user.
+ */
+public final class SharedReportResults {
+
+    static final Logger log = LoggerFactory.getLogger(SharedReportResults.class);
+
+    static final long MAX_AGE_MILLIS = 60000L;
+    private static final int MAX_RESULTS = 500;
+
+    private static final AtomicLong queryCount = new AtomicLong();
+    private static final AtomicLong hitCount = new AtomicLong();
+
+    private static final Map<String, Result> results = new LinkedHashMap<String, Result>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Result> eldest) {
+            return size() > MAX_RESULTS;
+        }
+    };
+    private static final Striped<Lock> locks = Striped.lock(32);
+
+    /**
+     * Executes the report query and returns the identifiers of the nodes in the result, in result order.
+     */
+    interface ResultLoader {
+
+        List<String> load(Session session) throws RepositoryException;
+    }
+
+    private SharedReportResults() {
+    }
+
+    /**
+     * @return the number of report queries executed to fill the cache
+     */
+    public static long getQueryCount() {
+        return queryCount.get();
+    }
+
+    /**
+     * @return the number of report queries that were avoided by serving the result from the cache
+     */
+    public static long getHitCount() {
+        return hitCount.get();
+    }
+
+    static List<String> getIdentifiers(final String query, final JcrChangeCounter counter, final Session session,
+                                       final ResultLoader loader) throws RepositoryException {
+        final boolean shared = JcrChangeCounter.hasSessionFactory();
+        final String key = shared ? query : session.getUserID() + '|' + query;
+        final long generation = counter.getGeneration(session);
+        Result result = getResult(key);
+        if (result != null && result.isValid(generation)) {
+            hitCount.incrementAndGet();
+            return result.identifiers;
+        }
+
+        final Lock lock = locks.get(key);
+        lock.lock();
+        try {
+            // another session may have refreshed the result while waiting
+            result = getResult(key);
+            if (result != null && result.isValid(generation)) {
+                hitCount.incrementAndGet();
+                return result.identifiers;
+            }
+            queryCount.incrementAndGet();
+            result = new Result(generation, Collections.unmodifiableList(load(loader, shared ? null : session)));
+            synchronized (results) {
+                results.put(key, result);
+            }
+            log.debug("Refreshed shared report result '{}': {} queries executed, {} avoided",
+                    key, queryCount.get(), hitCount.get());
+            return result.identifiers;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads the result with the given session, or with a new session of the application when there is none.
+     */
+    private static List<String> load(final ResultLoader loader, final Session session) throws RepositoryException {
+        if (session != null) {
+            return loader.load(session);
+        }
+        final Session systemSession = JcrChangeCounter.loginSystemSession();
+        if (systemSession == null) {
+            throw new RepositoryException("The application has no session to execute the report query with");
+        }
+        try {
+            return loader.load(systemSession);
+        } finally {
+            systemSession.logout();
+        }
+    }
+
+    private static Result getResult(final String key) {
+        synchronized (results) {
+            return results.get(key);
+        }
+    }
+
+    private static final class Result {
+
+        private final long generation;
+        private final long created = System.currentTimeMillis();
+        private final List<String> identifiers;
+
+        private Result(final long generation, final List<String> identifiers) {
+            this.generation = generation;
+            this.identifiers = identifiers;
+        }
+
+        private boolean isValid(final long currentGeneration) {
+            final long age = System.currentTimeMillis() - created;
+            return generation == currentGeneration && age < MAX_AGE_MILLIS;
+        }
+    }
+}
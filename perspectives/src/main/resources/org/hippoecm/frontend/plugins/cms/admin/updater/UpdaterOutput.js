@@ -0,0 +1,58 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+(function(window) {
+  "use strict";
+
+  window.Hippo = window.Hippo || {};
+
+  if (!Hippo.UpdaterOutput) {
+
+    Hippo.UpdaterOutput = {
+
+      append: function(id, text, maxLines) {
+        var output = window.document.getElementById(id),
+            scroller, follow, content, newLines, excess, cut;
+
+        if (!output || !text) {
+          return;
+        }
+
+        scroller = output.parentNode;
+        follow = scroller.scrollTop + scroller.clientHeight >= scroller.scrollHeight - 5;
+
+        output.appendChild(window.document.createTextNode(text));
+
+        content = output.textContent;
+        newLines = content.match(/\n/g);
+        excess = newLines ? newLines.length - maxLines : 0;
+        if (excess > 0) {
+          cut = 0;
+          while (excess > 0) {
+            cut = content.indexOf('\n', cut) + 1;
+            excess--;
+          }
+          output.textContent = content.substring(cut);
+        }
+
+        if (follow) {
+          scroller.scrollTop = scroller.scrollHeight;
+        }
+      }
+
+    };
+  }
+
+}(window));
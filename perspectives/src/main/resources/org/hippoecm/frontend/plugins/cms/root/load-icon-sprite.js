@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+(function (url) {
+  'use strict';
+
+  var xhr = new XMLHttpRequest();
+  xhr.open('GET', url, true);
+  xhr.onload = function () {
+    var container, sprite;
+    if (xhr.status !== 200) {
+      return;
+    }
+    container = document.createElement('div');
+    container.innerHTML = xhr.responseText;
+    sprite = container.getElementsByTagName('svg')[0];
+    if (sprite) {
+      document.body.insertBefore(sprite, document.body.firstChild);
+    }
+  };
+  xhr.send();
+}('${url}'));
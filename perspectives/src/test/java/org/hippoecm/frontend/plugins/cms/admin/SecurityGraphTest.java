@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.cms.admin;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+
+import org.hippoecm.frontend.PluginTest;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SecurityGraphTest extends PluginTest {
+
+    private Node users;
+    private Node groups;
+    private Node domain;
+
+    @Before
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        users = root.getNode("hippo:configuration/hippo:users");
+        groups = root.getNode("hippo:configuration/hippo:groups");
+        domain = root.getNode("hippo:configuration/hippo:domains/autoexport");
+
+        users.addNode("graphtest-user", HippoNodeType.NT_USER);
+        final Node system = users.addNode("graphtest-system", HippoNodeType.NT_USER);
+        system.setProperty(HippoNodeType.HIPPO_SYSTEM, true);
+
+        final Node group = groups.addNode("graphtest-group", HippoNodeType.NT_GROUP);
+        group.setProperty(HippoNodeType.HIPPO_MEMBERS, new String[]{"graphtest-user", "graphtest-system", "graphtest-missing"});
+
+        final Node authRole = domain.addNode("graphtest-role", HippoNodeType.NT_AUTHROLE);
+        authRole.setProperty(HippoNodeType.HIPPO_ROLE, "readonly");
+        authRole.setProperty(HippoNodeType.HIPPO_GROUPS, new String[]{"graphtest-group"});
+        session.save();
+    }
+
+    @After
+    @Override
+    public void tearDown() throws Exception {
+        for (Node parent : Arrays.asList(users, groups, domain)) {
+            final NodeIterator children = parent.getNodes("graphtest-*");
+            while (children.hasNext()) {
+                children.nextNode().remove();
+            }
+        }
+        session.save();
+        super.tearDown();
+    }
+
+    @Test
+    public void usersAndGroupsExist() throws Exception {
+        final SecurityGraph graph = SecurityGraph.get();
+        assertTrue(graph.userExists("graphtest-user"));
+        assertFalse(graph.userExists("graphtest-missing"));
+        assertEquals("/hippo:configuration/hippo:users/graphtest-user", graph.getUserPath("graphtest-user"));
+        assertNull(graph.getUserPath("graphtest-missing"));
+        assertTrue(graph.isSystemUser("graphtest-system"));
+        assertFalse(graph.isSystemUser("graphtest-user"));
+        assertTrue(graph.groupExists("graphtest-group"));
+    }
+
+    @Test
+    public void membershipsAreFoundByUser() throws Exception {
+        final SecurityGraph graph = SecurityGraph.get();
+        final String groupPath = "/hippo:configuration/hippo:groups/graphtest-group";
+        assertTrue(graph.getMembershipPaths("graphtest-user", false, false).contains(groupPath));
+        assertTrue(graph.getMembershipPaths("graphtest-missing", false, true).contains(groupPath));
+        assertFalse(graph.getMembershipPaths("graphtest-user", true, false).contains(groupPath));
+        assertEquals(3, graph.getMembers("graphtest-group").size());
+    }
+
+    @Test
+    public void permissionsAreFoundByGroup() throws Exception {
+        final List<SecurityGraph.Permission> permissions = SecurityGraph.get().getPermissions("graphtest-group");
+        assertEquals(1, permissions.size());
+        assertEquals(domain.getPath(), permissions.get(0).getDomainPath());
+        assertEquals(domain.getPath() + "/graphtest-role", permissions.get(0).getAuthRolePath());
+    }
+
+    @Test
+    public void graphFollowsChanges() throws Exception {
+        assertFalse(SecurityGraph.get().userExists("graphtest-new"));
+
+        users.addNode("graphtest-new", HippoNodeType.NT_USER);
+        session.save();
+        assertTrue(SecurityGraph.get().userExists("graphtest-new"));
+
+        groups.getNode("graphtest-group").setProperty(HippoNodeType.HIPPO_MEMBERS, new String[]{"graphtest-new"});
+        session.save();
+        final String groupPath = "/hippo:configuration/hippo:groups/graphtest-group";
+        assertFalse(SecurityGraph.get().getMembershipPaths("graphtest-user", false, false).contains(groupPath));
+        assertTrue(SecurityGraph.get().getMembershipPaths("graphtest-new", false, false).contains(groupPath));
+    }
+
+    @Test
+    public void usersWithTheSameNameAreKeptByPath() throws Exception {
+        final Node folder = users.addNode("graphtest-folder", HippoNodeType.NT_USERFOLDER);
+        final Node nested = folder.addNode("graphtest-user", HippoNodeType.NT_USER);
+        nested.setProperty(HippoNodeType.HIPPO_SYSTEM, true);
+        session.save();
+
+        final SecurityGraph graph = SecurityGraph.get();
+        assertEquals("/hippo:configuration/hippo:users/graphtest-folder/graphtest-user", graph.getUserPath("graphtest-user"));
+        assertTrue(graph.isSystemUser("graphtest-user"));
+    }
+
+    @Test
+    public void graphIsKeptWhenOtherPropertiesChange() throws Exception {
+        final SecurityGraph graph = SecurityGraph.get();
+
+        users.getNode("graphtest-user").setProperty("hipposys:firstname", "Graph");
+        groups.getNode("graphtest-group").setProperty("hipposys:description", "Graph test");
+        session.save();
+        assertSame(graph, SecurityGraph.get());
+
+        users.getNode("graphtest-user").setProperty(HippoNodeType.HIPPO_SYSTEM, true);
+        session.save();
+        final SecurityGraph changed = SecurityGraph.get();
+        assertNotSame(graph, changed);
+        assertTrue(changed.isSystemUser("graphtest-user"));
+    }
+}
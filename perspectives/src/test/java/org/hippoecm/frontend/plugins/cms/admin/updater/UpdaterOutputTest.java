@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.cms.admin.updater;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.jcr.Binary;
+import javax.jcr.RepositoryException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class UpdaterOutputTest {
+
+    private static class BytesBinary implements Binary {
+
+        private final byte[] bytes;
+
+        BytesBinary(final String text) {
+            bytes = text.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public InputStream getStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read(final byte[] b, final long position) {
+            if (position >= bytes.length) {
+                return -1;
+            }
+            // read in small chunks, like a binary that is backed by a stream
+            final int count = (int) Math.min(Math.min(b.length, 4), bytes.length - position);
+            System.arraycopy(bytes, (int) position, b, 0, count);
+            return count;
+        }
+
+        @Override
+        public long getSize() {
+            return bytes.length;
+        }
+
+        @Override
+        public void dispose() {
+        }
+    }
+
+    private static byte[] utf8(final String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void read_returns_the_bytes_between_start_and_end() throws RepositoryException, IOException {
+        assertArrayEquals(utf8("second"), UpdaterOutput.read(new BytesBinary("first\nsecond\n"), 6, 12));
+    }
+
+    @Test
+    public void read_stops_at_the_end_of_the_binary() throws RepositoryException, IOException {
+        assertArrayEquals(utf8("second\n"), UpdaterOutput.read(new BytesBinary("first\nsecond\n"), 6, 20));
+    }
+
+    @Test(expected = EOFException.class)
+    public void read_beyond_the_end_of_the_binary_fails() throws RepositoryException, IOException {
+        UpdaterOutput.read(new BytesBinary("first\n"), 10, 20);
+    }
+
+    @Test
+    public void index_of_finds_the_first_and_last_occurrence() {
+        final byte[] bytes = utf8("a\nb\nc");
+        assertEquals(1, UpdaterOutput.indexOf(bytes, (byte) '\n'));
+        assertEquals(3, UpdaterOutput.lastIndexOf(bytes, (byte) '\n'));
+        assertEquals(-1, UpdaterOutput.indexOf(bytes, (byte) 'x'));
+        assertEquals(-1, UpdaterOutput.lastIndexOf(bytes, (byte) 'x'));
+    }
+
+    @Test
+    public void complete_lines_are_sent() {
+        assertEquals(6, UpdaterOutput.getSendableLength(utf8("first\nsec"), true));
+        assertEquals(6, UpdaterOutput.getSendableLength(utf8("first\nsec"), false));
+        assertEquals(13, UpdaterOutput.getSendableLength(utf8("first\nsecond\n"), true));
+    }
+
+    @Test
+    public void partial_line_at_the_end_of_the_log_is_kept_back() {
+        assertEquals(0, UpdaterOutput.getSendableLength(utf8("partial"), true));
+        assertEquals(0, UpdaterOutput.getSendableLength(new byte[0], true));
+    }
+
+    @Test
+    public void empty_segment_has_nothing_to_send() {
+        assertEquals(0, UpdaterOutput.getSendableLength(new byte[0], false));
+    }
+
+    @Test
+    public void line_longer_than_a_segment_is_cut() {
+        assertEquals(7, UpdaterOutput.getSendableLength(utf8("partial"), false));
+    }
+
+    @Test
+    public void line_longer_than_a_segment_is_cut_at_a_character_boundary() {
+        final byte[] euro = utf8("ab€");
+        assertEquals(5, euro.length);
+
+        // the segment ends in the middle of the euro sign
+        assertEquals(2, UpdaterOutput.getSendableLength(Arrays.copyOf(euro, 4), false));
+        assertEquals(2, UpdaterOutput.getSendableLength(Arrays.copyOf(euro, 3), false));
+        // the segment ends with the complete euro sign
+        assertEquals(5, UpdaterOutput.getSendableLength(euro, false));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.cms.browse.list;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+
+import org.apache.jackrabbit.JcrConstants;
+import org.apache.jackrabbit.commons.iterator.NodeIteratorAdapter;
+import org.easymock.EasyMock;
+import org.hippoecm.repository.api.HippoNode;
+import org.hippoecm.repository.api.HippoNodeType;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+
+public class FacetSearchProviderTest {
+
+    private static Node createHandle(final String id) throws RepositoryException {
+        final Node handle = EasyMock.createNiceMock(Node.class);
+        expect(handle.isNodeType(HippoNodeType.NT_HANDLE)).andReturn(true).anyTimes();
+        expect(handle.isNodeType(JcrConstants.MIX_REFERENCEABLE)).andReturn(true).anyTimes();
+        expect(handle.getIdentifier()).andReturn(id).anyTimes();
+        replay(handle);
+        return handle;
+    }
+
+    private static Node createVariant(final Node handle, final int index) throws RepositoryException {
+        final Node canonical = EasyMock.createNiceMock(Node.class);
+        expect(canonical.isNodeType(HippoNodeType.NT_DOCUMENT)).andReturn(true).anyTimes();
+        expect(canonical.getParent()).andReturn(handle).anyTimes();
+        replay(canonical);
+
+        final HippoNode variant = EasyMock.createNiceMock(HippoNode.class);
+        expect(variant.getCanonicalNode()).andReturn(canonical).anyTimes();
+        expect(variant.getIndex()).andReturn(index).anyTimes();
+        replay(variant);
+        return variant;
+    }
+
+    private static Node createResultSet(final Node... hits) throws RepositoryException {
+        final Node resultSet = EasyMock.createNiceMock(Node.class);
+        expect(resultSet.getNodes()).andAnswer(() -> new NodeIteratorAdapter(Arrays.asList(hits))).anyTimes();
+        replay(resultSet);
+        return resultSet;
+    }
+
+    @Test
+    public void variant_with_the_lowest_index_is_collected() throws RepositoryException {
+        final Node news = createHandle("news");
+        final Node events = createHandle("events");
+        final Node secondNews = createVariant(news, 2);
+        final Node firstNews = createVariant(news, 1);
+        final Node firstEvents = createVariant(events, 1);
+
+        final List<Node> collected = new ArrayList<>();
+        final long size = FacetSearchProvider.collect(createResultSet(secondNews, firstEvents, firstNews), collected::add);
+
+        assertEquals(2, size);
+        assertEquals(Arrays.asList(firstEvents, firstNews), collected);
+    }
+
+    @Test
+    public void variant_with_the_lowest_index_is_collected_without_a_first_variant() throws RepositoryException {
+        final Node news = createHandle("news");
+        final Node events = createHandle("events");
+        final Node thirdNews = createVariant(news, 3);
+        final Node secondNews = createVariant(news, 2);
+        final Node firstEvents = createVariant(events, 1);
+
+        final List<Node> collected = new ArrayList<>();
+        final long size = FacetSearchProvider.collect(createResultSet(thirdNews, firstEvents, secondNews),
+                collected::add);
+
+        assertEquals(2, size);
+        assertEquals(Arrays.asList(firstEvents, secondNews), collected);
+    }
+
+    @Test
+    public void hits_without_a_handle_are_not_counted() throws RepositoryException {
+        final Node plain = EasyMock.createNiceMock(Node.class);
+        replay(plain);
+        final Node variant = createVariant(createHandle("news"), 1);
+
+        assertEquals(1, FacetSearchProvider.collect(createResultSet(plain, variant), null));
+    }
+}
@@ -238,6 +238,33 @@ public class EditorManagerTest extends PluginTest implements IClusterable {
         assertEquals(new JcrNodeModel("/test/mirror/doc1"), modelReference.getModel());
     }
 
+    @Test
+    public void hibernateEditorsThatWereFocusedLongestAgo() throws Exception {
+        createDocument("doc1");
+        createDocument("doc2");
+        session.getNode("/test/plugin").setProperty(EditorManagerPlugin.HIBERNATION_MAX_ACTIVE, 1L);
+        session.save();
+
+        start(new JcrPluginConfig(new JcrNodeModel("/test/plugin")));
+
+        modelReference.setModel(new JcrNodeModel("/test/content/doc1"));
+        modelReference.setModel(new JcrNodeModel("/test/content/doc2"));
+        assertEquals(2, getRenderers().size());
+        assertEquals(1, getPreviews().size());
+
+        // the tab of the hibernating editor keeps its title
+        IRenderService renderer = getRenderers().get(0);
+        String serviceId = context.getReference(renderer).getServiceId();
+        assertEquals("doc1", context.getService(serviceId, ITitleDecorator.class).getTitle().getObject());
+        assertNotNull(context.getService(serviceId, IEditor.class));
+
+        // focusing the tab starts the editor again
+        renderer.focus(null);
+        assertEquals(new JcrNodeModel("/test/content/doc1"), modelReference.getModel());
+        assertEquals(1, getPreviews().size());
+        assertEquals("doc1", ((ITitleDecorator) getPreviews().get(0)).getTitle().getObject());
+    }
+
     @Test
     public void testTitlePropagation() throws Exception {
         createDocument("document");
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.reporting;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ReportModelTest {
+
+    private static final List<String> IDENTIFIERS = Arrays.asList("a", "b", "c", "d", "e");
+
+    @Test
+    public void whole_result_keeps_the_offset_and_limit_of_the_report() {
+        assertArrayEquals(new long[]{0, -1}, ReportModel.getPage(0, -1, 0, 0));
+        assertArrayEquals(new long[]{5, 100}, ReportModel.getPage(5, 100, 0, 0));
+    }
+
+    @Test
+    public void page_is_limited_by_its_count() {
+        assertArrayEquals(new long[]{0, 15}, ReportModel.getPage(0, -1, 0, 15));
+        assertArrayEquals(new long[]{30, 15}, ReportModel.getPage(0, -1, 30, 15));
+        assertArrayEquals(new long[]{35, 15}, ReportModel.getPage(5, 100, 30, 15));
+    }
+
+    @Test
+    public void page_is_limited_by_the_limit_of_the_report() {
+        assertArrayEquals(new long[]{90, 10}, ReportModel.getPage(0, 100, 90, 15));
+        assertArrayEquals(new long[]{90, 10}, ReportModel.getPage(0, 100, 90, 0));
+    }
+
+    @Test
+    public void page_beyond_the_limit_of_the_report_is_empty() {
+        assertNull(ReportModel.getPage(0, 100, 100, 15));
+        assertNull(ReportModel.getPage(0, 100, 120, 15));
+        assertNull(ReportModel.getPage(0, 0, 1, 15));
+    }
+
+    @Test
+    public void sub_list_of_a_shared_result() {
+        assertEquals(IDENTIFIERS, ReportModel.subList(IDENTIFIERS, 0, 0));
+        assertEquals(Arrays.asList("b", "c"), ReportModel.subList(IDENTIFIERS, 1, 2));
+        assertEquals(Arrays.asList("d", "e"), ReportModel.subList(IDENTIFIERS, 3, 15));
+        assertEquals(Arrays.asList("c", "d", "e"), ReportModel.subList(IDENTIFIERS, 2, 0));
+        assertEquals(Collections.emptyList(), ReportModel.subList(IDENTIFIERS, 10, 5));
+    }
+
+    @Test
+    public void sub_list_does_not_overflow() {
+        assertEquals(Arrays.asList("b", "c", "d", "e"), ReportModel.subList(IDENTIFIERS, 1, Long.MAX_VALUE));
+        assertEquals(Collections.emptyList(), ReportModel.subList(IDENTIFIERS, Long.MAX_VALUE, Long.MAX_VALUE));
+    }
+}
@@ -90,4 +90,60 @@ public class NodeComparerTest extends PluginTest {
         assertEquals(comparer.getHashCode(root.getNode("test/a")), comparer.getHashCode(root.getNode("test/c")));
     }
 
+    String[] nested = {
+        "/nested", "nt:unstructured",
+            "/nested/a", "nt:unstructured",
+                "/nested/a/child", "nt:unstructured",
+                    "x", "aap",
+            "/nested/b", "nt:unstructured",
+                "/nested/b/child", "nt:unstructured",
+                    "x", "mies",
+            "/nested/c", "nt:unstructured",
+                "/nested/c/child", "nt:unstructured",
+                    "x", "aap",
+    };
+
+    @Test
+    public void testNestedNodes() throws RepositoryException, TypeException {
+        build(session, nested);
+
+        final Map<String, ITypeDescriptor> types = new TreeMap<String, ITypeDescriptor>();
+        ITypeLocator typeLocator = new ITypeLocator() {
+
+            public List<ITypeDescriptor> getSubTypes(String type) throws StoreException {
+                return Collections.EMPTY_LIST;
+            }
+
+            public ITypeDescriptor locate(String type) throws StoreException {
+                return types.get(type);
+            }
+
+            public void detach() {
+            }
+
+        };
+        ITypeDescriptor stringDescriptor = new JavaTypeDescriptor("String", "string", null);
+        stringDescriptor.setIsNode(false);
+
+        ITypeDescriptor childDescriptor = new JavaTypeDescriptor("child", "hippo:child", typeLocator);
+        JavaFieldDescriptor field = new JavaFieldDescriptor("hippo", stringDescriptor);
+        field.setName("x");
+        field.setPath("x");
+        childDescriptor.addField(field);
+
+        ITypeDescriptor descriptor = new JavaTypeDescriptor("test", "hippo:test", typeLocator);
+        field = new JavaFieldDescriptor("hippo", childDescriptor);
+        field.setName("child");
+        field.setPath("child");
+        field.setMultiple(true);
+        descriptor.addField(field);
+
+        NodeComparer comparer = new NodeComparer(descriptor);
+        assertFalse(comparer.areEqual(root.getNode("nested/a"), root.getNode("nested/b")));
+        assertFalse(comparer.getHashCode(root.getNode("nested/a")) == comparer.getHashCode(root.getNode("nested/b")));
+
+        assertTrue(comparer.areEqual(root.getNode("nested/a"), root.getNode("nested/c")));
+        assertEquals(comparer.getHashCode(root.getNode("nested/a")), comparer.getHashCode(root.getNode("nested/c")));
+    }
+
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hippoecm.frontend.plugin;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hippoecm.frontend.MockPluginTest;
+import org.hippoecm.frontend.plugin.config.IPluginConfig;
+import org.hippoecm.frontend.plugin.config.impl.JavaClusterConfig;
+import org.hippoecm.frontend.plugin.config.impl.JavaPluginConfig;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Starts plugin clusters while the plugin classes are taken from the cache of the plugin factory, since the test
+ * application runs in deployment mode.
+ */
+public class PluginFactoryTest extends MockPluginTest {
+
+    private static final int PLUGINS_PER_CLUSTER = 200;
+
+    private static final AtomicInteger instances = new AtomicInteger();
+
+    public static class CountingPlugin extends Plugin {
+
+        public CountingPlugin(IPluginContext context, IPluginConfig config) {
+            super(context, config);
+            instances.incrementAndGet();
+        }
+    }
+
+    private IClusterControl startCluster(String className) {
+        JavaClusterConfig cluster = new JavaClusterConfig();
+        for (int i = 0; i < PLUGINS_PER_CLUSTER; i++) {
+            JavaPluginConfig config = new JavaPluginConfig("plugin-" + i);
+            config.put("plugin.class", className);
+            cluster.addPlugin(config);
+        }
+        IClusterControl control = context.newCluster(cluster, new JavaPluginConfig());
+        control.start();
+        return control;
+    }
+
+    @Test
+    public void every_plugin_is_a_new_instance() {
+        instances.set(0);
+        startCluster(CountingPlugin.class.getName()).stop();
+        startCluster(CountingPlugin.class.getName()).stop();
+        assertEquals(2 * PLUGINS_PER_CLUSTER, instances.get());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2017 Hippo B.V. (http://www.onehippo.com)
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.hippoecm.frontend.plugins.standards.list;
+
+import javax.jcr.Node;
+
+import org.hippoecm.frontend.PluginTest;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DocumentSummaryTest extends PluginTest {
+
+    String[] content = new String[] {
+            "/test", "nt:unstructured",
+                "/test/folder", "hippostd:folder",
+                    "jcr:mixinTypes", "mix:referenceable",
+                "/test/document", "hippo:handle",
+                    "jcr:mixinTypes", "mix:referenceable",
+                    "/test/document/document", "frontendtest:document",
+                        "jcr:mixinTypes", "mix:referenceable",
+                        "hippostd:state", "published",
+                        "hippostd:stateSummary", "changed",
+                        "hippostdpubwf:publicationDate", "2017-01-01T12:00:00.000Z",
+                        "hippostdpubwf:lastModifiedBy", "author",
+                        "hippostdpubwf:lastModificationDate", "2017-01-01T11:00:00.000Z",
+                    "/test/document/document", "frontendtest:document",
+                        "jcr:mixinTypes", "mix:referenceable",
+                        "hippostd:state", "unpublished",
+                        "hippostd:stateSummary", "changed",
+                        "hippostdpubwf:lastModifiedBy", "editor",
+                        "hippostdpubwf:lastModificationDate", "2017-02-01T12:00:00.000Z",
+    };
+
+    @Test
+    public void summarizesFolder() throws Exception {
+        build(session, content);
+        session.save();
+
+        final DocumentSummary summary = DocumentSummary.of(root.getNode("test/folder"));
+        assertTrue(summary.isFolder());
+        assertFalse(summary.isDocument());
+        assertEquals("folder", summary.getDisplayName());
+        assertFalse(summary.isLocked());
+    }
+
+    @Test
+    public void summarizesVariantsOfHandle() throws Exception {
+        build(session, content);
+        session.save();
+
+        final DocumentSummary summary = DocumentSummary.of(root.getNode("test/document"));
+        assertFalse(summary.isFolder());
+        assertTrue(summary.isDocument());
+        assertEquals("frontendtest:document", summary.getTypeName());
+        assertEquals("document", summary.getDisplayName());
+        assertEquals("editor", summary.getLastModifiedBy());
+        assertNotNull(summary.getPublicationDate());
+        assertNull(summary.getCreatedBy());
+    }
+
+    @Test
+    public void summaryOfDocumentHasDisplayNameOfHandle() throws Exception {
+        build(session, content);
+        session.save();
+
+        final DocumentSummary summary = DocumentSummary.of(root.getNode("test/document/document[2]"));
+        assertTrue(summary.isDocument());
+        assertEquals("document", summary.getDisplayName());
+        assertEquals("editor", summary.getLastModifiedBy());
+    }
+
+    @Test
+    public void summaryIsSharedWithinRequest() throws Exception {
+        build(session, content);
+        session.save();
+
+        final Node handle = root.getNode("test/document");
+        assertSame(DocumentSummary.of(handle), DocumentSummary.of(handle));
+
+        root.getNode("test").setProperty("pending", "change");
+        assertNotSame(DocumentSummary.of(handle), DocumentSummary.of(handle));
+    }
+
+}
@@ -30,6 +30,7 @@ import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class TextSearchTest extends PluginTest {
@@ -186,6 +187,30 @@ public class TextSearchTest extends PluginTest {
         assertFalse(nodes.hasNext());
     }
 
+    @Test
+    public void hitsAreKeptWhenDetached() throws RepositoryException {
+        build(session, content);
+        session.save();
+
+        TextSearchBuilder tsb = new TextSearchBuilder();
+        tsb.setText("title");
+        QueryResultModel model = new QueryResultModel(tsb.getQueryStringBuilder().toString(), -1);
+        SearchHits hits = model.getHits();
+        assertEquals(1, hits.size());
+        assertTrue(hits.containsDocument(session.getNode("/test/content/a").getIdentifier()));
+        assertFalse(hits.containsDocument(session.getNode("/test/content/a/a").getIdentifier()));
+
+        build(session, alternative);
+        session.save();
+        model.detach();
+        assertSame(hits, model.getHits());
+        assertTrue(model.getObject().getNodes().hasNext());
+        assertEquals(hits.getScore(0), model.getObject().getRows().nextRow().getScore(), 0.0d);
+
+        QueryResultModel newModel = new QueryResultModel(tsb.getQueryStringBuilder().toString(), -1);
+        assertEquals(2, newModel.getHits().size());
+    }
+
     @Test
     public void unReferenceableScopeIsIgnored() throws RepositoryException {
         build(session, content);
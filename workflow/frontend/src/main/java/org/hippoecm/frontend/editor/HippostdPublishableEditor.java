@@ -484,6 +484,14 @@ public class HippostdPublishableEditor extends AbstractCmsEditor<Node> implement
 
 
     void validate() throws ValidationException {
+        if (isHibernated()) {
+            // the validators only run in a started cluster
+            try {
+                wake();
+            } catch (final EditorException e) {
+                throw new ValidationException("Could not start hibernating editor", e);
+            }
+        }
         isValid = true;
 
         final List<IValidationService> validators = getPluginContext().getServices(
@@ -531,7 +539,7 @@ public class HippostdPublishableEditor extends AbstractCmsEditor<Node> implement
             final Mode newMode = getMode(handle);
             if (newMode != super.getMode()) {
                 super.setMode(newMode);
-            } else {
+            } else if (!isHibernated()) {
                 final IModel<Node> newModel = getEditorModel();
                 if (!newModel.equals(editorModel)) {
                     stop();
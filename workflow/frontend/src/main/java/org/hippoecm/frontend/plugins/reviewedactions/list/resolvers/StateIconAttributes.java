@@ -18,36 +18,21 @@ package org.hippoecm.frontend.plugins.reviewedactions.list.resolvers;
 import java.util.Calendar;
 
 import javax.jcr.Node;
-import javax.jcr.NodeIterator;
-import javax.jcr.RepositoryException;
-import javax.jcr.nodetype.NodeType;
-import javax.jcr.nodetype.NodeTypeManager;
 
 import org.apache.wicket.model.IDetachable;
-import org.apache.wicket.model.IModel;
+import org.apache.wicket.model.Model;
 import org.hippoecm.frontend.i18n.types.TypeTranslator;
 import org.hippoecm.frontend.model.JcrNodeModel;
 import org.hippoecm.frontend.model.event.IObservable;
 import org.hippoecm.frontend.model.event.IObservationContext;
 import org.hippoecm.frontend.model.event.Observable;
 import org.hippoecm.frontend.model.nodetypes.JcrNodeTypeModel;
-import org.hippoecm.frontend.model.properties.JcrPropertyModel;
-import org.hippoecm.frontend.model.properties.JcrPropertyValueModel;
-import org.hippoecm.repository.HippoStdNodeType;
-import org.hippoecm.repository.api.HippoNodeType;
+import org.hippoecm.frontend.plugins.standards.list.DocumentSummary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static org.hippoecm.repository.HippoStdNodeType.HIPPOSTD_STATE;
 import static org.hippoecm.repository.HippoStdNodeType.HIPPOSTD_STATESUMMARY;
-import static org.hippoecm.repository.HippoStdNodeType.PUBLISHED;
-import static org.hippoecm.repository.HippoStdNodeType.UNPUBLISHED;
 import static org.hippoecm.repository.HippoStdNodeType.NT_PUBLISHABLESUMMARY;
-import static org.hippoecm.repository.HippoStdPubWfNodeType.HIPPOSTDPUBWF_CREATED_BY;
-import static org.hippoecm.repository.HippoStdPubWfNodeType.HIPPOSTDPUBWF_CREATION_DATE;
-import static org.hippoecm.repository.HippoStdPubWfNodeType.HIPPOSTDPUBWF_LAST_MODIFIED_BY;
-import static org.hippoecm.repository.HippoStdPubWfNodeType.HIPPOSTDPUBWF_LAST_MODIFIED_DATE;
-import static org.hippoecm.repository.HippoStdPubWfNodeType.HIPPOSTDPUBWF_PUBLICATION_DATE;
 
 /**
  * Standard attributes of a hippostdpubwf:document document.  Figures out what css classes
@@ -140,107 +125,22 @@ public class StateIconAttributes implements IObservable, IDetachable {
             return;
         }
 
-        try {
-            Node document = null;
-            NodeType primaryType = null;
-            boolean isHistoric = false;
-            if (node.isNodeType(HippoNodeType.NT_HANDLE)) {
-                document = retrieveProperties(node.getNodes(node.getName()));
-                primaryType = document.getPrimaryNodeType();
-            } else if (node.isNodeType(HippoNodeType.NT_DOCUMENT)) {
-                document = node;
-                primaryType = document.getPrimaryNodeType();
-                retrieveProperties(document);
-            } else if (node.isNodeType("nt:version")) {
-                isHistoric = true;
-                Node frozen = node.getNode("jcr:frozenNode");
-                String primary = frozen.getProperty("jcr:frozenPrimaryType").getString();
-                NodeTypeManager ntMgr = frozen.getSession().getWorkspace().getNodeTypeManager();
-                primaryType = ntMgr.getNodeType(primary);
-                if (primaryType.isNodeType(HippoNodeType.NT_DOCUMENT)) {
-                    document = frozen;
-                }
-                retrieveProperties(document);
-            }
-            if (document != null
-                    && (primaryType.isNodeType(NT_PUBLISHABLESUMMARY)
-                    || document.isNodeType(NT_PUBLISHABLESUMMARY))) {
-                cssClass = StateIconAttributeModifier.PREFIX
-                        + (isHistoric ? "prev-" : "")
-                        + document.getProperty(HippoStdNodeType.HIPPOSTD_STATESUMMARY).getString();
-                IModel<String> stateModel = new JcrPropertyValueModel<>(new JcrPropertyModel(document
-                        .getProperty(HippoStdNodeType.HIPPOSTD_STATESUMMARY)));
-                summary = new TypeTranslator(new JcrNodeTypeModel(
-                        NT_PUBLISHABLESUMMARY)).getValueName(
-                        HippoStdNodeType.HIPPOSTD_STATESUMMARY, stateModel).getObject();
+        final DocumentSummary document = DocumentSummary.of(node);
+        createdBy = document.getCreatedBy();
+        creationDate = document.getCreationDate();
+        lastModifiedBy = document.getLastModifiedBy();
+        lastModifiedDate = document.getLastModifiedDate();
+        publicationDate = document.getPublicationDate();
 
-                observable.setTarget(new JcrNodeModel(document));
-            }
-        } catch (RepositoryException repositoryException) {
-            try {
-                log.error("Unable to obtain state properties, nodeModel path: " + node.getPath(), repositoryException);
-            } catch (RepositoryException nodeModelPathException) {
-                log.error("Unable to obtain state properties", repositoryException);
-                log.error("Unable to get path of node model", nodeModelPathException);
-            }
-        }
-        loaded = true;
-    }
-
-    private Node retrieveProperties(final NodeIterator variants) throws RepositoryException {
-        Node variant = null;
-
-        while (variants.hasNext()) {
-            variant = variants.nextNode();
-            if(variant.hasProperty(HIPPOSTD_STATESUMMARY) && variant.hasProperty(HIPPOSTD_STATE)) {
-                final String stateSummary = variant.getProperty(HIPPOSTD_STATESUMMARY).getString();
-                final String state = variant.getProperty(HIPPOSTD_STATE).getString();
+        final String state = document.getStateSummary();
+        if (state != null) {
+            cssClass = StateIconAttributeModifier.PREFIX + (document.isHistoric() ? "prev-" : "") + state;
+            summary = new TypeTranslator(new JcrNodeTypeModel(NT_PUBLISHABLESUMMARY))
+                    .getValueName(HIPPOSTD_STATESUMMARY, Model.of(state)).getObject();
 
-                // set publication date from the published node when statesummary = live or changed
-                if(variant.hasProperty(HIPPOSTDPUBWF_PUBLICATION_DATE)) {
-                    if(PUBLISHED.equals(state) && ("live".equals(stateSummary) || "changed".equals(stateSummary))) {
-                        publicationDate = variant.getProperty(HIPPOSTDPUBWF_PUBLICATION_DATE).getDate();
-                    }
-                }
-
-                // last modified date & its user from published node when stateSummary = live, but from unpublished node
-                // when stateSummery = changed or new
-                if(variant.hasProperty(HIPPOSTDPUBWF_LAST_MODIFIED_BY)
-                        && variant.hasProperty(HIPPOSTDPUBWF_LAST_MODIFIED_DATE)) {
-                    if ((PUBLISHED.equals(state) && ("live".equals(stateSummary)))
-                            || (UNPUBLISHED.equals(state) && (("changed".equals(stateSummary)) || ("new".equals(stateSummary))))) {
-                        lastModifiedBy = variant.getProperty(HIPPOSTDPUBWF_LAST_MODIFIED_BY).getString();
-                        lastModifiedDate = variant.getProperty(HIPPOSTDPUBWF_LAST_MODIFIED_DATE).getDate();
-                    }
-                }
-            }
+            observable.setTarget(new JcrNodeModel(document.getStateDocumentPath()));
         }
-
-        // return any variant from which the stateSummary is used later on, which is the same for all variants
-        return variant;
-    }
-
-    private void retrieveProperties(Node document) throws RepositoryException {
-        if (document == null) {
-            return;
-        }
-
-        if (document.hasProperty(HIPPOSTDPUBWF_PUBLICATION_DATE)) {
-            publicationDate = document.getProperty(HIPPOSTDPUBWF_PUBLICATION_DATE).getDate();
-        }
-        if (document.hasProperty(HIPPOSTDPUBWF_LAST_MODIFIED_DATE)) {
-            lastModifiedDate = document.getProperty(HIPPOSTDPUBWF_LAST_MODIFIED_DATE).getDate();
-        }
-        if (document.hasProperty(HIPPOSTDPUBWF_LAST_MODIFIED_BY)) {
-            lastModifiedBy = document.getProperty(HIPPOSTDPUBWF_LAST_MODIFIED_BY).getString();
-        }
-        if (document.hasProperty(HIPPOSTDPUBWF_CREATION_DATE)) {
-            creationDate = document.getProperty(HIPPOSTDPUBWF_CREATION_DATE).getDate();
-        }
-        if (document.hasProperty(HIPPOSTDPUBWF_CREATED_BY)) {
-            createdBy = document.getProperty(HIPPOSTDPUBWF_CREATED_BY).getString();
-        }
-
+        loaded = true;
     }
 
     public void setObservationContext(IObservationContext<? extends IObservable> context) {
@@ -15,6 +15,8 @@
  */
 package org.hippoecm.addon.workflow;
 
+import java.io.Serializable;
+import java.rmi.RemoteException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -49,11 +51,13 @@ import org.hippoecm.frontend.plugin.IServiceReference;
 import org.hippoecm.frontend.plugin.config.IPluginConfig;
 import org.hippoecm.frontend.plugin.config.impl.JcrClusterConfig;
 import org.hippoecm.frontend.plugin.config.impl.JcrPluginConfig;
+import org.hippoecm.frontend.service.IRenderService;
 import org.hippoecm.frontend.service.render.RenderPlugin;
 import org.hippoecm.frontend.session.UserSession;
 import org.hippoecm.frontend.widgets.AbstractView;
 import org.hippoecm.repository.api.HippoNodeType;
 import org.hippoecm.repository.api.WorkflowDescriptor;
+import org.hippoecm.repository.api.WorkflowException;
 import org.hippoecm.repository.util.NodeIterable;
 import org.onehippo.repository.util.JcrConstants;
 import org.slf4j.Logger;
@@ -69,12 +73,16 @@ abstract class AbstractWorkflowManagerPlugin extends RenderPlugin<Node> {
     public static final String CATEGORIES = "workflow.categories";
     public static final String VERSION_CATEGORIES = "workflow.version.categories";
     public static final String MENU_ORDER = "workflow.menuorder";
+    public static final String RENDERER_POOL_SIZE = "workflow.renderer.pool.size";
+
+    private static final int DEFAULT_RENDERER_POOL_SIZE = 10;
 
     private Set<NodeObserver> observers;
     private PluginController plugins;
     private String[] categories;
     private String[] versionCategories;
     private String[] menuOrder;
+    private boolean reuseRenderers;
     protected AbstractView view;
 
     protected AbstractWorkflowManagerPlugin(IPluginContext context, IPluginConfig config) {
@@ -108,7 +116,9 @@ abstract class AbstractWorkflowManagerPlugin extends RenderPlugin<Node> {
         }
 
         IServiceReference serviceReference = context.getReference(this);
-        plugins = new PluginController(context, config, serviceReference.getServiceId());
+        final int rendererPoolSize = config.getAsInteger(RENDERER_POOL_SIZE, DEFAULT_RENDERER_POOL_SIZE);
+        plugins = new PluginController(context, config, serviceReference.getServiceId(), rendererPoolSize);
+        reuseRenderers = rendererPoolSize > 0;
         if (config.getAsBoolean(OBSERVATION, true)) {
             observers = new HashSet<>();
         }
@@ -146,9 +156,7 @@ abstract class AbstractWorkflowManagerPlugin extends RenderPlugin<Node> {
         Form form = getForm();
 
         final MenuHierarchy menu = new MenuHierarchy(Arrays.asList(categories), Arrays.asList(menuOrder), form, config);
-        plugins.stopRenderers();
-
-        stopObservation();
+        plugins.releaseRenderers();
 
         List<Panel> list = new LinkedList<>();
         for (Node node : nodeSet) {
@@ -167,22 +175,18 @@ abstract class AbstractWorkflowManagerPlugin extends RenderPlugin<Node> {
         view.populate();
         view.setVisible(false);
 
-        startObservation(nodeSet);
+        plugins.stopIdleRenderers();
 
-        return menu;
-    }
+        updateObservation(nodeSet);
 
-    private void stopObservation() {
-        if (observers != null) {
-            IPluginContext context = getPluginContext();
-            for (IObserver<JcrNodeModel> observer : new ArrayList<>(observers)) {
-                context.unregisterService(observer, IObserver.class.getName());
-            }
-            observers.clear();
-        }
+        return menu;
     }
 
-    private void startObservation(final Set<Node> nodeSet) {
+    /**
+     * Observes the nodes in the set and the variants of the documents among them.  Observers of nodes that are
+     * still in the set are kept, so only the observers of the nodes that are no longer shown are unregistered.
+     */
+    private void updateObservation(final Set<Node> nodeSet) {
         if (observers != null) {
             IPluginContext context = getPluginContext();
 
@@ -200,6 +204,13 @@ abstract class AbstractWorkflowManagerPlugin extends RenderPlugin<Node> {
                 }
             }
 
+            for (NodeObserver observer : new ArrayList<>(observers)) {
+                if (!models.contains(observer.getObservable())) {
+                    observers.remove(observer);
+                    context.unregisterService(observer, IObserver.class.getName());
+                }
+            }
+
             for (JcrNodeModel nodeModel : models) {
                 NodeObserver observer = new NodeObserver(nodeModel);
                 if (!observers.contains(observer)) {
@@ -249,7 +260,7 @@ abstract class AbstractWorkflowManagerPlugin extends RenderPlugin<Node> {
                 }
             }
         } else {
-            Panel panel = createPluginForWorkflow(model);
+            Panel panel = createPluginForWorkflow(model, category, workflowSubject);
             if (panel != null) {
                 panels.add(panel);
             }
@@ -257,7 +268,7 @@ abstract class AbstractWorkflowManagerPlugin extends RenderPlugin<Node> {
         return panels;
     }
 
-    private Panel createPluginForWorkflow(WorkflowDescriptorModel pluginModel) throws RepositoryException {
+    private Panel createPluginForWorkflow(WorkflowDescriptorModel pluginModel, String category, Node subject) throws RepositoryException {
         WorkflowDescriptor descriptor = pluginModel.getObject();
         String pluginRenderer = descriptor.getAttribute(FrontendNodeType.FRONTEND_RENDERER);
         if (pluginRenderer == null) {
@@ -270,18 +281,38 @@ abstract class AbstractWorkflowManagerPlugin extends RenderPlugin<Node> {
             log.warn("The frontend:pluginrenderer property is no longer supported, only a child node of type frontend:plugin or frontend:plugincluster.");
             return null;
         } else {
+            String key = null;
+            Map<String, Serializable> hints = null;
+            if (reuseRenderers) {
+                key = pluginRenderer + "|" + category + "|" + subject.getIdentifier();
+                hints = getHints(pluginModel);
+                final IRenderService renderer = plugins.reuseRenderer(key, hints, pluginModel);
+                if (renderer != null) {
+                    return (Panel) renderer;
+                }
+            }
+
             Node node = UserSession.get().getJcrSession().getNode(pluginRenderer);
             final JcrNodeModel nodeModel = new JcrNodeModel(node);
             if (node.isNodeType(FrontendNodeType.NT_PLUGINCLUSTER)) {
                 JcrClusterConfig jcrPluginConfig = new JcrClusterConfig(nodeModel);
-                return (Panel) plugins.startRenderer(jcrPluginConfig, pluginModel);
+                return (Panel) plugins.startRenderer(jcrPluginConfig, pluginModel, key, hints);
             } else {
                 JcrPluginConfig jcrPluginConfig = new JcrPluginConfig(nodeModel);
-                return (Panel) plugins.startRenderer(jcrPluginConfig, pluginModel);
+                return (Panel) plugins.startRenderer(jcrPluginConfig, pluginModel, key, hints);
             }
         }
     }
 
+    private static Map<String, Serializable> getHints(WorkflowDescriptorModel pluginModel) {
+        try {
+            return pluginModel.getHints();
+        } catch (WorkflowException | RemoteException | RepositoryException e) {
+            log.info("Unable to retrieve workflow hints, not reusing the workflow renderer: {}", e.getMessage());
+            return null;
+        }
+    }
+
     private static class PanelView extends AbstractView<Panel> {
         private static final long serialVersionUID = 1L;
 
@@ -16,10 +16,13 @@
 package org.hippoecm.addon.workflow;
 
 import java.io.Serializable;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.model.IModel;
 import org.apache.wicket.request.cycle.RequestCycle;
 import org.apache.wicket.util.io.IClusterable;
 import org.hippoecm.frontend.PluginRequestTarget;
@@ -41,10 +44,39 @@ class PluginController implements IClusterable {
     private static class Cluster implements Serializable {
         private final IClusterControl control;
         private final ModelReference<?> modelService;
+        private final IRenderService renderService;
+        private final String key;
+        private final Map<String, Serializable> hints;
 
-        private Cluster(final IClusterControl control, final ModelReference<?> modelService) {
+        private Cluster(final IClusterControl control, final ModelReference<?> modelService,
+                        final IRenderService renderService, final String key, final Map<String, Serializable> hints) {
             this.control = control;
             this.modelService = modelService;
+            this.renderService = renderService;
+            this.key = key;
+            this.hints = hints;
+        }
+
+        boolean isReusableFor(final String key, final Map<String, Serializable> hints) {
+            return this.key != null && this.key.equals(key) && this.hints != null && this.hints.equals(hints);
+        }
+
+        /**
+         * Clears the model of an idle cluster, so its plugins no longer refer to the subject and its workflow.
+         * The model of the subject is set again when the cluster is reused.
+         */
+        @SuppressWarnings("unchecked")
+        void suspend() {
+            final IModel model = modelService.getModel();
+            modelService.setModel(null);
+            if (model != null) {
+                model.detach();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void resume(final IModel<?> model) {
+            modelService.setModel((IModel) model);
         }
 
         void stop() {
@@ -54,37 +86,82 @@ class PluginController implements IClusterable {
     }
 
     private List<Cluster> clusters;
+    private LinkedList<Cluster> idleClusters;
+    private int idleClusterLimit;
+    private int clusterCount;
     private IPluginContext context;
     private IPluginConfig config;
     private String baseServiceName;
     
-    PluginController(IPluginContext context, IPluginConfig config, String baseServiceName) {
+    /**
+     * @param idleClusterLimit the number of released clusters that are kept started, so they can be reused
+     */
+    PluginController(IPluginContext context, IPluginConfig config, String baseServiceName, int idleClusterLimit) {
         this.context = context;
         this.config = config;
         this.baseServiceName = baseServiceName;
         this.clusters = new LinkedList<Cluster>();
+        this.idleClusters = new LinkedList<Cluster>();
+        this.idleClusterLimit = idleClusterLimit;
     }
     
-    public void stopRenderers() {
-        for (Cluster control : clusters) {
-            control.stop();
+    /**
+     * Releases the clusters that are in use.  They are kept started until {@link #stopIdleRenderers()} is
+     * called, so they can be reused in the mean time.
+     */
+    public void releaseRenderers() {
+        for (Cluster cluster : clusters) {
+            cluster.suspend();
         }
+        idleClusters.addAll(clusters);
         clusters.clear();
     }
-    
-    public IRenderService startRenderer(IPluginConfig config, WorkflowDescriptorModel wdm) {
+
+    /**
+     * Stops the released clusters that have not been reused, except for the most recently released ones.
+     */
+    public void stopIdleRenderers() {
+        while (idleClusters.size() > idleClusterLimit) {
+            idleClusters.removeFirst().stop();
+        }
+    }
+
+    /**
+     * Puts a released cluster back into use.
+     *
+     * @param key   identifies the configuration, category and subject of the cluster
+     * @param hints the workflow hints of the subject; a cluster is only reused when they have not changed since
+     *              it was started, as workflow plugins set up their actions from the hints
+     * @param wdm   the model of the subject, which replaces the one the cluster was started with
+     * @return the render service of the cluster, or null when there is no such cluster
+     */
+    public IRenderService reuseRenderer(String key, Map<String, Serializable> hints, WorkflowDescriptorModel wdm) {
+        for (Iterator<Cluster> iter = idleClusters.iterator(); iter.hasNext(); ) {
+            Cluster cluster = iter.next();
+            if (cluster.isReusableFor(key, hints)) {
+                iter.remove();
+                cluster.resume(wdm);
+                clusters.add(cluster);
+                return cluster.renderService;
+            }
+        }
+        return null;
+    }
+
+    public IRenderService startRenderer(IPluginConfig config, WorkflowDescriptorModel wdm,
+                                        String key, Map<String, Serializable> hints) {
         if (config == null) {
             return null;
         }
 
-        String wicketModelId = baseServiceName + "." + "model" + clusters.size();
+        String wicketModelId = baseServiceName + "." + "model" + clusterCount;
         ModelReference modelRef = new ModelReference(wicketModelId, wdm);
         modelRef.init(context);
 
         JavaClusterConfig childClusterConfig = new JavaClusterConfig();
         IPluginConfig childPluginConfig = new JavaPluginConfig(new InheritingPluginConfig(config, this.config));
 
-        String wicketRenderId = baseServiceName + "." + "id" + clusters.size();
+        String wicketRenderId = baseServiceName + "." + "id" + clusterCount++;
         childPluginConfig.put(RenderService.WICKET_ID, wicketRenderId);
         childPluginConfig.put(RenderService.MODEL_ID, wicketModelId);
         childClusterConfig.addPlugin(childPluginConfig);
@@ -92,32 +169,34 @@ class PluginController implements IClusterable {
         IClusterControl control = context.newCluster(childClusterConfig, null);
         control.start();
 
-        clusters.add(new Cluster(control, modelRef));
+        IRenderService renderService = context.getService(wicketRenderId, IRenderService.class);
+        clusters.add(new Cluster(control, modelRef, renderService, key, hints));
 
-        return context.getService(wicketRenderId, IRenderService.class);
+        return renderService;
     }
 
-    public IRenderService startRenderer(IClusterConfig config, WorkflowDescriptorModel wdm) {
+    public IRenderService startRenderer(IClusterConfig config, WorkflowDescriptorModel wdm,
+                                        String key, Map<String, Serializable> hints) {
         if (config == null) {
             return null;
         }
 
-        String wicketModelId = baseServiceName + "." + "model" + clusters.size();
+        String wicketModelId = baseServiceName + "." + "model" + clusterCount;
         ModelReference modelRef = new ModelReference(wicketModelId, wdm);
         modelRef.init(context);
 
         JavaPluginConfig parameters = new JavaPluginConfig(new InheritingPluginConfig(config, this.config));
 
-        String wicketRenderId = baseServiceName + "." + "id" + clusters.size();
+        String wicketRenderId = baseServiceName + "." + "id" + clusterCount++;
         parameters.put(RenderService.WICKET_ID, wicketRenderId);
         parameters.put(RenderService.MODEL_ID, wicketModelId);
 
         IClusterControl control = context.newCluster(config, parameters);
         control.start();
 
-        clusters.add(new Cluster(control, modelRef));
-
         IRenderService renderService = context.getService(wicketRenderId, IRenderService.class);
+        clusters.add(new Cluster(control, modelRef, renderService, key, hints));
+
         if (renderService != null) {
             renderService.render((PluginRequestTarget) RequestCycle.get().find(AjaxRequestTarget.class));
         }
@@ -40,6 +40,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static junit.framework.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class WorkflowManagerPluginTest extends PluginTest {
@@ -139,6 +142,42 @@ public class WorkflowManagerPluginTest extends PluginTest {
         assertTrue(tagTester.getValue().contains("plugin-test"));
     }
 
+    @Test
+    public void workflowPluginIsReusedWhenMenuIsRebuilt() {
+        final JavaPluginConfig config = new JavaPluginConfig();
+        config.put("wicket.id", "service.root");
+        config.put("workflow.categories", new String[]{"plugin-test"});
+
+        TestWorkflowManagerPlugin manager = new TestWorkflowManagerPlugin(context, config);
+        manager.setModel(new JcrNodeModel("/test/folder/doc"));
+        tester.startPage(home);
+
+        TestWorkflowPlugin plugin = context.getService("workflow.plugin", TestWorkflowPlugin.class);
+        WorkflowDescriptorModel model = (WorkflowDescriptorModel) plugin.getModel();
+        manager.render(null);
+        assertSame(plugin, context.getService("workflow.plugin", TestWorkflowPlugin.class));
+
+        // the reused plugin gets the model of the rebuilt menu
+        assertNotNull(plugin.getModel());
+        assertNotSame(model, plugin.getModel());
+    }
+
+    @Test
+    public void workflowPluginIsRestartedWithoutRendererPool() {
+        final JavaPluginConfig config = new JavaPluginConfig();
+        config.put("wicket.id", "service.root");
+        config.put("workflow.categories", new String[]{"plugin-test"});
+        config.put("workflow.renderer.pool.size", "0");
+
+        TestWorkflowManagerPlugin manager = new TestWorkflowManagerPlugin(context, config);
+        manager.setModel(new JcrNodeModel("/test/folder/doc"));
+        tester.startPage(home);
+
+        TestWorkflowPlugin plugin = context.getService("workflow.plugin", TestWorkflowPlugin.class);
+        manager.render(null);
+        assertNotSame(plugin, context.getService("workflow.plugin", TestWorkflowPlugin.class));
+    }
+
     @Test
     public void documentWorkflowManagerUsesHandleDocumentWorkflowForVersioning() throws RepositoryException {
         final JavaPluginConfig config = new JavaPluginConfig();